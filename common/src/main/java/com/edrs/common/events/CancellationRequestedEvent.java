@@ -1,5 +1,6 @@
 package com.edrs.common.events;
 
+import com.edrs.common.util.EventIdGenerator;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -7,20 +8,37 @@ import java.time.LocalDateTime;
 import java.util.UUID;
 
 public class CancellationRequestedEvent {
+    private final UUID eventId;
     private final UUID correlationId;
     private final String confirmationNumber;
     private final LocalDateTime timestamp;
 
+    /**
+     * Creates the event with a new producer-assigned, time-ordered event ID.
+     */
+    public CancellationRequestedEvent(
+            UUID correlationId,
+            String confirmationNumber,
+            LocalDateTime timestamp) {
+        this(EventIdGenerator.newEventId(), correlationId, confirmationNumber, timestamp);
+    }
+
     @JsonCreator
     public CancellationRequestedEvent(
+            @JsonProperty("eventId") UUID eventId,
             @JsonProperty("correlationId") UUID correlationId,
             @JsonProperty("confirmationNumber") String confirmationNumber,
             @JsonProperty("timestamp") LocalDateTime timestamp) {
+        this.eventId = eventId;
         this.correlationId = correlationId;
         this.confirmationNumber = confirmationNumber;
         this.timestamp = timestamp;
     }
 
+    public UUID getEventId() {
+        return eventId;
+    }
+
     public UUID getCorrelationId() {
         return correlationId;
     }
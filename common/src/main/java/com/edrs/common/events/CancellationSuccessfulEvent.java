@@ -1,29 +1,80 @@
 package com.edrs.common.events;
 
+import com.edrs.common.util.EventIdGenerator;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
 import java.time.LocalDateTime;
+import java.util.List;
 import java.util.UUID;
 
 public class CancellationSuccessfulEvent {
+    private final UUID eventId;
     private final UUID correlationId;
     private final String confirmationNumber;
     private final String userId;
+    private final List<String> inventoryItemIds;
+    private final LocalDateTime reservationDate;
     private final LocalDateTime timestamp;
 
+    /**
+     * Creates the event with a new producer-assigned, time-ordered event ID.
+     */
+    public CancellationSuccessfulEvent(
+            UUID correlationId,
+            String confirmationNumber,
+            String userId,
+            LocalDateTime timestamp) {
+        this(EventIdGenerator.newEventId(), correlationId, confirmationNumber, userId, null, null, timestamp);
+    }
+
+    /**
+     * Creates the event with a new producer-assigned, time-ordered event ID.
+     *
+     * @param inventoryItemIds Items whose reserved quantities were released; empty if the reservation held none
+     * @param reservationDate Date of the cancelled reservation
+     */
+    public CancellationSuccessfulEvent(
+            UUID correlationId,
+            String confirmationNumber,
+            String userId,
+            List<String> inventoryItemIds,
+            LocalDateTime reservationDate,
+            LocalDateTime timestamp) {
+        this(EventIdGenerator.newEventId(), correlationId, confirmationNumber, userId, inventoryItemIds, reservationDate, timestamp);
+    }
+
+    public CancellationSuccessfulEvent(
+            UUID eventId,
+            UUID correlationId,
+            String confirmationNumber,
+            String userId,
+            LocalDateTime timestamp) {
+        this(eventId, correlationId, confirmationNumber, userId, null, null, timestamp);
+    }
+
     @JsonCreator
     public CancellationSuccessfulEvent(
+            @JsonProperty("eventId") UUID eventId,
             @JsonProperty("correlationId") UUID correlationId,
             @JsonProperty("confirmationNumber") String confirmationNumber,
             @JsonProperty("userId") String userId,
+            @JsonProperty("inventoryItemIds") List<String> inventoryItemIds,
+            @JsonProperty("reservationDate") LocalDateTime reservationDate,
             @JsonProperty("timestamp") LocalDateTime timestamp) {
+        this.eventId = eventId;
         this.correlationId = correlationId;
         this.confirmationNumber = confirmationNumber;
         this.userId = userId;
+        this.inventoryItemIds = inventoryItemIds;
+        this.reservationDate = reservationDate;
         this.timestamp = timestamp;
     }
 
+    public UUID getEventId() {
+        return eventId;
+    }
+
     public UUID getCorrelationId() {
         return correlationId;
     }
@@ -36,6 +87,17 @@ public class CancellationSuccessfulEvent {
         return userId;
     }
 
+    /**
+     * @return Items whose reserved quantities were released, or null for events published before this field existed
+     */
+    public List<String> getInventoryItemIds() {
+        return inventoryItemIds;
+    }
+
+    public LocalDateTime getReservationDate() {
+        return reservationDate;
+    }
+
     public LocalDateTime getTimestamp() {
         return timestamp;
     }
@@ -0,0 +1,72 @@
+package com.edrs.common.events;
+
+import com.edrs.common.util.EventIdGenerator;
+import com.fasterxml.jackson.annotation.JsonCreator;
+import com.fasterxml.jackson.annotation.JsonProperty;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+/**
+ * Published by the persistence service once one chunk of a bulk import has been committed.
+ */
+public class InventoryPersistedEvent {
+    private final UUID eventId;
+    private final UUID correlationId;
+    private final UUID bulkImportId;
+    private final Integer chunkIndex;
+    private final int recordsPersisted;
+    private final LocalDateTime timestamp;
+
+    /**
+     * Creates the event with a new producer-assigned, time-ordered event ID.
+     */
+    public InventoryPersistedEvent(
+            UUID correlationId,
+            UUID bulkImportId,
+            Integer chunkIndex,
+            int recordsPersisted,
+            LocalDateTime timestamp) {
+        this(EventIdGenerator.newEventId(), correlationId, bulkImportId, chunkIndex, recordsPersisted, timestamp);
+    }
+
+    @JsonCreator
+    public InventoryPersistedEvent(
+            @JsonProperty("eventId") UUID eventId,
+            @JsonProperty("correlationId") UUID correlationId,
+            @JsonProperty("bulkImportId") UUID bulkImportId,
+            @JsonProperty("chunkIndex") Integer chunkIndex,
+            @JsonProperty("recordsPersisted") int recordsPersisted,
+            @JsonProperty("timestamp") LocalDateTime timestamp) {
+        this.eventId = eventId;
+        this.correlationId = correlationId;
+        this.bulkImportId = bulkImportId;
+        this.chunkIndex = chunkIndex;
+        this.recordsPersisted = recordsPersisted;
+        this.timestamp = timestamp;
+    }
+
+    public UUID getEventId() {
+        return eventId;
+    }
+
+    public UUID getCorrelationId() {
+        return correlationId;
+    }
+
+    public UUID getBulkImportId() {
+        return bulkImportId;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public int getRecordsPersisted() {
+        return recordsPersisted;
+    }
+
+    public LocalDateTime getTimestamp() {
+        return timestamp;
+    }
+}
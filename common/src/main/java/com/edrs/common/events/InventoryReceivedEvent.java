@@ -1,5 +1,6 @@
 package com.edrs.common.events;
 
+import com.edrs.common.util.EventIdGenerator;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -8,18 +9,66 @@ import java.util.List;
 import java.util.UUID;
 
 public class InventoryReceivedEvent {
+    private final UUID eventId;
     private final UUID correlationId;
     private final List<InventoryReceiveRecord> receiveRecords;
     private final LocalDateTime timestamp;
+    private final UUID bulkImportId;
+    private final Integer chunkIndex;
+    private final Boolean lastChunk;
+
+    /**
+     * Creates the event with a new producer-assigned, time-ordered event ID.
+     */
+    public InventoryReceivedEvent(
+            UUID correlationId,
+            List<InventoryReceiveRecord> receiveRecords,
+            LocalDateTime timestamp) {
+        this(EventIdGenerator.newEventId(), correlationId, receiveRecords, timestamp);
+    }
+
+    public InventoryReceivedEvent(
+            UUID eventId,
+            UUID correlationId,
+            List<InventoryReceiveRecord> receiveRecords,
+            LocalDateTime timestamp) {
+        this(eventId, correlationId, receiveRecords, timestamp, null, null, null);
+    }
+
+    /**
+     * Creates one chunk of a bulk import, with a new producer-assigned, time-ordered event ID.
+     * All chunks of an import share the bulk import ID; chunk indexes start at 0.
+     */
+    public InventoryReceivedEvent(
+            UUID correlationId,
+            List<InventoryReceiveRecord> receiveRecords,
+            LocalDateTime timestamp,
+            UUID bulkImportId,
+            int chunkIndex,
+            boolean lastChunk) {
+        this(EventIdGenerator.newEventId(), correlationId, receiveRecords, timestamp, bulkImportId, chunkIndex, lastChunk);
+    }
 
     @JsonCreator
     public InventoryReceivedEvent(
+            @JsonProperty("eventId") UUID eventId,
             @JsonProperty("correlationId") UUID correlationId,
             @JsonProperty("receiveRecords") List<InventoryReceiveRecord> receiveRecords,
-            @JsonProperty("timestamp") LocalDateTime timestamp) {
+            @JsonProperty("timestamp") LocalDateTime timestamp,
+            @JsonProperty("bulkImportId") UUID bulkImportId,
+            @JsonProperty("chunkIndex") Integer chunkIndex,
+            @JsonProperty("lastChunk") Boolean lastChunk) {
+        this.eventId = eventId;
         this.correlationId = correlationId;
         this.receiveRecords = receiveRecords;
         this.timestamp = timestamp;
+        this.bulkImportId = bulkImportId;
+        this.chunkIndex = chunkIndex;
+        this.lastChunk = lastChunk;
+    }
+
+    public UUID getEventId() {
+        return eventId;
     }
 
     public UUID getCorrelationId() {
@@ -34,6 +83,21 @@ public class InventoryReceivedEvent {
         return timestamp;
     }
 
+    /**
+     * @return The ID shared by all chunks of a bulk import, or null if the event is not part of one
+     */
+    public UUID getBulkImportId() {
+        return bulkImportId;
+    }
+
+    public Integer getChunkIndex() {
+        return chunkIndex;
+    }
+
+    public Boolean getLastChunk() {
+        return lastChunk;
+    }
+
     public static class InventoryReceiveRecord {
         private final String inventoryItemId;
         private final int quantity;
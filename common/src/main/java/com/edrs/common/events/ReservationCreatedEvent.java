@@ -1,5 +1,6 @@
 package com.edrs.common.events;
 
+import com.edrs.common.util.EventIdGenerator;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -8,6 +9,7 @@ import java.util.Map;
 import java.util.UUID;
 
 public class ReservationCreatedEvent {
+    private final UUID eventId;
     private final UUID correlationId;
     private final String confirmationNumber;
     private final String userId;
@@ -15,14 +17,29 @@ public class ReservationCreatedEvent {
     private final LocalDateTime reservationDate;
     private final LocalDateTime timestamp;
 
+    /**
+     * Creates the event with a new producer-assigned, time-ordered event ID.
+     */
+    public ReservationCreatedEvent(
+            UUID correlationId,
+            String confirmationNumber,
+            String userId,
+            Map<String, Integer> inventoryItemQuantities,
+            LocalDateTime reservationDate,
+            LocalDateTime timestamp) {
+        this(EventIdGenerator.newEventId(), correlationId, confirmationNumber, userId, inventoryItemQuantities, reservationDate, timestamp);
+    }
+
     @JsonCreator
     public ReservationCreatedEvent(
+            @JsonProperty("eventId") UUID eventId,
             @JsonProperty("correlationId") UUID correlationId,
             @JsonProperty("confirmationNumber") String confirmationNumber,
             @JsonProperty("userId") String userId,
             @JsonProperty("inventoryItemQuantities") Map<String, Integer> inventoryItemQuantities,
             @JsonProperty("reservationDate") LocalDateTime reservationDate,
             @JsonProperty("timestamp") LocalDateTime timestamp) {
+        this.eventId = eventId;
         this.correlationId = correlationId;
         this.confirmationNumber = confirmationNumber;
         this.userId = userId;
@@ -31,6 +48,10 @@ public class ReservationCreatedEvent {
         this.timestamp = timestamp;
     }
 
+    public UUID getEventId() {
+        return eventId;
+    }
+
     public UUID getCorrelationId() {
         return correlationId;
     }
@@ -1,5 +1,6 @@
 package com.edrs.common.events;
 
+import com.edrs.common.util.EventIdGenerator;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -8,6 +9,7 @@ import java.util.Map;
 import java.util.UUID;
 
 public class ReservationFailedEvent {
+    private final UUID eventId;
     private final UUID correlationId;
     private final String userId;
     private final Map<String, Integer> inventoryItemQuantities;
@@ -15,14 +17,29 @@ public class ReservationFailedEvent {
     private final String reason;
     private final LocalDateTime timestamp;
 
+    /**
+     * Creates the event with a new producer-assigned, time-ordered event ID.
+     */
+    public ReservationFailedEvent(
+            UUID correlationId,
+            String userId,
+            Map<String, Integer> inventoryItemQuantities,
+            LocalDateTime reservationDate,
+            String reason,
+            LocalDateTime timestamp) {
+        this(EventIdGenerator.newEventId(), correlationId, userId, inventoryItemQuantities, reservationDate, reason, timestamp);
+    }
+
     @JsonCreator
     public ReservationFailedEvent(
+            @JsonProperty("eventId") UUID eventId,
             @JsonProperty("correlationId") UUID correlationId,
             @JsonProperty("userId") String userId,
             @JsonProperty("inventoryItemQuantities") Map<String, Integer> inventoryItemQuantities,
             @JsonProperty("reservationDate") LocalDateTime reservationDate,
             @JsonProperty("reason") String reason,
             @JsonProperty("timestamp") LocalDateTime timestamp) {
+        this.eventId = eventId;
         this.correlationId = correlationId;
         this.userId = userId;
         this.inventoryItemQuantities = inventoryItemQuantities;
@@ -31,6 +48,10 @@ public class ReservationFailedEvent {
         this.timestamp = timestamp;
     }
 
+    public UUID getEventId() {
+        return eventId;
+    }
+
     public UUID getCorrelationId() {
         return correlationId;
     }
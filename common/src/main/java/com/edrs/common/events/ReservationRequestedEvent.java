@@ -1,5 +1,6 @@
 package com.edrs.common.events;
 
+import com.edrs.common.util.EventIdGenerator;
 import com.fasterxml.jackson.annotation.JsonCreator;
 import com.fasterxml.jackson.annotation.JsonProperty;
 
@@ -8,19 +9,34 @@ import java.util.Map;
 import java.util.UUID;
 
 public class ReservationRequestedEvent {
+    private final UUID eventId;
     private final UUID correlationId;
     private final String userId;
     private final Map<String, Integer> inventoryItemQuantities;
     private final LocalDateTime reservationDate;
     private final LocalDateTime timestamp;
 
+    /**
+     * Creates the event with a new producer-assigned, time-ordered event ID.
+     */
+    public ReservationRequestedEvent(
+            UUID correlationId,
+            String userId,
+            Map<String, Integer> inventoryItemQuantities,
+            LocalDateTime reservationDate,
+            LocalDateTime timestamp) {
+        this(EventIdGenerator.newEventId(), correlationId, userId, inventoryItemQuantities, reservationDate, timestamp);
+    }
+
     @JsonCreator
     public ReservationRequestedEvent(
+            @JsonProperty("eventId") UUID eventId,
             @JsonProperty("correlationId") UUID correlationId,
             @JsonProperty("userId") String userId,
             @JsonProperty("inventoryItemQuantities") Map<String, Integer> inventoryItemQuantities,
             @JsonProperty("reservationDate") LocalDateTime reservationDate,
             @JsonProperty("timestamp") LocalDateTime timestamp) {
+        this.eventId = eventId;
         this.correlationId = correlationId;
         this.userId = userId;
         this.inventoryItemQuantities = inventoryItemQuantities;
@@ -28,6 +44,10 @@ public class ReservationRequestedEvent {
         this.timestamp = timestamp;
     }
 
+    public UUID getEventId() {
+        return eventId;
+    }
+
     public UUID getCorrelationId() {
         return correlationId;
     }
@@ -0,0 +1,29 @@
+package com.edrs.common.util;
+
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Generates event IDs as time-ordered UUIDs (version 7, RFC 9562).
+ * The leading 48 bits are the Unix epoch milliseconds, so IDs generated later sort later and
+ * inserts into event_id indexes stay near the right-hand edge instead of landing at random pages.
+ */
+public final class EventIdGenerator {
+
+    private EventIdGenerator() {
+    }
+
+    public static UUID newEventId() {
+        return newEventId(System.currentTimeMillis());
+    }
+
+    static UUID newEventId(long epochMillis) {
+        ThreadLocalRandom random = ThreadLocalRandom.current();
+        long mostSigBits = (epochMillis << 16)          // unix_ts_ms (48 bits)
+                | 0x7000L                               // version 7
+                | (random.nextLong() & 0x0FFFL);        // rand_a (12 bits)
+        long leastSigBits = (random.nextLong() & 0x3FFFFFFFFFFFFFFFL)
+                | 0x8000000000000000L;                  // IETF variant
+        return new UUID(mostSigBits, leastSigBits);
+    }
+}
@@ -0,0 +1,50 @@
+package com.edrs.common.util;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class EventIdGeneratorTest {
+
+    @Test
+    void testNewEventId_VersionAndVariant() {
+        // When
+        UUID eventId = EventIdGenerator.newEventId();
+
+        // Then
+        assertEquals(7, eventId.version());
+        assertEquals(2, eventId.variant());
+    }
+
+    @Test
+    void testNewEventId_EncodesEpochMillis() {
+        // Given
+        long epochMillis = 1_760_000_000_000L;
+
+        // When
+        UUID eventId = EventIdGenerator.newEventId(epochMillis);
+
+        // Then - the leading 48 bits are the timestamp
+        assertEquals(epochMillis, eventId.getMostSignificantBits() >>> 16);
+        assertEquals(7, eventId.version());
+        assertEquals(2, eventId.variant());
+    }
+
+    @Test
+    void testNewEventId_LaterIdsSortLater() {
+        // Given
+        long epochMillis = 1_760_000_000_000L;
+
+        for (int i = 0; i < 1000; i++) {
+            // When
+            UUID earlier = EventIdGenerator.newEventId(epochMillis + i);
+            UUID later = EventIdGenerator.newEventId(epochMillis + i + 1);
+
+            // Then - compared as unsigned bytes, as PostgreSQL orders uuid values
+            assertTrue(earlier.toString().compareTo(later.toString()) < 0,
+                    earlier + " should sort before " + later);
+        }
+    }
+}
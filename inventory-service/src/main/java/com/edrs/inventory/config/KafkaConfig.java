@@ -2,11 +2,16 @@ package com.edrs.inventory.config;
 
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
+import org.springframework.http.client.JdkClientHttpRequestFactory;
 import org.springframework.kafka.annotation.EnableKafka;
 import org.springframework.web.client.RestTemplate;
 
+import java.net.http.HttpClient;
+import java.time.Duration;
+
 @Configuration
 @EnableKafka
 public class KafkaConfig {
@@ -17,8 +22,21 @@ public class KafkaConfig {
         return mapper;
     }
     
+    /**
+     * RestTemplate for persistence service calls, backed by the JDK HttpClient: connections are pooled
+     * and kept alive, and every request is bounded by the connect and read timeouts, so a slow
+     * persistence service cannot hold a request thread indefinitely.
+     */
     @Bean
-    public RestTemplate restTemplate() {
-        return new RestTemplate();
+    public RestTemplate restTemplate(
+            @Value("${persistence.client.connect-timeout-ms:1000}") long connectTimeoutMs,
+            @Value("${persistence.client.read-timeout-ms:5000}") long readTimeoutMs) {
+        HttpClient httpClient = HttpClient.newBuilder()
+                .version(HttpClient.Version.HTTP_1_1)
+                .connectTimeout(Duration.ofMillis(connectTimeoutMs))
+                .build();
+        JdkClientHttpRequestFactory requestFactory = new JdkClientHttpRequestFactory(httpClient);
+        requestFactory.setReadTimeout(Duration.ofMillis(readTimeoutMs));
+        return new RestTemplate(requestFactory);
     }
 }
@@ -1,9 +1,12 @@
 package com.edrs.inventory.controller;
 
+import com.edrs.inventory.dto.AvailabilityCalendarResponse;
+import com.edrs.inventory.dto.AvailabilityMatrixResponse;
+import com.edrs.inventory.dto.ImportJobResponse;
 import com.edrs.inventory.dto.InventoryFilter;
 import com.edrs.inventory.dto.InventoryItem;
 import com.edrs.inventory.dto.InventoryReceiveRequest;
-import com.edrs.inventory.service.CsvInventoryParser;
+import com.edrs.inventory.service.ImportJobService;
 import com.edrs.inventory.service.InventoryService;
 import io.swagger.v3.oas.annotations.Operation;
 import io.swagger.v3.oas.annotations.Parameter;
@@ -20,23 +23,27 @@ import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 import org.springframework.web.multipart.MultipartFile;
 
+import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.RejectedExecutionException;
 
 @RestController
 @RequestMapping("/api/inventory")
 @Tag(name = "Inventory API", description = "API for managing inventory")
 public class InventoryController {
     private final InventoryService inventoryService;
-    private final CsvInventoryParser csvParser;
+    private final ImportJobService importJobService;
 
-    public InventoryController(InventoryService inventoryService, CsvInventoryParser csvParser) {
+    public InventoryController(InventoryService inventoryService, ImportJobService importJobService) {
         this.inventoryService = inventoryService;
-        this.csvParser = csvParser;
+        this.importJobService = importJobService;
     }
 
     @GetMapping
-    @Operation(summary = "List inventory items", description = "Returns all inventory items matching the filter criteria")
-    public ResponseEntity<List<InventoryItem>> listInventory(@ModelAttribute InventoryFilter filter) {
+    @Operation(summary = "List inventory items", description = "Returns the inventory items matching the filter criteria, sorted by sortBy (id, name or availableQuantity; default id) and sortDirection (asc or desc). Pass size (1-1000) and page (zero-based) to get one page; a page shorter than size is the last")
+    public ResponseEntity<List<InventoryItem>> listInventory(@Valid @ModelAttribute InventoryFilter filter) {
         List<InventoryItem> items = inventoryService.listInventory(filter);
         return ResponseEntity.ok(items);
     }
@@ -61,16 +68,35 @@ public class InventoryController {
         @ApiResponse(responseCode = "409", description = "Inventory item with this ID already exists", content = @Content)
     })
     public ResponseEntity<InventoryItem> addInventoryItem(@Valid @RequestBody InventoryItem item) {
-        // Check if item already exists
-        InventoryItem existing = inventoryService.getInventoryItem(item.getId());
-        if (existing != null) {
+        // Check-and-insert is atomic, so concurrent adds of one ID yield a single 201
+        if (!inventoryService.addInventoryItem(item)) {
             return ResponseEntity.status(HttpStatus.CONFLICT).build();
         }
         
-        inventoryService.updateInventoryItem(item);
         return ResponseEntity.status(HttpStatus.CREATED).body(item);
     }
 
+    @GetMapping("/availability")
+    @Operation(summary = "Get effective availability of many items", description = "Returns the effective available quantity of each item on each day from startDate through endDate (default startDate), computed with a single query to the persistence service. Accepts up to 500 items and 366 days")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Effective availability calculated successfully"),
+        @ApiResponse(responseCode = "400", description = "No item IDs, too many item IDs or an invalid date range", content = @Content)
+    })
+    public ResponseEntity<AvailabilityMatrixResponse> getEffectiveAvailabilityMatrix(
+            @Parameter(name = "itemIds", description = "Inventory item IDs, comma-separated or repeated", required = true, example = "item1,item2", in = ParameterIn.QUERY)
+            @RequestParam("itemIds") List<String> itemIds,
+            @Parameter(name = "startDate", description = "First day (ISO 8601 date)", required = true, example = "2026-02-15", in = ParameterIn.QUERY)
+            @RequestParam("startDate") @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(name = "endDate", description = "Last day, inclusive (ISO 8601 date); defaults to startDate", example = "2026-02-21", in = ParameterIn.QUERY)
+            @RequestParam(value = "endDate", required = false) @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        try {
+            return ResponseEntity.ok(inventoryService.getEffectiveAvailability(
+                    itemIds, startDate, endDate != null ? endDate : startDate));
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}/availability")
     @Operation(summary = "Get effective available quantity", description = "Returns the effective available quantity for an item on a given date, accounting for all confirmed reservations from now until that date")
     @ApiResponses(value = {
@@ -98,6 +124,32 @@ public class InventoryController {
         return ResponseEntity.ok(response);
     }
 
+    @GetMapping("/{id}/availability/calendar")
+    @Operation(summary = "Get availability calendar", description = "Returns the effective available quantity of an item on each day from startDate through endDate, computed with a single query to the persistence service. Accepts up to 366 days")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Availability calendar calculated successfully"),
+        @ApiResponse(responseCode = "400", description = "Invalid date range", content = @Content),
+        @ApiResponse(responseCode = "404", description = "Inventory item not found", content = @Content)
+    })
+    public ResponseEntity<AvailabilityCalendarResponse> getAvailabilityCalendar(
+            @Parameter(name = "id", description = "Inventory item ID", required = true, example = "item1", in = ParameterIn.PATH)
+            @PathVariable("id") String id,
+            @Parameter(name = "startDate", description = "First day (ISO 8601 date)", required = true, example = "2026-02-01", in = ParameterIn.QUERY)
+            @RequestParam("startDate") @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate startDate,
+            @Parameter(name = "endDate", description = "Last day, inclusive (ISO 8601 date)", required = true, example = "2026-02-28", in = ParameterIn.QUERY)
+            @RequestParam("endDate") @org.springframework.format.annotation.DateTimeFormat(iso = org.springframework.format.annotation.DateTimeFormat.ISO.DATE) LocalDate endDate) {
+        AvailabilityCalendarResponse calendar;
+        try {
+            calendar = inventoryService.getAvailabilityCalendar(id, startDate, endDate);
+        } catch (IllegalArgumentException e) {
+            return ResponseEntity.badRequest().build();
+        }
+        if (calendar == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(calendar);
+    }
+
     @PostMapping("/receive")
     @Operation(summary = "Receive inventory", description = "Processes inventory receive records")
     public ResponseEntity<Void> receiveInventory(@Valid @RequestBody InventoryReceiveRequest request) {
@@ -108,37 +160,53 @@ public class InventoryController {
     @PostMapping(value = "/receive/bulk", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
     @Operation(
         summary = "Bulk receive inventory from CSV",
-        description = "Uploads a CSV file to bulk import inventory. CSV format: inventoryItemId,quantity. First line can be a header."
+        description = "Uploads a CSV file to bulk import inventory. CSV format: inventoryItemId,quantity. First line can be a header. "
+                + "The import runs in the background and is published in fixed-size chunks, one event per chunk, sharing the job ID. "
+                + "Poll the returned Location for progress."
     )
     @ApiResponses(value = {
-        @ApiResponse(responseCode = "202", description = "CSV file accepted and processing started"),
-        @ApiResponse(responseCode = "400", description = "Invalid CSV file format", content = @Content),
-        @ApiResponse(responseCode = "500", description = "Error processing CSV file", content = @Content)
+        @ApiResponse(responseCode = "202", description = "CSV file accepted and import job queued"),
+        @ApiResponse(responseCode = "400", description = "Invalid CSV file", content = @Content),
+        @ApiResponse(responseCode = "503", description = "Import queue is full, retry later", content = @Content)
     })
-    public ResponseEntity<BulkImportResponse> bulkReceiveInventory(
+    public ResponseEntity<ImportJobResponse> bulkReceiveInventory(
             @RequestParam("file") MultipartFile file) {
         try {
-            List<InventoryReceiveRequest.ReceiveRecord> records = csvParser.parseCsv(file);
-            
-            if (records.isEmpty()) {
-                return ResponseEntity.badRequest()
-                    .body(new BulkImportResponse(0, 0, "No valid records found in CSV file"));
-            }
-            
-            inventoryService.receiveInventory(records);
-            
-            return ResponseEntity.status(HttpStatus.ACCEPTED)
-                .body(new BulkImportResponse(records.size(), 0, "CSV file processed successfully"));
-                
+            ImportJobResponse job = importJobService.submit(file);
+            return ResponseEntity.accepted()
+                .location(URI.create("/api/inventory/imports/" + job.getJobId()))
+                .body(job);
         } catch (IllegalArgumentException e) {
-            return ResponseEntity.badRequest()
-                .body(new BulkImportResponse(0, 0, "Error parsing CSV: " + e.getMessage()));
-        } catch (Exception e) {
-            return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR)
-                .body(new BulkImportResponse(0, 0, "Error processing CSV: " + e.getMessage()));
+            return ResponseEntity.badRequest().body(rejectedImport("Invalid CSV file: " + e.getMessage()));
+        } catch (RejectedExecutionException e) {
+            return ResponseEntity.status(HttpStatus.SERVICE_UNAVAILABLE)
+                .body(rejectedImport("Too many imports in progress, retry later"));
         }
     }
 
+    @GetMapping("/imports/{id}")
+    @Operation(summary = "Get bulk import progress", description = "Returns rows parsed, published and persisted, and the skipped lines, of a bulk import job")
+    @ApiResponses(value = {
+        @ApiResponse(responseCode = "200", description = "Import job found"),
+        @ApiResponse(responseCode = "404", description = "Unknown or expired import job", content = @Content)
+    })
+    public ResponseEntity<ImportJobResponse> getImportJob(
+            @Parameter(name = "id", description = "Import job ID", required = true, in = ParameterIn.PATH)
+            @PathVariable("id") UUID id) {
+        ImportJobResponse job = importJobService.getJob(id);
+        if (job == null) {
+            return ResponseEntity.notFound().build();
+        }
+        return ResponseEntity.ok(job);
+    }
+
+    private static ImportJobResponse rejectedImport(String message) {
+        ImportJobResponse response = new ImportJobResponse();
+        response.setStatus("REJECTED");
+        response.setMessage(message);
+        return response;
+    }
+
     /**
      * Response DTO for effective availability.
      */
@@ -199,37 +267,4 @@ public class InventoryController {
             this.targetDate = targetDate;
         }
     }
-
-    /**
-     * Response DTO for bulk import operations.
-     */
-    @Schema(description = "Response for bulk inventory import")
-    public static class BulkImportResponse {
-        @Schema(description = "Number of records successfully processed", example = "10")
-        private final int recordsProcessed;
-        
-        @Schema(description = "Number of records that failed", example = "0")
-        private final int recordsFailed;
-        
-        @Schema(description = "Status message", example = "CSV file processed successfully")
-        private final String message;
-
-        public BulkImportResponse(int recordsProcessed, int recordsFailed, String message) {
-            this.recordsProcessed = recordsProcessed;
-            this.recordsFailed = recordsFailed;
-            this.message = message;
-        }
-
-        public int getRecordsProcessed() {
-            return recordsProcessed;
-        }
-
-        public int getRecordsFailed() {
-            return recordsFailed;
-        }
-
-        public String getMessage() {
-            return message;
-        }
-    }
 }
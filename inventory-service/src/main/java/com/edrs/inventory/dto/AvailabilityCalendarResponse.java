@@ -0,0 +1,100 @@
+package com.edrs.inventory.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Effective availability of one item on each day of a range, for calendar views.
+ */
+@Schema(description = "Effective available quantity of one item per day")
+public class AvailabilityCalendarResponse {
+    @Schema(description = "Inventory item ID", example = "item1")
+    private String itemId;
+
+    @Schema(description = "Inventory item name", example = "Laptop")
+    private String itemName;
+
+    @Schema(description = "Base available quantity (before reservations)", example = "10")
+    private int baseAvailableQuantity;
+
+    @Schema(description = "One entry per day, in order")
+    private List<Day> days;
+
+    @Schema(description = "False if reserved quantities could not be read and base quantities are returned instead", example = "true")
+    private boolean reservationsIncluded;
+
+    public String getItemId() {
+        return itemId;
+    }
+
+    public void setItemId(String itemId) {
+        this.itemId = itemId;
+    }
+
+    public String getItemName() {
+        return itemName;
+    }
+
+    public void setItemName(String itemName) {
+        this.itemName = itemName;
+    }
+
+    public int getBaseAvailableQuantity() {
+        return baseAvailableQuantity;
+    }
+
+    public void setBaseAvailableQuantity(int baseAvailableQuantity) {
+        this.baseAvailableQuantity = baseAvailableQuantity;
+    }
+
+    public List<Day> getDays() {
+        return days;
+    }
+
+    public void setDays(List<Day> days) {
+        this.days = days;
+    }
+
+    public boolean isReservationsIncluded() {
+        return reservationsIncluded;
+    }
+
+    public void setReservationsIncluded(boolean reservationsIncluded) {
+        this.reservationsIncluded = reservationsIncluded;
+    }
+
+    @Schema(description = "Availability on one day")
+    public static class Day {
+        @Schema(description = "Day", example = "2026-02-15")
+        private LocalDate date;
+
+        @Schema(description = "Effective available quantity on this day", example = "7")
+        private int effectiveAvailableQuantity;
+
+        public Day() {
+        }
+
+        public Day(LocalDate date, int effectiveAvailableQuantity) {
+            this.date = date;
+            this.effectiveAvailableQuantity = effectiveAvailableQuantity;
+        }
+
+        public LocalDate getDate() {
+            return date;
+        }
+
+        public void setDate(LocalDate date) {
+            this.date = date;
+        }
+
+        public int getEffectiveAvailableQuantity() {
+            return effectiveAvailableQuantity;
+        }
+
+        public void setEffectiveAvailableQuantity(int effectiveAvailableQuantity) {
+            this.effectiveAvailableQuantity = effectiveAvailableQuantity;
+        }
+    }
+}
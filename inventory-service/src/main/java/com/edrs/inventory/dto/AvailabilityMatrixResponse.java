@@ -0,0 +1,115 @@
+package com.edrs.inventory.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDate;
+import java.util.List;
+
+/**
+ * Effective availability of many items over a range of days.
+ * Each item's quantities are aligned with {@link #getDates()}.
+ */
+@Schema(description = "Effective available quantity per item and day")
+public class AvailabilityMatrixResponse {
+    @Schema(description = "Days covered, in order")
+    private List<LocalDate> dates;
+
+    @Schema(description = "One row per known item, in request order")
+    private List<ItemAvailability> items;
+
+    @Schema(description = "Requested item IDs that do not exist")
+    private List<String> unknownItemIds;
+
+    @Schema(description = "False if reserved quantities could not be read and base quantities are returned instead", example = "true")
+    private boolean reservationsIncluded;
+
+    public List<LocalDate> getDates() {
+        return dates;
+    }
+
+    public void setDates(List<LocalDate> dates) {
+        this.dates = dates;
+    }
+
+    public List<ItemAvailability> getItems() {
+        return items;
+    }
+
+    public void setItems(List<ItemAvailability> items) {
+        this.items = items;
+    }
+
+    public List<String> getUnknownItemIds() {
+        return unknownItemIds;
+    }
+
+    public void setUnknownItemIds(List<String> unknownItemIds) {
+        this.unknownItemIds = unknownItemIds;
+    }
+
+    public boolean isReservationsIncluded() {
+        return reservationsIncluded;
+    }
+
+    public void setReservationsIncluded(boolean reservationsIncluded) {
+        this.reservationsIncluded = reservationsIncluded;
+    }
+
+    @Schema(description = "Availability of one item on each day")
+    public static class ItemAvailability {
+        @Schema(description = "Inventory item ID", example = "item1")
+        private String itemId;
+
+        @Schema(description = "Inventory item name", example = "Laptop")
+        private String itemName;
+
+        @Schema(description = "Base available quantity (before reservations)", example = "10")
+        private int baseAvailableQuantity;
+
+        @Schema(description = "Effective available quantity on each day of dates", example = "[7, 7, 5]")
+        private List<Integer> effectiveAvailableQuantities;
+
+        public ItemAvailability() {
+        }
+
+        public ItemAvailability(String itemId, String itemName, int baseAvailableQuantity,
+                                List<Integer> effectiveAvailableQuantities) {
+            this.itemId = itemId;
+            this.itemName = itemName;
+            this.baseAvailableQuantity = baseAvailableQuantity;
+            this.effectiveAvailableQuantities = effectiveAvailableQuantities;
+        }
+
+        public String getItemId() {
+            return itemId;
+        }
+
+        public void setItemId(String itemId) {
+            this.itemId = itemId;
+        }
+
+        public String getItemName() {
+            return itemName;
+        }
+
+        public void setItemName(String itemName) {
+            this.itemName = itemName;
+        }
+
+        public int getBaseAvailableQuantity() {
+            return baseAvailableQuantity;
+        }
+
+        public void setBaseAvailableQuantity(int baseAvailableQuantity) {
+            this.baseAvailableQuantity = baseAvailableQuantity;
+        }
+
+        public List<Integer> getEffectiveAvailableQuantities() {
+            return effectiveAvailableQuantities;
+        }
+
+        public void setEffectiveAvailableQuantities(List<Integer> effectiveAvailableQuantities) {
+            this.effectiveAvailableQuantities = effectiveAvailableQuantities;
+        }
+    }
+}
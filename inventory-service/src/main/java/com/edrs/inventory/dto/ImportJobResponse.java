@@ -0,0 +1,205 @@
+package com.edrs.inventory.dto;
+
+import io.swagger.v3.oas.annotations.media.Schema;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Snapshot of a bulk import job's progress.
+ */
+@Schema(description = "Progress of an asynchronous bulk inventory import")
+public class ImportJobResponse {
+    @Schema(description = "Import job ID, also the bulk import ID carried by the published events", example = "0b9e4d4e-6f6a-4b8e-9a55-6f1f2d7c9e10")
+    private UUID jobId;
+
+    @Schema(description = "Job status", example = "PUBLISHED",
+            allowableValues = {"QUEUED", "RUNNING", "PUBLISHED", "COMPLETED", "FAILED"})
+    private String status;
+
+    @Schema(description = "Uploaded file name", example = "inventory.csv")
+    private String fileName;
+
+    @Schema(description = "Valid records parsed so far", example = "10000")
+    private long rowsParsed;
+
+    @Schema(description = "Records published to Kafka so far", example = "10000")
+    private long rowsPublished;
+
+    @Schema(description = "Records confirmed persisted by the persistence service", example = "9000")
+    private long rowsPersisted;
+
+    @Schema(description = "Lines skipped as invalid", example = "2")
+    private long rowsFailed;
+
+    @Schema(description = "Chunk events published so far", example = "10")
+    private int chunksPublished;
+
+    @Schema(description = "Chunk events confirmed persisted", example = "9")
+    private int chunksPersisted;
+
+    @Schema(description = "Skipped lines with the reason; capped, see errorsTruncated")
+    private List<LineError> errors;
+
+    @Schema(description = "True if more lines were skipped than are listed in errors", example = "false")
+    private boolean errorsTruncated;
+
+    @Schema(description = "Failure reason when the job failed")
+    private String message;
+
+    private LocalDateTime createdAt;
+    private LocalDateTime startedAt;
+    private LocalDateTime publishedAt;
+    private LocalDateTime completedAt;
+
+    public UUID getJobId() {
+        return jobId;
+    }
+
+    public void setJobId(UUID jobId) {
+        this.jobId = jobId;
+    }
+
+    public String getStatus() {
+        return status;
+    }
+
+    public void setStatus(String status) {
+        this.status = status;
+    }
+
+    public String getFileName() {
+        return fileName;
+    }
+
+    public void setFileName(String fileName) {
+        this.fileName = fileName;
+    }
+
+    public long getRowsParsed() {
+        return rowsParsed;
+    }
+
+    public void setRowsParsed(long rowsParsed) {
+        this.rowsParsed = rowsParsed;
+    }
+
+    public long getRowsPublished() {
+        return rowsPublished;
+    }
+
+    public void setRowsPublished(long rowsPublished) {
+        this.rowsPublished = rowsPublished;
+    }
+
+    public long getRowsPersisted() {
+        return rowsPersisted;
+    }
+
+    public void setRowsPersisted(long rowsPersisted) {
+        this.rowsPersisted = rowsPersisted;
+    }
+
+    public long getRowsFailed() {
+        return rowsFailed;
+    }
+
+    public void setRowsFailed(long rowsFailed) {
+        this.rowsFailed = rowsFailed;
+    }
+
+    public int getChunksPublished() {
+        return chunksPublished;
+    }
+
+    public void setChunksPublished(int chunksPublished) {
+        this.chunksPublished = chunksPublished;
+    }
+
+    public int getChunksPersisted() {
+        return chunksPersisted;
+    }
+
+    public void setChunksPersisted(int chunksPersisted) {
+        this.chunksPersisted = chunksPersisted;
+    }
+
+    public List<LineError> getErrors() {
+        return errors;
+    }
+
+    public void setErrors(List<LineError> errors) {
+        this.errors = errors;
+    }
+
+    public boolean isErrorsTruncated() {
+        return errorsTruncated;
+    }
+
+    public void setErrorsTruncated(boolean errorsTruncated) {
+        this.errorsTruncated = errorsTruncated;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public LocalDateTime getStartedAt() {
+        return startedAt;
+    }
+
+    public void setStartedAt(LocalDateTime startedAt) {
+        this.startedAt = startedAt;
+    }
+
+    public LocalDateTime getPublishedAt() {
+        return publishedAt;
+    }
+
+    public void setPublishedAt(LocalDateTime publishedAt) {
+        this.publishedAt = publishedAt;
+    }
+
+    public LocalDateTime getCompletedAt() {
+        return completedAt;
+    }
+
+    public void setCompletedAt(LocalDateTime completedAt) {
+        this.completedAt = completedAt;
+    }
+
+    @Schema(description = "A CSV line that was skipped")
+    public static class LineError {
+        @Schema(description = "1-based line number in the uploaded file", example = "42")
+        private final int lineNumber;
+
+        @Schema(description = "Why the line was skipped", example = "Invalid quantity format 'ten'")
+        private final String message;
+
+        public LineError(int lineNumber, String message) {
+            this.lineNumber = lineNumber;
+            this.message = message;
+        }
+
+        public int getLineNumber() {
+            return lineNumber;
+        }
+
+        public String getMessage() {
+            return message;
+        }
+    }
+}
@@ -1,10 +1,34 @@
 package com.edrs.inventory.dto;
 
+import jakarta.validation.constraints.Max;
+import jakarta.validation.constraints.Min;
+import jakarta.validation.constraints.Pattern;
+
 public class InventoryFilter {
+    public static final String SORT_BY_ID = "id";
+    public static final String SORT_BY_NAME = "name";
+    public static final String SORT_BY_QUANTITY = "availableQuantity";
+
     private String category;
     private Integer minQuantity;
     private String nameContains;
 
+    // Zero-based page number; only used together with size
+    @Min(value = 0, message = "Page must be non-negative")
+    private Integer page;
+
+    // Items per page; all matching items are returned when not set
+    @Min(value = 1, message = "Size must be at least 1")
+    @Max(value = 1000, message = "Size must be at most 1000")
+    private Integer size;
+
+    @Pattern(regexp = SORT_BY_ID + "|" + SORT_BY_NAME + "|" + SORT_BY_QUANTITY,
+             message = "Sort must be one of id, name, availableQuantity")
+    private String sortBy;
+
+    @Pattern(regexp = "(?i)asc|desc", message = "Sort direction must be asc or desc")
+    private String sortDirection;
+
     public String getCategory() {
         return category;
     }
@@ -28,4 +52,43 @@ public class InventoryFilter {
     public void setNameContains(String nameContains) {
         this.nameContains = nameContains;
     }
+
+    public Integer getPage() {
+        return page;
+    }
+
+    public void setPage(Integer page) {
+        this.page = page;
+    }
+
+    public Integer getSize() {
+        return size;
+    }
+
+    public void setSize(Integer size) {
+        this.size = size;
+    }
+
+    public String getSortBy() {
+        return sortBy;
+    }
+
+    public void setSortBy(String sortBy) {
+        this.sortBy = sortBy;
+    }
+
+    public String getSortDirection() {
+        return sortDirection;
+    }
+
+    public void setSortDirection(String sortDirection) {
+        this.sortDirection = sortDirection;
+    }
+
+    @Override
+    public String toString() {
+        return "InventoryFilter{category='" + category + "', minQuantity=" + minQuantity
+                + ", nameContains='" + nameContains + "', page=" + page + ", size=" + size
+                + ", sortBy='" + sortBy + "', sortDirection='" + sortDirection + "'}";
+    }
 }
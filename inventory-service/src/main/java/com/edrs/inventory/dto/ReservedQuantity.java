@@ -0,0 +1,48 @@
+package com.edrs.inventory.dto;
+
+import com.fasterxml.jackson.annotation.JsonIgnoreProperties;
+
+import java.time.LocalDate;
+
+/**
+ * Reserved quantity of one item on one day, as returned by the persistence service.
+ */
+@JsonIgnoreProperties(ignoreUnknown = true)
+public class ReservedQuantity {
+    private String inventoryItemId;
+    private LocalDate reservationDay;
+    private long reservedQuantity;
+
+    public ReservedQuantity() {
+    }
+
+    public ReservedQuantity(String inventoryItemId, LocalDate reservationDay, long reservedQuantity) {
+        this.inventoryItemId = inventoryItemId;
+        this.reservationDay = reservationDay;
+        this.reservedQuantity = reservedQuantity;
+    }
+
+    public String getInventoryItemId() {
+        return inventoryItemId;
+    }
+
+    public void setInventoryItemId(String inventoryItemId) {
+        this.inventoryItemId = inventoryItemId;
+    }
+
+    public LocalDate getReservationDay() {
+        return reservationDay;
+    }
+
+    public void setReservationDay(LocalDate reservationDay) {
+        this.reservationDay = reservationDay;
+    }
+
+    public long getReservedQuantity() {
+        return reservedQuantity;
+    }
+
+    public void setReservedQuantity(long reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+}
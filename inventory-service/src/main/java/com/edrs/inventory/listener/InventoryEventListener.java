@@ -1,9 +1,14 @@
 package com.edrs.inventory.listener;
 
+import com.edrs.common.events.CancellationSuccessfulEvent;
+import com.edrs.common.events.InventoryPersistedEvent;
 import com.edrs.common.events.InventoryReceivedEvent;
+import com.edrs.common.events.ReservationCreatedEvent;
 import com.edrs.common.util.CorrelationIdUtil;
 import com.edrs.inventory.dto.InventoryItem;
+import com.edrs.inventory.service.ImportJobService;
 import com.edrs.inventory.service.InventoryService;
+import com.edrs.inventory.service.ReservedQuantityCache;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
@@ -14,15 +19,93 @@ import org.springframework.stereotype.Component;
 public class InventoryEventListener {
     private static final Logger logger = LoggerFactory.getLogger(InventoryEventListener.class);
     private static final String INVENTORY_RECEIVED_TOPIC = "inventory-received";
+    private static final String INVENTORY_PERSISTED_TOPIC = "inventory-persisted";
+    private static final String RESERVATION_CREATED_TOPIC = "reservation-created";
+    private static final String CANCELLATION_SUCCESSFUL_TOPIC = "cancellation-successful";
+    // Every instance holds its own cache, so each one needs every event: one consumer group per instance,
+    // starting at the latest offset because the cache is empty on startup
+    private static final String RESERVED_QUANTITY_CACHE_GROUP = "${inventory.reserved-quantity-cache.group-id:inventory-service-cache-${random.uuid}}";
+    // Import jobs live in the memory of the instance that runs them, so each instance needs every
+    // acknowledgement; acknowledgements published while an instance was down are of no use to it
+    private static final String IMPORT_PROGRESS_GROUP = "${inventory.bulk-import.jobs.group-id:inventory-service-imports-${random.uuid}}";
+    private static final String RESERVED_QUANTITY_CACHE_ENABLED = "${inventory.reserved-quantity-cache.enabled:true}";
 
     private final InventoryService inventoryService;
+    private final ImportJobService importJobService;
+    private final ReservedQuantityCache reservedQuantityCache;
     private final ObjectMapper objectMapper;
 
-    public InventoryEventListener(InventoryService inventoryService, ObjectMapper objectMapper) {
+    public InventoryEventListener(InventoryService inventoryService, ImportJobService importJobService,
+                                  ReservedQuantityCache reservedQuantityCache, ObjectMapper objectMapper) {
         this.inventoryService = inventoryService;
+        this.importJobService = importJobService;
+        this.reservedQuantityCache = reservedQuantityCache;
         this.objectMapper = objectMapper;
     }
 
+    /**
+     * Tracks bulk import progress from the persistence service's per-chunk acknowledgements.
+     * Every instance receives every acknowledgement and ignores those for jobs it does not run.
+     */
+    @KafkaListener(topics = INVENTORY_PERSISTED_TOPIC, groupId = IMPORT_PROGRESS_GROUP,
+                   properties = "auto.offset.reset=latest")
+    public void handleInventoryPersisted(String message) {
+        try {
+            InventoryPersistedEvent event = objectMapper.readValue(message, InventoryPersistedEvent.class);
+            if (event.getBulkImportId() == null) {
+                return;
+            }
+            logger.debug("Chunk {} of bulk import {} persisted ({} records)",
+                    event.getChunkIndex(), event.getBulkImportId(), event.getRecordsPersisted());
+            importJobService.onChunkPersisted(event.getBulkImportId(), event.getChunkIndex(), event.getRecordsPersisted());
+        } catch (Exception e) {
+            logger.error("Error processing inventory persisted event", e);
+        }
+    }
+
+    /**
+     * Invalidates the cached reserved quantities of the reserved items from the reservation day on.
+     */
+    @KafkaListener(topics = RESERVATION_CREATED_TOPIC, groupId = RESERVED_QUANTITY_CACHE_GROUP,
+                   autoStartup = RESERVED_QUANTITY_CACHE_ENABLED, properties = "auto.offset.reset=latest")
+    public void handleReservationCreated(String message) {
+        try {
+            ReservationCreatedEvent event = objectMapper.readValue(message, ReservationCreatedEvent.class);
+            if (event.getInventoryItemQuantities() == null || event.getReservationDate() == null) {
+                reservedQuantityCache.invalidateAll(event.getTimestamp());
+                return;
+            }
+            reservedQuantityCache.invalidate(event.getInventoryItemQuantities().keySet(),
+                    event.getReservationDate().toLocalDate(), event.getTimestamp());
+        } catch (Exception e) {
+            logger.error("Error processing reservation created event", e);
+            reservedQuantityCache.invalidateAll(null);
+        }
+    }
+
+    /**
+     * Invalidates the cached reserved quantities of the released items from the reservation day on.
+     * Events published before cancellations carried their items and date invalidate the whole cache.
+     */
+    @KafkaListener(topics = CANCELLATION_SUCCESSFUL_TOPIC, groupId = RESERVED_QUANTITY_CACHE_GROUP,
+                   autoStartup = RESERVED_QUANTITY_CACHE_ENABLED, properties = "auto.offset.reset=latest")
+    public void handleCancellationSuccessful(String message) {
+        try {
+            CancellationSuccessfulEvent event = objectMapper.readValue(message, CancellationSuccessfulEvent.class);
+            if (event.getInventoryItemIds() == null || event.getReservationDate() == null) {
+                reservedQuantityCache.invalidateAll(event.getTimestamp());
+                return;
+            }
+            if (!event.getInventoryItemIds().isEmpty()) {
+                reservedQuantityCache.invalidate(event.getInventoryItemIds(),
+                        event.getReservationDate().toLocalDate(), event.getTimestamp());
+            }
+        } catch (Exception e) {
+            logger.error("Error processing cancellation successful event", e);
+            reservedQuantityCache.invalidateAll(null);
+        }
+    }
+
     // Note: This listener is kept for potential future use if persistence service publishes
     // confirmation events. Currently, inventory is updated optimistically in the service.
     // Uncomment if you want to sync from persistence service events.
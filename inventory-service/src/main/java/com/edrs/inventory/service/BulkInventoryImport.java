@@ -0,0 +1,86 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.InventoryReceiveRequest;
+
+import java.util.Arrays;
+import java.util.UUID;
+
+/**
+ * A streaming bulk import started by {@link InventoryService#startBulkImport()}.
+ * Records are buffered up to the chunk size and published as one InventoryReceivedEvent per chunk,
+ * so at most one chunk is held in memory. The chunk is kept as parallel id and quantity arrays that
+ * are reused from chunk to chunk. A full chunk is only published when the next record arrives,
+ * which lets {@link #complete()} flag the final chunk as last.
+ * Not thread-safe: an import is fed by a single thread.
+ */
+public class BulkInventoryImport {
+    private final InventoryService inventoryService;
+    private final UUID bulkImportId;
+    private final int chunkSize;
+    private final String[] itemIds;
+    private final int[] quantities;
+    private int count;
+    private int chunksPublished;
+    private int recordsPublished;
+    private boolean completed;
+
+    BulkInventoryImport(InventoryService inventoryService, UUID bulkImportId, int chunkSize) {
+        if (chunkSize < 1) {
+            throw new IllegalArgumentException("Bulk import chunk size must be at least 1, was " + chunkSize);
+        }
+        this.inventoryService = inventoryService;
+        this.bulkImportId = bulkImportId;
+        this.chunkSize = chunkSize;
+        this.itemIds = new String[chunkSize];
+        this.quantities = new int[chunkSize];
+    }
+
+    public void add(InventoryReceiveRequest.ReceiveRecord record) {
+        add(record.getInventoryItemId(), record.getQuantity());
+    }
+
+    public void add(String inventoryItemId, int quantity) {
+        if (completed) {
+            throw new IllegalStateException("Bulk import " + bulkImportId + " is already completed");
+        }
+        if (count == chunkSize) {
+            publishChunk(false);
+        }
+        itemIds[count] = inventoryItemId;
+        quantities[count] = quantity;
+        count++;
+    }
+
+    /**
+     * Publishes the remaining records as the last chunk. Does nothing if no record was added.
+     */
+    public void complete() {
+        if (completed) {
+            return;
+        }
+        completed = true;
+        if (count > 0) {
+            publishChunk(true);
+        }
+    }
+
+    private void publishChunk(boolean lastChunk) {
+        inventoryService.receiveInventoryChunk(itemIds, quantities, count, bulkImportId, chunksPublished, lastChunk);
+        chunksPublished++;
+        recordsPublished += count;
+        Arrays.fill(itemIds, 0, count, null);
+        count = 0;
+    }
+
+    public UUID getBulkImportId() {
+        return bulkImportId;
+    }
+
+    public int getChunksPublished() {
+        return chunksPublished;
+    }
+
+    public int getRecordsPublished() {
+        return recordsPublished;
+    }
+}
@@ -7,10 +7,13 @@ import org.springframework.stereotype.Service;
 import org.springframework.web.multipart.MultipartFile;
 
 import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
 import java.io.InputStreamReader;
 import java.nio.charset.StandardCharsets;
 import java.util.ArrayList;
 import java.util.List;
+import java.util.function.Consumer;
 
 @Service
 public class CsvInventoryParser {
@@ -29,13 +32,49 @@ public class CsvInventoryParser {
      * @throws IllegalArgumentException if file format is invalid
      */
     public List<InventoryReceiveRequest.ReceiveRecord> parseCsv(MultipartFile file) {
-        validateFile(file);
-        
         List<InventoryReceiveRequest.ReceiveRecord> records = new ArrayList<>();
+        parseCsv(file, records::add);
+        return records;
+    }
+    
+    /**
+     * Parses a CSV file line by line, handing each valid record to the consumer as soon as it is read.
+     * Only the current line is held in memory, so the file size is not limited by the heap.
+     * Invalid lines are skipped and counted, like in {@link #parseCsv(MultipartFile)}.
+     * 
+     * @param file The CSV file to parse
+     * @param consumer Receives each valid record; exceptions it throws abort parsing and are rethrown as is
+     * @return Counts of parsed records and skipped lines
+     * @throws IllegalArgumentException if file format is invalid or the file cannot be read
+     */
+    public ParseResult parseCsv(MultipartFile file, Consumer<InventoryReceiveRequest.ReceiveRecord> consumer) {
+        validateFile(file);
+        try {
+            return parseCsv(file.getInputStream(), consumer, (lineNumber, message) -> { });
+        } catch (IOException e) {
+            logger.error("Error opening CSV file {}", file.getOriginalFilename(), e);
+            throw new IllegalArgumentException("Failed to parse CSV file: " + e.getMessage(), e);
+        }
+    }
+    
+    /**
+     * Parses CSV content line by line, handing each valid record to the consumer and the reason for
+     * each skipped line to the error handler. The stream is closed when parsing ends.
+     * 
+     * @param input The CSV content, UTF-8 encoded
+     * @param consumer Receives each valid record; exceptions it throws abort parsing and are rethrown as is
+     * @param errorHandler Receives the line number and reason of each skipped line
+     * @return Counts of parsed records and skipped lines
+     * @throws IllegalArgumentException if the content cannot be read
+     */
+    public ParseResult parseCsv(InputStream input, Consumer<InventoryReceiveRequest.ReceiveRecord> consumer,
+                                LineErrorHandler errorHandler) {
         int lineNumber = 0;
+        int recordsParsed = 0;
+        int linesSkipped = 0;
         
         try (BufferedReader reader = new BufferedReader(
-                new InputStreamReader(file.getInputStream(), StandardCharsets.UTF_8))) {
+                new InputStreamReader(input, StandardCharsets.UTF_8))) {
             
             String line;
             boolean isFirstLine = true;
@@ -62,48 +101,67 @@ public class CsvInventoryParser {
                     }
                 }
                 
-                // Parse CSV line
-                String[] parts = parseCsvLine(line);
-                
-                if (parts.length < 2) {
-                    logger.warn("Skipping invalid line {}: expected 2 columns, found {}", lineNumber, parts.length);
+                InventoryReceiveRequest.ReceiveRecord record = parseRecord(line, lineNumber, errorHandler);
+                if (record == null) {
+                    linesSkipped++;
                     continue;
                 }
-                
-                try {
-                    String inventoryItemId = parts[0].trim();
-                    int quantity = Integer.parseInt(parts[1].trim());
-                    
-                    if (inventoryItemId.isEmpty()) {
-                        logger.warn("Skipping line {}: empty inventory item ID", lineNumber);
-                        continue;
-                    }
-                    
-                    if (quantity < 0) {
-                        logger.warn("Skipping line {}: negative quantity not allowed", lineNumber);
-                        continue;
-                    }
-                    
-                    InventoryReceiveRequest.ReceiveRecord record = new InventoryReceiveRequest.ReceiveRecord();
-                    record.setInventoryItemId(inventoryItemId);
-                    record.setQuantity(quantity);
-                    records.add(record);
-                    logger.debug("Parsed record: itemId={}, quantity={}", inventoryItemId, quantity);
-                    
-                } catch (NumberFormatException e) {
-                    logger.warn("Skipping line {}: invalid quantity format '{}'", lineNumber, parts[1]);
-                }
+                consumer.accept(record);
+                recordsParsed++;
             }
             
-            logger.info("Successfully parsed {} records from CSV file", records.size());
-            return records;
+            logger.info("Successfully parsed {} records from CSV file ({} lines skipped)", recordsParsed, linesSkipped);
+            return new ParseResult(recordsParsed, linesSkipped);
             
-        } catch (Exception e) {
+        } catch (IOException e) {
             logger.error("Error parsing CSV file at line {}", lineNumber, e);
             throw new IllegalArgumentException("Failed to parse CSV file: " + e.getMessage(), e);
         }
     }
     
+    /**
+     * Parses and validates one data line.
+     * 
+     * @return The record, or null if the line is invalid (the reason is logged and reported)
+     */
+    private InventoryReceiveRequest.ReceiveRecord parseRecord(String line, int lineNumber, LineErrorHandler errorHandler) {
+        String[] parts = parseCsvLine(line);
+        
+        if (parts.length < 2) {
+            logger.warn("Skipping invalid line {}: expected 2 columns, found {}", lineNumber, parts.length);
+            errorHandler.onError(lineNumber, "Expected 2 columns, found " + parts.length);
+            return null;
+        }
+        
+        try {
+            String inventoryItemId = parts[0].trim();
+            int quantity = Integer.parseInt(parts[1].trim());
+            
+            if (inventoryItemId.isEmpty()) {
+                logger.warn("Skipping line {}: empty inventory item ID", lineNumber);
+                errorHandler.onError(lineNumber, "Empty inventory item ID");
+                return null;
+            }
+            
+            if (quantity < 0) {
+                logger.warn("Skipping line {}: negative quantity not allowed", lineNumber);
+                errorHandler.onError(lineNumber, "Negative quantity not allowed");
+                return null;
+            }
+            
+            InventoryReceiveRequest.ReceiveRecord record = new InventoryReceiveRequest.ReceiveRecord();
+            record.setInventoryItemId(inventoryItemId);
+            record.setQuantity(quantity);
+            logger.debug("Parsed record: itemId={}, quantity={}", inventoryItemId, quantity);
+            return record;
+            
+        } catch (NumberFormatException e) {
+            logger.warn("Skipping line {}: invalid quantity format '{}'", lineNumber, parts[1]);
+            errorHandler.onError(lineNumber, "Invalid quantity format '" + parts[1] + "'");
+            return null;
+        }
+    }
+    
     /**
      * Parses a CSV line, handling quoted fields.
      */
@@ -133,8 +191,10 @@ public class CsvInventoryParser {
     
     /**
      * Validates that the uploaded file is a CSV file.
+     * 
+     * @throws IllegalArgumentException if the file is missing, empty or not a .csv file
      */
-    private void validateFile(MultipartFile file) {
+    public void validateFile(MultipartFile file) {
         if (file == null || file.isEmpty()) {
             throw new IllegalArgumentException("CSV file is required and cannot be empty");
         }
@@ -154,4 +214,33 @@ public class CsvInventoryParser {
             throw new IllegalArgumentException("File must be a CSV file (.csv extension required)");
         }
     }
+    
+    /**
+     * Receives the lines skipped by a streaming parse.
+     */
+    @FunctionalInterface
+    public interface LineErrorHandler {
+        void onError(int lineNumber, String message);
+    }
+    
+    /**
+     * Outcome of a streaming parse.
+     */
+    public static class ParseResult {
+        private final int recordsParsed;
+        private final int linesSkipped;
+        
+        public ParseResult(int recordsParsed, int linesSkipped) {
+            this.recordsParsed = recordsParsed;
+            this.linesSkipped = linesSkipped;
+        }
+        
+        public int getRecordsParsed() {
+            return recordsParsed;
+        }
+        
+        public int getLinesSkipped() {
+            return linesSkipped;
+        }
+    }
 }
@@ -0,0 +1,339 @@
+package com.edrs.inventory.service;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.Arrays;
+import java.util.Locale;
+
+/**
+ * High-throughput parser for inventory receive CSV files, accepting the same format as
+ * {@link CsvInventoryParser} with the same skip rules and messages.
+ * Files are memory-mapped in windows and scanned byte by byte: no String per line, quantities are
+ * parsed straight from the bytes, and item ids are interned so repeated ids share one String.
+ * Records are handed out as (itemId, quantity) pairs instead of one object per line.
+ * Instances are stateless and thread-safe; per-parse state lives in a {@link Scanner}.
+ */
+@Service
+public class FastCsvInventoryParser {
+    private static final Logger logger = LoggerFactory.getLogger(FastCsvInventoryParser.class);
+
+    private static final int DEFAULT_WINDOW_SIZE = 64 * 1024 * 1024;
+
+    private final int windowSize;
+    private final int maxInternedIds;
+
+    public FastCsvInventoryParser(
+            @Value("${inventory.bulk-import.parser.window-bytes:" + DEFAULT_WINDOW_SIZE + "}") int windowSize,
+            @Value("${inventory.bulk-import.parser.max-interned-ids:65536}") int maxInternedIds) {
+        this.windowSize = windowSize;
+        this.maxInternedIds = maxInternedIds;
+    }
+
+    /**
+     * Receives each valid record of a parse.
+     */
+    @FunctionalInterface
+    public interface RecordHandler {
+        void onRecord(String inventoryItemId, int quantity);
+    }
+
+    /**
+     * Parses a CSV file by memory-mapping it one window at a time.
+     *
+     * @param file The CSV file, UTF-8 encoded
+     * @param handler Receives each valid record; exceptions it throws abort parsing and are rethrown as is
+     * @param errorHandler Receives the line number and reason of each skipped line
+     * @return Counts of parsed records and skipped lines
+     * @throws IllegalArgumentException if the file cannot be read or a line does not fit in one window
+     */
+    public CsvInventoryParser.ParseResult parse(Path file, RecordHandler handler,
+                                                CsvInventoryParser.LineErrorHandler errorHandler) {
+        Scanner scanner = new Scanner(handler, errorHandler, maxInternedIds);
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            long size = channel.size();
+            long position = 0;
+            while (position < size) {
+                long length = Math.min(windowSize, size - position);
+                MappedByteBuffer window = channel.map(FileChannel.MapMode.READ_ONLY, position, length);
+                boolean endOfInput = position + length == size;
+                int consumed = scanner.scan(window, endOfInput);
+                if (consumed == 0 && !endOfInput) {
+                    throw new IllegalArgumentException("Line " + (scanner.lineNumber + 1)
+                            + " is longer than the " + windowSize + " byte parse window");
+                }
+                position += consumed;
+            }
+        } catch (IOException e) {
+            logger.error("Error parsing CSV file {} at line {}", file, scanner.lineNumber, e);
+            throw new IllegalArgumentException("Failed to parse CSV file: " + e.getMessage(), e);
+        }
+        return scanner.result();
+    }
+
+    /**
+     * Parses CSV content that is already in memory.
+     *
+     * @see #parse(Path, RecordHandler, CsvInventoryParser.LineErrorHandler)
+     */
+    public CsvInventoryParser.ParseResult parse(ByteBuffer content, RecordHandler handler,
+                                                CsvInventoryParser.LineErrorHandler errorHandler) {
+        Scanner scanner = new Scanner(handler, errorHandler, maxInternedIds);
+        scanner.scan(content, true);
+        return scanner.result();
+    }
+
+    /**
+     * State of one parse, carried across mapped windows.
+     */
+    private static final class Scanner {
+        private final RecordHandler handler;
+        private final CsvInventoryParser.LineErrorHandler errorHandler;
+        private final IdInterner interner;
+        private byte[] idField = new byte[64];
+        private byte[] quantityField = new byte[16];
+        private int idLength;
+        private int quantityLength;
+        private int lineNumber;
+        private int recordsParsed;
+        private int linesSkipped;
+        private boolean headerPending = true;
+
+        Scanner(RecordHandler handler, CsvInventoryParser.LineErrorHandler errorHandler, int maxInternedIds) {
+            this.handler = handler;
+            this.errorHandler = errorHandler;
+            this.interner = new IdInterner(maxInternedIds);
+        }
+
+        /**
+         * Parses every complete line in the buffer, from its position to its limit.
+         * A trailing line without a terminator is only parsed at the end of input.
+         *
+         * @return The number of bytes consumed
+         */
+        int scan(ByteBuffer buffer, boolean endOfInput) {
+            int base = buffer.position();
+            int limit = buffer.limit();
+            int lineStart = base;
+            int i = base;
+            while (i < limit) {
+                byte b = buffer.get(i);
+                if (b != '\n' && b != '\r') {
+                    i++;
+                    continue;
+                }
+                // Like BufferedReader.readLine: \n, \r and \r\n all end a line
+                if (b == '\r' && i + 1 == limit && !endOfInput) {
+                    // Cannot tell \r from \r\n yet, rescan this line with the next window
+                    break;
+                }
+                lineNumber++;
+                parseLine(buffer, lineStart, i);
+                i += (b == '\r' && i + 1 < limit && buffer.get(i + 1) == '\n') ? 2 : 1;
+                lineStart = i;
+            }
+            if (endOfInput && lineStart < limit) {
+                lineNumber++;
+                parseLine(buffer, lineStart, limit);
+                lineStart = limit;
+            }
+            return lineStart - base;
+        }
+
+        private void parseLine(ByteBuffer buffer, int start, int end) {
+            // String.trim() semantics: strip bytes <= ' ' (UTF-8 continuation bytes are never in that range)
+            while (start < end && (buffer.get(start) & 0xFF) <= ' ') {
+                start++;
+            }
+            while (end > start && (buffer.get(end - 1) & 0xFF) <= ' ') {
+                end--;
+            }
+            if (start == end) {
+                return;
+            }
+
+            if (headerPending) {
+                headerPending = false;
+                if (isHeader(buffer, start, end)) {
+                    return;
+                }
+            }
+
+            // Split on commas outside double quotes; quotes are dropped, like CsvInventoryParser.parseCsvLine
+            int fields = 1;
+            boolean inQuotes = false;
+            idLength = 0;
+            quantityLength = 0;
+            for (int i = start; i < end; i++) {
+                byte b = buffer.get(i);
+                if (b == '"') {
+                    inQuotes = !inQuotes;
+                } else if (b == ',' && !inQuotes) {
+                    fields++;
+                } else if (fields == 1) {
+                    appendIdByte(b);
+                } else if (fields == 2) {
+                    appendQuantityByte(b);
+                }
+            }
+
+            if (fields < 2) {
+                skip("Expected 2 columns, found " + fields);
+                return;
+            }
+
+            int idStart = trimStart(idField, 0, idLength);
+            int idEnd = trimEnd(idField, idStart, idLength);
+            int quantityStart = trimStart(quantityField, 0, quantityLength);
+            int quantityEnd = trimEnd(quantityField, quantityStart, quantityLength);
+
+            long quantity = parseInt(quantityField, quantityStart, quantityEnd);
+            if (quantity == Long.MIN_VALUE) {
+                skip("Invalid quantity format '" + new String(quantityField, 0, quantityLength, StandardCharsets.UTF_8) + "'");
+                return;
+            }
+            if (idStart == idEnd) {
+                skip("Empty inventory item ID");
+                return;
+            }
+            if (quantity < 0) {
+                skip("Negative quantity not allowed");
+                return;
+            }
+
+            handler.onRecord(interner.intern(idField, idStart, idEnd - idStart), (int) quantity);
+            recordsParsed++;
+        }
+
+        private boolean isHeader(ByteBuffer buffer, int start, int end) {
+            // Only the first non-empty line pays for a String
+            byte[] bytes = new byte[end - start];
+            buffer.get(start, bytes);
+            String line = new String(bytes, StandardCharsets.UTF_8).toLowerCase(Locale.ROOT);
+            return line.contains("inventoryitemid") || line.contains("quantity")
+                    || line.contains("item") || line.contains("id");
+        }
+
+        private void skip(String message) {
+            linesSkipped++;
+            logger.warn("Skipping line {}: {}", lineNumber, message);
+            errorHandler.onError(lineNumber, message);
+        }
+
+        private void appendIdByte(byte b) {
+            if (idLength == idField.length) {
+                idField = Arrays.copyOf(idField, idField.length * 2);
+            }
+            idField[idLength++] = b;
+        }
+
+        private void appendQuantityByte(byte b) {
+            if (quantityLength == quantityField.length) {
+                quantityField = Arrays.copyOf(quantityField, quantityField.length * 2);
+            }
+            quantityField[quantityLength++] = b;
+        }
+
+        CsvInventoryParser.ParseResult result() {
+            logger.info("Successfully parsed {} records from CSV file ({} lines skipped)", recordsParsed, linesSkipped);
+            return new CsvInventoryParser.ParseResult(recordsParsed, linesSkipped);
+        }
+    }
+
+    private static int trimStart(byte[] bytes, int start, int end) {
+        while (start < end && (bytes[start] & 0xFF) <= ' ') {
+            start++;
+        }
+        return start;
+    }
+
+    private static int trimEnd(byte[] bytes, int start, int end) {
+        while (end > start && (bytes[end - 1] & 0xFF) <= ' ') {
+            end--;
+        }
+        return end;
+    }
+
+    /**
+     * Parses a decimal int with the rules of Integer.parseInt (optional sign, ASCII digits, no overflow).
+     *
+     * @return The value, or Long.MIN_VALUE if the bytes are not a valid int
+     */
+    static long parseInt(byte[] bytes, int start, int end) {
+        if (start == end) {
+            return Long.MIN_VALUE;
+        }
+        boolean negative = false;
+        int i = start;
+        if (bytes[i] == '-' || bytes[i] == '+') {
+            negative = bytes[i] == '-';
+            i++;
+            if (i == end) {
+                return Long.MIN_VALUE;
+            }
+        }
+        long value = 0;
+        for (; i < end; i++) {
+            int digit = bytes[i] - '0';
+            if (digit < 0 || digit > 9) {
+                return Long.MIN_VALUE;
+            }
+            value = value * 10 + digit;
+            if (value > (long) Integer.MAX_VALUE + 1) {
+                return Long.MIN_VALUE;
+            }
+        }
+        value = negative ? -value : value;
+        return value < Integer.MIN_VALUE || value > Integer.MAX_VALUE ? Long.MIN_VALUE : value;
+    }
+
+    /**
+     * Open-addressing table from UTF-8 id bytes to String, so repeated ids are decoded once.
+     * Stops caching once full; later new ids are still decoded, just not shared.
+     */
+    static final class IdInterner {
+        private final byte[][] keys;
+        private final String[] values;
+        private final int mask;
+        private final int maxEntries;
+        private int size;
+
+        IdInterner(int maxEntries) {
+            int capacity = Integer.highestOneBit(Math.max(16, maxEntries) * 2 - 1) << 1;
+            this.keys = new byte[capacity][];
+            this.values = new String[capacity];
+            this.mask = capacity - 1;
+            this.maxEntries = maxEntries;
+        }
+
+        String intern(byte[] bytes, int offset, int length) {
+            int hash = 1;
+            for (int i = offset; i < offset + length; i++) {
+                hash = 31 * hash + bytes[i];
+            }
+            int slot = (hash ^ (hash >>> 16)) & mask;
+            while (keys[slot] != null) {
+                if (Arrays.equals(keys[slot], 0, keys[slot].length, bytes, offset, offset + length)) {
+                    return values[slot];
+                }
+                slot = (slot + 1) & mask;
+            }
+            String value = new String(bytes, offset, length, StandardCharsets.UTF_8);
+            if (size < maxEntries) {
+                keys[slot] = Arrays.copyOfRange(bytes, offset, offset + length);
+                values[slot] = value;
+                size++;
+            }
+            return value;
+        }
+    }
+}
@@ -0,0 +1,139 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.ImportJobResponse;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Progress of one asynchronous bulk import.
+ * Counters are written by the import worker and the Kafka listener thread and read by HTTP threads;
+ * status transitions are synchronized so the job completes exactly once, whichever side finishes last.
+ */
+class ImportJob {
+    enum Status { QUEUED, RUNNING, PUBLISHED, COMPLETED, FAILED }
+
+    private final UUID id;
+    private final String fileName;
+    private final int maxErrors;
+    private final LocalDateTime createdAt = LocalDateTime.now();
+    private final AtomicLong rowsParsed = new AtomicLong();
+    private final AtomicLong rowsFailed = new AtomicLong();
+    private final AtomicLong rowsPersisted = new AtomicLong();
+    private final Set<Integer> persistedChunks = ConcurrentHashMap.newKeySet();
+    private final List<ImportJobResponse.LineError> errors = new ArrayList<>();
+    private volatile long rowsPublished;
+    private volatile int chunksPublished;
+    private volatile Status status = Status.QUEUED;
+    private volatile String message;
+    private volatile LocalDateTime startedAt;
+    private volatile LocalDateTime publishedAt;
+    private volatile LocalDateTime completedAt;
+
+    ImportJob(UUID id, String fileName, int maxErrors) {
+        this.id = id;
+        this.fileName = fileName;
+        this.maxErrors = maxErrors;
+    }
+
+    UUID getId() {
+        return id;
+    }
+
+    synchronized void start() {
+        status = Status.RUNNING;
+        startedAt = LocalDateTime.now();
+    }
+
+    void recordParsed() {
+        rowsParsed.incrementAndGet();
+    }
+
+    void recordError(int lineNumber, String errorMessage) {
+        rowsFailed.incrementAndGet();
+        synchronized (errors) {
+            if (errors.size() < maxErrors) {
+                errors.add(new ImportJobResponse.LineError(lineNumber, errorMessage));
+            }
+        }
+    }
+
+    void updatePublished(long rows, int chunks) {
+        rowsPublished = rows;
+        chunksPublished = chunks;
+    }
+
+    /**
+     * Called by the worker once every chunk is published.
+     */
+    synchronized void finishPublishing(long rows, int chunks) {
+        updatePublished(rows, chunks);
+        publishedAt = LocalDateTime.now();
+        status = Status.PUBLISHED;
+        if (rows == 0) {
+            message = "No valid records found in CSV file";
+        }
+        completeIfPersisted();
+    }
+
+    /**
+     * Called for each chunk acknowledged by the persistence service. Redelivered acknowledgements are ignored.
+     */
+    synchronized void chunkPersisted(int chunkIndex, int records) {
+        if (!persistedChunks.add(chunkIndex)) {
+            return;
+        }
+        rowsPersisted.addAndGet(records);
+        completeIfPersisted();
+    }
+
+    synchronized void fail(String failureMessage) {
+        status = Status.FAILED;
+        message = failureMessage;
+        completedAt = LocalDateTime.now();
+    }
+
+    private void completeIfPersisted() {
+        if (status == Status.PUBLISHED && persistedChunks.size() >= chunksPublished) {
+            status = Status.COMPLETED;
+            completedAt = LocalDateTime.now();
+        }
+    }
+
+    /**
+     * @return true if the job finished, or finished publishing (acknowledgements may never arrive
+     *         for chunks that went to the dead-letter topic), before the given time
+     */
+    boolean finishedBefore(LocalDateTime time) {
+        LocalDateTime finished = completedAt != null ? completedAt : publishedAt;
+        return finished != null && finished.isBefore(time);
+    }
+
+    ImportJobResponse toResponse() {
+        ImportJobResponse response = new ImportJobResponse();
+        response.setJobId(id);
+        response.setStatus(status.name());
+        response.setFileName(fileName);
+        response.setRowsParsed(rowsParsed.get());
+        response.setRowsPublished(rowsPublished);
+        response.setRowsPersisted(rowsPersisted.get());
+        response.setRowsFailed(rowsFailed.get());
+        response.setChunksPublished(chunksPublished);
+        response.setChunksPersisted(persistedChunks.size());
+        synchronized (errors) {
+            response.setErrors(new ArrayList<>(errors));
+        }
+        response.setErrorsTruncated(rowsFailed.get() > response.getErrors().size());
+        response.setMessage(message);
+        response.setCreatedAt(createdAt);
+        response.setStartedAt(startedAt);
+        response.setPublishedAt(publishedAt);
+        response.setCompletedAt(completedAt);
+        return response;
+    }
+}
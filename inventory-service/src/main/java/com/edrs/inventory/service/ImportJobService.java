@@ -0,0 +1,162 @@
+package com.edrs.inventory.service;
+
+import com.edrs.common.util.CorrelationIdUtil;
+import com.edrs.inventory.dto.ImportJobResponse;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Runs CSV bulk imports off the request thread.
+ * An upload is copied to a temporary file and queued on a bounded executor; the request returns the
+ * job ID right away. The worker parses the file with {@link FastCsvInventoryParser}. Progress is kept
+ * in memory: rows parsed and published by the worker, rows persisted from the persistence service's
+ * inventory-persisted acknowledgements. Finished jobs are kept for the configured retention and then
+ * forgotten.
+ */
+@Service
+public class ImportJobService {
+    private static final Logger logger = LoggerFactory.getLogger(ImportJobService.class);
+
+    private final CsvInventoryParser csvParser;
+    private final FastCsvInventoryParser fastCsvParser;
+    private final InventoryService inventoryService;
+    private final ThreadPoolExecutor executor;
+    private final Map<UUID, ImportJob> jobs = new ConcurrentHashMap<>();
+    private final int maxErrors;
+    private final long retentionMinutes;
+
+    public ImportJobService(
+            CsvInventoryParser csvParser,
+            FastCsvInventoryParser fastCsvParser,
+            InventoryService inventoryService,
+            @Value("${inventory.bulk-import.jobs.threads:2}") int threads,
+            @Value("${inventory.bulk-import.jobs.queue-capacity:10}") int queueCapacity,
+            @Value("${inventory.bulk-import.jobs.max-errors:100}") int maxErrors,
+            @Value("${inventory.bulk-import.jobs.retention-minutes:60}") long retentionMinutes) {
+        this.csvParser = csvParser;
+        this.fastCsvParser = fastCsvParser;
+        this.inventoryService = inventoryService;
+        this.maxErrors = maxErrors;
+        this.retentionMinutes = retentionMinutes;
+        AtomicInteger threadNumber = new AtomicInteger();
+        // Bounded queue with the default AbortPolicy: a full queue rejects the upload instead of piling up files
+        this.executor = new ThreadPoolExecutor(threads, threads, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                runnable -> {
+                    Thread thread = new Thread(runnable, "inventory-import-" + threadNumber.incrementAndGet());
+                    thread.setDaemon(true);
+                    return thread;
+                });
+    }
+
+    /**
+     * Validates the upload and queues it for import.
+     *
+     * @return The new job's state
+     * @throws IllegalArgumentException if the file is not a valid CSV upload
+     * @throws RejectedExecutionException if the import queue is full
+     */
+    public ImportJobResponse submit(MultipartFile file) {
+        csvParser.validateFile(file);
+        evictFinishedJobs();
+
+        Path upload;
+        try {
+            // The multipart file is deleted when the request completes, so the worker reads its own copy
+            upload = Files.createTempFile("inventory-import-", ".csv");
+            file.transferTo(upload);
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to store uploaded CSV file", e);
+        }
+
+        ImportJob job = new ImportJob(UUID.randomUUID(), file.getOriginalFilename(), maxErrors);
+        jobs.put(job.getId(), job);
+        try {
+            executor.execute(() -> run(job, upload));
+        } catch (RejectedExecutionException e) {
+            jobs.remove(job.getId());
+            deleteQuietly(upload);
+            throw e;
+        }
+        logger.info("Queued bulk import {} for file {}", job.getId(), file.getOriginalFilename());
+        return job.toResponse();
+    }
+
+    /**
+     * @return The job's current state, or null if the job is unknown or has expired
+     */
+    public ImportJobResponse getJob(UUID jobId) {
+        ImportJob job = jobs.get(jobId);
+        return job != null ? job.toResponse() : null;
+    }
+
+    /**
+     * Records the persistence service's acknowledgement of one chunk.
+     */
+    public void onChunkPersisted(UUID bulkImportId, Integer chunkIndex, int recordsPersisted) {
+        ImportJob job = jobs.get(bulkImportId);
+        if (job == null || chunkIndex == null) {
+            logger.debug("Ignoring persisted acknowledgement for unknown bulk import {}", bulkImportId);
+            return;
+        }
+        job.chunkPersisted(chunkIndex, recordsPersisted);
+    }
+
+    private void run(ImportJob job, Path upload) {
+        job.start();
+        try {
+            BulkInventoryImport bulkImport = inventoryService.startBulkImport(job.getId());
+            fastCsvParser.parse(upload, (itemId, quantity) -> {
+                job.recordParsed();
+                bulkImport.add(itemId, quantity);
+                job.updatePublished(bulkImport.getRecordsPublished(), bulkImport.getChunksPublished());
+            }, job::recordError);
+            bulkImport.complete();
+            job.finishPublishing(bulkImport.getRecordsPublished(), bulkImport.getChunksPublished());
+            logger.info("Bulk import {} published {} records in {} chunks",
+                    job.getId(), bulkImport.getRecordsPublished(), bulkImport.getChunksPublished());
+        } catch (Exception e) {
+            logger.error("Bulk import {} failed", job.getId(), e);
+            job.fail(e.getMessage());
+        } finally {
+            CorrelationIdUtil.clearCorrelationId();
+            deleteQuietly(upload);
+        }
+    }
+
+    private void evictFinishedJobs() {
+        LocalDateTime cutoff = LocalDateTime.now().minusMinutes(retentionMinutes);
+        jobs.values().removeIf(job -> job.finishedBefore(cutoff));
+    }
+
+    private void deleteQuietly(Path path) {
+        try {
+            Files.deleteIfExists(path);
+        } catch (IOException e) {
+            logger.warn("Could not delete temporary import file {}", path, e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        executor.shutdownNow();
+    }
+}
@@ -0,0 +1,282 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.InventoryFilter;
+import com.edrs.inventory.dto.InventoryItem;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.List;
+import java.util.Locale;
+import java.util.NavigableSet;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
+import java.util.concurrent.ConcurrentSkipListSet;
+import java.util.function.Function;
+
+/**
+ * Secondary indexes over the inventory cache, kept up to date by {@link InventoryService} on every write.
+ * Category and name trigram postings narrow a query to candidate ids; ordered sets by id, lower-cased
+ * name and quantity serve sorted pages (and minQuantity as a range) without touching non-matching items.
+ * Writes for one item are serialized by the cache's compute(); the indexes are concurrent, and an
+ * update adds the new entries before removing the old ones, so a concurrent query may briefly see both.
+ * Every candidate is therefore re-checked against the current cached item before it is returned.
+ */
+class InventoryIndex {
+    private static final int GRAM_LENGTH = 3;
+
+    private final ConcurrentMap<String, Set<String>> idsByCategory = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, Set<String>> idsByGram = new ConcurrentHashMap<>();
+    private final ConcurrentMap<String, String> lowerNames = new ConcurrentHashMap<>();
+    private final NavigableSet<String> byId = new ConcurrentSkipListSet<>();
+    private final NavigableSet<NameKey> byName = new ConcurrentSkipListSet<>();
+    private final NavigableSet<QuantityKey> byQuantity = new ConcurrentSkipListSet<>();
+
+    private record NameKey(String lowerName, String id) implements Comparable<NameKey> {
+        @Override
+        public int compareTo(NameKey other) {
+            int result = lowerName.compareTo(other.lowerName);
+            return result != 0 ? result : id.compareTo(other.id);
+        }
+    }
+
+    private record QuantityKey(int quantity, String id) implements Comparable<QuantityKey> {
+        @Override
+        public int compareTo(QuantityKey other) {
+            int result = Integer.compare(quantity, other.quantity);
+            return result != 0 ? result : id.compareTo(other.id);
+        }
+    }
+
+    /**
+     * Replaces the entries of previous with those of current. Must be called while the cache holds the
+     * item's entry lock, i.e. from inside compute() for that id.
+     *
+     * @param previous The item being replaced, or null for a new item
+     * @param current The new item
+     */
+    void update(InventoryItem previous, InventoryItem current) {
+        String id = current.getId();
+        String lowerName = lowerName(current);
+        int quantity = quantity(current);
+        byId.add(id);
+        lowerNames.put(id, lowerName);
+        byName.add(new NameKey(lowerName, id));
+        byQuantity.add(new QuantityKey(quantity, id));
+        if (current.getCategory() != null) {
+            addPosting(idsByCategory, current.getCategory(), id);
+        }
+        Set<String> grams = grams(lowerName);
+        for (String gram : grams) {
+            addPosting(idsByGram, gram, id);
+        }
+        if (previous == null) {
+            return;
+        }
+
+        String previousLowerName = lowerName(previous);
+        if (!previousLowerName.equals(lowerName)) {
+            byName.remove(new NameKey(previousLowerName, id));
+            for (String gram : grams(previousLowerName)) {
+                if (!grams.contains(gram)) {
+                    removePosting(idsByGram, gram, id);
+                }
+            }
+        }
+        if (quantity(previous) != quantity) {
+            byQuantity.remove(new QuantityKey(quantity(previous), id));
+        }
+        if (previous.getCategory() != null && !previous.getCategory().equals(current.getCategory())) {
+            removePosting(idsByCategory, previous.getCategory(), id);
+        }
+    }
+
+    /**
+     * Returns the page of items matching the filter, in the requested order.
+     *
+     * @param lookup Current cached item by id; null if it has been removed
+     */
+    List<InventoryItem> query(InventoryFilter filter, Function<String, InventoryItem> lookup) {
+        Query query = new Query(filter);
+        Set<String> candidates = candidates(query);
+        if (candidates != null) {
+            return sortAndPage(query, candidates, lookup);
+        }
+        return scanOrdered(query, lookup);
+    }
+
+    /**
+     * Picks the smallest applicable posting set (category, each name trigram, or the minQuantity range
+     * when the result is not sorted by quantity anyway).
+     *
+     * @return Candidate ids, or null if the query is best served by walking an ordered index
+     */
+    private Set<String> candidates(Query query) {
+        Set<String> smallest = null;
+        if (query.category != null) {
+            smallest = idsByCategory.getOrDefault(query.category, Collections.emptySet());
+        }
+        if (query.lowerTerm != null && query.lowerTerm.length() >= GRAM_LENGTH) {
+            for (String gram : grams(query.lowerTerm)) {
+                Set<String> posting = idsByGram.getOrDefault(gram, Collections.emptySet());
+                if (smallest == null || posting.size() < smallest.size()) {
+                    smallest = posting;
+                }
+            }
+        }
+        if (smallest == null && query.minQuantity != null && !InventoryFilter.SORT_BY_QUANTITY.equals(query.sortBy)) {
+            Set<String> ids = new HashSet<>();
+            for (QuantityKey key : byQuantity.tailSet(new QuantityKey(query.minQuantity, ""))) {
+                ids.add(key.id());
+            }
+            return ids;
+        }
+        return smallest;
+    }
+
+    private List<InventoryItem> sortAndPage(Query query, Set<String> candidates, Function<String, InventoryItem> lookup) {
+        List<InventoryItem> matches = new ArrayList<>();
+        for (String id : candidates) {
+            InventoryItem item = lookup.apply(id);
+            if (item != null && query.matches(item)) {
+                matches.add(item);
+            }
+        }
+        Comparator<InventoryItem> order = switch (query.sortBy) {
+            case InventoryFilter.SORT_BY_NAME -> Comparator
+                    .comparing((InventoryItem item) -> lowerNames.getOrDefault(item.getId(), ""))
+                    .thenComparing(InventoryItem::getId);
+            case InventoryFilter.SORT_BY_QUANTITY -> Comparator
+                    .comparingInt(InventoryIndex::quantity)
+                    .thenComparing(InventoryItem::getId);
+            default -> Comparator.comparing(InventoryItem::getId);
+        };
+        matches.sort(query.descending ? order.reversed() : order);
+        if (query.size == null) {
+            return matches;
+        }
+        int from = (int) Math.min((long) query.page * query.size, matches.size());
+        int to = Math.min(from + query.size, matches.size());
+        return new ArrayList<>(matches.subList(from, to));
+    }
+
+    /**
+     * Walks the ordered index for the sort field and stops as soon as the page is full.
+     * Entries left over from a concurrent update are skipped because they no longer match the item.
+     */
+    private List<InventoryItem> scanOrdered(Query query, Function<String, InventoryItem> lookup) {
+        Iterator<?> keys = switch (query.sortBy) {
+            case InventoryFilter.SORT_BY_NAME -> (query.descending ? byName.descendingSet() : byName).iterator();
+            case InventoryFilter.SORT_BY_QUANTITY -> {
+                NavigableSet<QuantityKey> range = query.minQuantity != null
+                        ? byQuantity.tailSet(new QuantityKey(query.minQuantity, ""), true)
+                        : byQuantity;
+                yield (query.descending ? range.descendingSet() : range).iterator();
+            }
+            default -> (query.descending ? byId.descendingSet() : byId).iterator();
+        };
+
+        long skip = query.size != null ? (long) query.page * query.size : 0;
+        List<InventoryItem> page = new ArrayList<>(query.size != null ? query.size : 16);
+        while (keys.hasNext() && (query.size == null || page.size() < query.size)) {
+            Object key = keys.next();
+            InventoryItem item;
+            if (key instanceof NameKey nameKey) {
+                item = lookup.apply(nameKey.id());
+                if (item == null || !nameKey.lowerName().equals(lowerNames.get(nameKey.id()))) {
+                    continue;
+                }
+            } else if (key instanceof QuantityKey quantityKey) {
+                item = lookup.apply(quantityKey.id());
+                if (item == null || quantity(item) != quantityKey.quantity()) {
+                    continue;
+                }
+            } else {
+                item = lookup.apply((String) key);
+                if (item == null) {
+                    continue;
+                }
+            }
+            if (!query.matches(item)) {
+                continue;
+            }
+            if (skip > 0) {
+                skip--;
+                continue;
+            }
+            page.add(item);
+        }
+        return page;
+    }
+
+    private static void addPosting(ConcurrentMap<String, Set<String>> postings, String key, String id) {
+        postings.compute(key, (k, ids) -> {
+            Set<String> result = ids != null ? ids : ConcurrentHashMap.newKeySet();
+            result.add(id);
+            return result;
+        });
+    }
+
+    private static void removePosting(ConcurrentMap<String, Set<String>> postings, String key, String id) {
+        postings.computeIfPresent(key, (k, ids) -> {
+            ids.remove(id);
+            return ids.isEmpty() ? null : ids;
+        });
+    }
+
+    private static Set<String> grams(String lowerName) {
+        Set<String> grams = new HashSet<>();
+        for (int i = 0; i + GRAM_LENGTH <= lowerName.length(); i++) {
+            grams.add(lowerName.substring(i, i + GRAM_LENGTH));
+        }
+        return grams;
+    }
+
+    private static String lowerName(InventoryItem item) {
+        return item.getName() != null ? item.getName().toLowerCase(Locale.ROOT) : "";
+    }
+
+    private static int quantity(InventoryItem item) {
+        return item.getAvailableQuantity() != null ? item.getAvailableQuantity() : 0;
+    }
+
+    /**
+     * A filter with defaults applied and the name term lower-cased once.
+     */
+    private final class Query {
+        private final String category;
+        private final Integer minQuantity;
+        private final String lowerTerm;
+        private final String sortBy;
+        private final boolean descending;
+        private final int page;
+        private final Integer size;
+
+        Query(InventoryFilter filter) {
+            this.category = filter != null ? filter.getCategory() : null;
+            this.minQuantity = filter != null ? filter.getMinQuantity() : null;
+            this.lowerTerm = filter != null && filter.getNameContains() != null
+                    ? filter.getNameContains().toLowerCase(Locale.ROOT) : null;
+            this.sortBy = filter != null && filter.getSortBy() != null ? filter.getSortBy() : InventoryFilter.SORT_BY_ID;
+            this.descending = filter != null && "desc".equalsIgnoreCase(filter.getSortDirection());
+            this.page = filter != null && filter.getPage() != null ? filter.getPage() : 0;
+            this.size = filter != null ? filter.getSize() : null;
+        }
+
+        boolean matches(InventoryItem item) {
+            if (category != null && !category.equals(item.getCategory())) {
+                return false;
+            }
+            if (minQuantity != null && quantity(item) < minQuantity) {
+                return false;
+            }
+            if (lowerTerm != null && !lowerNames.getOrDefault(item.getId(), "").contains(lowerTerm)) {
+                return false;
+            }
+            return true;
+        }
+    }
+}
@@ -2,9 +2,12 @@ package com.edrs.inventory.service;
 
 import com.edrs.common.events.InventoryReceivedEvent;
 import com.edrs.common.util.CorrelationIdUtil;
+import com.edrs.inventory.dto.AvailabilityCalendarResponse;
+import com.edrs.inventory.dto.AvailabilityMatrixResponse;
 import com.edrs.inventory.dto.InventoryFilter;
 import com.edrs.inventory.dto.InventoryItem;
 import com.edrs.inventory.dto.InventoryReceiveRequest;
+import com.edrs.inventory.dto.ReservedQuantity;
 import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
@@ -16,54 +19,108 @@ import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.web.client.RestTemplate;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
 import java.util.*;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentMap;
 import java.util.stream.Collectors;
 
+/**
+ * Keeps the local inventory cache and publishes inventory changes.
+ * The cache is written from HTTP and bulk import threads concurrently. Stored items are never
+ * mutated in place: every change replaces the entry through an atomic map operation, so concurrent
+ * receives for the same item cannot lose increments and readers always see a consistent item.
+ * The secondary indexes used by listInventory are updated inside the same atomic operation.
+ */
 @Service
 public class InventoryService {
     private static final Logger logger = LoggerFactory.getLogger(InventoryService.class);
     private static final String INVENTORY_RECEIVED_TOPIC = "inventory-received";
+    static final int MAX_AVAILABILITY_ITEMS = 500;
+    static final int MAX_AVAILABILITY_DAYS = 366;
 
     private final KafkaTemplate<String, String> kafkaTemplate;
     private final ObjectMapper objectMapper;
-    private final Map<String, InventoryItem> inventoryStore = new HashMap<>();
+    private final ConcurrentMap<String, InventoryItem> inventoryStore = new ConcurrentHashMap<>();
+    private final InventoryIndex inventoryIndex = new InventoryIndex();
+    // Local changes made while the snapshot loads; null when no load is running
+    private volatile SnapshotChanges snapshotChanges;
     private final RestTemplate restTemplate;
+    private final ReservedQuantityCache reservedQuantityCache;
+    private final PersistenceCallGuard persistenceCallGuard;
     
     @Value("${persistence.service.url:http://localhost:8084}")
     private String persistenceServiceUrl;
+    
+    @Value("${inventory.bulk-import.chunk-size:1000}")
+    private int bulkImportChunkSize;
 
     @Autowired
-    public InventoryService(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper, RestTemplate restTemplate) {
+    public InventoryService(KafkaTemplate<String, String> kafkaTemplate, ObjectMapper objectMapper, RestTemplate restTemplate,
+                            ReservedQuantityCache reservedQuantityCache, PersistenceCallGuard persistenceCallGuard) {
         this.kafkaTemplate = kafkaTemplate;
         this.objectMapper = objectMapper;
         this.restTemplate = restTemplate;
-        initializeSampleInventory();
+        this.reservedQuantityCache = reservedQuantityCache;
+        this.persistenceCallGuard = persistenceCallGuard;
     }
 
-    private void initializeSampleInventory() {
-        // Initialize sample items in memory
-        InventoryItem item1 = new InventoryItem("item1", "Laptop", "Dell Laptop", Integer.valueOf(10), "Electronics");
-        InventoryItem item2 = new InventoryItem("item2", "Projector", "HD Projector", Integer.valueOf(5), "Electronics");
-        InventoryItem item3 = new InventoryItem("item3", "Conference Room A", "Large conference room", Integer.valueOf(1), "Rooms");
-        
-        inventoryStore.put("item1", item1);
-        inventoryStore.put("item2", item2);
-        inventoryStore.put("item3", item3);
-        
-        // Publish events to persist sample items in the persistence service
-        // This ensures the persistence service knows about these items for reservation processing
-        logger.info("Publishing sample inventory items to persistence service");
-        publishInventoryReceivedEvent(item1);
-        publishInventoryReceivedEvent(item2);
-        publishInventoryReceivedEvent(item3);
+    /**
+     * Starts tracking local changes, so {@link #loadSnapshot(List)} can merge them into the pages
+     * read afterwards. Call {@link #endSnapshotLoad()} when the last page is loaded.
+     */
+    public void beginSnapshotLoad() {
+        snapshotChanges = new SnapshotChanges();
+    }
+
+    public void endSnapshotLoad() {
+        snapshotChanges = null;
+    }
+
+    /**
+     * Loads persisted items into the local cache without publishing anything.
+     * During a snapshot load, quantities received locally since the load began are added to the
+     * persisted quantity, and items added or updated locally since then are kept as they are.
+     * Outside a snapshot load, items already in the cache are kept.
+     *
+     * @return The number of items stored from the snapshot
+     */
+    public int loadSnapshot(List<InventoryItem> items) {
+        SnapshotChanges changes = snapshotChanges;
+        int[] loaded = {0};
+        for (InventoryItem item : items) {
+            InventoryItem persisted = copyOf(item);
+            inventoryStore.compute(item.getId(), (id, current) -> {
+                if (current != null && (changes == null || changes.replacedIds.contains(id))) {
+                    return current;
+                }
+                InventoryItem stored = persisted;
+                Integer received = changes != null ? changes.receivedQuantities.get(id) : null;
+                if (received != null) {
+                    int persistedQuantity = persisted.getAvailableQuantity() != null ? persisted.getAvailableQuantity() : 0;
+                    stored = new InventoryItem(persisted.getId(), persisted.getName(), persisted.getDescription(),
+                            persistedQuantity + received, persisted.getCategory());
+                }
+                inventoryIndex.update(current, stored);
+                loaded[0]++;
+                return stored;
+            });
+        }
+        return loaded[0];
     }
 
+    public int getInventoryItemCount() {
+        return inventoryStore.size();
+    }
+
+    /**
+     * Lists the items matching the filter, sorted and paged as the filter requests (by id and
+     * unpaged by default). Served from the secondary indexes rather than a scan of the cache.
+     */
     public List<InventoryItem> listInventory(InventoryFilter filter) {
         logger.info("Listing inventory with filter: {}", filter);
-        return inventoryStore.values().stream()
-                .filter(item -> matchesFilter(item, filter))
-                .collect(Collectors.toList());
+        return inventoryIndex.query(filter, inventoryStore::get);
     }
 
     public InventoryItem getInventoryItem(String id) {
@@ -75,83 +132,163 @@ public class InventoryService {
         UUID correlationId = CorrelationIdUtil.generateCorrelationId();
         logger.info("Receiving inventory with correlationId: {}", correlationId);
 
-        // Update local cache optimistically
-        for (InventoryReceiveRequest.ReceiveRecord record : receiveRecords) {
-            InventoryItem item = inventoryStore.get(record.getInventoryItemId());
-if (item != null) {
-                Integer currentQuantity = item.getAvailableQuantity() != null ? item.getAvailableQuantity() : 0;
-                item.setAvailableQuantity(currentQuantity + record.getQuantity());
-                inventoryStore.put(record.getInventoryItemId(), item);
-                logger.info("Updated local cache for item {} with quantity {}", record.getInventoryItemId(), item.getAvailableQuantity());
-            } else {
-                // Create new item if it doesn't exist
-                InventoryItem newItem = new InventoryItem();
-                newItem.setId(record.getInventoryItemId());
-                newItem.setName("Item " + record.getInventoryItemId());
-                newItem.setDescription("Auto-created item");
-                newItem.setCategory("General");
-                newItem.setAvailableQuantity(record.getQuantity());
-                inventoryStore.put(record.getInventoryItemId(), newItem);
-                logger.info("Created new item in local cache: {}", record.getInventoryItemId());
-            }
-        }
-
-        List<InventoryReceivedEvent.InventoryReceiveRecord> eventRecords = receiveRecords.stream()
-                .map(record -> {
-                    // Get the full item details from the local cache (updated above)
-                    InventoryItem item = inventoryStore.get(record.getInventoryItemId());
-                    return new InventoryReceivedEvent.InventoryReceiveRecord(
-                            record.getInventoryItemId(),
-                            record.getQuantity(),
-                            item != null ? item.getName() : null,
-                            item != null ? item.getDescription() : null,
-                            item != null ? item.getCategory() : null
-                    );
-                })
-                .collect(Collectors.toList());
-
+        List<InventoryReceivedEvent.InventoryReceiveRecord> eventRecords = applyReceiveRecords(receiveRecords);
         InventoryReceivedEvent event = new InventoryReceivedEvent(
                 correlationId,
                 eventRecords,
                 LocalDateTime.now()
         );
+        publishReceivedEvent(event);
+        logger.info("Published inventory received event with correlationId: {}", correlationId);
+    }
+
+    /**
+     * Starts a streaming bulk import. Records added to it are published in chunks of
+     * inventory.bulk-import.chunk-size records, one InventoryReceivedEvent per chunk.
+     */
+    public BulkInventoryImport startBulkImport() {
+        return startBulkImport(CorrelationIdUtil.generateCorrelationId());
+    }
+
+    /**
+     * Starts a streaming bulk import with a caller-assigned bulk import ID.
+     */
+    public BulkInventoryImport startBulkImport(UUID bulkImportId) {
+        CorrelationIdUtil.setCorrelationId(bulkImportId);
+        logger.info("Starting bulk import {} with chunk size {}", bulkImportId, bulkImportChunkSize);
+        return new BulkInventoryImport(this, bulkImportId, bulkImportChunkSize);
+    }
+
+    /**
+     * Applies one chunk of a bulk import to the local cache and publishes it.
+     * The chunk is passed as parallel arrays, of which the first count entries are used.
+     * The bulk import ID doubles as correlation ID and message key, so all chunks of an import
+     * land on the same partition in order.
+     */
+    void receiveInventoryChunk(String[] itemIds, int[] quantities, int count,
+                               UUID bulkImportId, int chunkIndex, boolean lastChunk) {
+        List<InventoryReceivedEvent.InventoryReceiveRecord> eventRecords = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            eventRecords.add(applyReceive(itemIds[i], quantities[i]));
+        }
+        InventoryReceivedEvent event = new InventoryReceivedEvent(
+                bulkImportId,
+                eventRecords,
+                LocalDateTime.now(),
+                bulkImportId,
+                chunkIndex,
+                lastChunk
+        );
+        publishReceivedEvent(event);
+        logger.info("Published chunk {} ({} records{}) of bulk import {}",
+                chunkIndex, eventRecords.size(), lastChunk ? ", last" : "", bulkImportId);
+    }
+
+    private List<InventoryReceivedEvent.InventoryReceiveRecord> applyReceiveRecords(
+            List<InventoryReceiveRequest.ReceiveRecord> receiveRecords) {
+        return receiveRecords.stream()
+                .map(record -> applyReceive(record.getInventoryItemId(), record.getQuantity()))
+                .collect(Collectors.toList());
+    }
 
+    /**
+     * Updates the local cache optimistically and builds the event record with the full item details.
+     * The quantity is added atomically; the stored item is replaced by an updated copy.
+     */
+    private InventoryReceivedEvent.InventoryReceiveRecord applyReceive(String itemId, int quantity) {
+        InventoryItem item = inventoryStore.compute(itemId, (id, current) -> {
+            InventoryItem updated;
+            if (current == null) {
+                // Create new item if it doesn't exist
+                updated = new InventoryItem(id, "Item " + id, "Auto-created item", quantity, "General");
+            } else {
+                int currentQuantity = current.getAvailableQuantity() != null ? current.getAvailableQuantity() : 0;
+                updated = new InventoryItem(current.getId(), current.getName(), current.getDescription(),
+                        currentQuantity + quantity, current.getCategory());
+            }
+            SnapshotChanges changes = snapshotChanges;
+            if (changes != null) {
+                changes.receivedQuantities.merge(id, quantity, Integer::sum);
+            }
+            inventoryIndex.update(current, updated);
+            return updated;
+        });
+        logger.debug("Updated local cache for item {} with quantity {}", itemId, item.getAvailableQuantity());
+        return new InventoryReceivedEvent.InventoryReceiveRecord(
+                itemId,
+                quantity,
+                item.getName(),
+                item.getDescription(),
+                item.getCategory()
+        );
+    }
+
+    private void publishReceivedEvent(InventoryReceivedEvent event) {
         try {
             String eventJson = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(INVENTORY_RECEIVED_TOPIC, correlationId.toString(), eventJson);
-            logger.info("Published inventory received event with correlationId: {}", correlationId);
+            kafkaTemplate.send(INVENTORY_RECEIVED_TOPIC, event.getCorrelationId().toString(), eventJson);
         } catch (JsonProcessingException e) {
             logger.error("Error serializing inventory received event", e);
             throw new RuntimeException("Failed to process inventory receive", e);
         }
     }
 
-    private boolean matchesFilter(InventoryItem item, InventoryFilter filter) {
-        if (filter == null) {
-            return true;
-        }
-
-        if (filter.getCategory() != null && !filter.getCategory().equals(item.getCategory())) {
-            return false;
-        }
-
-        if (filter.getMinQuantity() != null && item.getAvailableQuantity() < filter.getMinQuantity()) {
-            return false;
-        }
-
-        if (filter.getNameContains() != null && !item.getName().toLowerCase().contains(filter.getNameContains().toLowerCase())) {
+    /**
+     * Adds a new inventory item unless one with the same ID already exists.
+     *
+     * @return false if the ID is already taken; the existing item is left unchanged
+     */
+    public boolean addInventoryItem(InventoryItem item) {
+        if (!putIfAbsent(item)) {
             return false;
         }
-
+        // Publish event to sync with persistence service
+        publishInventoryReceivedEvent(item);
         return true;
     }
 
     public void updateInventoryItem(InventoryItem item) {
-        inventoryStore.put(item.getId(), item);
+        InventoryItem copy = copyOf(item);
+        inventoryStore.compute(item.getId(), (id, current) -> {
+            markReplaced(id);
+            inventoryIndex.update(current, copy);
+            return copy;
+        });
         // Publish event to sync with persistence service
         publishInventoryReceivedEvent(item);
     }
 
+    /**
+     * @return false if an item with the same ID is already cached
+     */
+    private boolean putIfAbsent(InventoryItem item) {
+        InventoryItem copy = copyOf(item);
+        return inventoryStore.computeIfAbsent(item.getId(), id -> {
+            markReplaced(id);
+            inventoryIndex.update(null, copy);
+            return copy;
+        }) == copy;
+    }
+
+    /**
+     * Records that the item was written locally in full, so a snapshot page read later does not overwrite it.
+     * Called inside the cache's compute for the item, which orders it against {@link #loadSnapshot(List)}.
+     */
+    private void markReplaced(String id) {
+        SnapshotChanges changes = snapshotChanges;
+        if (changes != null) {
+            changes.replacedIds.add(id);
+        }
+    }
+
+    /**
+     * Stored items are replaced, never mutated, so the cache keeps its own copy of caller-owned items.
+     */
+    private static InventoryItem copyOf(InventoryItem item) {
+        return new InventoryItem(item.getId(), item.getName(), item.getDescription(),
+                item.getAvailableQuantity(), item.getCategory());
+    }
+
     /**
      * Publishes an inventory-received event for a new or updated inventory item.
      * This ensures the persistence service stays in sync with inventory changes.
@@ -191,7 +328,9 @@ if (item != null) {
 
     /**
      * Gets the effective available quantity for an inventory item on a given date.
-     * This calculates: base availableQuantity - confirmed reservations from now until the requested date.
+     * This calculates: base availableQuantity - confirmed reservations from one year ago through the day of the date.
+     * The reserved quantity is served from {@link ReservedQuantityCache}; the persistence service is only asked on a miss,
+     * through {@link PersistenceCallGuard}. If that fails, the last cached quantity is used, or else the base quantity.
      * 
      * @param itemId The inventory item ID
      * @param targetDate The date to check availability for
@@ -207,29 +346,12 @@ if (item != null) {
         int baseQuantity = item.getAvailableQuantity() != null ? item.getAvailableQuantity() : 0;
         
         try {
-            // Query persistence service for reservation quantities from a date far in the past until target date
-            // This ensures we account for all active reservations, not just future ones
-            // Use 1 year ago as the start date to capture all relevant reservations
-            LocalDateTime startDate = LocalDateTime.now().minusYears(1);
-            // Format dates in ISO format without nanoseconds for Spring's DateTimeFormat parser
-            // ISO_DATE_TIME format: yyyy-MM-ddTHH:mm:ss (no nanoseconds)
-            java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
-            String startDateStr = startDate.format(formatter);
-            String endDateStr = targetDate.format(formatter);
-            
-            // Use UriComponentsBuilder for proper URL encoding
-            org.springframework.web.util.UriComponentsBuilder uriBuilder = org.springframework.web.util.UriComponentsBuilder
-                    .fromHttpUrl(persistenceServiceUrl + "/api/persistence/reservations/quantity")
-                    .queryParam("itemId", itemId)
-                    .queryParam("startDate", startDateStr)
-                    .queryParam("endDate", endDateStr);
-            
-            java.net.URI uri = uriBuilder.build().toUri();
-            logger.debug("Querying persistence service: {}", uri);
-            Long reservedQuantity = restTemplate.getForObject(uri, Long.class);
-            if (reservedQuantity == null) {
-                reservedQuantity = 0L;
-            }
+            // Count reservations from 1 year ago, so all active reservations are included and not just future ones.
+            // The ledger is kept per day, so the day of each bound is all that matters.
+            LocalDate windowStart = LocalDate.now().minusYears(1);
+            LocalDate day = targetDate.toLocalDate();
+            long reservedQuantity = reservedQuantityCache.get(itemId, windowStart, day,
+                    () -> fetchReservedQuantity(itemId, windowStart, day));
             
             int effectiveQuantity = (int) (baseQuantity - reservedQuantity);
             logger.info("Effective available quantity for item {} on {}: {} (base: {}, reserved quantity: {})", 
@@ -242,4 +364,148 @@ if (item != null) {
             return baseQuantity;
         }
     }
+
+    private long fetchReservedQuantity(String itemId, LocalDate startDate, LocalDate endDate) {
+        // Format dates in ISO format without nanoseconds for Spring's DateTimeFormat parser
+        // ISO_DATE_TIME format: yyyy-MM-ddTHH:mm:ss (no nanoseconds)
+        java.time.format.DateTimeFormatter formatter = java.time.format.DateTimeFormatter.ofPattern("yyyy-MM-dd'T'HH:mm:ss");
+        
+        // Use UriComponentsBuilder for proper URL encoding
+        org.springframework.web.util.UriComponentsBuilder uriBuilder = org.springframework.web.util.UriComponentsBuilder
+                .fromHttpUrl(persistenceServiceUrl + "/api/persistence/reservations/quantity")
+                .queryParam("itemId", itemId)
+                .queryParam("startDate", startDate.atStartOfDay().format(formatter))
+                .queryParam("endDate", endDate.atStartOfDay().format(formatter));
+        
+        java.net.URI uri = uriBuilder.build().toUri();
+        logger.debug("Querying persistence service: {}", uri);
+        Long reservedQuantity = persistenceCallGuard.call("reserved_quantity", () -> restTemplate.getForObject(uri, Long.class));
+        return reservedQuantity != null ? reservedQuantity : 0L;
+    }
+
+    /**
+     * Gets the effective available quantity of many items on each day of a date range, with one
+     * request to the persistence service. Uses the same rule as getEffectiveAvailableQuantity:
+     * base availableQuantity minus reservations from one year ago through the day.
+     *
+     * @param itemIds The inventory item IDs; duplicates are ignored
+     * @param startDate The first day
+     * @param endDate The last day, inclusive
+     * @throws IllegalArgumentException if there are no items or too many, or the range is empty or too long
+     */
+    public AvailabilityMatrixResponse getEffectiveAvailability(List<String> itemIds, LocalDate startDate, LocalDate endDate) {
+        Set<String> distinctIds = new LinkedHashSet<>(itemIds);
+        if (distinctIds.isEmpty() || distinctIds.size() > MAX_AVAILABILITY_ITEMS) {
+            throw new IllegalArgumentException("Between 1 and " + MAX_AVAILABILITY_ITEMS + " item IDs are required");
+        }
+        if (endDate.isBefore(startDate) || startDate.plusDays(MAX_AVAILABILITY_DAYS).isBefore(endDate.plusDays(1))) {
+            throw new IllegalArgumentException("The date range must cover between 1 and " + MAX_AVAILABILITY_DAYS + " days");
+        }
+
+        List<InventoryItem> items = new ArrayList<>(distinctIds.size());
+        List<String> unknownItemIds = new ArrayList<>();
+        for (String itemId : distinctIds) {
+            InventoryItem item = inventoryStore.get(itemId);
+            if (item != null) {
+                items.add(item);
+            } else {
+                unknownItemIds.add(itemId);
+            }
+        }
+        List<LocalDate> dates = startDate.datesUntil(endDate.plusDays(1)).collect(Collectors.toList());
+
+        // Reservations before the window never count; days before the first requested day arrive as one row
+        LocalDate windowStart = LocalDate.now().minusYears(1);
+        Map<String, List<ReservedQuantity>> reservedByItem = new HashMap<>();
+        boolean reservationsIncluded = true;
+        if (!items.isEmpty() && !endDate.isBefore(windowStart)) {
+            try {
+                for (ReservedQuantity row : fetchReservedQuantities(items, windowStart,
+                        startDate.isAfter(windowStart) ? startDate : windowStart, endDate)) {
+                    reservedByItem.computeIfAbsent(row.getInventoryItemId(), id -> new ArrayList<>()).add(row);
+                }
+            } catch (Exception e) {
+                logger.error("Error querying persistence service for reserved quantities of {} items", items.size(), e);
+                // On error, return base quantities as fallback
+                reservationsIncluded = false;
+            }
+        }
+
+        List<AvailabilityMatrixResponse.ItemAvailability> rows = new ArrayList<>(items.size());
+        for (InventoryItem item : items) {
+            int baseQuantity = item.getAvailableQuantity() != null ? item.getAvailableQuantity() : 0;
+            // Rows come sorted by day; walk them alongside the dates, keeping a running total
+            List<ReservedQuantity> reserved = reservedByItem.getOrDefault(item.getId(), List.of());
+            List<Integer> quantities = new ArrayList<>(dates.size());
+            long reservedSoFar = 0;
+            int next = 0;
+            for (LocalDate date : dates) {
+                while (next < reserved.size() && !reserved.get(next).getReservationDay().isAfter(date)) {
+                    reservedSoFar += reserved.get(next++).getReservedQuantity();
+                }
+                quantities.add((int) Math.max(0, baseQuantity - reservedSoFar));
+            }
+            rows.add(new AvailabilityMatrixResponse.ItemAvailability(item.getId(), item.getName(), baseQuantity, quantities));
+        }
+
+        AvailabilityMatrixResponse response = new AvailabilityMatrixResponse();
+        response.setDates(dates);
+        response.setItems(rows);
+        response.setUnknownItemIds(unknownItemIds);
+        response.setReservationsIncluded(reservationsIncluded);
+        logger.info("Effective availability for {} items over {} days ({} unknown)", rows.size(), dates.size(), unknownItemIds.size());
+        return response;
+    }
+
+    /**
+     * Gets the effective available quantity of one item on each day of a date range, for calendar views.
+     * Backed by the same single grouped query as {@link #getEffectiveAvailability(List, LocalDate, LocalDate)}.
+     *
+     * @param itemId The inventory item ID
+     * @param startDate The first day
+     * @param endDate The last day, inclusive
+     * @return The calendar, or null if item not found
+     * @throws IllegalArgumentException if the range is empty or longer than MAX_AVAILABILITY_DAYS
+     */
+    public AvailabilityCalendarResponse getAvailabilityCalendar(String itemId, LocalDate startDate, LocalDate endDate) {
+        AvailabilityMatrixResponse matrix = getEffectiveAvailability(List.of(itemId), startDate, endDate);
+        if (matrix.getItems().isEmpty()) {
+            logger.warn("Inventory item not found: {}", itemId);
+            return null;
+        }
+
+        AvailabilityMatrixResponse.ItemAvailability row = matrix.getItems().get(0);
+        List<AvailabilityCalendarResponse.Day> days = new ArrayList<>(matrix.getDates().size());
+        for (int i = 0; i < matrix.getDates().size(); i++) {
+            days.add(new AvailabilityCalendarResponse.Day(matrix.getDates().get(i), row.getEffectiveAvailableQuantities().get(i)));
+        }
+        AvailabilityCalendarResponse calendar = new AvailabilityCalendarResponse();
+        calendar.setItemId(row.getItemId());
+        calendar.setItemName(row.getItemName());
+        calendar.setBaseAvailableQuantity(row.getBaseAvailableQuantity());
+        calendar.setDays(days);
+        calendar.setReservationsIncluded(matrix.isReservationsIncluded());
+        return calendar;
+    }
+
+    private List<ReservedQuantity> fetchReservedQuantities(List<InventoryItem> items, LocalDate startDate,
+                                                           LocalDate bucketDate, LocalDate endDate) {
+        Map<String, Object> request = new HashMap<>();
+        request.put("itemIds", items.stream().map(InventoryItem::getId).collect(Collectors.toList()));
+        request.put("startDate", startDate.toString());
+        request.put("bucketDate", bucketDate.toString());
+        request.put("endDate", endDate.toString());
+        ReservedQuantity[] rows = persistenceCallGuard.call("reserved_quantities", () -> restTemplate.postForObject(
+                persistenceServiceUrl + "/api/persistence/reservations/quantities", request, ReservedQuantity[].class));
+        return rows != null ? Arrays.asList(rows) : List.of();
+    }
+
+    /**
+     * Local changes made during one snapshot load: received quantities, which are deltas on top of the
+     * persisted quantity, and ids of items added or updated in full, which win over the persisted item.
+     */
+    private static final class SnapshotChanges {
+        private final ConcurrentMap<String, Integer> receivedQuantities = new ConcurrentHashMap<>();
+        private final Set<String> replacedIds = ConcurrentHashMap.newKeySet();
+    }
 }
@@ -0,0 +1,139 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.InventoryItem;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.ApplicationArguments;
+import org.springframework.boot.ApplicationRunner;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestClientException;
+import org.springframework.web.client.RestTemplate;
+import org.springframework.web.util.UriComponentsBuilder;
+
+import java.net.URI;
+import java.util.List;
+
+/**
+ * Rebuilds the local inventory cache from the persistence service on startup.
+ * Items are read in id-ordered pages from the persistence service's inventory snapshot endpoint,
+ * so memory use per request stays bounded and deep pages cost the same as the first. The load runs
+ * as an ApplicationRunner, which keeps the readiness probe refusing traffic until it finishes.
+ * If the persistence service stays unreachable, the service starts with an empty cache.
+ * Writes accepted while the load runs are merged into the pages read after them
+ * (see {@link InventoryService#loadSnapshot(List)}).
+ */
+@Component
+public class InventorySnapshotLoader implements ApplicationRunner {
+    private static final Logger logger = LoggerFactory.getLogger(InventorySnapshotLoader.class);
+    private static final ParameterizedTypeReference<List<InventoryItem>> ITEM_LIST =
+            new ParameterizedTypeReference<>() { };
+
+    private final InventoryService inventoryService;
+    private final RestTemplate restTemplate;
+    private final String persistenceServiceUrl;
+    private final boolean enabled;
+    private final int pageSize;
+    private final int maxAttempts;
+    private final long retryDelayMs;
+
+    public InventorySnapshotLoader(
+            InventoryService inventoryService,
+            RestTemplate restTemplate,
+            @Value("${persistence.service.url:http://localhost:8084}") String persistenceServiceUrl,
+            @Value("${inventory.snapshot.enabled:true}") boolean enabled,
+            @Value("${inventory.snapshot.page-size:5000}") int pageSize,
+            @Value("${inventory.snapshot.max-attempts:30}") int maxAttempts,
+            @Value("${inventory.snapshot.retry-delay-ms:2000}") long retryDelayMs) {
+        this.inventoryService = inventoryService;
+        this.restTemplate = restTemplate;
+        this.persistenceServiceUrl = persistenceServiceUrl;
+        this.enabled = enabled;
+        this.pageSize = pageSize;
+        this.maxAttempts = maxAttempts;
+        this.retryDelayMs = retryDelayMs;
+    }
+
+    @Override
+    public void run(ApplicationArguments args) {
+        if (!enabled) {
+            logger.info("Inventory snapshot loading is disabled, starting with an empty cache");
+            return;
+        }
+        try {
+            load();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            logger.warn("Inventory snapshot load interrupted, {} items cached", inventoryService.getInventoryItemCount());
+        }
+    }
+
+    /**
+     * Pages through the whole snapshot. A failed page is retried from where it stopped, so items
+     * already loaded are not read again.
+     *
+     * @return The number of items added to the cache
+     */
+    int load() throws InterruptedException {
+        inventoryService.beginSnapshotLoad();
+        try {
+            return loadPages();
+        } finally {
+            inventoryService.endSnapshotLoad();
+        }
+    }
+
+    private int loadPages() throws InterruptedException {
+        long startedAt = System.currentTimeMillis();
+        String afterId = null;
+        int loaded = 0;
+        int pages = 0;
+        int attempt = 1;
+        while (true) {
+            List<InventoryItem> page;
+            try {
+                page = fetchPage(afterId);
+            } catch (RestClientException e) {
+                if (attempt >= maxAttempts) {
+                    logger.error("Giving up loading the inventory snapshot after {} attempts, {} items cached",
+                            attempt, loaded, e);
+                    return loaded;
+                }
+                logger.warn("Inventory snapshot unavailable (attempt {} of {}), retrying in {} ms: {}",
+                        attempt, maxAttempts, retryDelayMs, e.getMessage());
+                attempt++;
+                Thread.sleep(retryDelayMs);
+                continue;
+            }
+            attempt = 1;
+            pages++;
+            if (page == null || page.isEmpty()) {
+                break;
+            }
+            loaded += inventoryService.loadSnapshot(page);
+            afterId = page.get(page.size() - 1).getId();
+            if (page.size() < pageSize) {
+                break;
+            }
+        }
+        logger.info("Loaded {} inventory items from the persistence service in {} pages ({} ms)",
+                loaded, pages, System.currentTimeMillis() - startedAt);
+        return loaded;
+    }
+
+    private List<InventoryItem> fetchPage(String afterId) {
+        UriComponentsBuilder uriBuilder = UriComponentsBuilder
+                .fromHttpUrl(persistenceServiceUrl + "/api/persistence/inventory")
+                .queryParam("limit", pageSize);
+        URI uri;
+        if (afterId == null) {
+            uri = uriBuilder.build().toUri();
+        } else {
+            // As a URI variable the id is fully encoded, including '+' and '&'
+            uri = uriBuilder.queryParam("after", "{after}").encode().buildAndExpand(afterId).toUri();
+        }
+        return restTemplate.exchange(uri, HttpMethod.GET, null, ITEM_LIST).getBody();
+    }
+}
@@ -0,0 +1,158 @@
+package com.edrs.inventory.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.HttpClientErrorException;
+
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bulkhead and circuit breaker around request-path calls to the persistence service.
+ * At most max-concurrent-calls requests wait on the persistence service at once; further callers
+ * wait up to max-wait-ms for a slot and are then rejected, so a slow persistence service cannot
+ * tie up every Tomcat thread. After failure-threshold consecutive failures the circuit opens and
+ * calls are rejected without a request for open-duration-ms; then a single trial call decides
+ * whether it closes again. 4xx responses are the caller's fault and do not count as failures.
+ * Every call is timed per operation and outcome.
+ */
+@Component
+public class PersistenceCallGuard {
+    private static final Logger logger = LoggerFactory.getLogger(PersistenceCallGuard.class);
+
+    enum State { CLOSED, OPEN, HALF_OPEN }
+
+    private enum Permit { DENIED, CALL, TRIAL }
+
+    private final MeterRegistry meterRegistry;
+    private final Semaphore bulkhead;
+    private final long maxWaitMs;
+    private final int failureThreshold;
+    private final long openDurationNanos;
+    private State state = State.CLOSED;
+    private int consecutiveFailures;
+    private long openedAtNanos;
+    private boolean trialInFlight;
+
+    public PersistenceCallGuard(
+            MeterRegistry meterRegistry,
+            @Value("${persistence.client.bulkhead.max-concurrent-calls:20}") int maxConcurrentCalls,
+            @Value("${persistence.client.bulkhead.max-wait-ms:50}") long maxWaitMs,
+            @Value("${persistence.client.circuit-breaker.failure-threshold:5}") int failureThreshold,
+            @Value("${persistence.client.circuit-breaker.open-duration-ms:10000}") long openDurationMs) {
+        this.meterRegistry = meterRegistry;
+        this.bulkhead = new Semaphore(maxConcurrentCalls);
+        this.maxWaitMs = maxWaitMs;
+        this.failureThreshold = failureThreshold;
+        this.openDurationNanos = TimeUnit.MILLISECONDS.toNanos(openDurationMs);
+        Gauge.builder("inventory.persistence_client.circuit_state", this, guard -> guard.getState().ordinal())
+                .description("Circuit breaker state of persistence service calls: 0 closed, 1 open, 2 half-open")
+                .register(meterRegistry);
+        Gauge.builder("inventory.persistence_client.in_flight", bulkhead, b -> maxConcurrentCalls - b.availablePermits())
+                .description("Persistence service calls in flight")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Runs a call to the persistence service if the circuit and the bulkhead allow it.
+     *
+     * @param operation Name of the call, used as the metric tag
+     * @throws PersistenceUnavailableException if the call was rejected without being made
+     */
+    public <T> T call(String operation, Supplier<T> call) {
+        long startedAt = System.nanoTime();
+        Permit permit = acquirePermit();
+        if (permit == Permit.DENIED) {
+            record(operation, "short_circuited", startedAt);
+            throw new PersistenceUnavailableException("Circuit open for persistence service call " + operation);
+        }
+        boolean acquired = false;
+        try {
+            acquired = bulkhead.tryAcquire(maxWaitMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (!acquired) {
+            if (permit == Permit.TRIAL) {
+                // The trial call was never made; let the next caller try
+                onTrialRejected();
+            }
+            record(operation, "rejected", startedAt);
+            throw new PersistenceUnavailableException("Too many concurrent persistence service calls for " + operation);
+        }
+        try {
+            T result = call.get();
+            onSuccess();
+            record(operation, "success", startedAt);
+            return result;
+        } catch (HttpClientErrorException e) {
+            onSuccess();
+            record(operation, "client_error", startedAt);
+            throw e;
+        } catch (RuntimeException e) {
+            onFailure(operation);
+            record(operation, "failure", startedAt);
+            throw e;
+        } finally {
+            bulkhead.release();
+        }
+    }
+
+    synchronized State getState() {
+        return state;
+    }
+
+    private synchronized Permit acquirePermit() {
+        if (state == State.OPEN && System.nanoTime() - openedAtNanos >= openDurationNanos) {
+            state = State.HALF_OPEN;
+        }
+        if (state == State.HALF_OPEN) {
+            if (trialInFlight) {
+                return Permit.DENIED;
+            }
+            trialInFlight = true;
+            return Permit.TRIAL;
+        }
+        return state == State.CLOSED ? Permit.CALL : Permit.DENIED;
+    }
+
+    private synchronized void onSuccess() {
+        if (state != State.CLOSED) {
+            logger.info("Persistence service calls succeed again, closing circuit");
+        }
+        state = State.CLOSED;
+        consecutiveFailures = 0;
+        trialInFlight = false;
+    }
+
+    private synchronized void onFailure(String operation) {
+        consecutiveFailures++;
+        trialInFlight = false;
+        if (state == State.HALF_OPEN || (state == State.CLOSED && consecutiveFailures >= failureThreshold)) {
+            logger.warn("Opening circuit for persistence service calls after {} consecutive failures (last: {})",
+                    consecutiveFailures, operation);
+            state = State.OPEN;
+            openedAtNanos = System.nanoTime();
+        }
+    }
+
+    private synchronized void onTrialRejected() {
+        trialInFlight = false;
+    }
+
+    private void record(String operation, String outcome, long startedAt) {
+        Timer.builder("inventory.persistence_client.calls")
+                .description("Latency of persistence service calls, by operation and outcome")
+                .tag("operation", operation)
+                .tag("outcome", outcome)
+                .publishPercentileHistogram()
+                .register(meterRegistry)
+                .record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+}
@@ -0,0 +1,13 @@
+package com.edrs.inventory.service;
+
+import org.springframework.web.client.RestClientException;
+
+/**
+ * Thrown by {@link PersistenceCallGuard} instead of calling the persistence service, when the circuit
+ * is open or the bulkhead is full. A RestClientException, so callers handle it like a failed call.
+ */
+public class PersistenceUnavailableException extends RestClientException {
+    public PersistenceUnavailableException(String message) {
+        super(message);
+    }
+}
@@ -0,0 +1,216 @@
+package com.edrs.inventory.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.Ticker;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Set;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+import java.util.function.LongSupplier;
+
+/**
+ * Near-cache of the reserved quantities behind getEffectiveAvailableQuantity, keyed by item and day.
+ * A value is the quantity reserved from the availability window start through the day, so a reservation
+ * change on one day affects the item's entries for that day and every later one. Those entries are
+ * marked stale when reservation-created and cancellation-successful events arrive; entries also expire
+ * after expire-after-write-ms, which bounds staleness if an event is missed, and the least recently
+ * used entries are evicted beyond max-size.
+ * A stale entry is a miss, but its value is still returned if the reload fails, so an unavailable
+ * persistence service degrades to a value at most expire-after-write-ms old rather than to none.
+ * Marking an entry stale is a cache write and restarts its expiry, so the age is also checked on read.
+ * A load that started before an invalidation is not cached, so a value read just before a change
+ * cannot outlive the event reporting it.
+ */
+@Component
+public class ReservedQuantityCache {
+    private static final Logger logger = LoggerFactory.getLogger(ReservedQuantityCache.class);
+
+    private record Key(String itemId, LocalDate day) {
+    }
+
+    private record Entry(LocalDate windowStart, long reservedQuantity, long loadedAtNanos, boolean stale) {
+        Entry markStale() {
+            return stale ? this : new Entry(windowStart, reservedQuantity, loadedAtNanos, true);
+        }
+    }
+
+    private final boolean enabled;
+    private final long expireAfterWriteNanos;
+    private final Ticker ticker;
+    private final Cache<Key, Entry> cache;
+    // Incremented by every invalidation; loads only store their result if it is unchanged
+    private final AtomicLong generation = new AtomicLong();
+    private final LongAdder hitCount = new LongAdder();
+    private final LongAdder missCount = new LongAdder();
+    private final Counter hits;
+    private final Counter misses;
+    private final Counter itemInvalidations;
+    private final Counter fullInvalidations;
+    private final Counter staleFallbacks;
+    private final Timer entryAge;
+    private final Timer invalidationLag;
+
+    @Autowired
+    public ReservedQuantityCache(
+            MeterRegistry meterRegistry,
+            @Value("${inventory.reserved-quantity-cache.enabled:true}") boolean enabled,
+            @Value("${inventory.reserved-quantity-cache.max-size:10000}") long maxSize,
+            @Value("${inventory.reserved-quantity-cache.expire-after-write-ms:300000}") long expireAfterWriteMs) {
+        this(meterRegistry, enabled, maxSize, expireAfterWriteMs, Ticker.systemTicker());
+    }
+
+    /**
+     * @param ticker Source of the nanosecond times used for expiry and entry ages
+     */
+    ReservedQuantityCache(MeterRegistry meterRegistry, boolean enabled, long maxSize, long expireAfterWriteMs,
+                          Ticker ticker) {
+        this.enabled = enabled;
+        this.expireAfterWriteNanos = TimeUnit.MILLISECONDS.toNanos(expireAfterWriteMs);
+        this.ticker = ticker;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maxSize)
+                .expireAfterWrite(expireAfterWriteMs, TimeUnit.MILLISECONDS)
+                .ticker(ticker)
+                .build();
+        this.hits = Counter.builder("inventory.reserved_quantity_cache.requests")
+                .description("Reserved quantity lookups, by cache result")
+                .tag("result", "hit")
+                .register(meterRegistry);
+        this.misses = Counter.builder("inventory.reserved_quantity_cache.requests")
+                .description("Reserved quantity lookups, by cache result")
+                .tag("result", "miss")
+                .register(meterRegistry);
+        this.itemInvalidations = Counter.builder("inventory.reserved_quantity_cache.invalidations")
+                .description("Reservation events that invalidated cached quantities, by scope")
+                .tag("scope", "items")
+                .register(meterRegistry);
+        this.fullInvalidations = Counter.builder("inventory.reserved_quantity_cache.invalidations")
+                .description("Reservation events that invalidated cached quantities, by scope")
+                .tag("scope", "all")
+                .register(meterRegistry);
+        this.staleFallbacks = Counter.builder("inventory.reserved_quantity_cache.stale_fallbacks")
+                .description("Misses answered with a stale cached quantity because the reload failed")
+                .register(meterRegistry);
+        this.entryAge = Timer.builder("inventory.reserved_quantity_cache.entry_age")
+                .description("Time since a cached quantity was loaded, recorded on every hit")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        this.invalidationLag = Timer.builder("inventory.reserved_quantity_cache.invalidation_lag")
+                .description("Time from a reservation change to the invalidation of the cached quantities")
+                .publishPercentileHistogram()
+                .register(meterRegistry);
+        Gauge.builder("inventory.reserved_quantity_cache.hit_ratio", this, ReservedQuantityCache::getHitRatio)
+                .description("Share of reserved quantity lookups served from the cache since startup")
+                .register(meterRegistry);
+        Gauge.builder("inventory.reserved_quantity_cache.size", cache, Cache::estimatedSize)
+                .description("Cached reserved quantities")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the quantity of an item reserved from windowStart through day, calling loader on a miss.
+     * If the loader fails, a stale cached quantity is returned when there is one; otherwise the
+     * loader's exception is passed on. Nothing is cached for a failed load.
+     */
+    public long get(String itemId, LocalDate windowStart, LocalDate day, LongSupplier loader) {
+        if (!enabled) {
+            return loader.getAsLong();
+        }
+        Key key = new Key(itemId, day);
+        long now = ticker.read();
+        Entry entry = cache.getIfPresent(key);
+        if (entry != null && now - entry.loadedAtNanos() > expireAfterWriteNanos) {
+            // Kept past its expiry by invalidations; too old to serve even as a fallback
+            entry = null;
+        }
+        // An entry loaded before midnight counts from a different window start
+        if (entry != null && !entry.stale() && entry.windowStart().equals(windowStart)) {
+            hitCount.increment();
+            hits.increment();
+            entryAge.record(now - entry.loadedAtNanos(), TimeUnit.NANOSECONDS);
+            return entry.reservedQuantity();
+        }
+
+        missCount.increment();
+        misses.increment();
+        long loadGeneration = generation.get();
+        long reservedQuantity;
+        try {
+            reservedQuantity = loader.getAsLong();
+        } catch (RuntimeException e) {
+            if (entry == null) {
+                throw e;
+            }
+            staleFallbacks.increment();
+            logger.debug("Serving stale reserved quantity of item {} on {}: {}", itemId, day, e.getMessage());
+            return entry.reservedQuantity();
+        }
+        Entry loaded = new Entry(windowStart, reservedQuantity, ticker.read(), false);
+        // Checked under the key's lock, which the invalidation also takes to mark this key stale
+        cache.asMap().compute(key, (k, current) -> generation.get() == loadGeneration ? loaded : current);
+        return reservedQuantity;
+    }
+
+    /**
+     * Invalidates the given items' quantities for day and every later day.
+     *
+     * @param changedAt When the reservation changed, for the invalidation lag metric; may be null
+     */
+    public void invalidate(Collection<String> itemIds, LocalDate day, LocalDateTime changedAt) {
+        generation.incrementAndGet();
+        Set<String> ids = Set.copyOf(itemIds);
+        cache.asMap().replaceAll((key, entry) ->
+                ids.contains(key.itemId()) && !key.day().isBefore(day) ? entry.markStale() : entry);
+        itemInvalidations.increment();
+        recordLag(changedAt);
+        logger.debug("Invalidated reserved quantities of {} items from {}", ids.size(), day);
+    }
+
+    /**
+     * Invalidates every cached quantity, for changes whose items or day are not known.
+     */
+    public void invalidateAll(LocalDateTime changedAt) {
+        generation.incrementAndGet();
+        cache.asMap().replaceAll((key, entry) -> entry.markStale());
+        fullInvalidations.increment();
+        recordLag(changedAt);
+        logger.debug("Invalidated all reserved quantities");
+    }
+
+    double getHitRatio() {
+        long hitTotal = hitCount.sum();
+        long total = hitTotal + missCount.sum();
+        return total > 0 ? (double) hitTotal / total : 0.0;
+    }
+
+    long size() {
+        cache.cleanUp();
+        return cache.estimatedSize();
+    }
+
+    long staleCount() {
+        return cache.asMap().values().stream().filter(Entry::stale).count();
+    }
+
+    private void recordLag(LocalDateTime changedAt) {
+        if (changedAt != null) {
+            Duration lag = Duration.between(changedAt, LocalDateTime.now());
+            invalidationLag.record(lag.isNegative() ? Duration.ZERO : lag);
+        }
+    }
+}
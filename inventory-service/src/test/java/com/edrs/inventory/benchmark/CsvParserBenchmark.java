@@ -0,0 +1,100 @@
+package com.edrs.inventory.benchmark;
+
+import ch.qos.logback.classic.Level;
+import com.edrs.inventory.service.CsvInventoryParser;
+import com.edrs.inventory.service.FastCsvInventoryParser;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+import org.openjdk.jmh.runner.Runner;
+import org.openjdk.jmh.runner.RunnerException;
+import org.openjdk.jmh.runner.options.Options;
+import org.openjdk.jmh.runner.options.OptionsBuilder;
+import org.slf4j.LoggerFactory;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.io.InputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Compares {@link CsvInventoryParser} with {@link FastCsvInventoryParser} on a generated bulk import file.
+ * Run with: mvn -pl inventory-service -am -Pbenchmark test -DskipTests
+ * (add -Dbenchmark="CsvParserBenchmark -prof gc" to report allocation per operation).
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations = 3)
+@Measurement(iterations = 5)
+@Fork(1)
+public class CsvParserBenchmark {
+
+    @Param("1000000")
+    private int lines;
+
+    private Path file;
+    private CsvInventoryParser csvParser;
+    private FastCsvInventoryParser fastParser;
+
+    @Setup
+    public void setUp() throws IOException {
+        // The current parser logs every record at DEBUG, which would dominate its timings
+        ((ch.qos.logback.classic.Logger) LoggerFactory.getLogger("com.edrs")).setLevel(Level.INFO);
+
+        file = Files.createTempFile("inventory-benchmark", ".csv");
+        Random random = new Random(42);
+        try (BufferedWriter writer = Files.newBufferedWriter(file, StandardCharsets.UTF_8)) {
+            writer.write("inventoryItemId,quantity\n");
+            for (int i = 0; i < lines; i++) {
+                writer.write("item-");
+                writer.write(Integer.toString(random.nextInt(10_000)));
+                writer.write(',');
+                writer.write(Integer.toString(random.nextInt(1_000)));
+                writer.write('\n');
+            }
+        }
+        csvParser = new CsvInventoryParser();
+        fastParser = new FastCsvInventoryParser(64 * 1024 * 1024, 65536);
+    }
+
+    @TearDown
+    public void tearDown() throws IOException {
+        Files.deleteIfExists(file);
+    }
+
+    @Benchmark
+    public CsvInventoryParser.ParseResult currentParser(Blackhole blackhole) throws IOException {
+        InputStream input = Files.newInputStream(file);
+        return csvParser.parseCsv(input, blackhole::consume, (lineNumber, message) -> { });
+    }
+
+    @Benchmark
+    public CsvInventoryParser.ParseResult fastParser(Blackhole blackhole) {
+        return fastParser.parse(file, (itemId, quantity) -> {
+            blackhole.consume(itemId);
+            blackhole.consume(quantity);
+        }, (lineNumber, message) -> { });
+    }
+
+    public static void main(String[] args) throws RunnerException {
+        Options options = new OptionsBuilder()
+                .include(CsvParserBenchmark.class.getSimpleName())
+                .build();
+        new Runner(options).run();
+    }
+}
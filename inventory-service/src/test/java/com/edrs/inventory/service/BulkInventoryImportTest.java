@@ -0,0 +1,126 @@
+package com.edrs.inventory.service;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class BulkInventoryImportTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    private final UUID bulkImportId = UUID.randomUUID();
+
+    // Chunks as published: the import reuses its arrays, so they are copied when received
+    private final List<String> chunks = new ArrayList<>();
+
+    @BeforeEach
+    void setUp() {
+        lenient().doAnswer(invocation -> {
+            String[] itemIds = invocation.getArgument(0);
+            int[] quantities = invocation.getArgument(1);
+            int count = invocation.getArgument(2);
+            StringBuilder chunk = new StringBuilder();
+            chunk.append(invocation.<Integer>getArgument(4)).append(invocation.<Boolean>getArgument(5) ? " last:" : ":");
+            for (int i = 0; i < count; i++) {
+                chunk.append(' ').append(itemIds[i]).append('=').append(quantities[i]);
+            }
+            chunks.add(chunk.toString());
+            return null;
+        }).when(inventoryService).receiveInventoryChunk(any(), any(), anyInt(), eq(bulkImportId), anyInt(), anyBoolean());
+    }
+
+    private void addItems(BulkInventoryImport bulkImport, int count) {
+        for (int i = 1; i <= count; i++) {
+            bulkImport.add("item" + i, i);
+        }
+    }
+
+    @Test
+    void testAdd_PublishesFullChunkWhenNextRecordArrives() {
+        // Given
+        BulkInventoryImport bulkImport = new BulkInventoryImport(inventoryService, bulkImportId, 2);
+
+        // When
+        addItems(bulkImport, 2);
+
+        // Then - a full chunk is held back until it is known whether it is the last
+        assertTrue(chunks.isEmpty());
+        bulkImport.add("item3", 3);
+        assertEquals(List.of("0: item1=1 item2=2"), chunks);
+    }
+
+    @Test
+    void testComplete_PartialLastChunk() {
+        // Given
+        BulkInventoryImport bulkImport = new BulkInventoryImport(inventoryService, bulkImportId, 2);
+        addItems(bulkImport, 5);
+
+        // When
+        bulkImport.complete();
+
+        // Then
+        assertEquals(Arrays.asList("0: item1=1 item2=2", "1: item3=3 item4=4", "2 last: item5=5"), chunks);
+        assertEquals(3, bulkImport.getChunksPublished());
+        assertEquals(5, bulkImport.getRecordsPublished());
+    }
+
+    @Test
+    void testComplete_ExactMultipleOfChunkSizeFlagsLastFullChunk() {
+        // Given
+        BulkInventoryImport bulkImport = new BulkInventoryImport(inventoryService, bulkImportId, 2);
+        addItems(bulkImport, 4);
+
+        // When
+        bulkImport.complete();
+
+        // Then - no empty trailing chunk; the second full chunk is the last one
+        assertEquals(Arrays.asList("0: item1=1 item2=2", "1 last: item3=3 item4=4"), chunks);
+        assertEquals(2, bulkImport.getChunksPublished());
+        assertEquals(4, bulkImport.getRecordsPublished());
+    }
+
+    @Test
+    void testComplete_NoRecordsPublishesNothing() {
+        // Given
+        BulkInventoryImport bulkImport = new BulkInventoryImport(inventoryService, bulkImportId, 2);
+
+        // When
+        bulkImport.complete();
+        bulkImport.complete();
+
+        // Then
+        verifyNoInteractions(inventoryService);
+        assertEquals(0, bulkImport.getChunksPublished());
+    }
+
+    @Test
+    void testAdd_AfterCompleteThrows() {
+        // Given
+        BulkInventoryImport bulkImport = new BulkInventoryImport(inventoryService, bulkImportId, 2);
+        addItems(bulkImport, 1);
+        bulkImport.complete();
+
+        // When / Then
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> bulkImport.add("item2", 2));
+        assertTrue(e.getMessage().contains(bulkImportId.toString()));
+        assertEquals(List.of("0 last: item1=1"), chunks);
+    }
+
+    @Test
+    void testConstructor_RejectsChunkSizeBelowOne() {
+        assertThrows(IllegalArgumentException.class, () -> new BulkInventoryImport(inventoryService, bulkImportId, 0));
+    }
+}
@@ -0,0 +1,65 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.InventoryReceiveRequest;
+import org.junit.jupiter.api.Test;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CsvInventoryParserTest {
+
+    private final CsvInventoryParser parser = new CsvInventoryParser();
+
+    private static MockMultipartFile csvFile(String name, String content) {
+        return new MockMultipartFile("file", name, "text/csv", content.getBytes(StandardCharsets.UTF_8));
+    }
+
+    @Test
+    void testParseCsv_StreamsRecordsAndSkipsBadRow() {
+        // Given
+        MockMultipartFile file = csvFile("inventory.csv",
+                "inventoryItemId,quantity\nitem1,10\nitem2,ten\n\nitem3,3\n");
+        List<String> records = new ArrayList<>();
+
+        // When
+        CsvInventoryParser.ParseResult result = parser.parseCsv(file,
+                record -> records.add(record.getInventoryItemId() + "=" + record.getQuantity()));
+
+        // Then - records reach the consumer in file order, the bad row is only counted
+        assertEquals(List.of("item1=10", "item3=3"), records);
+        assertEquals(2, result.getRecordsParsed());
+        assertEquals(1, result.getLinesSkipped());
+    }
+
+    @Test
+    void testParseCsv_ConsumerExceptionAbortsParsing() {
+        // Given
+        MockMultipartFile file = csvFile("inventory.csv", "inventoryItemId,quantity\nitem1,1\nitem2,2\n");
+        List<InventoryReceiveRequest.ReceiveRecord> records = new ArrayList<>();
+
+        // When
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> parser.parseCsv(file, record -> {
+            records.add(record);
+            throw new IllegalStateException("Import cancelled");
+        }));
+
+        // Then - rethrown as is, after the first record
+        assertEquals("Import cancelled", e.getMessage());
+        assertEquals(1, records.size());
+    }
+
+    @Test
+    void testParseCsv_RejectsNonCsvFileBeforeReading() {
+        // Given
+        MockMultipartFile file = csvFile("inventory.txt", "inventoryItemId,quantity\nitem1,1\n");
+        List<InventoryReceiveRequest.ReceiveRecord> records = new ArrayList<>();
+
+        // When / Then
+        assertThrows(IllegalArgumentException.class, () -> parser.parseCsv(file, records::add));
+        assertTrue(records.isEmpty());
+    }
+}
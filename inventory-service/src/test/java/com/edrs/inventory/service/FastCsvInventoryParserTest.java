@@ -0,0 +1,107 @@
+package com.edrs.inventory.service;
+
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.io.ByteArrayInputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class FastCsvInventoryParserTest {
+
+    private static final String CSV = "inventoryItemId,quantity\r\n"
+            + "item1,10\r\n"
+            + "  item2 , 5 \n"
+            + "\n"
+            + "\"item,3\",\"7\"\r"
+            + "item1,+2,ignored\n"
+            + "item4\n"
+            + "item5,ten\n"
+            + ",3\n"
+            + "item6,-1\n"
+            + "item7,99999999999\n"
+            + "caf\u00e9,1";
+
+    @TempDir
+    Path tempDir;
+
+    private final CsvInventoryParser csvParser = new CsvInventoryParser();
+
+    @Test
+    void testParse_MatchesCsvInventoryParser() {
+        // Given
+        List<String> expected = new ArrayList<>();
+        CsvInventoryParser.ParseResult expectedResult = csvParser.parseCsv(
+                new ByteArrayInputStream(CSV.getBytes(StandardCharsets.UTF_8)),
+                record -> expected.add(record.getInventoryItemId() + "=" + record.getQuantity()),
+                (lineNumber, message) -> expected.add(lineNumber + ":" + message));
+        FastCsvInventoryParser parser = new FastCsvInventoryParser(1024, 16);
+        List<String> actual = new ArrayList<>();
+
+        // When
+        CsvInventoryParser.ParseResult result = parser.parse(
+                ByteBuffer.wrap(CSV.getBytes(StandardCharsets.UTF_8)),
+                (itemId, quantity) -> actual.add(itemId + "=" + quantity),
+                (lineNumber, message) -> actual.add(lineNumber + ":" + message));
+
+        // Then
+        assertEquals(expected, actual);
+        assertEquals(expectedResult.getRecordsParsed(), result.getRecordsParsed());
+        assertEquals(expectedResult.getLinesSkipped(), result.getLinesSkipped());
+        assertEquals(5, result.getRecordsParsed());
+        assertEquals(5, result.getLinesSkipped());
+    }
+
+    @Test
+    void testParseFile_LinesSpanningWindows() throws Exception {
+        // Given: a window barely longer than the header, so lines and \r\n pairs straddle window boundaries
+        Path file = tempDir.resolve("inventory.csv");
+        Files.write(file, CSV.getBytes(StandardCharsets.UTF_8));
+        List<String> expected = new ArrayList<>();
+        new FastCsvInventoryParser(1024, 16).parse(ByteBuffer.wrap(CSV.getBytes(StandardCharsets.UTF_8)),
+                (itemId, quantity) -> expected.add(itemId + "=" + quantity),
+                (lineNumber, message) -> expected.add(lineNumber + ":" + message));
+        List<String> actual = new ArrayList<>();
+
+        // When
+        new FastCsvInventoryParser(32, 16).parse(file,
+                (itemId, quantity) -> actual.add(itemId + "=" + quantity),
+                (lineNumber, message) -> actual.add(lineNumber + ":" + message));
+
+        // Then
+        assertEquals(expected, actual);
+    }
+
+    @Test
+    void testParse_InternsRepeatedIds() {
+        // Given
+        byte[] csv = "inventoryItemId,quantity\nitem1,1\nitem1,2\n".getBytes(StandardCharsets.UTF_8);
+        List<String> ids = new ArrayList<>();
+
+        // When
+        new FastCsvInventoryParser(1024, 16).parse(ByteBuffer.wrap(csv),
+                (itemId, quantity) -> ids.add(itemId), (lineNumber, message) -> { });
+
+        // Then
+        assertEquals(2, ids.size());
+        assertSame(ids.get(0), ids.get(1));
+    }
+
+    @Test
+    void testParseInt() {
+        byte[] bytes = "2147483647".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Integer.MAX_VALUE, FastCsvInventoryParser.parseInt(bytes, 0, bytes.length));
+        bytes = "-2147483648".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Integer.MIN_VALUE, FastCsvInventoryParser.parseInt(bytes, 0, bytes.length));
+        bytes = "2147483648".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Long.MIN_VALUE, FastCsvInventoryParser.parseInt(bytes, 0, bytes.length));
+        bytes = "-".getBytes(StandardCharsets.US_ASCII);
+        assertEquals(Long.MIN_VALUE, FastCsvInventoryParser.parseInt(bytes, 0, bytes.length));
+    }
+}
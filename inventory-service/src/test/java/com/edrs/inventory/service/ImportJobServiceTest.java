@@ -0,0 +1,153 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.controller.InventoryController;
+import com.edrs.inventory.dto.ImportJobResponse;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.mock.web.MockMultipartFile;
+
+import java.nio.charset.StandardCharsets;
+import java.util.UUID;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.Mockito.when;
+
+@ExtendWith(MockitoExtension.class)
+class ImportJobServiceTest {
+
+    @Mock
+    private CsvInventoryParser csvParser;
+
+    @Mock
+    private FastCsvInventoryParser fastCsvParser;
+
+    @Mock
+    private InventoryService inventoryService;
+
+    private final CountDownLatch firstImportStarted = new CountDownLatch(1);
+    private final CountDownLatch releaseFirstImport = new CountDownLatch(1);
+    private ImportJobService importJobService;
+
+    @AfterEach
+    void tearDown() {
+        releaseFirstImport.countDown();
+        if (importJobService != null) {
+            importJobService.shutdown();
+        }
+    }
+
+    private static MockMultipartFile csvFile() {
+        return new MockMultipartFile("file", "inventory.csv", "text/csv",
+                "inventoryItemId,quantity\nitem1,10\n".getBytes(StandardCharsets.UTF_8));
+    }
+
+    /**
+     * The first import blocks its worker until released; later imports complete with nothing published.
+     */
+    private void blockFirstImport() {
+        AtomicInteger imports = new AtomicInteger();
+        when(inventoryService.startBulkImport(any(UUID.class))).thenAnswer(invocation -> {
+            if (imports.incrementAndGet() == 1) {
+                firstImportStarted.countDown();
+                releaseFirstImport.await();
+            }
+            return new BulkInventoryImport(inventoryService, invocation.getArgument(0), 10);
+        });
+    }
+
+    private ImportJobResponse awaitStatus(UUID jobId, String status) throws InterruptedException {
+        long deadline = System.nanoTime() + TimeUnit.SECONDS.toNanos(5);
+        ImportJobResponse job = importJobService.getJob(jobId);
+        while (!status.equals(job.getStatus()) && System.nanoTime() < deadline) {
+            Thread.sleep(5);
+            job = importJobService.getJob(jobId);
+        }
+        assertEquals(status, job.getStatus());
+        return job;
+    }
+
+    @Test
+    void testSubmit_QueueFullRejectsUpload() throws InterruptedException {
+        // Given - one worker busy and one upload queued
+        importJobService = new ImportJobService(csvParser, fastCsvParser, inventoryService, 1, 1, 100, 60);
+        blockFirstImport();
+        ImportJobResponse running = importJobService.submit(csvFile());
+        assertTrue(firstImportStarted.await(5, TimeUnit.SECONDS));
+        ImportJobResponse queued = importJobService.submit(csvFile());
+
+        // When / Then
+        assertThrows(RejectedExecutionException.class, () -> importJobService.submit(csvFile()));
+        assertEquals("RUNNING", importJobService.getJob(running.getJobId()).getStatus());
+        assertEquals("QUEUED", importJobService.getJob(queued.getJobId()).getStatus());
+    }
+
+    @Test
+    void testBulkReceiveInventory_QueueFullReturnsServiceUnavailable() throws InterruptedException {
+        // Given
+        importJobService = new ImportJobService(csvParser, fastCsvParser, inventoryService, 1, 1, 100, 60);
+        InventoryController controller = new InventoryController(inventoryService, importJobService);
+        blockFirstImport();
+        assertEquals(HttpStatus.ACCEPTED, controller.bulkReceiveInventory(csvFile()).getStatusCode());
+        assertTrue(firstImportStarted.await(5, TimeUnit.SECONDS));
+        assertEquals(HttpStatus.ACCEPTED, controller.bulkReceiveInventory(csvFile()).getStatusCode());
+
+        // When
+        ResponseEntity<ImportJobResponse> response = controller.bulkReceiveInventory(csvFile());
+
+        // Then
+        assertEquals(HttpStatus.SERVICE_UNAVAILABLE, response.getStatusCode());
+        assertEquals("REJECTED", response.getBody().getStatus());
+        assertNull(response.getBody().getJobId());
+    }
+
+    @Test
+    void testSubmit_EvictsFinishedJobsPastRetention() throws InterruptedException {
+        // Given - no retention, a running job and a completed one
+        importJobService = new ImportJobService(csvParser, fastCsvParser, inventoryService, 2, 1, 100, 0);
+        blockFirstImport();
+        UUID running = importJobService.submit(csvFile()).getJobId();
+        assertTrue(firstImportStarted.await(5, TimeUnit.SECONDS));
+        UUID completed = importJobService.submit(csvFile()).getJobId();
+        awaitStatus(completed, "COMPLETED");
+        Thread.sleep(5);
+
+        // When - eviction runs on the next upload
+        importJobService.submit(csvFile());
+
+        // Then
+        assertNull(importJobService.getJob(completed));
+        assertEquals("RUNNING", importJobService.getJob(running).getStatus());
+    }
+
+    @Test
+    void testOnChunkPersisted_CompletesPublishedJob() throws InterruptedException {
+        // Given
+        importJobService = new ImportJobService(csvParser, fastCsvParser, inventoryService, 1, 1, 100, 60);
+        when(inventoryService.startBulkImport(any(UUID.class))).thenAnswer(invocation -> {
+            BulkInventoryImport bulkImport = new BulkInventoryImport(inventoryService, invocation.getArgument(0), 10);
+            bulkImport.add("item1", 10);
+            return bulkImport;
+        });
+        UUID jobId = importJobService.submit(csvFile()).getJobId();
+        awaitStatus(jobId, "PUBLISHED");
+
+        // When
+        importJobService.onChunkPersisted(UUID.randomUUID(), 0, 1);
+        importJobService.onChunkPersisted(jobId, 0, 1);
+
+        // Then
+        ImportJobResponse job = importJobService.getJob(jobId);
+        assertEquals("COMPLETED", job.getStatus());
+        assertEquals(1, job.getRowsPersisted());
+    }
+}
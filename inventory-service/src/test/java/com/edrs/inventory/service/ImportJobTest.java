@@ -0,0 +1,139 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.ImportJobResponse;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDateTime;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ImportJobTest {
+
+    private final ImportJob job = new ImportJob(UUID.randomUUID(), "inventory.csv", 2);
+
+    @Test
+    void testStart_QueuedToRunning() {
+        // Given
+        assertEquals("QUEUED", job.toResponse().getStatus());
+
+        // When
+        job.start();
+
+        // Then
+        ImportJobResponse response = job.toResponse();
+        assertEquals("RUNNING", response.getStatus());
+        assertNotNull(response.getStartedAt());
+        assertNull(response.getCompletedAt());
+    }
+
+    @Test
+    void testFinishPublishing_WaitsForOutstandingAcknowledgements() {
+        // Given
+        job.start();
+
+        // When
+        job.finishPublishing(20, 2);
+        job.chunkPersisted(0, 10);
+
+        // Then
+        assertEquals("PUBLISHED", job.toResponse().getStatus());
+        job.chunkPersisted(1, 10);
+        ImportJobResponse response = job.toResponse();
+        assertEquals("COMPLETED", response.getStatus());
+        assertEquals(20, response.getRowsPersisted());
+        assertNotNull(response.getCompletedAt());
+    }
+
+    @Test
+    void testChunkPersisted_AcknowledgementsBeforeFinishPublishing() {
+        // Given - the persistence service can acknowledge every chunk before the worker records the end
+        job.start();
+        job.updatePublished(15, 2);
+
+        // When
+        job.chunkPersisted(0, 10);
+        job.chunkPersisted(1, 5);
+
+        // Then - still running until the worker has published everything
+        assertEquals("RUNNING", job.toResponse().getStatus());
+        job.finishPublishing(15, 2);
+        ImportJobResponse response = job.toResponse();
+        assertEquals("COMPLETED", response.getStatus());
+        assertEquals(15, response.getRowsPersisted());
+        assertEquals(2, response.getChunksPersisted());
+    }
+
+    @Test
+    void testChunkPersisted_DuplicateAcknowledgementIgnored() {
+        // Given
+        job.start();
+        job.finishPublishing(20, 2);
+
+        // When
+        job.chunkPersisted(0, 10);
+        job.chunkPersisted(0, 10);
+
+        // Then - a redelivered acknowledgement neither counts twice nor completes the job
+        ImportJobResponse response = job.toResponse();
+        assertEquals("PUBLISHED", response.getStatus());
+        assertEquals(10, response.getRowsPersisted());
+        assertEquals(1, response.getChunksPersisted());
+    }
+
+    @Test
+    void testFinishPublishing_NoRecordsCompletesImmediately() {
+        // Given
+        job.start();
+
+        // When
+        job.finishPublishing(0, 0);
+
+        // Then
+        ImportJobResponse response = job.toResponse();
+        assertEquals("COMPLETED", response.getStatus());
+        assertEquals("No valid records found in CSV file", response.getMessage());
+    }
+
+    @Test
+    void testFail_RecordsMessage() {
+        // Given
+        job.start();
+
+        // When
+        job.fail("Disk full");
+
+        // Then
+        ImportJobResponse response = job.toResponse();
+        assertEquals("FAILED", response.getStatus());
+        assertEquals("Disk full", response.getMessage());
+        assertTrue(job.finishedBefore(LocalDateTime.now().plusSeconds(1)));
+    }
+
+    @Test
+    void testFinishedBefore_OnlyOncePublished() {
+        LocalDateTime later = LocalDateTime.now().plusSeconds(1);
+        assertFalse(job.finishedBefore(later));
+        job.start();
+        assertFalse(job.finishedBefore(later));
+
+        // Chunks sent to the dead-letter topic are never acknowledged, so publishing is enough
+        job.finishPublishing(10, 1);
+        assertTrue(job.finishedBefore(later));
+        assertFalse(job.finishedBefore(LocalDateTime.now().minusMinutes(1)));
+    }
+
+    @Test
+    void testRecordError_KeepsFirstMaxErrors() {
+        // When
+        job.recordError(2, "Invalid quantity");
+        job.recordError(3, "Missing item ID");
+        job.recordError(4, "Invalid quantity");
+
+        // Then
+        ImportJobResponse response = job.toResponse();
+        assertEquals(3, response.getRowsFailed());
+        assertEquals(2, response.getErrors().size());
+        assertTrue(response.isErrorsTruncated());
+    }
+}
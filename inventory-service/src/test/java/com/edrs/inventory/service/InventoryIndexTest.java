@@ -0,0 +1,117 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.InventoryFilter;
+import com.edrs.inventory.dto.InventoryItem;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class InventoryIndexTest {
+
+    private final Map<String, InventoryItem> store = new HashMap<>();
+    private final InventoryIndex index = new InventoryIndex();
+
+    @BeforeEach
+    void setUp() {
+        put(new InventoryItem("item1", "Laptop", "Dell Laptop", 10, "Electronics"));
+        put(new InventoryItem("item2", "Projector", "HD Projector", 5, "Electronics"));
+        put(new InventoryItem("item3", "Conference Room A", "Large conference room", 1, "Rooms"));
+        put(new InventoryItem("item4", "Laptop Stand", null, 0, "Accessories"));
+    }
+
+    private void put(InventoryItem item) {
+        index.update(store.get(item.getId()), item);
+        store.put(item.getId(), item);
+    }
+
+    private List<String> query(InventoryFilter filter) {
+        return index.query(filter, store::get).stream().map(InventoryItem::getId).collect(Collectors.toList());
+    }
+
+    private static InventoryFilter filter() {
+        return new InventoryFilter();
+    }
+
+    @Test
+    void testQuery_NoFilterSortsById() {
+        assertEquals(List.of("item1", "item2", "item3", "item4"), query(null));
+    }
+
+    @Test
+    void testQuery_Category() {
+        InventoryFilter filter = filter();
+        filter.setCategory("Electronics");
+        assertEquals(List.of("item1", "item2"), query(filter));
+    }
+
+    @Test
+    void testQuery_NameContainsIsCaseInsensitive() {
+        InventoryFilter filter = filter();
+        filter.setNameContains("LAPTOP");
+        assertEquals(List.of("item1", "item4"), query(filter));
+
+        // Shorter than a trigram: served by walking the id index
+        filter.setNameContains("oj");
+        assertEquals(List.of("item2"), query(filter));
+
+        filter.setNameContains("tablet");
+        assertEquals(List.of(), query(filter));
+    }
+
+    @Test
+    void testQuery_MinQuantityCombinedWithOtherFilters() {
+        InventoryFilter filter = filter();
+        filter.setMinQuantity(5);
+        assertEquals(List.of("item1", "item2"), query(filter));
+
+        filter.setNameContains("lap");
+        assertEquals(List.of("item1"), query(filter));
+    }
+
+    @Test
+    void testQuery_SortAndPage() {
+        InventoryFilter filter = filter();
+        filter.setSortBy(InventoryFilter.SORT_BY_QUANTITY);
+        filter.setSortDirection("desc");
+        filter.setSize(2);
+        assertEquals(List.of("item1", "item2"), query(filter));
+
+        filter.setPage(1);
+        assertEquals(List.of("item3", "item4"), query(filter));
+
+        filter.setPage(2);
+        assertEquals(List.of(), query(filter));
+
+        filter.setPage(0);
+        filter.setSortBy(InventoryFilter.SORT_BY_NAME);
+        filter.setSortDirection("asc");
+        filter.setMinQuantity(1);
+        assertEquals(List.of("item3", "item1"), query(filter));
+    }
+
+    @Test
+    void testUpdate_MovesItemBetweenIndexEntries() {
+        // Given
+        put(new InventoryItem("item4", "Monitor", null, 7, "Electronics"));
+
+        // When
+        InventoryFilter byName = filter();
+        byName.setNameContains("stand");
+        InventoryFilter byCategory = filter();
+        byCategory.setCategory("Electronics");
+        byCategory.setSortBy(InventoryFilter.SORT_BY_QUANTITY);
+        InventoryFilter accessories = filter();
+        accessories.setCategory("Accessories");
+
+        // Then
+        assertEquals(List.of(), query(byName));
+        assertEquals(List.of("item2", "item4", "item1"), query(byCategory));
+        assertEquals(List.of(), query(accessories));
+    }
+}
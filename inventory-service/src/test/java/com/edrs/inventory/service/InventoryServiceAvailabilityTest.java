@@ -0,0 +1,192 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.AvailabilityCalendarResponse;
+import com.edrs.inventory.dto.AvailabilityMatrixResponse;
+import com.edrs.inventory.dto.InventoryItem;
+import com.edrs.inventory.dto.ReservedQuantity;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.stream.Collectors;
+import java.util.stream.IntStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventoryServiceAvailabilityTest {
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private ReservedQuantityCache reservedQuantityCache;
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    void setUp() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        reservedQuantityCache = new ReservedQuantityCache(meterRegistry, true, 1000, 60_000);
+        inventoryService = new InventoryService(kafkaTemplate, new ObjectMapper(), restTemplate,
+                reservedQuantityCache, new PersistenceCallGuard(meterRegistry, 20, 50, 5, 10_000));
+        ReflectionTestUtils.setField(inventoryService, "persistenceServiceUrl", "http://persistence:8084");
+        inventoryService.loadSnapshot(List.of(
+                new InventoryItem("item1", "Laptop", "Dell Laptop", 10, "Electronics"),
+                new InventoryItem("item2", "Projector", "HD Projector", 5, "Electronics")));
+    }
+
+    @Test
+    void testGetEffectiveAvailableQuantity_AsksPersistenceServiceOnMissOnly() {
+        // Given
+        when(restTemplate.getForObject(any(URI.class), eq(Long.class))).thenReturn(3L);
+        LocalDateTime targetDate = LocalDateTime.now().plusDays(2);
+
+        // When
+        Integer first = inventoryService.getEffectiveAvailableQuantity("item1", targetDate);
+        Integer second = inventoryService.getEffectiveAvailableQuantity("item1", targetDate.withHour(23));
+
+        // Then
+        assertEquals(7, first);
+        assertEquals(7, second);
+        verify(restTemplate, times(1)).getForObject(any(URI.class), eq(Long.class));
+    }
+
+    @Test
+    void testGetEffectiveAvailableQuantity_UsesLastCachedQuantityWhenPersistenceFails() {
+        // Given: a cached quantity that a reservation event has since invalidated
+        LocalDateTime targetDate = LocalDateTime.now().plusDays(2);
+        when(restTemplate.getForObject(any(URI.class), eq(Long.class)))
+                .thenReturn(3L)
+                .thenThrow(new ResourceAccessException("Read timed out"));
+        inventoryService.getEffectiveAvailableQuantity("item1", targetDate);
+        reservedQuantityCache.invalidate(List.of("item1"), targetDate.toLocalDate(), null);
+
+        // When
+        Integer effectiveQuantity = inventoryService.getEffectiveAvailableQuantity("item1", targetDate);
+
+        // Then
+        assertEquals(7, effectiveQuantity);
+        verify(restTemplate, times(2)).getForObject(any(URI.class), eq(Long.class));
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testGetEffectiveAvailability_RunningTotalPerDay() {
+        // Given: item1 has 3 reserved up to the first day and 4 more on the third; item2 has 6 on the second
+        LocalDate start = LocalDate.now().plusDays(1);
+        when(restTemplate.postForObject(eq("http://persistence:8084/api/persistence/reservations/quantities"),
+                any(), eq(ReservedQuantity[].class))).thenReturn(new ReservedQuantity[]{
+                        new ReservedQuantity("item1", start, 3),
+                        new ReservedQuantity("item1", start.plusDays(2), 4),
+                        new ReservedQuantity("item2", start.plusDays(1), 6)});
+
+        // When
+        AvailabilityMatrixResponse response = inventoryService.getEffectiveAvailability(
+                List.of("item1", "missing", "item2", "item1"), start, start.plusDays(2));
+
+        // Then
+        assertEquals(List.of(start, start.plusDays(1), start.plusDays(2)), response.getDates());
+        assertEquals(List.of("missing"), response.getUnknownItemIds());
+        assertTrue(response.isReservationsIncluded());
+        assertEquals(2, response.getItems().size());
+        assertEquals("item1", response.getItems().get(0).getItemId());
+        assertEquals(List.of(7, 7, 3), response.getItems().get(0).getEffectiveAvailableQuantities());
+        assertEquals(List.of(5, 0, 0), response.getItems().get(1).getEffectiveAvailableQuantities());
+
+        ArgumentCaptor<Map<String, Object>> request = ArgumentCaptor.forClass(Map.class);
+        verify(restTemplate).postForObject(anyString(), request.capture(), eq(ReservedQuantity[].class));
+        assertEquals(List.of("item1", "item2"), request.getValue().get("itemIds"));
+        assertEquals(LocalDate.now().minusYears(1).toString(), request.getValue().get("startDate"));
+        assertEquals(start.toString(), request.getValue().get("bucketDate"));
+        assertEquals(start.plusDays(2).toString(), request.getValue().get("endDate"));
+    }
+
+    @Test
+    void testGetEffectiveAvailability_FallsBackToBaseQuantity() {
+        // Given
+        when(restTemplate.postForObject(anyString(), any(), eq(ReservedQuantity[].class)))
+                .thenThrow(new ResourceAccessException("Connection refused"));
+
+        // When
+        AvailabilityMatrixResponse response = inventoryService.getEffectiveAvailability(
+                List.of("item1"), LocalDate.now(), LocalDate.now());
+
+        // Then
+        assertFalse(response.isReservationsIncluded());
+        assertEquals(List.of(10), response.getItems().get(0).getEffectiveAvailableQuantities());
+    }
+
+    @Test
+    void testGetEffectiveAvailability_RejectsInvalidRequests() {
+        LocalDate today = LocalDate.now();
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.getEffectiveAvailability(List.of(), today, today));
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.getEffectiveAvailability(List.of("item1"), today, today.minusDays(1)));
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.getEffectiveAvailability(List.of("item1"), today,
+                        today.plusDays(InventoryService.MAX_AVAILABILITY_DAYS)));
+        List<String> tooManyItems = IntStream.rangeClosed(0, InventoryService.MAX_AVAILABILITY_ITEMS)
+                .mapToObj(i -> "item" + i)
+                .collect(Collectors.toList());
+        assertThrows(IllegalArgumentException.class,
+                () -> inventoryService.getEffectiveAvailability(tooManyItems, today, today));
+        verifyNoInteractions(restTemplate);
+    }
+
+    @Test
+    void testGetAvailabilityCalendar_YearLongRangeWithOneQuery() {
+        // Given: 2 reserved up to the first day and 5 more half way through the year
+        LocalDate start = LocalDate.now();
+        LocalDate end = start.plusDays(InventoryService.MAX_AVAILABILITY_DAYS - 1);
+        when(restTemplate.postForObject(anyString(), any(), eq(ReservedQuantity[].class)))
+                .thenReturn(new ReservedQuantity[]{
+                        new ReservedQuantity("item1", start, 2),
+                        new ReservedQuantity("item1", start.plusDays(183), 5)});
+
+        // When
+        AvailabilityCalendarResponse calendar = inventoryService.getAvailabilityCalendar("item1", start, end);
+
+        // Then
+        assertEquals("item1", calendar.getItemId());
+        assertEquals(10, calendar.getBaseAvailableQuantity());
+        assertTrue(calendar.isReservationsIncluded());
+        assertEquals(InventoryService.MAX_AVAILABILITY_DAYS, calendar.getDays().size());
+        assertEquals(start, calendar.getDays().get(0).getDate());
+        assertEquals(8, calendar.getDays().get(0).getEffectiveAvailableQuantity());
+        assertEquals(8, calendar.getDays().get(182).getEffectiveAvailableQuantity());
+        assertEquals(3, calendar.getDays().get(183).getEffectiveAvailableQuantity());
+        assertEquals(end, calendar.getDays().get(calendar.getDays().size() - 1).getDate());
+        verify(restTemplate, times(1)).postForObject(anyString(), any(), eq(ReservedQuantity[].class));
+    }
+
+    @Test
+    void testGetAvailabilityCalendar_UnknownItem() {
+        // When
+        AvailabilityCalendarResponse calendar = inventoryService.getAvailabilityCalendar(
+                "missing", LocalDate.now(), LocalDate.now().plusDays(30));
+
+        // Then
+        assertNull(calendar);
+        verifyNoInteractions(restTemplate);
+    }
+}
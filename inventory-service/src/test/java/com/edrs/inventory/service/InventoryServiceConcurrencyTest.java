@@ -0,0 +1,144 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.InventoryItem;
+import com.edrs.inventory.dto.InventoryReceiveRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.web.client.RestTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.Mockito.mock;
+
+class InventoryServiceConcurrencyTest {
+
+    private static final int THREADS = 8;
+    private static final int RECEIVES_PER_THREAD = 2_000;
+
+    private InventoryService inventoryService;
+
+    @BeforeEach
+    @SuppressWarnings("unchecked")
+    void setUp() {
+        ObjectMapper objectMapper = new ObjectMapper().registerModule(new JavaTimeModule());
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        inventoryService = new InventoryService(mock(KafkaTemplate.class), objectMapper, mock(RestTemplate.class),
+                new ReservedQuantityCache(meterRegistry, true, 1000, 60_000), new PersistenceCallGuard(meterRegistry, 20, 50, 5, 10_000));
+        inventoryService.loadSnapshot(List.of(new InventoryItem("item1", "Laptop", "Dell Laptop", 10, "Electronics")));
+    }
+
+    private static List<InventoryReceiveRequest.ReceiveRecord> records(String itemId, int quantity) {
+        InventoryReceiveRequest.ReceiveRecord record = new InventoryReceiveRequest.ReceiveRecord();
+        record.setInventoryItemId(itemId);
+        record.setQuantity(quantity);
+        return List.of(record);
+    }
+
+    /**
+     * Runs the task on every thread at once and rethrows the first failure.
+     */
+    private static void runConcurrently(Callable<Void> task) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        try {
+            CountDownLatch start = new CountDownLatch(1);
+            List<Future<Void>> futures = new ArrayList<>();
+            for (int i = 0; i < THREADS; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return task.call();
+                }));
+            }
+            start.countDown();
+            for (Future<Void> future : futures) {
+                future.get(60, TimeUnit.SECONDS);
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    void testReceiveInventory_ConcurrentReceivesLoseNoIncrements() throws Exception {
+        // Given: item1 starts at 10, item-new does not exist yet
+
+        // When: every thread receives into both items while also listing the inventory
+        runConcurrently(() -> {
+            for (int i = 0; i < RECEIVES_PER_THREAD; i++) {
+                inventoryService.receiveInventory(records("item1", 1));
+                inventoryService.receiveInventory(records("item-new", 2));
+                if (i % 100 == 0) {
+                    assertFalse(inventoryService.listInventory(null).isEmpty());
+                }
+            }
+            return null;
+        });
+
+        // Then
+        assertEquals(10 + THREADS * RECEIVES_PER_THREAD,
+                inventoryService.getInventoryItem("item1").getAvailableQuantity());
+        InventoryItem created = inventoryService.getInventoryItem("item-new");
+        assertEquals(2 * THREADS * RECEIVES_PER_THREAD, created.getAvailableQuantity());
+        assertEquals("Item item-new", created.getName());
+    }
+
+    @Test
+    void testReceiveInventory_ConcurrentChunksForDistinctItems() throws Exception {
+        // Given
+        AtomicInteger threadIds = new AtomicInteger();
+
+        // When: bulk import chunks and single receives interleave over the same keys
+        runConcurrently(() -> {
+            int thread = threadIds.getAndIncrement();
+            String[] itemIds = new String[100];
+            int[] quantities = new int[100];
+            for (int i = 0; i < itemIds.length; i++) {
+                itemIds[i] = "bulk-" + i;
+                quantities[i] = thread + 1;
+            }
+            for (int chunk = 0; chunk < 50; chunk++) {
+                inventoryService.receiveInventoryChunk(itemIds, quantities, itemIds.length,
+                        UUID.randomUUID(), chunk, chunk == 49);
+            }
+            return null;
+        });
+
+        // Then: each item received (1 + 2 + ... + THREADS) fifty times
+        int expected = 50 * THREADS * (THREADS + 1) / 2;
+        for (int i = 0; i < 100; i++) {
+            assertEquals(expected, inventoryService.getInventoryItem("bulk-" + i).getAvailableQuantity());
+        }
+    }
+
+    @Test
+    void testAddInventoryItem_OnlyOneConcurrentAddWins() throws Exception {
+        // Given
+        AtomicInteger added = new AtomicInteger();
+
+        // When
+        runConcurrently(() -> {
+            InventoryItem item = new InventoryItem("item-race", "Race", "Added concurrently", 1, "General");
+            if (inventoryService.addInventoryItem(item)) {
+                added.incrementAndGet();
+            }
+            return null;
+        });
+
+        // Then
+        assertEquals(1, added.get());
+        assertEquals(1, inventoryService.getInventoryItem("item-race").getAvailableQuantity());
+    }
+}
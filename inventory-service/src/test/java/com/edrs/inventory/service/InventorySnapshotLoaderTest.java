@@ -0,0 +1,162 @@
+package com.edrs.inventory.service;
+
+import com.edrs.inventory.dto.InventoryItem;
+import com.edrs.inventory.dto.InventoryReceiveRequest;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.core.ParameterizedTypeReference;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.ResponseEntity;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.web.client.ResourceAccessException;
+import org.springframework.web.client.RestTemplate;
+
+import java.net.URI;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class InventorySnapshotLoaderTest {
+
+    @Mock
+    private InventoryService inventoryService;
+
+    @Mock
+    private RestTemplate restTemplate;
+
+    private InventorySnapshotLoader loader;
+
+    @BeforeEach
+    void setUp() {
+        loader = new InventorySnapshotLoader(inventoryService, restTemplate, "http://persistence:8084",
+                true, 2, 3, 0L);
+    }
+
+    private static InventoryItem item(String id) {
+        return new InventoryItem(id, "Item " + id, null, 1, "General");
+    }
+
+    @SuppressWarnings("unchecked")
+    private void stubPages(Object... pages) {
+        var stubbing = when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(),
+                any(ParameterizedTypeReference.class)));
+        for (Object page : pages) {
+            if (page instanceof RuntimeException exception) {
+                stubbing = stubbing.thenThrow(exception);
+            } else {
+                stubbing = stubbing.thenReturn(ResponseEntity.ok(page));
+            }
+        }
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLoad_PagesByLastId() throws Exception {
+        // Given: a full page followed by a short one
+        List<InventoryItem> first = List.of(item("a"), item("b+1"));
+        List<InventoryItem> second = List.of(item("c"));
+        stubPages(first, second);
+        when(inventoryService.loadSnapshot(anyList())).thenAnswer(invocation -> ((List<?>) invocation.getArgument(0)).size());
+
+        // When
+        int loaded = loader.load();
+
+        // Then
+        assertEquals(3, loaded);
+        ArgumentCaptor<URI> uris = ArgumentCaptor.forClass(URI.class);
+        verify(restTemplate, times(2)).exchange(uris.capture(), eq(HttpMethod.GET), isNull(),
+                any(ParameterizedTypeReference.class));
+        assertEquals("http://persistence:8084/api/persistence/inventory?limit=2", uris.getAllValues().get(0).toString());
+        assertEquals("http://persistence:8084/api/persistence/inventory?limit=2&after=b%2B1",
+                uris.getAllValues().get(1).toString());
+        verify(inventoryService).loadSnapshot(first);
+        verify(inventoryService).loadSnapshot(second);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testLoad_MergesLocalWritesMadeWhilePagesLoad() throws Exception {
+        // Given: a real cache that receives into "a" and updates "b" while the page holding both is read
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        InventoryService cache = new InventoryService(mock(KafkaTemplate.class),
+                new ObjectMapper().registerModule(new JavaTimeModule()), mock(RestTemplate.class),
+                new ReservedQuantityCache(meterRegistry, true, 1000, 60_000),
+                new PersistenceCallGuard(meterRegistry, 20, 50, 5, 10_000));
+        loader = new InventorySnapshotLoader(cache, restTemplate, "http://persistence:8084", true, 2, 3, 0L);
+        InventoryReceiveRequest.ReceiveRecord receive = new InventoryReceiveRequest.ReceiveRecord();
+        receive.setInventoryItemId("a");
+        receive.setQuantity(5);
+        when(restTemplate.exchange(any(URI.class), eq(HttpMethod.GET), isNull(), any(ParameterizedTypeReference.class)))
+                .thenAnswer(invocation -> {
+                    cache.receiveInventory(List.of(receive));
+                    cache.updateInventoryItem(new InventoryItem("b", "Renamed", null, 7, "General"));
+                    return ResponseEntity.ok(List.of(
+                            new InventoryItem("a", "Laptop", null, 10, "Electronics"),
+                            new InventoryItem("b", "Projector", null, 3, "Electronics")));
+                })
+                .thenReturn(ResponseEntity.ok(List.of()));
+
+        // When
+        loader.load();
+
+        // Then: the receive is added to the persisted quantity, and the local update wins
+        InventoryItem received = cache.getInventoryItem("a");
+        assertEquals(15, received.getAvailableQuantity());
+        assertEquals("Laptop", received.getName());
+        InventoryItem updated = cache.getInventoryItem("b");
+        assertEquals(7, updated.getAvailableQuantity());
+        assertEquals("Renamed", updated.getName());
+    }
+
+    @Test
+    void testLoad_EndsSnapshotLoadWhenPagesFail() throws Exception {
+        // Given
+        ResourceAccessException unavailable = new ResourceAccessException("Connection refused");
+        stubPages(unavailable, unavailable, unavailable);
+
+        // When
+        loader.load();
+
+        // Then
+        verify(inventoryService).beginSnapshotLoad();
+        verify(inventoryService).endSnapshotLoad();
+    }
+
+    @Test
+    void testLoad_RetriesFailedPage() throws Exception {
+        // Given
+        List<InventoryItem> page = List.of(item("a"));
+        stubPages(new ResourceAccessException("Connection refused"), page);
+        when(inventoryService.loadSnapshot(page)).thenReturn(1);
+
+        // When
+        int loaded = loader.load();
+
+        // Then
+        assertEquals(1, loaded);
+    }
+
+    @Test
+    void testLoad_GivesUpAfterMaxAttempts() throws Exception {
+        // Given
+        ResourceAccessException unavailable = new ResourceAccessException("Connection refused");
+        stubPages(unavailable, unavailable, unavailable);
+
+        // When
+        int loaded = loader.load();
+
+        // Then
+        assertEquals(0, loaded);
+        verify(inventoryService, never()).loadSnapshot(anyList());
+    }
+}
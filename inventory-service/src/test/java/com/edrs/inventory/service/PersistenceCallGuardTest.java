@@ -0,0 +1,135 @@
+package com.edrs.inventory.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.web.client.HttpClientErrorException;
+import org.springframework.web.client.ResourceAccessException;
+
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class PersistenceCallGuardTest {
+
+    private SimpleMeterRegistry meterRegistry;
+    private PersistenceCallGuard guard;
+    private AtomicInteger calls;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        guard = new PersistenceCallGuard(meterRegistry, 1, 0, 3, 50);
+        calls = new AtomicInteger();
+    }
+
+    private String fail() {
+        calls.incrementAndGet();
+        throw new ResourceAccessException("Read timed out");
+    }
+
+    private String succeed() {
+        calls.incrementAndGet();
+        return "ok";
+    }
+
+    @Test
+    void testCall_OpensAfterConsecutiveFailuresAndShortCircuits() {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> guard.call("reserved_quantity", this::fail));
+        }
+
+        // When
+        assertThrows(PersistenceUnavailableException.class, () -> guard.call("reserved_quantity", this::succeed));
+
+        // Then
+        assertEquals(PersistenceCallGuard.State.OPEN, guard.getState());
+        assertEquals(3, calls.get());
+        assertEquals(3, meterRegistry.get("inventory.persistence_client.calls")
+                .tag("operation", "reserved_quantity").tag("outcome", "failure").timer().count());
+        assertEquals(1, meterRegistry.get("inventory.persistence_client.calls")
+                .tag("outcome", "short_circuited").timer().count());
+    }
+
+    @Test
+    void testCall_TrialAfterOpenDurationClosesCircuit() throws InterruptedException {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> guard.call("reserved_quantity", this::fail));
+        }
+        Thread.sleep(60);
+
+        // When
+        String result = guard.call("reserved_quantity", this::succeed);
+
+        // Then
+        assertEquals("ok", result);
+        assertEquals(PersistenceCallGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void testCall_FailedTrialReopensCircuit() throws InterruptedException {
+        // Given
+        for (int i = 0; i < 3; i++) {
+            assertThrows(ResourceAccessException.class, () -> guard.call("reserved_quantity", this::fail));
+        }
+        Thread.sleep(60);
+
+        // When
+        assertThrows(ResourceAccessException.class, () -> guard.call("reserved_quantity", this::fail));
+
+        // Then
+        assertEquals(PersistenceCallGuard.State.OPEN, guard.getState());
+        assertThrows(PersistenceUnavailableException.class, () -> guard.call("reserved_quantity", this::succeed));
+    }
+
+    @Test
+    void testCall_ClientErrorsDoNotOpenCircuit() {
+        for (int i = 0; i < 5; i++) {
+            assertThrows(HttpClientErrorException.class, () -> guard.call("reserved_quantities", () -> {
+                throw new HttpClientErrorException(HttpStatus.BAD_REQUEST);
+            }));
+        }
+        assertEquals(PersistenceCallGuard.State.CLOSED, guard.getState());
+    }
+
+    @Test
+    void testCall_RejectsWhenBulkheadFull() throws Exception {
+        // Given: the only slot is held by a slow call
+        CountDownLatch started = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        ExecutorService executor = Executors.newSingleThreadExecutor();
+        try {
+            Future<String> slow = executor.submit(() -> guard.call("reserved_quantity", () -> {
+                started.countDown();
+                try {
+                    release.await(5, TimeUnit.SECONDS);
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                }
+                return "slow";
+            }));
+            assertTrue(started.await(5, TimeUnit.SECONDS));
+
+            // When
+            assertThrows(PersistenceUnavailableException.class, () -> guard.call("reserved_quantity", this::succeed));
+
+            // Then
+            release.countDown();
+            assertEquals("slow", slow.get(5, TimeUnit.SECONDS));
+            assertEquals(0, calls.get());
+            assertEquals(PersistenceCallGuard.State.CLOSED, guard.getState());
+            assertEquals(1, meterRegistry.get("inventory.persistence_client.calls")
+                    .tag("outcome", "rejected").timer().count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package com.edrs.inventory.service;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ReservedQuantityCacheTest {
+
+    private static final LocalDate WINDOW_START = LocalDate.of(2025, 10, 16);
+    private static final LocalDate DAY = LocalDate.of(2026, 10, 20);
+
+    private SimpleMeterRegistry meterRegistry;
+    private ReservedQuantityCache cache;
+    private AtomicInteger loads;
+
+    @BeforeEach
+    void setUp() {
+        meterRegistry = new SimpleMeterRegistry();
+        cache = new ReservedQuantityCache(meterRegistry, true, 1000, 60_000);
+        loads = new AtomicInteger();
+    }
+
+    private long get(String itemId, LocalDate day, long value) {
+        return cache.get(itemId, WINDOW_START, day, () -> {
+            loads.incrementAndGet();
+            return value;
+        });
+    }
+
+    @Test
+    void testGet_LoadsOnMissOnly() {
+        // When
+        long first = get("item1", DAY, 3);
+        long second = get("item1", DAY, 99);
+
+        // Then
+        assertEquals(3, first);
+        assertEquals(3, second);
+        assertEquals(1, loads.get());
+        assertEquals(0.5, cache.getHitRatio());
+        assertEquals(1.0, meterRegistry.get("inventory.reserved_quantity_cache.requests").tag("result", "hit").counter().count());
+        assertEquals(1, meterRegistry.get("inventory.reserved_quantity_cache.entry_age").timer().count());
+    }
+
+    @Test
+    void testGet_ReloadsWhenWindowMoved() {
+        // Given
+        get("item1", DAY, 3);
+
+        // When
+        long reserved = cache.get("item1", WINDOW_START.plusDays(1), DAY, () -> {
+            loads.incrementAndGet();
+            return 2;
+        });
+
+        // Then
+        assertEquals(2, reserved);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testInvalidate_OnlyItemsFromDayOn() {
+        // Given
+        get("item1", DAY.minusDays(1), 1);
+        get("item1", DAY, 2);
+        get("item1", DAY.plusDays(5), 3);
+        get("item2", DAY, 4);
+
+        // When: a reservation of item1 on DAY changes every cumulative value from DAY on
+        cache.invalidate(List.of("item1"), DAY, LocalDateTime.now());
+
+        // Then
+        assertEquals(2, cache.staleCount());
+        get("item1", DAY.minusDays(1), 0);
+        get("item2", DAY, 0);
+        assertEquals(4, loads.get());
+        get("item1", DAY, 7);
+        get("item1", DAY.plusDays(5), 8);
+        assertEquals(6, loads.get());
+        assertEquals(1, meterRegistry.get("inventory.reserved_quantity_cache.invalidation_lag").timer().count());
+    }
+
+    @Test
+    void testGet_DoesNotCacheLoadOverlappingInvalidation() {
+        // When: the event arrives while the persistence service is being asked
+        long reserved = cache.get("item1", WINDOW_START, DAY, () -> {
+            cache.invalidate(List.of("item1"), DAY, null);
+            return 3;
+        });
+
+        // Then
+        assertEquals(3, reserved);
+        assertEquals(0, cache.size());
+    }
+
+    @Test
+    void testGet_FailedLoadIsNotCached() {
+        // When
+        assertThrows(IllegalStateException.class, () -> cache.get("item1", WINDOW_START, DAY, () -> {
+            throw new IllegalStateException("Connection refused");
+        }));
+
+        // Then
+        assertEquals(0, cache.size());
+        assertEquals(5, get("item1", DAY, 5));
+    }
+
+    @Test
+    void testInvalidateAll() {
+        // Given
+        get("item1", DAY, 1);
+        get("item2", DAY, 2);
+
+        // When
+        cache.invalidateAll(null);
+
+        // Then
+        assertEquals(2, cache.staleCount());
+    }
+
+    @Test
+    void testGet_FallsBackToStaleValueWhenReloadFails() {
+        // Given
+        get("item1", DAY, 3);
+        cache.invalidate(List.of("item1"), DAY, null);
+
+        // When
+        long reserved = cache.get("item1", WINDOW_START, DAY, () -> {
+            throw new IllegalStateException("Circuit open");
+        });
+
+        // Then
+        assertEquals(3, reserved);
+        assertEquals(1.0, meterRegistry.get("inventory.reserved_quantity_cache.stale_fallbacks").counter().count());
+        assertEquals(5, get("item1", DAY, 5));
+    }
+
+    @Test
+    void testGet_StaleValueOlderThanExpiryIsNotServed() {
+        // Given - invalidated 40s after loading, which restarts the cache's own expiry
+        AtomicLong nanos = new AtomicLong();
+        cache = new ReservedQuantityCache(meterRegistry, true, 1000, 60_000, nanos::get);
+        get("item1", DAY, 3);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        cache.invalidate(List.of("item1"), DAY, null);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+
+        // When / Then - 70s old, so the load failure is passed on
+        IllegalStateException e = assertThrows(IllegalStateException.class, () -> cache.get("item1", WINDOW_START, DAY, () -> {
+            throw new IllegalStateException("Circuit open");
+        }));
+        assertEquals("Circuit open", e.getMessage());
+        assertEquals(0.0, meterRegistry.get("inventory.reserved_quantity_cache.stale_fallbacks").counter().count());
+    }
+
+    @Test
+    void testGet_ExpiresDespiteInvalidationOfOtherItems() {
+        // Given
+        AtomicLong nanos = new AtomicLong();
+        cache = new ReservedQuantityCache(meterRegistry, true, 1000, 60_000, nanos::get);
+        get("item1", DAY, 3);
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(40));
+        cache.invalidate(List.of("item2"), DAY, null);
+        assertEquals(3, get("item1", DAY, 4));
+
+        // When
+        nanos.addAndGet(TimeUnit.SECONDS.toNanos(30));
+        long reserved = get("item1", DAY, 5);
+
+        // Then
+        assertEquals(5, reserved);
+        assertEquals(2, loads.get());
+    }
+
+    @Test
+    void testGet_DisabledAlwaysLoads() {
+        // Given
+        cache = new ReservedQuantityCache(meterRegistry, false, 1000, 60_000);
+
+        // When
+        get("item1", DAY, 3);
+        get("item1", DAY, 3);
+
+        // Then
+        assertEquals(2, loads.get());
+    }
+}
@@ -2,8 +2,10 @@ package com.edrs.persistence;
 
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
+import org.springframework.scheduling.annotation.EnableScheduling;
 
 @SpringBootApplication
+@EnableScheduling
 public class PersistenceServiceApplication {
     public static void main(String[] args) {
         SpringApplication.run(PersistenceServiceApplication.class, args);
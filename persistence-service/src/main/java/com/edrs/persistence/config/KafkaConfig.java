@@ -1,18 +1,82 @@
 package com.edrs.persistence.config;
 
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.consumer.ConsumerConfig;
+import org.apache.kafka.common.TopicPartition;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.kafka.ConcurrentKafkaListenerContainerFactoryConfigurer;
+import org.springframework.boot.autoconfigure.kafka.KafkaProperties;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 import org.springframework.kafka.annotation.EnableKafka;
+import org.springframework.kafka.config.ConcurrentKafkaListenerContainerFactory;
+import org.springframework.kafka.core.DefaultKafkaConsumerFactory;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.listener.DeadLetterPublishingRecoverer;
+import org.springframework.kafka.listener.DefaultErrorHandler;
+import org.springframework.kafka.support.ExponentialBackOffWithMaxRetries;
+
+import java.util.Map;
 
 @Configuration
 @EnableKafka
 public class KafkaConfig {
+    private static final String DLT_SUFFIX = "-dlt";
+
     @Bean
     public ObjectMapper objectMapper() {
         ObjectMapper mapper = new ObjectMapper();
         mapper.registerModule(new JavaTimeModule());
         return mapper;
     }
+
+    /**
+     * Container factory for batch consumption of reservation requests.
+     * Inherits the Boot-configured listener settings (manual ack, isolation level, etc.)
+     * and overrides the poll size and fetch linger so a single poll can be persisted in one transaction.
+     * <p>
+     * Retry topics do not apply to batch listeners, so failures are handled by the error handler:
+     * when the listener throws a BatchListenerFailedException, the offsets before the failed record are
+     * committed, the rest of the poll is redelivered with the persistence.retry backoff, and once the
+     * attempts are used up the failed record is published to {@code <topic>-dlt}, the same dead-letter
+     * topic as in per-record mode. Unreadable records are dead-lettered without retries. Any other
+     * exception retries the whole poll and then dead-letters each of its records.
+     */
+    @Bean
+    @ConditionalOnProperty(name = "persistence.listener.batch.enabled", havingValue = "true")
+    public ConcurrentKafkaListenerContainerFactory<Object, Object> batchKafkaListenerContainerFactory(
+            ConcurrentKafkaListenerContainerFactoryConfigurer configurer,
+            KafkaProperties kafkaProperties,
+            KafkaTemplate<String, String> kafkaTemplate,
+            @Value("${persistence.listener.batch.max-poll-records:200}") int maxPollRecords,
+            @Value("${persistence.listener.batch.linger-ms:50}") int lingerMs,
+            @Value("${persistence.listener.batch.fetch-min-bytes:16384}") int fetchMinBytes,
+            @Value("${persistence.retry.attempts:4}") int retryAttempts,
+            @Value("${persistence.retry.initial-delay-ms:1000}") long retryInitialDelayMs,
+            @Value("${persistence.retry.multiplier:2.0}") double retryMultiplier,
+            @Value("${persistence.retry.max-delay-ms:30000}") long retryMaxDelayMs) {
+        Map<String, Object> consumerProperties = kafkaProperties.buildConsumerProperties(null);
+        consumerProperties.put(ConsumerConfig.MAX_POLL_RECORDS_CONFIG, maxPollRecords);
+        // The broker holds the fetch until fetch-min-bytes accumulate or linger-ms elapses
+        consumerProperties.put(ConsumerConfig.FETCH_MAX_WAIT_MS_CONFIG, lingerMs);
+        consumerProperties.put(ConsumerConfig.FETCH_MIN_BYTES_CONFIG, fetchMinBytes);
+
+        ConcurrentKafkaListenerContainerFactory<Object, Object> factory = new ConcurrentKafkaListenerContainerFactory<>();
+        configurer.configure(factory, new DefaultKafkaConsumerFactory<>(consumerProperties));
+        factory.setBatchListener(true);
+
+        DeadLetterPublishingRecoverer deadLetterRecoverer = new DeadLetterPublishingRecoverer(kafkaTemplate,
+                (record, e) -> new TopicPartition(record.topic() + DLT_SUFFIX, -1));
+        ExponentialBackOffWithMaxRetries backOff = new ExponentialBackOffWithMaxRetries(Math.max(retryAttempts - 1, 0));
+        backOff.setInitialInterval(retryInitialDelayMs);
+        backOff.setMultiplier(retryMultiplier);
+        backOff.setMaxInterval(retryMaxDelayMs);
+        DefaultErrorHandler errorHandler = new DefaultErrorHandler(deadLetterRecoverer, backOff);
+        errorHandler.addNotRetryableExceptions(JsonProcessingException.class);
+        factory.setCommonErrorHandler(errorHandler);
+        return factory;
+    }
 }
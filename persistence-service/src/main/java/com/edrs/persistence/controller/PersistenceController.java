@@ -1,15 +1,22 @@
 package com.edrs.persistence.controller;
 
+import com.edrs.persistence.entity.InventoryItem;
+import com.edrs.persistence.entity.ReservedQuantity;
 import com.edrs.persistence.service.PersistenceService;
 import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.List;
 
 @RestController
 @RequestMapping("/api/persistence")
 public class PersistenceController {
+    private static final int MAX_INVENTORY_PAGE_SIZE = 10000;
+    private static final int MAX_RESERVED_QUANTITY_ITEMS = 1000;
+
     private final PersistenceService persistenceService;
 
     public PersistenceController(PersistenceService persistenceService) {
@@ -34,4 +41,81 @@ public class PersistenceController {
         long quantity = persistenceService.sumReservationQuantitiesForItemInDateRange(itemId, startDate, endDate);
         return ResponseEntity.ok(quantity);
     }
+
+    /**
+     * Reserved quantities per item and day for many items at once, from one grouped query.
+     * Days between startDate and bucketDate (default startDate) are summed into one bucketDate row;
+     * days without reservations are omitted.
+     */
+    @PostMapping("/reservations/quantities")
+    public ResponseEntity<List<ReservedQuantity>> sumReservedQuantitiesByItemAndDay(
+            @RequestBody ReservedQuantitiesRequest request) {
+        LocalDate bucketDate = request.getBucketDate() != null ? request.getBucketDate() : request.getStartDate();
+        if (request.getItemIds() == null || request.getItemIds().size() > MAX_RESERVED_QUANTITY_ITEMS
+                || request.getStartDate() == null || request.getEndDate() == null
+                || bucketDate.isBefore(request.getStartDate()) || request.getEndDate().isBefore(bucketDate)) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(persistenceService.sumReservedQuantitiesByItemAndDay(
+                request.getItemIds(), request.getStartDate(), bucketDate, request.getEndDate()));
+    }
+
+    /**
+     * Pages through all inventory items in id order. Pass the id of the last item of a page as
+     * "after" to get the next one; a page shorter than the limit is the last.
+     */
+    @GetMapping("/inventory")
+    public ResponseEntity<List<InventoryItem>> listInventoryPage(
+            @RequestParam(value = "after", required = false) String afterId,
+            @RequestParam(value = "limit", defaultValue = "1000") int limit) {
+        if (limit < 1 || limit > MAX_INVENTORY_PAGE_SIZE) {
+            return ResponseEntity.badRequest().build();
+        }
+        return ResponseEntity.ok(persistenceService.findInventoryPage(afterId, limit));
+    }
+
+    @PostMapping("/reservations/ledger/rebuild")
+    public ResponseEntity<Integer> rebuildReservedQuantityLedger() {
+        int rows = persistenceService.rebuildReservedQuantityLedger();
+        return ResponseEntity.ok(rows);
+    }
+
+    public static class ReservedQuantitiesRequest {
+        private List<String> itemIds;
+        private LocalDate startDate;
+        private LocalDate bucketDate;
+        private LocalDate endDate;
+
+        public List<String> getItemIds() {
+            return itemIds;
+        }
+
+        public void setItemIds(List<String> itemIds) {
+            this.itemIds = itemIds;
+        }
+
+        public LocalDate getStartDate() {
+            return startDate;
+        }
+
+        public void setStartDate(LocalDate startDate) {
+            this.startDate = startDate;
+        }
+
+        public LocalDate getBucketDate() {
+            return bucketDate;
+        }
+
+        public void setBucketDate(LocalDate bucketDate) {
+            this.bucketDate = bucketDate;
+        }
+
+        public LocalDate getEndDate() {
+            return endDate;
+        }
+
+        public void setEndDate(LocalDate endDate) {
+            this.endDate = endDate;
+        }
+    }
 }
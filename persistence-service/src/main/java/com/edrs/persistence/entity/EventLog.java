@@ -15,6 +15,7 @@ public class EventLog {
     private String eventVersion;
     private String source;
     private String payload;
+    private String payloadEncoding = PayloadEncoding.JSONB.getCode();
     private Boolean processed = false;
     private LocalDateTime timestamp;
     private LocalDateTime processedAt;
@@ -76,6 +77,17 @@ public class EventLog {
         this.payload = payload;
     }
 
+    /**
+     * @return How the payload is stored: jsonb, lz4 or zstd (see {@link PayloadEncoding})
+     */
+    public String getPayloadEncoding() {
+        return payloadEncoding;
+    }
+
+    public void setPayloadEncoding(String payloadEncoding) {
+        this.payloadEncoding = payloadEncoding;
+    }
+
     public Boolean getProcessed() {
         return processed;
     }
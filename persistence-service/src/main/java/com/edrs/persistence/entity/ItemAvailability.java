@@ -0,0 +1,44 @@
+package com.edrs.persistence.entity;
+
+/**
+ * Availability snapshot for one inventory item on one date.
+ * Read model returned by the set-based availability query; not a table.
+ */
+public class ItemAvailability {
+    private String inventoryItemId;
+    private int availableQuantity;
+    private long reservedQuantity;
+
+    public ItemAvailability() {
+    }
+
+    public ItemAvailability(String inventoryItemId, int availableQuantity, long reservedQuantity) {
+        this.inventoryItemId = inventoryItemId;
+        this.availableQuantity = availableQuantity;
+        this.reservedQuantity = reservedQuantity;
+    }
+
+    public String getInventoryItemId() {
+        return inventoryItemId;
+    }
+
+    public void setInventoryItemId(String inventoryItemId) {
+        this.inventoryItemId = inventoryItemId;
+    }
+
+    public int getAvailableQuantity() {
+        return availableQuantity;
+    }
+
+    public void setAvailableQuantity(int availableQuantity) {
+        this.availableQuantity = availableQuantity;
+    }
+
+    public long getReservedQuantity() {
+        return reservedQuantity;
+    }
+
+    public void setReservedQuantity(long reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+}
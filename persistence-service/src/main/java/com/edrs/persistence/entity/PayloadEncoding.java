@@ -0,0 +1,33 @@
+package com.edrs.persistence.entity;
+
+import java.util.Locale;
+
+/**
+ * How an event log payload is stored.
+ * JSONB keeps the payload queryable in the payload column; LZ4 and ZSTD store the
+ * compressed record bytes in payload_compressed to save space.
+ */
+public enum PayloadEncoding {
+    JSONB,
+    LZ4,
+    ZSTD;
+
+    /**
+     * @return The value stored in event_log.payload_encoding
+     */
+    public String getCode() {
+        return name().toLowerCase(Locale.ROOT);
+    }
+
+    /**
+     * Parses a configured storage mode, defaulting to JSONB when none is set.
+     *
+     * @throws IllegalArgumentException if the mode is not jsonb, lz4 or zstd
+     */
+    public static PayloadEncoding fromProperty(String value) {
+        if (value == null || value.isBlank()) {
+            return JSONB;
+        }
+        return valueOf(value.trim().toUpperCase(Locale.ROOT));
+    }
+}
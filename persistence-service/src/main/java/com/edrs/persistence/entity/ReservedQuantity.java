@@ -0,0 +1,46 @@
+package com.edrs.persistence.entity;
+
+import java.time.LocalDate;
+
+/**
+ * Reserved quantity of one inventory item on one day.
+ * Read model returned by the grouped reserved quantity query; not a table.
+ */
+public class ReservedQuantity {
+    private String inventoryItemId;
+    private LocalDate reservationDay;
+    private long reservedQuantity;
+
+    public ReservedQuantity() {
+    }
+
+    public ReservedQuantity(String inventoryItemId, LocalDate reservationDay, long reservedQuantity) {
+        this.inventoryItemId = inventoryItemId;
+        this.reservationDay = reservationDay;
+        this.reservedQuantity = reservedQuantity;
+    }
+
+    public String getInventoryItemId() {
+        return inventoryItemId;
+    }
+
+    public void setInventoryItemId(String inventoryItemId) {
+        this.inventoryItemId = inventoryItemId;
+    }
+
+    public LocalDate getReservationDay() {
+        return reservationDay;
+    }
+
+    public void setReservationDay(LocalDate reservationDay) {
+        this.reservationDay = reservationDay;
+    }
+
+    public long getReservedQuantity() {
+        return reservedQuantity;
+    }
+
+    public void setReservedQuantity(long reservedQuantity) {
+        this.reservedQuantity = reservedQuantity;
+    }
+}
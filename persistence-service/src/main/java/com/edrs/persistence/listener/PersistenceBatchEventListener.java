@@ -0,0 +1,96 @@
+package com.edrs.persistence.listener;
+
+import com.edrs.common.events.ReservationRequestedEvent;
+import com.edrs.persistence.service.ReservationBatchService;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.stereotype.Component;
+
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+
+/**
+ * Batch-mode listener for reservation requested events.
+ * Enabled with persistence.listener.batch.enabled=true, in which case it replaces
+ * the per-record reservation listener in {@link PersistenceEventListener}.
+ */
+@Component
+@ConditionalOnProperty(name = "persistence.listener.batch.enabled", havingValue = "true")
+public class PersistenceBatchEventListener {
+    private static final Logger logger = LoggerFactory.getLogger(PersistenceBatchEventListener.class);
+    private static final String RESERVATION_REQUESTED_TOPIC = "reservation-requested";
+
+    private final ReservationBatchService reservationBatchService;
+    private final ObjectMapper objectMapper;
+
+    public PersistenceBatchEventListener(ReservationBatchService reservationBatchService, ObjectMapper objectMapper) {
+        this.reservationBatchService = reservationBatchService;
+        this.objectMapper = objectMapper;
+    }
+
+    /**
+     * Handles a poll of reservation requested events.
+     * The readable records are persisted in one transaction. If any record could not be read or
+     * failed processing, a {@link BatchListenerFailedException} is thrown for the earliest one: the
+     * container error handler commits the offsets before it, retries it and then dead-letters it, and
+     * redelivers the rest of the poll, whose already persisted records are skipped as processed.
+     * Failures of the whole batch propagate to the error handler as they are.
+     */
+    @KafkaListener(topics = RESERVATION_REQUESTED_TOPIC, groupId = "persistence-service-group",
+                   containerFactory = "batchKafkaListenerContainerFactory")
+    public void handleReservationRequestedBatch(
+            List<ConsumerRecord<String, String>> records,
+            Acknowledgment acknowledgment) {
+        Map<UUID, ReservationRequestedEvent> events = new LinkedHashMap<>();
+        Map<UUID, String> rawPayloads = new HashMap<>();
+        Map<UUID, Integer> recordIndexes = new HashMap<>();
+        int failedIndex = -1;
+        Exception failure = null;
+        for (int i = 0; i < records.size(); i++) {
+            ConsumerRecord<String, String> record = records.get(i);
+            try {
+                ReservationRequestedEvent event = objectMapper.readValue(record.value(), ReservationRequestedEvent.class);
+                UUID eventId = PersistenceEventListener.resolveEventId(record, event.getEventId(), event.getCorrelationId());
+                events.put(eventId, event);
+                rawPayloads.put(eventId, record.value());
+                recordIndexes.putIfAbsent(eventId, i);
+            } catch (Exception e) {
+                logger.error("Unreadable reservation requested record: partition={}, offset={}",
+                           record.partition(), record.offset(), e);
+                if (failedIndex < 0) {
+                    failedIndex = i;
+                    failure = e;
+                }
+            }
+        }
+
+        logger.info("Received reservation requested batch: records={}, events={}", records.size(), events.size());
+        List<UUID> failedEventIds = events.isEmpty()
+                ? List.of()
+                : reservationBatchService.processReservationRequestBatch(events, rawPayloads);
+        for (UUID eventId : failedEventIds) {
+            int index = recordIndexes.get(eventId);
+            if (failedIndex < 0 || index < failedIndex) {
+                failedIndex = index;
+                failure = new IllegalStateException("Reservation request " + eventId + " failed in batch");
+            }
+        }
+        if (failedIndex >= 0) {
+            throw new BatchListenerFailedException("Reservation requested record failed in batch", failure, failedIndex);
+        }
+
+        // Acknowledge the whole poll after the batch transaction commits
+        if (acknowledgment != null) {
+            acknowledgment.acknowledge();
+        }
+    }
+}
@@ -5,21 +5,36 @@ import com.edrs.common.events.InventoryReceivedEvent;
 import com.edrs.common.events.ReservationRequestedEvent;
 import com.edrs.persistence.service.EventProcessingService;
 import com.edrs.persistence.service.PersistenceService;
+import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
 import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.kafka.annotation.DltHandler;
 import org.springframework.kafka.annotation.KafkaListener;
+import org.springframework.kafka.annotation.RetryableTopic;
+import org.springframework.kafka.retrytopic.TopicSuffixingStrategy;
 import org.springframework.kafka.support.Acknowledgment;
 import org.springframework.kafka.support.KafkaHeaders;
 import org.springframework.messaging.handler.annotation.Header;
+import org.springframework.retry.annotation.Backoff;
 import org.springframework.stereotype.Component;
 
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 import java.util.UUID;
 
 /**
  * Event listener for persistence service following choreography pattern.
  * Handles events from Kafka and delegates to persistence service with idempotency.
+ * <p>
+ * Failed records are not retried in place: they are forwarded to non-blocking retry topics
+ * ({@code <topic>-retry-0..n}) with exponential backoff and finally to {@code <topic>-dlt},
+ * so a poison message never holds up its partition.
  */
 @Component
 public class PersistenceEventListener {
@@ -28,119 +43,242 @@ public class PersistenceEventListener {
     private static final String CANCELLATION_REQUESTED_TOPIC = "cancellation-requested";
     private static final String INVENTORY_RECEIVED_TOPIC = "inventory-received";
 
+    // Shared @RetryableTopic settings
+    private static final String RETRY_ATTEMPTS = "${persistence.retry.attempts:4}";
+    private static final String RETRY_INITIAL_DELAY_MS = "${persistence.retry.initial-delay-ms:1000}";
+    private static final String RETRY_MULTIPLIER = "${persistence.retry.multiplier:2.0}";
+    private static final String RETRY_MAX_DELAY_MS = "${persistence.retry.max-delay-ms:30000}";
+    private static final String RETRY_TOPIC_PARTITIONS = "${persistence.retry.topic-partitions:3}";
+    private static final String DLT_SUFFIX = "-dlt";
+
+    private static final AttributeKey<String> STAGE = AttributeKey.stringKey("stage");
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+
     private final PersistenceService persistenceService;
     private final EventProcessingService eventProcessingService;
     private final ObjectMapper objectMapper;
+    private final RetryBudget retryBudget;
+    private final LongCounter recordsCounter;
 
     public PersistenceEventListener(
             PersistenceService persistenceService,
             EventProcessingService eventProcessingService,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            RetryBudget retryBudget,
+            Meter meter) {
         this.persistenceService = persistenceService;
         this.eventProcessingService = eventProcessingService;
         this.objectMapper = objectMapper;
+        this.retryBudget = retryBudget;
+        this.recordsCounter = meter.counterBuilder("persistence.listener.records")
+                .setDescription("Records handled by the persistence listeners, by retry stage and outcome")
+                .build();
     }
 
     /**
      * Handles reservation requested events.
-     * In a full implementation, eventId would come from event headers or payload.
+     * Not started when batch mode is enabled (see {@link PersistenceBatchEventListener}).
      */
-    @KafkaListener(topics = RESERVATION_REQUESTED_TOPIC, groupId = "persistence-service-group")
+    @RetryableTopic(attempts = RETRY_ATTEMPTS,
+                    backoff = @Backoff(delayExpression = RETRY_INITIAL_DELAY_MS,
+                                       multiplierExpression = RETRY_MULTIPLIER,
+                                       maxDelayExpression = RETRY_MAX_DELAY_MS),
+                    numPartitions = RETRY_TOPIC_PARTITIONS,
+                    topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+                    dltTopicSuffix = DLT_SUFFIX,
+                    exclude = {JsonProcessingException.class, RetryBudgetExhaustedException.class},
+                    traversingCauses = "true",
+                    kafkaTemplate = "kafkaTemplate")
+    @KafkaListener(topics = RESERVATION_REQUESTED_TOPIC, groupId = "persistence-service-group",
+                   autoStartup = "#{!${persistence.listener.batch.enabled:false}}")
     public void handleReservationRequested(
             ConsumerRecord<String, String> record,
             @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        UUID eventId = null;
+            Acknowledgment acknowledgment) throws JsonProcessingException {
+        ReservationRequestedEvent event = readEvent(record, ReservationRequestedEvent.class);
+        
+        UUID eventId = resolveEventId(record, event.getEventId(), event.getCorrelationId());
+        
+        logger.info("Received reservation requested event: correlationId={}, eventId={}, topic={}", 
+                   event.getCorrelationId(), eventId, record.topic());
+        
         try {
-            ReservationRequestedEvent event = objectMapper.readValue(record.value(), ReservationRequestedEvent.class);
-            
-            // In a choreography pattern, eventId should be in headers or event payload
-            // For now, generate from correlationId + timestamp for idempotency
-            // In production, events should include eventId
-            eventId = generateEventIdFromRecord(record, event.getCorrelationId());
-            
-            logger.info("Received reservation requested event: correlationId={}, eventId={}", 
-                       event.getCorrelationId(), eventId);
-            
-            persistenceService.processReservationRequest(event, eventId);
-            
-            // Acknowledge message after successful processing
-            if (acknowledgment != null) {
-                acknowledgment.acknowledge();
-            }
-            
-        } catch (Exception e) {
-            logger.error("Error processing reservation requested event: eventId={}", eventId, e);
-            // In production, implement dead letter queue pattern here
-            // For now, we'll let Kafka retry or move to DLQ
+            persistenceService.processReservationRequest(event, eventId, record.value());
+        } catch (RuntimeException e) {
+            throw retryOrDeadLetter(record, eventId, e);
+        }
+        
+        // Acknowledge message after successful processing
+        recordOutcome(record, "success");
+        if (acknowledgment != null) {
+            acknowledgment.acknowledge();
         }
     }
 
+    @RetryableTopic(attempts = RETRY_ATTEMPTS,
+                    backoff = @Backoff(delayExpression = RETRY_INITIAL_DELAY_MS,
+                                       multiplierExpression = RETRY_MULTIPLIER,
+                                       maxDelayExpression = RETRY_MAX_DELAY_MS),
+                    numPartitions = RETRY_TOPIC_PARTITIONS,
+                    topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+                    dltTopicSuffix = DLT_SUFFIX,
+                    exclude = {JsonProcessingException.class, RetryBudgetExhaustedException.class},
+                    traversingCauses = "true",
+                    kafkaTemplate = "kafkaTemplate")
     @KafkaListener(topics = CANCELLATION_REQUESTED_TOPIC, groupId = "persistence-service-group")
     public void handleCancellationRequested(
             ConsumerRecord<String, String> record,
             @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        UUID eventId = null;
+            Acknowledgment acknowledgment) throws JsonProcessingException {
+        CancellationRequestedEvent event = readEvent(record, CancellationRequestedEvent.class);
+        
+        UUID eventId = resolveEventId(record, event.getEventId(), event.getCorrelationId());
+        
+        logger.info("Received cancellation requested event: correlationId={}, eventId={}, topic={}", 
+                   event.getCorrelationId(), eventId, record.topic());
+        
         try {
-            CancellationRequestedEvent event = objectMapper.readValue(record.value(), CancellationRequestedEvent.class);
-            
-            eventId = generateEventIdFromRecord(record, event.getCorrelationId());
-            
-            logger.info("Received cancellation requested event: correlationId={}, eventId={}", 
-                       event.getCorrelationId(), eventId);
-            
-            persistenceService.processCancellationRequest(event, eventId);
-            
-            if (acknowledgment != null) {
-                acknowledgment.acknowledge();
-            }
-            
-        } catch (Exception e) {
-            logger.error("Error processing cancellation requested event: eventId={}", eventId, e);
+            persistenceService.processCancellationRequest(event, eventId, record.value());
+        } catch (RuntimeException e) {
+            throw retryOrDeadLetter(record, eventId, e);
+        }
+        
+        recordOutcome(record, "success");
+        if (acknowledgment != null) {
+            acknowledgment.acknowledge();
         }
     }
 
+    @RetryableTopic(attempts = RETRY_ATTEMPTS,
+                    backoff = @Backoff(delayExpression = RETRY_INITIAL_DELAY_MS,
+                                       multiplierExpression = RETRY_MULTIPLIER,
+                                       maxDelayExpression = RETRY_MAX_DELAY_MS),
+                    numPartitions = RETRY_TOPIC_PARTITIONS,
+                    topicSuffixingStrategy = TopicSuffixingStrategy.SUFFIX_WITH_INDEX_VALUE,
+                    dltTopicSuffix = DLT_SUFFIX,
+                    exclude = {JsonProcessingException.class, RetryBudgetExhaustedException.class},
+                    traversingCauses = "true",
+                    kafkaTemplate = "kafkaTemplate")
     @KafkaListener(topics = INVENTORY_RECEIVED_TOPIC, groupId = "persistence-service-group")
     public void handleInventoryReceived(
             ConsumerRecord<String, String> record,
             @Header(KafkaHeaders.RECEIVED_KEY) String key,
-            Acknowledgment acknowledgment) {
-        UUID eventId = null;
+            Acknowledgment acknowledgment) throws JsonProcessingException {
+        InventoryReceivedEvent event = readEvent(record, InventoryReceivedEvent.class);
+        
+        UUID eventId = resolveEventId(record, event.getEventId(), event.getCorrelationId());
+        
+        logger.info("Received inventory received event: correlationId={}, eventId={}, topic={}", 
+                   event.getCorrelationId(), eventId, record.topic());
+        
         try {
-            InventoryReceivedEvent event = objectMapper.readValue(record.value(), InventoryReceivedEvent.class);
-            
-            eventId = generateEventIdFromRecord(record, event.getCorrelationId());
-            
-            logger.info("Received inventory received event: correlationId={}, eventId={}", 
-                       event.getCorrelationId(), eventId);
-            
-            persistenceService.processInventoryReceived(event, eventId);
-            
-            if (acknowledgment != null) {
-                acknowledgment.acknowledge();
-            }
-            
-        } catch (Exception e) {
-            logger.error("Error processing inventory received event: eventId={}", eventId, e);
+            persistenceService.processInventoryReceived(event, eventId, record.value());
+        } catch (RuntimeException e) {
+            throw retryOrDeadLetter(record, eventId, e);
+        }
+        
+        recordOutcome(record, "success");
+        if (acknowledgment != null) {
+            acknowledgment.acknowledge();
         }
     }
 
+    /**
+     * Handles records that exhausted their retries, were not retryable, or ran out of retry budget.
+     * They are kept on the dead-letter topic for inspection and replay.
+     */
+    @DltHandler
+    public void handleDeadLetter(ConsumerRecord<String, String> record, Acknowledgment acknowledgment) {
+        logger.error("Dead-lettered record: topic={}, partition={}, offset={}, key={}",
+                   record.topic(), record.partition(), record.offset(), record.key());
+        recordOutcome(record, "dead_lettered");
+        if (acknowledgment != null) {
+            acknowledgment.acknowledge();
+        }
+    }
+
+    private <T> T readEvent(ConsumerRecord<String, String> record, Class<T> eventType) throws JsonProcessingException {
+        try {
+            return objectMapper.readValue(record.value(), eventType);
+        } catch (JsonProcessingException e) {
+            // Not retryable - goes straight to the dead-letter topic
+            logger.error("Unreadable {} record: topic={}, partition={}, offset={}",
+                       eventType.getSimpleName(), record.topic(), record.partition(), record.offset(), e);
+            recordOutcome(record, "unreadable");
+            throw e;
+        }
+    }
+
+    /**
+     * Returns the exception to rethrow for a failed record: the original failure, which schedules
+     * the next retry stage, or a {@link RetryBudgetExhaustedException} that dead-letters it directly.
+     */
+    private RuntimeException retryOrDeadLetter(ConsumerRecord<String, String> record, UUID eventId, RuntimeException e) {
+        if (retryBudget.tryAcquire()) {
+            logger.error("Error processing record, forwarding to next retry stage: topic={}, eventId={}",
+                       record.topic(), eventId, e);
+            recordOutcome(record, "failed");
+            return e;
+        }
+        logger.error("Retry budget exhausted, dead-lettering record: topic={}, eventId={}", record.topic(), eventId, e);
+        recordOutcome(record, "budget_exhausted");
+        return new RetryBudgetExhaustedException(e);
+    }
+
+    private void recordOutcome(ConsumerRecord<String, String> record, String outcome) {
+        recordsCounter.add(1, Attributes.of(STAGE, stageOf(record.topic()), OUTCOME, outcome));
+    }
+
+    /**
+     * Maps a topic name to its retry stage: "main", "retry-N" or "dlt".
+     */
+    static String stageOf(String topic) {
+        if (topic.endsWith(DLT_SUFFIX)) {
+            return "dlt";
+        }
+        int retryIndex = topic.lastIndexOf("-retry-");
+        return retryIndex >= 0 ? topic.substring(retryIndex + 1) : "main";
+    }
+
+    /**
+     * Returns the producer-assigned event ID from the payload. Events from producers that predate
+     * it carry no eventId and fall back to {@link #generateEventIdFromRecord}.
+     */
+    static UUID resolveEventId(ConsumerRecord<String, String> record, UUID payloadEventId, UUID correlationId) {
+        return payloadEventId != null ? payloadEventId : generateEventIdFromRecord(record, correlationId);
+    }
+
     /**
      * Generates a deterministic event ID from Kafka record for idempotency.
-     * In production, events should include eventId in payload or headers.
+     * Only used for events without a producer-assigned eventId.
      * This uses partition + offset + correlationId to create a unique, deterministic ID.
+     * Records on retry and dead-letter topics use the coordinates of the original record,
+     * so every stage sees the same event ID.
      */
-    private UUID generateEventIdFromRecord(ConsumerRecord<String, String> record, UUID correlationId) {
+    static UUID generateEventIdFromRecord(ConsumerRecord<String, String> record, UUID correlationId) {
         // Use partition, offset, and correlationId to create deterministic event ID
         // This ensures the same event always gets the same ID for idempotency
+        byte[] originalTopic = firstHeaderValue(record, KafkaHeaders.ORIGINAL_TOPIC);
+        byte[] originalPartition = firstHeaderValue(record, KafkaHeaders.ORIGINAL_PARTITION);
+        byte[] originalOffset = firstHeaderValue(record, KafkaHeaders.ORIGINAL_OFFSET);
+        boolean forwarded = originalTopic != null && originalPartition != null && originalOffset != null;
         String idString = String.format("%s-%d-%d-%s", 
-            record.topic(), 
-            record.partition(), 
-            record.offset(),
+            forwarded ? new String(originalTopic, StandardCharsets.UTF_8) : record.topic(), 
+            forwarded ? ByteBuffer.wrap(originalPartition).getInt() : record.partition(), 
+            forwarded ? ByteBuffer.wrap(originalOffset).getLong() : record.offset(),
             correlationId.toString());
         
         // Generate UUID from string (deterministic)
         return UUID.nameUUIDFromBytes(idString.getBytes());
     }
+
+    /**
+     * Returns the value of the first (oldest) header with the given key; retry hops append their own copies.
+     */
+    private static byte[] firstHeaderValue(ConsumerRecord<String, String> record, String key) {
+        for (org.apache.kafka.common.header.Header header : record.headers().headers(key)) {
+            return header.value();
+        }
+        return null;
+    }
 }
@@ -0,0 +1,41 @@
+package com.edrs.persistence.listener;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+/**
+ * Bounded in-memory budget for non-blocking retries (token bucket).
+ * Each retry spends one token; tokens refill at a fixed rate up to the capacity.
+ * When the budget is spent, failing records go straight to the dead-letter topic instead
+ * of multiplying load on the retry topics during an outage.
+ */
+@Component
+public class RetryBudget {
+    private final double capacity;
+    private final double refillPerNanosecond;
+    private double tokens;
+    private long lastRefillNanos;
+
+    public RetryBudget(
+            @Value("${persistence.retry.budget.capacity:100}") int capacity,
+            @Value("${persistence.retry.budget.refill-per-second:10}") double refillPerSecond) {
+        this.capacity = capacity;
+        this.refillPerNanosecond = refillPerSecond / 1_000_000_000d;
+        this.tokens = capacity;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * @return true if a retry may be scheduled, false if the budget is exhausted
+     */
+    public synchronized boolean tryAcquire() {
+        long now = System.nanoTime();
+        tokens = Math.min(capacity, tokens + (now - lastRefillNanos) * refillPerNanosecond);
+        lastRefillNanos = now;
+        if (tokens < 1) {
+            return false;
+        }
+        tokens -= 1;
+        return true;
+    }
+}
@@ -0,0 +1,11 @@
+package com.edrs.persistence.listener;
+
+/**
+ * Thrown instead of the processing failure when the {@link RetryBudget} is spent.
+ * Not retryable, so the record is routed directly to the dead-letter topic.
+ */
+public class RetryBudgetExhaustedException extends RuntimeException {
+    public RetryBudgetExhaustedException(Throwable cause) {
+        super("Retry budget exhausted", cause);
+    }
+}
@@ -3,7 +3,11 @@ package com.edrs.persistence.mapper;
 import com.edrs.persistence.entity.EventLog;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
+import org.apache.ibatis.session.ResultHandler;
 
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -12,9 +16,52 @@ public interface EventLogMapper {
     
     void insert(EventLog eventLog);
     
+    /**
+     * Inserts several event log rows with one multi-row INSERT.
+     */
+    void insertBatch(@Param("eventLogs") List<EventLog> eventLogs);
+    
     Optional<EventLog> findByEventId(UUID eventId);
     
     boolean existsByEventId(UUID eventId);
     
     void updateProcessed(@Param("eventId") UUID eventId, @Param("processedAt") java.time.LocalDateTime processedAt);
+    
+    /**
+     * Creates the missing daily partitions for the given days (inclusive).
+     * 
+     * @return The number of partitions created
+     */
+    int createPartitions(@Param("from") LocalDate from, @Param("to") LocalDate to);
+    
+    /**
+     * Returns the names of the daily partitions (event_log_pYYYYMMDD), oldest first.
+     * The default partition is not included.
+     */
+    List<String> findPartitionNames();
+    
+    /**
+     * Streams every row of one partition to the handler using a server-side cursor.
+     * Must run inside a transaction.
+     */
+    void streamPartition(@Param("partitionName") String partitionName, ResultHandler<EventLog> handler);
+    
+    /**
+     * Drops a daily partition and all of its rows.
+     */
+    void dropPartition(@Param("partitionName") String partitionName);
+    
+    /**
+     * Deletes up to limit rows older than the cutoff from the default partition, oldest id first.
+     * 
+     * @return The deleted rows
+     */
+    List<EventLog> deleteDefaultPartitionBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
+    
+    /**
+     * Takes a transaction-scoped advisory lock so only one instance runs retention at a time.
+     * 
+     * @return true if the lock was acquired
+     */
+    boolean tryLockRetention();
 }
@@ -2,6 +2,9 @@ package com.edrs.persistence.mapper;
 
 import com.edrs.persistence.entity.InventoryItem;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.util.List;
 
 @Mapper
 public interface InventoryItemMapper {
@@ -13,4 +16,21 @@ public interface InventoryItemMapper {
     void update(InventoryItem item);
     
     boolean existsById(String id);
+    
+    /**
+     * Returns up to limit items ordered by id, starting after afterId (from the first item when null).
+     * Keyset pagination on the primary key, so every page costs the same however deep it is.
+     */
+    List<InventoryItem> findPage(@Param("afterId") String afterId, @Param("limit") int limit);
+    
+    /**
+     * Adds received quantities to inventory items in one statement, creating missing items.
+     * The arrays are parallel and ids must be distinct. A null name, description or category keeps
+     * the existing value, or gets the default for a new item.
+     */
+    void upsertReceived(@Param("ids") String[] ids,
+                        @Param("quantities") Integer[] quantities,
+                        @Param("names") String[] names,
+                        @Param("descriptions") String[] descriptions,
+                        @Param("categories") String[] categories);
 }
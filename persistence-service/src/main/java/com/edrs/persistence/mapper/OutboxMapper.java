@@ -0,0 +1,38 @@
+package com.edrs.persistence.mapper;
+
+import com.edrs.persistence.entity.OutboxEvent;
+import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
+
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
+
+@Mapper
+public interface OutboxMapper {
+    
+    void insert(OutboxEvent outboxEvent);
+    
+    /**
+     * Returns the oldest unpublished events, locking them until the current transaction ends.
+     * Rows locked by another relay instance are skipped, so relays can run concurrently.
+     */
+    List<OutboxEvent> lockNextBatch(@Param("limit") int limit);
+    
+    void deleteByIds(@Param("ids") Collection<Long> ids);
+    
+    /**
+     * Counts a failed publish attempt and keeps its error.
+     */
+    void recordFailure(@Param("id") Long id, @Param("error") String error);
+    
+    /**
+     * Moves an event from the outbox to outbox_dead_letter, counting the failed attempt that moved it.
+     */
+    void moveToDeadLetter(@Param("id") Long id, @Param("error") String error);
+    
+    /**
+     * @return The creation time of the oldest unpublished event, or null if the outbox is empty
+     */
+    LocalDateTime findOldestCreatedAt();
+}
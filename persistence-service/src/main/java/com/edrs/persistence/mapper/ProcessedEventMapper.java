@@ -2,7 +2,11 @@ package com.edrs.persistence.mapper;
 
 import com.edrs.persistence.entity.ProcessedEvent;
 import org.apache.ibatis.annotations.Mapper;
+import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -11,7 +15,27 @@ public interface ProcessedEventMapper {
     
     void insert(ProcessedEvent processedEvent);
     
+    /**
+     * Inserts the processed event unless its event ID already exists.
+     * 
+     * @return 1 if this call claimed the event, 0 if it was already claimed
+     */
+    int claim(ProcessedEvent processedEvent);
+    
     Optional<ProcessedEvent> findByEventId(UUID eventId);
     
     boolean existsByEventId(UUID eventId);
+    
+    /**
+     * Returns the subset of the given event IDs that have already been processed.
+     * Used to check a whole batch for idempotency in one round-trip.
+     */
+    List<UUID> findProcessedEventIds(@Param("eventIds") Collection<UUID> eventIds);
+    
+    /**
+     * Deletes up to limit processed events recorded before the cutoff.
+     * 
+     * @return The deleted rows, for archiving
+     */
+    List<ProcessedEvent> deleteProcessedBefore(@Param("cutoff") LocalDateTime cutoff, @Param("limit") int limit);
 }
@@ -1,12 +1,17 @@
 package com.edrs.persistence.mapper;
 
+import com.edrs.persistence.entity.ItemAvailability;
 import com.edrs.persistence.entity.Reservation;
 import com.edrs.persistence.entity.ReservationItem;
+import com.edrs.persistence.entity.ReservedQuantity;
 import org.apache.ibatis.annotations.Mapper;
 import org.apache.ibatis.annotations.Param;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
 
 @Mapper
 public interface ReservationMapper {
@@ -42,25 +47,58 @@ public interface ReservationMapper {
             @Param("endDate") LocalDateTime endDate);
     
     /**
-     * Sums quantities from confirmed reservations for a specific inventory item on a specific date.
-     * Used for availability checking with quantities.
+     * Reserved quantities per item and day for many items in one grouped query over the ledger.
+     * Days from startDate up to bucketDate are summed into bucketDate, so callers get the total
+     * reserved before their first day of interest as a single row. Only non-zero rows are returned,
+     * ordered by item and day.
+     */
+    List<ReservedQuantity> sumReservedQuantitiesByItemAndDay(
+            @Param("itemIds") String[] itemIds,
+            @Param("startDate") LocalDate startDate,
+            @Param("bucketDate") LocalDate bucketDate,
+            @Param("endDate") LocalDate endDate);
+    
+    /**
+     * Sums quantities from confirmed reservations for a specific inventory item on the day of the given date.
+     * Reads the reserved_quantity_by_item_day ledger. Used for availability checking with quantities.
      */
     long sumConfirmedReservationQuantitiesForItemOnDate(
             @Param("itemId") String itemId,
             @Param("reservationDate") LocalDateTime reservationDate);
     
     /**
-     * Sums quantities from confirmed reservations for a specific inventory item in a date range.
-     * Used for calculating effective availability with quantities.
+     * Sums quantities from confirmed reservations for a specific inventory item over the days in a date range.
+     * Reads the reserved_quantity_by_item_day ledger. Used for calculating effective availability with quantities.
      */
     long sumConfirmedReservationQuantitiesForItemInDateRange(
             @Param("itemId") String itemId,
             @Param("startDate") LocalDateTime startDate,
             @Param("endDate") LocalDateTime endDate);
     
-    void insertReservationItem(@Param("confirmationNumber") String confirmationNumber, 
-                               @Param("inventoryItemId") String inventoryItemId,
-                               @Param("quantity") Integer quantity);
+    /**
+     * Creates zero-quantity ledger rows for the given existing items on the day of reservationDate,
+     * so that every item taking part in a reservation has a row to lock.
+     */
+    void ensureReservedQuantityRows(
+            @Param("itemIds") Collection<String> itemIds,
+            @Param("reservationDate") LocalDateTime reservationDate);
+    
+    /**
+     * Returns base available and reserved quantities on the day of reservationDate for all given items,
+     * locking their ledger rows (in item id order) until the current transaction ends.
+     * Items that do not exist are absent from the result.
+     * Used for atomic availability checking of multi-item reservations under concurrent consumers.
+     */
+    List<ItemAvailability> lockItemAvailabilityOnDate(
+            @Param("itemIds") Collection<String> itemIds,
+            @Param("reservationDate") LocalDateTime reservationDate);
+    
+    /**
+     * Inserts all items of a reservation with one multi-row INSERT.
+     * A null quantity is stored as 1. itemQuantities must not be empty.
+     */
+    void insertReservationItems(@Param("confirmationNumber") String confirmationNumber,
+                                @Param("itemQuantities") Map<String, Integer> itemQuantities);
     
     /**
      * Finds reservation items with quantities for a confirmation number.
@@ -74,4 +112,33 @@ public interface ReservationMapper {
     List<String> findReservationItemIds(String confirmationNumber);
     
     void deleteReservationItems(String confirmationNumber);
+    
+    /**
+     * Adds the given item quantities to the reserved quantity ledger for the day of reservationDate.
+     * Must run in the same transaction that confirms the reservation.
+     */
+    void incrementReservedQuantities(
+            @Param("itemQuantities") Map<String, Integer> itemQuantities,
+            @Param("reservationDate") LocalDateTime reservationDate);
+    
+    /**
+     * Subtracts a reservation's item quantities from the reserved quantity ledger.
+     * Must run in the same transaction that cancels the reservation. Rows are locked in item id order.
+     */
+    void decrementReservedQuantities(
+            @Param("confirmationNumber") String confirmationNumber,
+            @Param("reservationDate") LocalDateTime reservationDate);
+    
+    /**
+     * Blocks concurrent ledger writers (readers are unaffected) until the current transaction ends.
+     */
+    void lockReservedQuantityLedger();
+    
+    void deleteReservedQuantityLedger();
+    
+    /**
+     * Recomputes the reserved quantity ledger from confirmed reservations.
+     * @return number of ledger rows written
+     */
+    int rebuildReservedQuantityLedger();
 }
@@ -0,0 +1,42 @@
+package com.edrs.persistence.mapper.typehandler;
+
+import org.apache.ibatis.type.BaseTypeHandler;
+import org.apache.ibatis.type.JdbcType;
+
+import java.nio.charset.StandardCharsets;
+import java.sql.*;
+
+/**
+ * Base MyBatis type handler for JSON text stored compressed in a BYTEA column.
+ * The UTF-8 bytes of the payload are compressed on write and decompressed on read.
+ */
+public abstract class CompressedPayloadTypeHandler extends BaseTypeHandler<String> {
+
+    protected abstract byte[] compress(byte[] data);
+
+    protected abstract byte[] decompress(byte[] compressed);
+
+    @Override
+    public void setNonNullParameter(PreparedStatement ps, int i, String parameter, JdbcType jdbcType) throws SQLException {
+        ps.setBytes(i, compress(parameter.getBytes(StandardCharsets.UTF_8)));
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, String columnName) throws SQLException {
+        return toPayload(rs.getBytes(columnName));
+    }
+
+    @Override
+    public String getNullableResult(ResultSet rs, int columnIndex) throws SQLException {
+        return toPayload(rs.getBytes(columnIndex));
+    }
+
+    @Override
+    public String getNullableResult(CallableStatement cs, int columnIndex) throws SQLException {
+        return toPayload(cs.getBytes(columnIndex));
+    }
+
+    private String toPayload(byte[] compressed) {
+        return compressed != null ? new String(decompress(compressed), StandardCharsets.UTF_8) : null;
+    }
+}
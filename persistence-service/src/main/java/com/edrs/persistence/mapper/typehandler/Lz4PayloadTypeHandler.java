@@ -0,0 +1,31 @@
+package com.edrs.persistence.mapper.typehandler;
+
+import net.jpountz.lz4.LZ4Compressor;
+import net.jpountz.lz4.LZ4Factory;
+import net.jpountz.lz4.LZ4FastDecompressor;
+
+import java.nio.ByteBuffer;
+
+/**
+ * Stores payloads as an LZ4 block prefixed with the uncompressed length (4 bytes, big-endian).
+ * Fastest to write; a good default when the event log is rarely read.
+ */
+public class Lz4PayloadTypeHandler extends CompressedPayloadTypeHandler {
+    private static final LZ4Compressor COMPRESSOR = LZ4Factory.fastestInstance().fastCompressor();
+    private static final LZ4FastDecompressor DECOMPRESSOR = LZ4Factory.fastestInstance().fastDecompressor();
+
+    @Override
+    protected byte[] compress(byte[] data) {
+        byte[] block = COMPRESSOR.compress(data);
+        return ByteBuffer.allocate(Integer.BYTES + block.length)
+                .putInt(data.length)
+                .put(block)
+                .array();
+    }
+
+    @Override
+    protected byte[] decompress(byte[] compressed) {
+        int length = ByteBuffer.wrap(compressed).getInt();
+        return DECOMPRESSOR.decompress(compressed, Integer.BYTES, length);
+    }
+}
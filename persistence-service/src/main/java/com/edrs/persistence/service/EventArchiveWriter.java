@@ -0,0 +1,77 @@
+package com.edrs.persistence.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import java.io.BufferedWriter;
+import java.io.Closeable;
+import java.io.IOException;
+import java.io.OutputStreamWriter;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.Map;
+import java.util.zip.GZIPOutputStream;
+
+/**
+ * Writes archived event store rows as gzip-compressed JSON Lines.
+ * Each line is one JSON object keyed by column name. The file is written as "&lt;name&gt;.tmp"
+ * and moved into place by {@link #finish()}, so a file without the suffix is always complete;
+ * closing an unfinished writer deletes the temporary file.
+ */
+class EventArchiveWriter implements Closeable {
+    private final ObjectMapper objectMapper;
+    private final Path target;
+    private final Path temporary;
+    private final BufferedWriter writer;
+    private long rowCount;
+    private boolean finished;
+
+    private EventArchiveWriter(ObjectMapper objectMapper, Path target) throws IOException {
+        this.objectMapper = objectMapper;
+        this.target = target;
+        this.temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        Files.createDirectories(target.getParent());
+        this.writer = new BufferedWriter(new OutputStreamWriter(
+                new GZIPOutputStream(Files.newOutputStream(temporary)), StandardCharsets.UTF_8));
+    }
+
+    static EventArchiveWriter open(ObjectMapper objectMapper, Path target) throws IOException {
+        return new EventArchiveWriter(objectMapper, target);
+    }
+
+    void write(Map<String, Object> row) throws IOException {
+        writer.write(objectMapper.writeValueAsString(row));
+        writer.newLine();
+        rowCount++;
+    }
+
+    long getRowCount() {
+        return rowCount;
+    }
+
+    Path getTarget() {
+        return target;
+    }
+
+    /**
+     * Flushes the archive to disk and moves it into place.
+     */
+    void finish() throws IOException {
+        writer.close();
+        Files.move(temporary, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        finished = true;
+    }
+
+    @Override
+    public void close() throws IOException {
+        if (finished) {
+            return;
+        }
+        try {
+            writer.close();
+        } finally {
+            Files.deleteIfExists(temporary);
+        }
+    }
+}
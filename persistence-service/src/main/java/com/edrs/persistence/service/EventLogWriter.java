@@ -0,0 +1,188 @@
+package com.edrs.persistence.service;
+
+import com.edrs.persistence.entity.EventLog;
+import com.edrs.persistence.mapper.EventLogMapper;
+import io.opentelemetry.api.common.AttributeKey;
+import io.opentelemetry.api.common.Attributes;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.Meter;
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Writes event log rows off the processing transaction.
+ * Rows are collected in a bounded buffer and flushed by a dedicated thread with one multi-row
+ * INSERT per batch. When the buffer is full, callers wait up to enqueue-timeout-ms and the row
+ * is then dropped, so a slow event log can delay processing but never block it. On shutdown
+ * the buffer is drained before the thread exits.
+ */
+@Component
+public class EventLogWriter {
+    private static final Logger logger = LoggerFactory.getLogger(EventLogWriter.class);
+    private static final AttributeKey<String> OUTCOME = AttributeKey.stringKey("outcome");
+
+    private final EventLogMapper eventLogMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final boolean enabled;
+    private final int batchSize;
+    private final long flushIntervalMs;
+    private final long enqueueTimeoutMs;
+    private final long shutdownTimeoutMs;
+    private final BlockingQueue<EventLog> buffer;
+    private final LongCounter rowsCounter;
+    private volatile boolean running;
+    private Thread flusher;
+
+    public EventLogWriter(
+            EventLogMapper eventLogMapper,
+            PlatformTransactionManager transactionManager,
+            Meter meter,
+            @Value("${persistence.event-log.async.enabled:true}") boolean enabled,
+            @Value("${persistence.event-log.async.capacity:10000}") int capacity,
+            @Value("${persistence.event-log.async.batch-size:500}") int batchSize,
+            @Value("${persistence.event-log.async.flush-interval-ms:50}") long flushIntervalMs,
+            @Value("${persistence.event-log.async.enqueue-timeout-ms:100}") long enqueueTimeoutMs,
+            @Value("${persistence.event-log.async.shutdown-timeout-ms:10000}") long shutdownTimeoutMs) {
+        this.eventLogMapper = eventLogMapper;
+        // Always a fresh transaction, also when a direct write runs from an afterCommit callback
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.transactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_REQUIRES_NEW);
+        this.enabled = enabled;
+        this.batchSize = batchSize;
+        this.flushIntervalMs = flushIntervalMs;
+        this.enqueueTimeoutMs = enqueueTimeoutMs;
+        this.shutdownTimeoutMs = shutdownTimeoutMs;
+        this.buffer = new ArrayBlockingQueue<>(capacity);
+        this.rowsCounter = meter.counterBuilder("persistence.event_log.rows")
+                .setDescription("Event log rows handled by the asynchronous writer, by outcome")
+                .build();
+        meter.gaugeBuilder("persistence.event_log.buffered")
+                .setDescription("Event log rows waiting to be flushed")
+                .ofLongs()
+                .buildWithCallback(measurement -> measurement.record(buffer.size()));
+    }
+
+    /**
+     * @return true if event log rows should be handed to {@link #append(EventLog)} instead of inserted directly
+     */
+    public boolean isEnabled() {
+        return enabled;
+    }
+
+    @PostConstruct
+    public void start() {
+        if (!enabled) {
+            return;
+        }
+        running = true;
+        flusher = new Thread(this::flushLoop, "event-log-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+    }
+
+    /**
+     * Queues a row for the next flush, waiting for space if the buffer is full.
+     * After shutdown, rows are inserted directly.
+     *
+     * @return false if the row was dropped because the buffer stayed full
+     */
+    public boolean append(EventLog eventLog) {
+        if (!running) {
+            flush(List.of(eventLog));
+            return true;
+        }
+        try {
+            if (buffer.offer(eventLog, enqueueTimeoutMs, TimeUnit.MILLISECONDS)) {
+                return true;
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        logger.warn("Event log buffer full, dropping event log entry for event {}", eventLog.getEventId());
+        rowsCounter.add(1, Attributes.of(OUTCOME, "dropped"));
+        return false;
+    }
+
+    /**
+     * Stops accepting rows into the buffer and waits for the flusher to drain it.
+     */
+    @PreDestroy
+    public void stop() {
+        if (!running) {
+            return;
+        }
+        running = false;
+        try {
+            flusher.join(shutdownTimeoutMs);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+        if (flusher.isAlive()) {
+            logger.warn("Event log writer did not drain within {} ms, {} rows left unwritten",
+                       shutdownTimeoutMs, buffer.size());
+        } else {
+            // Rows appended concurrently with the shutdown
+            flushRemaining();
+        }
+    }
+
+    private void flushLoop() {
+        List<EventLog> batch = new ArrayList<>(batchSize);
+        while (running || !buffer.isEmpty()) {
+            try {
+                EventLog first = buffer.poll(flushIntervalMs, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                buffer.drainTo(batch, batchSize - 1);
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                break;
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flushRemaining() {
+        List<EventLog> batch = new ArrayList<>(batchSize);
+        while (buffer.drainTo(batch, batchSize) > 0) {
+            flush(batch);
+            batch.clear();
+        }
+    }
+
+    /**
+     * Inserts one batch in its own transaction. A failed batch is logged and dropped;
+     * the event log is best-effort, like the synchronous logEvent it replaces.
+     */
+    void flush(List<EventLog> batch) {
+        try {
+            transactionTemplate.executeWithoutResult(status -> eventLogMapper.insertBatch(batch));
+            rowsCounter.add(batch.size(), Attributes.of(OUTCOME, "written"));
+            logger.debug("Flushed {} event log rows", batch.size());
+        } catch (Exception e) {
+            logger.error("Error flushing {} event log rows", batch.size(), e);
+            rowsCounter.add(batch.size(), Attributes.of(OUTCOME, "failed"));
+        }
+    }
+
+    int getBufferedCount() {
+        return buffer.size();
+    }
+}
@@ -1,6 +1,8 @@
 package com.edrs.persistence.service;
 
+import com.edrs.common.util.EventIdGenerator;
 import com.edrs.persistence.entity.EventLog;
+import com.edrs.persistence.entity.PayloadEncoding;
 import com.edrs.persistence.entity.ProcessedEvent;
 import com.edrs.persistence.mapper.EventLogMapper;
 import com.edrs.persistence.mapper.ProcessedEventMapper;
@@ -8,10 +10,20 @@ import com.fasterxml.jackson.core.JsonProcessingException;
 import com.fasterxml.jackson.databind.ObjectMapper;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.LinkedHashSet;
+import java.util.Map;
+import java.util.Set;
 import java.util.UUID;
 
 /**
@@ -22,61 +34,143 @@ import java.util.UUID;
 public class EventProcessingService {
     private static final Logger logger = LoggerFactory.getLogger(EventProcessingService.class);
     private static final String SERVICE_NAME = "persistence-service";
+    // Transaction resource key for the work waiting for the surrounding transaction to commit
+    private static final Object PENDING_AFTER_COMMIT = new Object();
+
+    /**
+     * Event log rows and processed event IDs held back until the surrounding transaction commits.
+     */
+    private static final class PendingAfterCommit {
+        private final Map<UUID, EventLog> eventLogs = new LinkedHashMap<>();
+        private final Set<UUID> processedEventIds = new LinkedHashSet<>();
+    }
 
     private final ProcessedEventMapper processedEventMapper;
     private final EventLogMapper eventLogMapper;
     private final ObjectMapper objectMapper;
+    private final ProcessedEventCache processedEventCache;
+    private final EventLogWriter eventLogWriter;
+    private final PayloadEncoding payloadEncoding;
 
     public EventProcessingService(
             ProcessedEventMapper processedEventMapper,
             EventLogMapper eventLogMapper,
-            ObjectMapper objectMapper) {
+            ObjectMapper objectMapper,
+            ProcessedEventCache processedEventCache,
+            EventLogWriter eventLogWriter,
+            @Value("${persistence.event-log.payload-storage:jsonb}") String payloadStorage) {
         this.processedEventMapper = processedEventMapper;
         this.eventLogMapper = eventLogMapper;
         this.objectMapper = objectMapper;
+        this.processedEventCache = processedEventCache;
+        this.eventLogWriter = eventLogWriter;
+        this.payloadEncoding = PayloadEncoding.fromProperty(payloadStorage);
     }
 
     /**
      * Checks if an event has already been processed (idempotency check).
+     * Recently processed events are answered from {@link ProcessedEventCache} without a query.
      * 
      * @param eventId The unique event ID
      * @return true if event was already processed, false otherwise
      */
     @Transactional(readOnly = true)
     public boolean isEventProcessed(UUID eventId) {
-        return processedEventMapper.existsByEventId(eventId);
+        if (processedEventCache.contains(eventId)) {
+            return true;
+        }
+        boolean processed = processedEventMapper.existsByEventId(eventId);
+        if (processed) {
+            processedEventCache.add(eventId);
+        }
+        return processed;
     }
 
     /**
-     * Marks an event as processed for idempotency.
+     * Batch variant of {@link #isEventProcessed(UUID)}.
+     *
+     * @param eventIds The event IDs to check
+     * @return The subset of eventIds that were already processed
+     */
+    @Transactional(readOnly = true)
+    public Set<UUID> findProcessedEventIds(Collection<UUID> eventIds) {
+        if (eventIds.isEmpty()) {
+            return Collections.emptySet();
+        }
+        Set<UUID> processed = new HashSet<>();
+        Set<UUID> unknown = new HashSet<>();
+        for (UUID eventId : eventIds) {
+            if (processedEventCache.contains(eventId)) {
+                processed.add(eventId);
+            } else {
+                unknown.add(eventId);
+            }
+        }
+        if (!unknown.isEmpty()) {
+            for (UUID eventId : processedEventMapper.findProcessedEventIds(unknown)) {
+                processedEventCache.add(eventId);
+                processed.add(eventId);
+            }
+        }
+        return processed;
+    }
+
+    /**
+     * Claims an event for processing (idempotency).
+     * A single insert-if-absent on processed_events replaces the separate check and insert,
+     * so two deliveries of the same event cannot both proceed. The claim is rolled back
+     * with the surrounding transaction if processing fails.
      * 
      * @param eventId The unique event ID
      * @param correlationId The correlation ID for tracing
      * @param eventType The type of event
+     * @return true if the caller should process the event, false if it was already processed
      */
     @Transactional
-    public void markEventAsProcessed(UUID eventId, UUID correlationId, String eventType) {
-        if (!processedEventMapper.existsByEventId(eventId)) {
-            ProcessedEvent processedEvent = new ProcessedEvent();
-            processedEvent.setEventId(eventId);
-            processedEvent.setCorrelationId(correlationId);
-            processedEvent.setEventType(eventType);
-            processedEvent.setHandlerService(SERVICE_NAME);
-            processedEvent.setProcessedAt(LocalDateTime.now());
-            processedEventMapper.insert(processedEvent);
-            logger.debug("Marked event {} as processed", eventId);
+    public boolean claimEvent(UUID eventId, UUID correlationId, String eventType) {
+        if (processedEventCache.contains(eventId)) {
+            return false;
+        }
+        ProcessedEvent processedEvent = new ProcessedEvent();
+        processedEvent.setEventId(eventId);
+        processedEvent.setCorrelationId(correlationId);
+        processedEvent.setEventType(eventType);
+        processedEvent.setHandlerService(SERVICE_NAME);
+        processedEvent.setProcessedAt(LocalDateTime.now());
+        if (processedEventMapper.claim(processedEvent) == 0) {
+            processedEventCache.add(eventId);
+            return false;
+        }
+        logger.debug("Claimed event {} for processing", eventId);
+        cacheAfterCommit(eventId);
+        return true;
+    }
+
+    /**
+     * Adds the event to the processed cache once the surrounding transaction commits,
+     * so a rolled back event is never reported as processed.
+     */
+    private void cacheAfterCommit(UUID eventId) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            processedEventCache.add(eventId);
+            return;
         }
+        bindPendingAfterCommit().processedEventIds.add(eventId);
     }
 
     /**
      * Logs an event to the event log for event sourcing.
+     * The payload is stored as configured by persistence.event-log.payload-storage
+     * (JSONB, or LZ4/Zstd-compressed bytes). With the asynchronous writer enabled the row is
+     * handed to {@link EventLogWriter} once the surrounding transaction commits, so the
+     * transaction does not pay for the insert and a rolled back event is not logged.
      * 
      * @param eventId The unique event ID
      * @param correlationId The correlation ID
      * @param eventType The type of event
      * @param eventVersion The version of the event
      * @param source The source service
-     * @param payload The event payload as JSON string
+     * @param payload The event payload as JSON string, ideally the consumed record value as received
      */
     @Transactional
     public void logEvent(UUID eventId, UUID correlationId, String eventType, 
@@ -89,9 +183,14 @@ public class EventProcessingService {
             eventLog.setEventVersion(eventVersion);
             eventLog.setSource(source);
             eventLog.setPayload(payload);
+            eventLog.setPayloadEncoding(payloadEncoding.getCode());
             eventLog.setProcessed(false);
             eventLog.setTimestamp(LocalDateTime.now());
-            eventLogMapper.insert(eventLog);
+            if (eventLogWriter.isEnabled()) {
+                appendAfterCommit(eventLog);
+            } else {
+                eventLogMapper.insert(eventLog);
+            }
             logger.debug("Logged event {} to event log", eventId);
         } catch (Exception e) {
             logger.error("Error logging event to event log", e);
@@ -101,21 +200,80 @@ public class EventProcessingService {
 
     /**
      * Marks an event log entry as processed.
+     * An entry still waiting for its transaction to commit is marked before it is written;
+     * otherwise this is a blind update, and a missing entry (e.g. event logging failed) simply matches no rows.
      * 
      * @param eventId The unique event ID
      */
     @Transactional
     public void markEventLogAsProcessed(UUID eventId) {
-        eventLogMapper.findByEventId(eventId).ifPresent(eventLog -> {
-            eventLogMapper.updateProcessed(eventId, LocalDateTime.now());
+        PendingAfterCommit pending = pendingAfterCommit();
+        EventLog pendingEventLog = pending != null ? pending.eventLogs.get(eventId) : null;
+        if (pendingEventLog != null) {
+            pendingEventLog.setProcessed(true);
+            return;
+        }
+        eventLogMapper.updateProcessed(eventId, LocalDateTime.now());
+    }
+
+    /**
+     * Drops the event log row and processed cache entry an event left pending in the surrounding
+     * transaction. For callers that roll an event's work back to a savepoint and then commit the
+     * transaction, so the rolled back event is neither logged nor cached as processed.
+     *
+     * @param eventId The unique event ID
+     */
+    public void discardPendingAfterCommit(UUID eventId) {
+        PendingAfterCommit pending = pendingAfterCommit();
+        if (pending != null) {
+            pending.eventLogs.remove(eventId);
+            pending.processedEventIds.remove(eventId);
+        }
+    }
+
+    /**
+     * Hands the row to the event log writer once the surrounding transaction commits.
+     */
+    private void appendAfterCommit(EventLog eventLog) {
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            eventLogWriter.append(eventLog);
+            return;
+        }
+        bindPendingAfterCommit().eventLogs.put(eventLog.getEventId(), eventLog);
+    }
+
+    private PendingAfterCommit pendingAfterCommit() {
+        return (PendingAfterCommit) TransactionSynchronizationManager.getResource(PENDING_AFTER_COMMIT);
+    }
+
+    private PendingAfterCommit bindPendingAfterCommit() {
+        PendingAfterCommit existing = pendingAfterCommit();
+        if (existing != null) {
+            return existing;
+        }
+        PendingAfterCommit pending = new PendingAfterCommit();
+        TransactionSynchronizationManager.bindResource(PENDING_AFTER_COMMIT, pending);
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                pending.processedEventIds.forEach(processedEventCache::add);
+                pending.eventLogs.values().forEach(eventLogWriter::append);
+            }
+
+            @Override
+            public void afterCompletion(int status) {
+                TransactionSynchronizationManager.unbindResourceIfPossible(PENDING_AFTER_COMMIT);
+            }
         });
+        return pending;
     }
 
     /**
      * Generates a unique event ID if not provided.
      * In a choreography pattern, events should have unique IDs for idempotency.
+     * IDs are time-ordered (UUIDv7) for index locality in processed_events and event_log.
      */
     public UUID generateEventId() {
-        return UUID.randomUUID();
+        return EventIdGenerator.newEventId();
     }
 }
@@ -0,0 +1,316 @@
+package com.edrs.persistence.service;
+
+import com.edrs.persistence.entity.EventLog;
+import com.edrs.persistence.entity.ProcessedEvent;
+import com.edrs.persistence.mapper.EventLogMapper;
+import com.edrs.persistence.mapper.ProcessedEventMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Applies retention to the event store.
+ * Keeps daily event_log partitions created ahead of time, archives and drops partitions older than
+ * the event log retention (and expired rows left in the default partition), and purges processed_events rows older than the retention of the consumed
+ * topics (Kafka can no longer redeliver those records, so their idempotency rows are never read again).
+ */
+@Component
+public class EventRetentionJob {
+    private static final Logger logger = LoggerFactory.getLogger(EventRetentionJob.class);
+    private static final String PARTITION_PREFIX = "event_log_p";
+    private static final DateTimeFormatter PARTITION_DAY = DateTimeFormatter.BASIC_ISO_DATE;
+    private static final DateTimeFormatter ARCHIVE_RUN = DateTimeFormatter.ofPattern("yyyyMMdd'T'HHmmss");
+
+    private final EventLogMapper eventLogMapper;
+    private final ProcessedEventMapper processedEventMapper;
+    private final ObjectMapper objectMapper;
+    private final TransactionTemplate transactionTemplate;
+    private final int eventLogRetentionDays;
+    private final int partitionsAheadDays;
+    private final long processedEventsRetentionMs;
+    private final int deleteBatchSize;
+    private final boolean archiveEnabled;
+    private final Path archiveDirectory;
+
+    public EventRetentionJob(
+            EventLogMapper eventLogMapper,
+            ProcessedEventMapper processedEventMapper,
+            ObjectMapper objectMapper,
+            PlatformTransactionManager transactionManager,
+            @Value("${persistence.retention.event-log.retention-days:30}") int eventLogRetentionDays,
+            @Value("${persistence.retention.event-log.partitions-ahead-days:7}") int partitionsAheadDays,
+            @Value("${persistence.retention.processed-events.retention-ms:604800000}") long processedEventsRetentionMs,
+            @Value("${persistence.retention.processed-events.delete-batch-size:5000}") int deleteBatchSize,
+            @Value("${persistence.retention.archive.enabled:true}") boolean archiveEnabled,
+            @Value("${persistence.retention.archive.directory:archive}") String archiveDirectory) {
+        this.eventLogMapper = eventLogMapper;
+        this.processedEventMapper = processedEventMapper;
+        this.objectMapper = objectMapper;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.eventLogRetentionDays = eventLogRetentionDays;
+        this.partitionsAheadDays = partitionsAheadDays;
+        this.processedEventsRetentionMs = processedEventsRetentionMs;
+        this.deleteBatchSize = deleteBatchSize;
+        this.archiveEnabled = archiveEnabled;
+        this.archiveDirectory = Paths.get(archiveDirectory);
+    }
+
+    /**
+     * Runs all retention steps. A failing step is logged and retried on the next run.
+     */
+    @Scheduled(cron = "${persistence.retention.cron:0 15 * * * *}")
+    public void run() {
+        try {
+            createUpcomingPartitions();
+        } catch (Exception e) {
+            logger.error("Error creating event_log partitions", e);
+        }
+        try {
+            dropExpiredPartitions();
+        } catch (Exception e) {
+            logger.error("Error dropping expired event_log partitions", e);
+        }
+        try {
+            purgeDefaultPartition();
+        } catch (Exception e) {
+            logger.error("Error purging expired event_log default partition rows", e);
+        }
+        try {
+            purgeProcessedEvents();
+        } catch (Exception e) {
+            logger.error("Error purging expired processed events", e);
+        }
+    }
+
+    /**
+     * Creates the event_log partitions for today and the configured number of days ahead.
+     *
+     * @return The number of partitions created
+     */
+    int createUpcomingPartitions() {
+        LocalDate today = LocalDate.now();
+        Integer created = transactionTemplate.execute(status ->
+                eventLogMapper.createPartitions(today, today.plusDays(partitionsAheadDays)));
+        if (created != null && created > 0) {
+            logger.info("Created {} event_log partitions up to {}", created, today.plusDays(partitionsAheadDays));
+        }
+        return created != null ? created : 0;
+    }
+
+    /**
+     * Archives (when enabled) and drops every daily partition that lies entirely before the retention window.
+     *
+     * @return The number of partitions dropped
+     */
+    int dropExpiredPartitions() {
+        LocalDate oldestRetainedDay = LocalDate.now().minusDays(eventLogRetentionDays);
+        int dropped = 0;
+        for (String partitionName : eventLogMapper.findPartitionNames()) {
+            LocalDate day = partitionDay(partitionName);
+            if (day == null) {
+                continue;
+            }
+            if (!day.isBefore(oldestRetainedDay)) {
+                // Names sort by day, so every remaining partition is retained as well
+                break;
+            }
+            if (!dropPartition(partitionName)) {
+                break;
+            }
+            dropped++;
+        }
+        return dropped;
+    }
+
+    /**
+     * Archives and drops one partition in a single transaction, so a failed archive keeps the partition.
+     *
+     * @return false if another instance currently holds the retention lock
+     */
+    private boolean dropPartition(String partitionName) {
+        Boolean dropped = transactionTemplate.execute(status -> {
+            if (!eventLogMapper.tryLockRetention()) {
+                logger.debug("Event retention is running on another instance, skipping partition {}", partitionName);
+                return false;
+            }
+            // Another instance may have dropped it between listing and locking
+            if (!eventLogMapper.findPartitionNames().contains(partitionName)) {
+                return true;
+            }
+            if (archiveEnabled) {
+                Path target = archiveDirectory.resolve("event_log").resolve(partitionName + ".jsonl.gz");
+                try (EventArchiveWriter writer = EventArchiveWriter.open(objectMapper, target)) {
+                    eventLogMapper.streamPartition(partitionName, context -> {
+                        try {
+                            writer.write(archiveRow(context.getResultObject()));
+                        } catch (IOException e) {
+                            throw new UncheckedIOException(e);
+                        }
+                    });
+                    writer.finish();
+                    logger.info("Archived {} event_log rows from {} to {}", writer.getRowCount(), partitionName, target);
+                } catch (IOException e) {
+                    throw new UncheckedIOException("Failed to archive " + partitionName, e);
+                }
+            }
+            eventLogMapper.dropPartition(partitionName);
+            logger.info("Dropped event_log partition {}", partitionName);
+            return true;
+        });
+        return Boolean.TRUE.equals(dropped);
+    }
+
+    /**
+     * Deletes (and archives, when enabled) rows of the default partition that are older than the event log
+     * retention, such as history from before partitioning. Works in bounded chunks like
+     * {@link #purgeProcessedEvents()}, with each chunk archived before its delete commits.
+     *
+     * @return The number of rows deleted
+     */
+    int purgeDefaultPartition() {
+        LocalDateTime cutoff = LocalDate.now().minusDays(eventLogRetentionDays).atStartOfDay();
+        String run = ARCHIVE_RUN.format(LocalDateTime.now());
+        int deleted = 0;
+        int chunkNumber = 0;
+        int chunk;
+        do {
+            Path target = archiveDirectory.resolve("event_log")
+                    .resolve(String.format("event_log_default_%s_%04d.jsonl.gz", run, ++chunkNumber));
+            List<EventLog> rows = transactionTemplate.execute(status -> {
+                if (!eventLogMapper.tryLockRetention()) {
+                    logger.debug("Event retention is running on another instance, skipping the default partition");
+                    return null;
+                }
+                List<EventLog> expired = eventLogMapper.deleteDefaultPartitionBefore(cutoff, deleteBatchSize);
+                if (archiveEnabled && !expired.isEmpty()) {
+                    archiveEventLogs(expired, target);
+                }
+                return expired;
+            });
+            chunk = rows != null ? rows.size() : 0;
+            deleted += chunk;
+        } while (chunk == deleteBatchSize);
+        if (deleted > 0) {
+            logger.info("Purged {} event_log default partition rows recorded before {}", deleted, cutoff);
+        }
+        return deleted;
+    }
+
+    /**
+     * Deletes (and archives, when enabled) processed events older than the retention, one bounded chunk
+     * per transaction. Each chunk is written to its own archive file before its delete commits, and a
+     * failed archive write rolls the delete back, so no row is removed without being archived. Rows from
+     * a chunk whose commit fails after archiving stay in the table and are archived again on the next run.
+     *
+     * @return The number of processed events deleted
+     */
+    int purgeProcessedEvents() {
+        LocalDateTime now = LocalDateTime.now();
+        LocalDateTime cutoff = now.minus(Duration.ofMillis(processedEventsRetentionMs));
+        String run = ARCHIVE_RUN.format(now);
+        int deleted = 0;
+        int chunkNumber = 0;
+        int chunk;
+        do {
+            Path target = archiveDirectory.resolve("processed_events")
+                    .resolve(String.format("processed_events_%s_%04d.jsonl.gz", run, ++chunkNumber));
+            List<ProcessedEvent> rows = transactionTemplate.execute(status -> {
+                List<ProcessedEvent> expired = processedEventMapper.deleteProcessedBefore(cutoff, deleteBatchSize);
+                if (archiveEnabled && !expired.isEmpty()) {
+                    archiveProcessedEvents(expired, target);
+                }
+                return expired;
+            });
+            chunk = rows != null ? rows.size() : 0;
+            deleted += chunk;
+        } while (chunk == deleteBatchSize);
+        if (deleted > 0) {
+            logger.info("Purged {} processed events recorded before {}", deleted, cutoff);
+        }
+        return deleted;
+    }
+
+    private void archiveEventLogs(List<EventLog> rows, Path target) {
+        try (EventArchiveWriter writer = EventArchiveWriter.open(objectMapper, target)) {
+            for (EventLog row : rows) {
+                writer.write(archiveRow(row));
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive event_log rows to " + target, e);
+        }
+    }
+
+    private void archiveProcessedEvents(List<ProcessedEvent> rows, Path target) {
+        try (EventArchiveWriter writer = EventArchiveWriter.open(objectMapper, target)) {
+            for (ProcessedEvent row : rows) {
+                writer.write(archiveRow(row));
+            }
+            writer.finish();
+        } catch (IOException e) {
+            throw new UncheckedIOException("Failed to archive processed events to " + target, e);
+        }
+    }
+
+    /**
+     * @return The day of a daily partition, or null if the name is not a daily partition name
+     */
+    static LocalDate partitionDay(String partitionName) {
+        if (partitionName == null || !partitionName.startsWith(PARTITION_PREFIX)) {
+            return null;
+        }
+        try {
+            return LocalDate.parse(partitionName.substring(PARTITION_PREFIX.length()), PARTITION_DAY);
+        } catch (DateTimeParseException e) {
+            return null;
+        }
+    }
+
+    private static Map<String, Object> archiveRow(EventLog eventLog) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", eventLog.getId());
+        row.put("event_id", eventLog.getEventId());
+        row.put("correlation_id", eventLog.getCorrelationId());
+        row.put("event_type", eventLog.getEventType());
+        row.put("event_version", eventLog.getEventVersion());
+        row.put("source", eventLog.getSource());
+        row.put("payload", eventLog.getPayload());
+        row.put("processed", eventLog.getProcessed());
+        row.put("timestamp", toIsoString(eventLog.getTimestamp()));
+        row.put("processed_at", toIsoString(eventLog.getProcessedAt()));
+        return row;
+    }
+
+    private static Map<String, Object> archiveRow(ProcessedEvent processedEvent) {
+        Map<String, Object> row = new LinkedHashMap<>();
+        row.put("id", processedEvent.getId());
+        row.put("event_id", processedEvent.getEventId());
+        row.put("correlation_id", processedEvent.getCorrelationId());
+        row.put("event_type", processedEvent.getEventType());
+        row.put("processed_at", toIsoString(processedEvent.getProcessedAt()));
+        row.put("handler_service", processedEvent.getHandlerService());
+        return row;
+    }
+
+    private static String toIsoString(LocalDateTime value) {
+        return value != null ? value.toString() : null;
+    }
+}
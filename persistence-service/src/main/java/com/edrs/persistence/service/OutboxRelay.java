@@ -0,0 +1,180 @@
+package com.edrs.persistence.service;
+
+import com.edrs.persistence.entity.OutboxEvent;
+import com.edrs.persistence.mapper.OutboxMapper;
+import io.opentelemetry.api.metrics.Meter;
+import org.apache.kafka.common.errors.RetriableException;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
+
+/**
+ * Drains the transactional outbox to Kafka.
+ * Each batch is locked with SKIP LOCKED, sent without waiting between records, and deleted
+ * once the broker has acknowledged it. Delivery is at-least-once: a crash between the send
+ * and the delete republishes the batch.
+ * <p>
+ * Only the acknowledged prefix of a batch is deleted: the first failed or timed-out send keeps
+ * that event and every later one in the outbox, so a later event for the same key is never
+ * removed ahead of an earlier one. The acknowledgements of a batch are awaited against a single
+ * send-timeout-ms deadline, which bounds how long its rows stay locked.
+ * <p>
+ * A send that fails with a non-retriable error (e.g. a record too large, or an unknown or
+ * unauthorized topic) is counted in the row's attempts; after max-attempts such failures the row
+ * is moved to outbox_dead_letter and the rest of the batch goes on, so one poison event cannot
+ * block the outbox. Retriable errors and timeouts, such as a broker outage, never dead-letter a row.
+ */
+@Component
+public class OutboxRelay {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxRelay.class);
+
+    private final OutboxMapper outboxMapper;
+    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int batchSize;
+    private final long sendTimeoutMs;
+    private final int maxAttempts;
+
+    public OutboxRelay(
+            OutboxMapper outboxMapper,
+            KafkaTemplate<String, String> kafkaTemplate,
+            PlatformTransactionManager transactionManager,
+            Meter meter,
+            @Value("${persistence.outbox.relay.batch-size:500}") int batchSize,
+            @Value("${persistence.outbox.relay.send-timeout-ms:10000}") long sendTimeoutMs,
+            @Value("${persistence.outbox.relay.max-attempts:5}") int maxAttempts) {
+        this.outboxMapper = outboxMapper;
+        this.kafkaTemplate = kafkaTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.batchSize = batchSize;
+        this.sendTimeoutMs = sendTimeoutMs;
+        this.maxAttempts = maxAttempts;
+        meter.gaugeBuilder("persistence.outbox.oldest_age")
+                .setDescription("Age of the oldest event waiting in the outbox")
+                .setUnit("s")
+                .buildWithCallback(measurement -> {
+                    try {
+                        measurement.record(oldestAgeSeconds());
+                    } catch (Exception e) {
+                        logger.debug("Could not read the oldest outbox event", e);
+                    }
+                });
+    }
+
+    /**
+     * Publishes pending outbox events, batch after batch, until the outbox is drained
+     * or a send fails.
+     */
+    @Scheduled(fixedDelayString = "${persistence.outbox.relay.interval-ms:100}")
+    public void relay() {
+        int published;
+        do {
+            published = relayBatch();
+        } while (published == batchSize);
+    }
+
+    /**
+     * Publishes one batch in its own transaction.
+     *
+     * @return The number of events removed from the outbox, published or dead-lettered
+     */
+    int relayBatch() {
+        Integer published = transactionTemplate.execute(status -> {
+            List<OutboxEvent> batch = outboxMapper.lockNextBatch(batchSize);
+            if (batch.isEmpty()) {
+                return 0;
+            }
+
+            // Pipeline the sends, then wait for the acknowledgements
+            List<CompletableFuture<SendResult<String, String>>> futures = new ArrayList<>(batch.size());
+            for (OutboxEvent event : batch) {
+                futures.add(send(event));
+            }
+
+            List<Long> publishedIds = new ArrayList<>(batch.size());
+            int deadLettered = 0;
+            long deadline = System.nanoTime() + TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+            for (int i = 0; i < batch.size(); i++) {
+                OutboxEvent event = batch.get(i);
+                try {
+                    futures.get(i).get(Math.max(deadline - System.nanoTime(), 0), TimeUnit.NANOSECONDS);
+                    publishedIds.add(event.getId());
+                } catch (InterruptedException e) {
+                    Thread.currentThread().interrupt();
+                    break;
+                } catch (ExecutionException | TimeoutException e) {
+                    Throwable cause = e instanceof ExecutionException && e.getCause() != null ? e.getCause() : e;
+                    boolean retriable = isRetriable(cause);
+                    if (!retriable && event.getAttempts() + 1 >= maxAttempts) {
+                        outboxMapper.moveToDeadLetter(event.getId(), String.valueOf(cause));
+                        deadLettered++;
+                        logger.error("Moved outbox event {} for topic: {} to outbox_dead_letter after {} failed attempts",
+                                   event.getId(), event.getTopic(), event.getAttempts() + 1, cause);
+                        continue;
+                    }
+                    if (!retriable) {
+                        outboxMapper.recordFailure(event.getId(), String.valueOf(cause));
+                    }
+                    // Later events stay in the outbox too, even if their sends succeeded
+                    logger.error("Error publishing outbox event {} to topic: {}, will retry it and the {} events after it",
+                               event.getId(), event.getTopic(), batch.size() - i - 1, cause);
+                    break;
+                }
+            }
+
+            if (!publishedIds.isEmpty()) {
+                outboxMapper.deleteByIds(publishedIds);
+            }
+            logger.debug("Relayed {} of {} outbox events, dead-lettered {}", publishedIds.size(), batch.size(), deadLettered);
+            return publishedIds.size() + deadLettered;
+        });
+        return published != null ? published : 0;
+    }
+
+    /**
+     * @return The age of the oldest unpublished event in seconds, 0 when the outbox is empty
+     */
+    double oldestAgeSeconds() {
+        LocalDateTime oldest = outboxMapper.findOldestCreatedAt();
+        if (oldest == null) {
+            return 0;
+        }
+        return Math.max(Duration.between(oldest, LocalDateTime.now()).toMillis(), 0) / 1000.0;
+    }
+
+    private CompletableFuture<SendResult<String, String>> send(OutboxEvent event) {
+        try {
+            return kafkaTemplate.send(event.getTopic(), event.getMessageKey(), event.getPayload());
+        } catch (RuntimeException e) {
+            // E.g. a serialization or metadata error thrown before the record is queued
+            return CompletableFuture.failedFuture(e);
+        }
+    }
+
+    /**
+     * @return true if Kafka may accept the record when it is sent again, e.g. after a broker outage
+     */
+    private static boolean isRetriable(Throwable error) {
+        for (Throwable cause = error; cause != null; cause = cause.getCause()) {
+            if (cause instanceof RetriableException || cause instanceof TimeoutException) {
+                return true;
+            }
+        }
+        return false;
+    }
+}
@@ -0,0 +1,37 @@
+package com.edrs.persistence.service;
+
+import com.edrs.persistence.entity.OutboxEvent;
+import com.edrs.persistence.mapper.OutboxMapper;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+/**
+ * Write side of the transactional outbox.
+ * Events are stored in the caller's transaction, so they are published only if the
+ * state change commits; {@link OutboxRelay} sends them to Kafka afterwards.
+ */
+@Service
+public class OutboxService {
+    private static final Logger logger = LoggerFactory.getLogger(OutboxService.class);
+
+    private final OutboxMapper outboxMapper;
+
+    public OutboxService(OutboxMapper outboxMapper) {
+        this.outboxMapper = outboxMapper;
+    }
+
+    /**
+     * Queues an event for publishing.
+     *
+     * @param topic The Kafka topic
+     * @param key The message key
+     * @param payload The serialized event
+     */
+    @Transactional
+    public void enqueue(String topic, String key, String payload) {
+        outboxMapper.insert(new OutboxEvent(topic, key, payload));
+        logger.debug("Queued outbox event for topic: {}, key: {}", topic, key);
+    }
+}
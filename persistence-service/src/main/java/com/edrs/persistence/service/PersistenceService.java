@@ -2,13 +2,17 @@ package com.edrs.persistence.service;
 
 import com.edrs.common.events.CancellationRequestedEvent;
 import com.edrs.common.events.CancellationSuccessfulEvent;
+import com.edrs.common.events.InventoryPersistedEvent;
 import com.edrs.common.events.InventoryReceivedEvent;
 import com.edrs.common.events.ReservationCreatedEvent;
 import com.edrs.common.events.ReservationFailedEvent;
 import com.edrs.common.events.ReservationRequestedEvent;
 import com.edrs.common.util.CorrelationIdUtil;
 import com.edrs.persistence.entity.InventoryItem;
+import com.edrs.persistence.entity.ItemAvailability;
 import com.edrs.persistence.entity.Reservation;
+import com.edrs.persistence.entity.ReservationItem;
+import com.edrs.persistence.entity.ReservedQuantity;
 import com.edrs.persistence.mapper.InventoryItemMapper;
 import com.edrs.persistence.mapper.ReservationMapper;
 import com.fasterxml.jackson.core.JsonProcessingException;
@@ -22,20 +26,23 @@ import io.opentelemetry.context.Scope;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
-import org.springframework.kafka.core.KafkaTemplate;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
+import java.time.LocalDate;
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
+import java.util.TreeMap;
 import java.util.UUID;
 
 /**
  * Persistence service following choreography pattern best practices:
  * - Idempotent event processing
  * - Event sourcing via event log
- * - Transactional event publishing (outbox pattern ready)
+ * - Transactional event publishing via the outbox table
  * - Proper error handling
  */
 @Service
@@ -49,7 +56,7 @@ public class PersistenceService {
 
     private final ReservationMapper reservationMapper;
     private final InventoryItemMapper inventoryItemMapper;
-    private final KafkaTemplate<String, String> kafkaTemplate;
+    private final OutboxService outboxService;
     private final ObjectMapper objectMapper;
     private final EventProcessingService eventProcessingService;
     private final Tracer tracer;
@@ -67,14 +74,14 @@ public class PersistenceService {
     public PersistenceService(
             ReservationMapper reservationMapper,
             InventoryItemMapper inventoryItemMapper,
-            KafkaTemplate<String, String> kafkaTemplate,
+            OutboxService outboxService,
             ObjectMapper objectMapper,
             EventProcessingService eventProcessingService,
             Tracer tracer,
             Meter meter) {
         this.reservationMapper = reservationMapper;
         this.inventoryItemMapper = inventoryItemMapper;
-        this.kafkaTemplate = kafkaTemplate;
+        this.outboxService = outboxService;
         this.objectMapper = objectMapper;
         this.eventProcessingService = eventProcessingService;
         this.tracer = tracer;
@@ -107,6 +114,16 @@ public class PersistenceService {
      */
     @Transactional
     public void processReservationRequest(ReservationRequestedEvent event, UUID eventId) {
+        processReservationRequest(event, eventId, null);
+    }
+
+    /**
+     * Processes reservation request event (idempotent), logging the consumed record value as received.
+     * 
+     * @param rawPayload The record value to store in the event log; the event is re-serialized when null
+     */
+    @Transactional
+    public void processReservationRequest(ReservationRequestedEvent event, UUID eventId, String rawPayload) {
         long startTime = System.currentTimeMillis();
         Span span = tracer.spanBuilder("processReservationRequest")
                 .setAttribute("event.id", eventId.toString())
@@ -121,8 +138,8 @@ public class PersistenceService {
             logger.info("Processing reservation request with correlationId: {}, eventId: {}", 
                        event.getCorrelationId(), eventId);
 
-            // Idempotency check - if already processed, skip
-            if (eventProcessingService.isEventProcessed(eventId)) {
+            // Idempotency claim - if another delivery already claimed this event, skip
+            if (!eventProcessingService.claimEvent(eventId, event.getCorrelationId(), "ReservationRequestedEvent")) {
                 logger.info("Event {} already processed, skipping (idempotency)", eventId);
                 span.setAttribute("event.processed", true);
                 span.setAttribute("event.skipped", true);
@@ -130,7 +147,7 @@ public class PersistenceService {
             }
 
             // Log event for event sourcing
-            String eventPayload = objectMapper.writeValueAsString(event);
+            String eventPayload = rawPayload != null ? rawPayload : objectMapper.writeValueAsString(event);
             eventProcessingService.logEvent(
                 eventId,
                 event.getCorrelationId(),
@@ -156,12 +173,7 @@ public class PersistenceService {
             }
             
             if (unavailabilityReason != null) {
-                // Mark event as processed (even though it failed)
-                eventProcessingService.markEventAsProcessed(
-                    eventId,
-                    event.getCorrelationId(),
-                    "ReservationRequestedEvent"
-                );
+                // The claim commits with the failure, so redeliveries are skipped too
                 eventProcessingService.markEventLogAsProcessed(eventId);
                 
                 // Publish reservation failed event
@@ -203,18 +215,12 @@ public class PersistenceService {
             reservationMapper.insert(reservation);
             
             // Insert reservation items with quantities
-            for (Map.Entry<String, Integer> entry : event.getInventoryItemQuantities().entrySet()) {
-                reservationMapper.insertReservationItem(confirmationNumber, entry.getKey(), entry.getValue());
-            }
+            reservationMapper.insertReservationItems(confirmationNumber, event.getInventoryItemQuantities());
+            reservationMapper.incrementReservedQuantities(event.getInventoryItemQuantities(), event.getReservationDate());
             
             logger.info("Persisted reservation with confirmation number: {}", confirmationNumber);
             
-            // Mark event as processed
-            eventProcessingService.markEventAsProcessed(
-                eventId,
-                event.getCorrelationId(),
-                "ReservationRequestedEvent"
-            );
+            // Mark event log as processed
             eventProcessingService.markEventLogAsProcessed(eventId);
             
             // Publish reservation created event (choreography - other services react to this)
@@ -260,6 +266,16 @@ public class PersistenceService {
      */
     @Transactional
     public void processCancellationRequest(CancellationRequestedEvent event, UUID eventId) {
+        processCancellationRequest(event, eventId, null);
+    }
+
+    /**
+     * Processes cancellation request event (idempotent), logging the consumed record value as received.
+     * 
+     * @param rawPayload The record value to store in the event log; the event is re-serialized when null
+     */
+    @Transactional
+    public void processCancellationRequest(CancellationRequestedEvent event, UUID eventId, String rawPayload) {
         long startTime = System.currentTimeMillis();
         Span span = tracer.spanBuilder("processCancellationRequest")
                 .setAttribute("event.id", eventId.toString())
@@ -273,8 +289,8 @@ public class PersistenceService {
             logger.info("Processing cancellation request with correlationId: {}, eventId: {}", 
                        event.getCorrelationId(), eventId);
 
-            // Idempotency check
-            if (eventProcessingService.isEventProcessed(eventId)) {
+            // Idempotency claim - if another delivery already claimed this event, skip
+            if (!eventProcessingService.claimEvent(eventId, event.getCorrelationId(), "CancellationRequestedEvent")) {
                 logger.info("Event {} already processed, skipping (idempotency)", eventId);
                 span.setAttribute("event.skipped", true);
                 return;
@@ -282,7 +298,7 @@ public class PersistenceService {
 
             try {
                 // Log event
-                String eventPayload = objectMapper.writeValueAsString(event);
+                String eventPayload = rawPayload != null ? rawPayload : objectMapper.writeValueAsString(event);
                 eventProcessingService.logEvent(
                     eventId,
                     event.getCorrelationId(),
@@ -298,24 +314,31 @@ public class PersistenceService {
                     throw new RuntimeException("Reservation not found: " + event.getConfirmationNumber());
                 }
                 
+                String previousStatus = reservation.getStatus();
                 reservation.setStatus("CANCELLED");
                 reservation.setUpdatedAt(LocalDateTime.now());
                 reservationMapper.update(reservation);
+                // Release the reserved quantities only once, when moving out of CONFIRMED
+                List<String> releasedItemIds = new ArrayList<>();
+                if ("CONFIRMED".equals(previousStatus)) {
+                    reservationMapper.decrementReservedQuantities(reservation.getConfirmationNumber(), reservation.getReservationDate());
+                    for (ReservationItem item : reservationMapper.findReservationItems(reservation.getConfirmationNumber())) {
+                        releasedItemIds.add(item.getInventoryItemId());
+                    }
+                }
                 logger.info("Updated reservation {} status to CANCELLED", event.getConfirmationNumber());
                 
-                // Mark event as processed
-                eventProcessingService.markEventAsProcessed(
-                    eventId,
-                    event.getCorrelationId(),
-                    "CancellationRequestedEvent"
-                );
+                // Mark event log as processed
                 eventProcessingService.markEventLogAsProcessed(eventId);
                 
                 // Publish cancellation successful event
+                // Items and date let consumers holding reserved quantity caches invalidate just what changed
                 CancellationSuccessfulEvent successfulEvent = new CancellationSuccessfulEvent(
                         event.getCorrelationId(),
                         event.getConfirmationNumber(),
                         reservation.getUserId(),
+                        releasedItemIds,
+                        reservation.getReservationDate(),
                         LocalDateTime.now()
                 );
                 
@@ -352,6 +375,16 @@ public class PersistenceService {
      */
     @Transactional
     public void processInventoryReceived(InventoryReceivedEvent event, UUID eventId) {
+        processInventoryReceived(event, eventId, null);
+    }
+
+    /**
+     * Processes inventory received event (idempotent), logging the consumed record value as received.
+     * 
+     * @param rawPayload The record value to store in the event log; the event is re-serialized when null
+     */
+    @Transactional
+    public void processInventoryReceived(InventoryReceivedEvent event, UUID eventId, String rawPayload) {
         long startTime = System.currentTimeMillis();
         Span span = tracer.spanBuilder("processInventoryReceived")
                 .setAttribute("event.id", eventId.toString())
@@ -359,14 +392,20 @@ public class PersistenceService {
                 .setAttribute("correlation.id", event.getCorrelationId().toString())
                 .setAttribute("inventory.records.count", event.getReceiveRecords().size())
                 .startSpan();
+        if (event.getBulkImportId() != null) {
+            span.setAttribute("inventory.bulk_import.id", event.getBulkImportId().toString());
+            if (event.getChunkIndex() != null) {
+                span.setAttribute("inventory.bulk_import.chunk", event.getChunkIndex());
+            }
+        }
         
         try (Scope scope = span.makeCurrent()) {
             CorrelationIdUtil.setCorrelationId(event.getCorrelationId());
             logger.info("Processing inventory received with correlationId: {}, eventId: {}", 
                        event.getCorrelationId(), eventId);
 
-            // Idempotency check
-            if (eventProcessingService.isEventProcessed(eventId)) {
+            // Idempotency claim - if another delivery already claimed this event, skip
+            if (!eventProcessingService.claimEvent(eventId, event.getCorrelationId(), "InventoryReceivedEvent")) {
                 logger.info("Event {} already processed, skipping (idempotency)", eventId);
                 span.setAttribute("event.skipped", true);
                 return;
@@ -374,7 +413,7 @@ public class PersistenceService {
 
             try {
                 // Log event
-                String eventPayload = objectMapper.writeValueAsString(event);
+                String eventPayload = rawPayload != null ? rawPayload : objectMapper.writeValueAsString(event);
                 eventProcessingService.logEvent(
                     eventId,
                     event.getCorrelationId(),
@@ -384,57 +423,65 @@ public class PersistenceService {
                     eventPayload
                 );
 
-                // Process each inventory item
+                // Merge records for the same item (quantities add up, the last provided metadata wins),
+                // then upsert all items, sorted by id, with one statement
+                Map<String, InventoryItem> received = new TreeMap<>();
                 for (InventoryReceivedEvent.InventoryReceiveRecord record : event.getReceiveRecords()) {
-                    InventoryItem item = inventoryItemMapper.findById(record.getInventoryItemId());
-                    
-                    if (item == null) {
-                        // Create new item with metadata from event
-                        item = new InventoryItem();
-                        item.setId(record.getInventoryItemId());
-                        item.setName(record.getName() != null ? record.getName() : "Item " + record.getInventoryItemId());
-                        item.setDescription(record.getDescription() != null ? record.getDescription() : "Auto-created item");
-                        item.setCategory(record.getCategory() != null ? record.getCategory() : "General");
-                        item.setAvailableQuantity(0);
-                        item.setCreatedAt(LocalDateTime.now());
-                        item.setUpdatedAt(LocalDateTime.now());
-                    } else {
-                        // Update metadata if provided in event (for existing items)
-                        if (record.getName() != null) {
-                            item.setName(record.getName());
-                        }
-                        if (record.getDescription() != null) {
-                            item.setDescription(record.getDescription());
-                        }
-                        if (record.getCategory() != null) {
-                            item.setCategory(record.getCategory());
-                        }
-                    }
-                    
+                    InventoryItem item = received.computeIfAbsent(record.getInventoryItemId(), id -> {
+                        InventoryItem newItem = new InventoryItem();
+                        newItem.setId(id);
+                        newItem.setAvailableQuantity(0);
+                        return newItem;
+                    });
                     item.setAvailableQuantity(item.getAvailableQuantity() + record.getQuantity());
-                    item.setUpdatedAt(LocalDateTime.now());
-                    
-                    if (inventoryItemMapper.existsById(record.getInventoryItemId())) {
-                        inventoryItemMapper.update(item);
-                    } else {
-                        inventoryItemMapper.insert(item);
+                    if (record.getName() != null) {
+                        item.setName(record.getName());
+                    }
+                    if (record.getDescription() != null) {
+                        item.setDescription(record.getDescription());
+                    }
+                    if (record.getCategory() != null) {
+                        item.setCategory(record.getCategory());
                     }
-                    
-                    logger.info("Updated inventory item {} with quantity {} (name: {}, category: {})", 
-                               record.getInventoryItemId(), item.getAvailableQuantity(), item.getName(), item.getCategory());
-                    inventoryUpdatesCounter.add(1);
                 }
                 
-                // Mark event as processed
-                eventProcessingService.markEventAsProcessed(
-                    eventId,
-                    event.getCorrelationId(),
-                    "InventoryReceivedEvent"
-                );
+                if (!received.isEmpty()) {
+                    int size = received.size();
+                    String[] ids = new String[size];
+                    Integer[] quantities = new Integer[size];
+                    String[] names = new String[size];
+                    String[] descriptions = new String[size];
+                    String[] categories = new String[size];
+                    int i = 0;
+                    for (InventoryItem item : received.values()) {
+                        ids[i] = item.getId();
+                        quantities[i] = item.getAvailableQuantity();
+                        names[i] = item.getName();
+                        descriptions[i] = item.getDescription();
+                        categories[i] = item.getCategory();
+                        i++;
+                    }
+                    inventoryItemMapper.upsertReceived(ids, quantities, names, descriptions, categories);
+                }
+                
+                logger.info("Received {} inventory records for {} items", 
+                           event.getReceiveRecords().size(), received.size());
+                inventoryUpdatesCounter.add(event.getReceiveRecords().size());
+                
+                // Mark event log as processed
                 eventProcessingService.markEventLogAsProcessed(eventId);
                 
-                // In a full choreography pattern, we might publish an "inventory-persisted" event
-                // for other services to react to. For now, we'll keep it simple.
+                // Bulk import chunks are acknowledged so the inventory service can track import progress
+                if (event.getBulkImportId() != null) {
+                    InventoryPersistedEvent persistedEvent = new InventoryPersistedEvent(
+                            event.getCorrelationId(),
+                            event.getBulkImportId(),
+                            event.getChunkIndex(),
+                            event.getReceiveRecords().size(),
+                            LocalDateTime.now()
+                    );
+                    publishEvent(INVENTORY_PERSISTED_TOPIC, event.getBulkImportId().toString(), persistedEvent);
+                }
                 logger.info("Inventory persisted successfully for correlationId: {}", event.getCorrelationId());
                 
                 // Metrics
@@ -480,43 +527,90 @@ public class PersistenceService {
         return reservationMapper.sumConfirmedReservationQuantitiesForItemInDateRange(itemId, startDate, endDate);
     }
 
+    /**
+     * Reserved quantities per item and day for many items, read with one grouped ledger query.
+     * Days from startDate up to bucketDate are reported as a single bucketDate row.
+     *
+     * @return Non-zero rows ordered by item and day
+     */
+    public List<ReservedQuantity> sumReservedQuantitiesByItemAndDay(List<String> itemIds, LocalDate startDate,
+                                                                    LocalDate bucketDate, LocalDate endDate) {
+        if (itemIds.isEmpty()) {
+            return List.of();
+        }
+        return reservationMapper.sumReservedQuantitiesByItemAndDay(
+                itemIds.toArray(new String[0]), startDate, bucketDate, endDate);
+    }
+
+    /**
+     * Returns one page of inventory items ordered by id, for snapshot reads by other services.
+     *
+     * @param afterId Last id of the previous page, or null for the first page
+     * @param limit Maximum number of items to return
+     */
+    public List<InventoryItem> findInventoryPage(String afterId, int limit) {
+        return inventoryItemMapper.findPage(afterId, limit);
+    }
+
+    /**
+     * Recomputes the reserved_quantity_by_item_day ledger from the reservations tables.
+     * Concurrent reservation processing waits on the ledger lock until the rebuild commits.
+     *
+     * @return number of ledger rows written
+     */
+    @Transactional
+    public int rebuildReservedQuantityLedger() {
+        reservationMapper.lockReservedQuantityLedger();
+        reservationMapper.deleteReservedQuantityLedger();
+        int rows = reservationMapper.rebuildReservedQuantityLedger();
+        logger.info("Rebuilt reserved quantity ledger with {} item-day rows", rows);
+        return rows;
+    }
+
     /**
      * Checks inventory availability for the requested items with quantities on the specified date.
      * Returns null if all items are available, or a reason string if unavailable.
+     * The item-day ledger rows are locked before they are read, so the check and the later
+     * ledger increment are atomic with respect to concurrent consumers of the same items and day.
+     * Requests for other items or days are not blocked.
      */
     private String checkInventoryAvailability(Map<String, Integer> inventoryItemQuantities, LocalDateTime reservationDate) {
+        reservationMapper.ensureReservedQuantityRows(inventoryItemQuantities.keySet(), reservationDate);
+
+        Map<String, ItemAvailability> availabilityByItem = new HashMap<>();
+        for (ItemAvailability availability : reservationMapper.lockItemAvailabilityOnDate(
+                inventoryItemQuantities.keySet(), reservationDate)) {
+            availabilityByItem.put(availability.getInventoryItemId(), availability);
+        }
+
         for (Map.Entry<String, Integer> entry : inventoryItemQuantities.entrySet()) {
             String itemId = entry.getKey();
             int requestedQuantity = entry.getValue();
-            
-            // Get inventory item
-            InventoryItem item = inventoryItemMapper.findById(itemId);
-            if (item == null) {
+
+            ItemAvailability availability = availabilityByItem.get(itemId);
+            if (availability == null) {
                 return "Inventory item not found: " + itemId;
             }
-            
-            // Sum quantities from existing confirmed reservations for this item on this date
-            long reservedQuantity = reservationMapper.sumConfirmedReservationQuantitiesForItemOnDate(itemId, reservationDate);
-            
+
             // Check if there's availability (availableQuantity - reservedQuantity >= requestedQuantity)
-            long availableCount = item.getAvailableQuantity() - reservedQuantity;
+            long reservedQuantity = availability.getReservedQuantity();
+            long availableCount = availability.getAvailableQuantity() - reservedQuantity;
             if (availableCount < requestedQuantity) {
-                return String.format("Insufficient availability for item %s on %s. Available: %d, Reserved: %d, Requested: %d", 
-                        itemId, reservationDate, item.getAvailableQuantity(), reservedQuantity, requestedQuantity);
+                return String.format("Insufficient availability for item %s on %s. Available: %d, Reserved: %d, Requested: %d",
+                        itemId, reservationDate, availability.getAvailableQuantity(), reservedQuantity, requestedQuantity);
             }
         }
         return null; // All items are available
     }
 
     /**
-     * Publishes an event to Kafka.
-     * In production, this should use transactional outbox pattern for guaranteed delivery.
+     * Publishes an event to Kafka through the transactional outbox.
+     * The event is written in the current transaction and sent by {@link OutboxRelay} after commit.
      */
     private void publishEvent(String topic, String key, Object event) {
         try {
             String eventJson = objectMapper.writeValueAsString(event);
-            kafkaTemplate.send(topic, key, eventJson);
-            logger.debug("Published event to topic: {}, key: {}", topic, key);
+            outboxService.enqueue(topic, key, eventJson);
         } catch (JsonProcessingException e) {
             logger.error("Error serializing event for topic: {}", topic, e);
             throw new RuntimeException("Failed to publish event", e);
@@ -0,0 +1,54 @@
+package com.edrs.persistence.service;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.Queue;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+
+/**
+ * Bounded in-process cache of recently processed event IDs.
+ * Only positive answers are served from the cache; a miss still goes to processed_events,
+ * whose unique constraint remains the source of truth. Oldest entries are evicted first.
+ */
+@Component
+public class ProcessedEventCache {
+    private final int maxSize;
+    private final Set<UUID> eventIds = ConcurrentHashMap.newKeySet();
+    private final Queue<UUID> insertionOrder = new ConcurrentLinkedQueue<>();
+
+    public ProcessedEventCache(@Value("${persistence.idempotency.cache.max-size:100000}") int maxSize) {
+        this.maxSize = maxSize;
+    }
+
+    /**
+     * @return true if the event is known to be processed, false if unknown
+     */
+    public boolean contains(UUID eventId) {
+        return eventIds.contains(eventId);
+    }
+
+    /**
+     * Records an event as processed. Should only be called once the processed_events row is committed.
+     */
+    public void add(UUID eventId) {
+        if (maxSize <= 0 || !eventIds.add(eventId)) {
+            return;
+        }
+        insertionOrder.add(eventId);
+        while (eventIds.size() > maxSize) {
+            UUID eldest = insertionOrder.poll();
+            if (eldest == null) {
+                break;
+            }
+            eventIds.remove(eldest);
+        }
+    }
+
+    public int size() {
+        return eventIds.size();
+    }
+}
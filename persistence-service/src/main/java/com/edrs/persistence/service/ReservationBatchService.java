@@ -0,0 +1,90 @@
+package com.edrs.persistence.service;
+
+import com.edrs.common.events.ReservationRequestedEvent;
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionDefinition;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+/**
+ * Processes a whole poll of reservation requests in one database transaction.
+ * Used by the batch listener mode to cut commit round-trips at peak load.
+ */
+@Service
+public class ReservationBatchService {
+    private static final Logger logger = LoggerFactory.getLogger(ReservationBatchService.class);
+
+    private final PersistenceService persistenceService;
+    private final EventProcessingService eventProcessingService;
+    private final TransactionTemplate recordTransactionTemplate;
+
+    public ReservationBatchService(
+            PersistenceService persistenceService,
+            EventProcessingService eventProcessingService,
+            PlatformTransactionManager transactionManager) {
+        this.persistenceService = persistenceService;
+        this.eventProcessingService = eventProcessingService;
+        // Each record runs in a savepoint inside the batch transaction
+        this.recordTransactionTemplate = new TransactionTemplate(transactionManager);
+        this.recordTransactionTemplate.setPropagationBehavior(TransactionDefinition.PROPAGATION_NESTED);
+    }
+
+    /**
+     * Processes reservation requests in a single transaction (idempotent).
+     * Already-processed events are filtered with one query up front. A record that fails
+     * is rolled back to its savepoint and reported, without aborting the rest of the batch.
+     *
+     * @param events Reservation requests keyed by eventId, in poll order
+     * @return The eventIds that failed processing
+     */
+    @Transactional
+    public List<UUID> processReservationRequestBatch(Map<UUID, ReservationRequestedEvent> events) {
+        return processReservationRequestBatch(events, Collections.emptyMap());
+    }
+
+    /**
+     * Processes reservation requests in a single transaction (idempotent), logging each
+     * consumed record value as received.
+     *
+     * @param events Reservation requests keyed by eventId, in poll order
+     * @param rawPayloads Record values keyed by eventId; events without one are re-serialized for the event log
+     * @return The eventIds that failed processing
+     */
+    @Transactional
+    public List<UUID> processReservationRequestBatch(Map<UUID, ReservationRequestedEvent> events,
+                                                     Map<UUID, String> rawPayloads) {
+        Set<UUID> alreadyProcessed = eventProcessingService.findProcessedEventIds(events.keySet());
+        List<UUID> failedEventIds = new ArrayList<>();
+
+        for (Map.Entry<UUID, ReservationRequestedEvent> entry : events.entrySet()) {
+            UUID eventId = entry.getKey();
+            if (alreadyProcessed.contains(eventId)) {
+                logger.info("Event {} already processed, skipping (idempotency)", eventId);
+                continue;
+            }
+            try {
+                recordTransactionTemplate.executeWithoutResult(status ->
+                        persistenceService.processReservationRequest(entry.getValue(), eventId, rawPayloads.get(eventId)));
+            } catch (Exception e) {
+                logger.error("Error processing reservation request in batch for eventId: {}", eventId, e);
+                // Rolled back to its savepoint, but the batch transaction still commits
+                eventProcessingService.discardPendingAfterCommit(eventId);
+                failedEventIds.add(eventId);
+            }
+        }
+
+        logger.info("Processed reservation request batch: size={}, skipped={}, failed={}",
+                events.size(), alreadyProcessed.size(), failedEventIds.size());
+        return failedEventIds;
+    }
+}
@@ -17,6 +17,13 @@ CREATE TABLE IF NOT EXISTS inventory_items (
 CREATE INDEX IF NOT EXISTS idx_category ON inventory_items(category);@@
 CREATE INDEX IF NOT EXISTS idx_available_quantity ON inventory_items(available_quantity);@@
 
+-- Sample inventory, inserted once; later runs leave existing rows untouched
+INSERT INTO inventory_items (id, name, description, available_quantity, category) VALUES
+    ('item1', 'Laptop', 'Dell Laptop', 10, 'Electronics'),
+    ('item2', 'Projector', 'HD Projector', 5, 'Electronics'),
+    ('item3', 'Conference Room A', 'Large conference room', 1, 'Rooms')
+ON CONFLICT (id) DO NOTHING;@@
+
 -- Reservations Table
 CREATE TABLE IF NOT EXISTS reservations (
     confirmation_number VARCHAR(50) PRIMARY KEY,
@@ -41,26 +48,131 @@ CREATE TABLE IF NOT EXISTS reservation_items (
     FOREIGN KEY (confirmation_number) REFERENCES reservations(confirmation_number) ON DELETE CASCADE
 );@@
 
+-- Reserved Quantity Ledger (materialized per-item per-day confirmed reservation totals)
+-- Maintained in the same transaction as reservation/cancellation processing so availability
+-- checks read one row instead of re-aggregating reservations x reservation_items.
+CREATE TABLE IF NOT EXISTS reserved_quantity_by_item_day (
+    inventory_item_id VARCHAR(100) NOT NULL,
+    reservation_day DATE NOT NULL,
+    reserved_quantity BIGINT NOT NULL DEFAULT 0,
+    updated_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
+    PRIMARY KEY (inventory_item_id, reservation_day)
+)@@
+
+-- Backfill the ledger once when it is introduced on a database that already has reservations
+INSERT INTO reserved_quantity_by_item_day (inventory_item_id, reservation_day, reserved_quantity)
+SELECT ri.inventory_item_id, CAST(r.reservation_date AS DATE), SUM(ri.quantity)
+FROM reservations r
+INNER JOIN reservation_items ri ON r.confirmation_number = ri.confirmation_number
+WHERE r.status = 'CONFIRMED'
+  AND NOT EXISTS (SELECT 1 FROM reserved_quantity_by_item_day)
+GROUP BY ri.inventory_item_id, CAST(r.reservation_date AS DATE)@@
+
 -- Event Sourcing & Idempotency Tables
 
 -- Event Log Table (Event Sourcing)
+-- Range-partitioned by day on timestamp so retention drops whole partitions instead of deleting rows.
+-- A partitioned table can only enforce uniqueness together with the partition key, so event_id is
+-- indexed but not unique here; processed_events remains the idempotency guard.
+
+-- Convert an event_log created before partitioning: move it aside, its rows are copied back below
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM pg_class WHERE relname = 'event_log' AND relkind = 'r') THEN
+        ALTER TABLE event_log RENAME TO event_log_unpartitioned;
+    END IF;
+END;
+$$ LANGUAGE plpgsql@@
+
 CREATE TABLE IF NOT EXISTS event_log (
-    id BIGSERIAL PRIMARY KEY,
-    event_id UUID NOT NULL UNIQUE,
+    id BIGSERIAL NOT NULL,
+    event_id UUID NOT NULL,
     correlation_id UUID NOT NULL,
     event_type VARCHAR(100) NOT NULL,
     event_version VARCHAR(20),
     source VARCHAR(100),
-    payload TEXT,
+    payload JSONB,
+    payload_compressed BYTEA,
+    payload_encoding VARCHAR(10) NOT NULL DEFAULT 'jsonb',
     processed BOOLEAN NOT NULL DEFAULT FALSE,
     timestamp TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP,
-    processed_at TIMESTAMP
-);@@
+    processed_at TIMESTAMP,
+    PRIMARY KEY (id, timestamp)
+) PARTITION BY RANGE (timestamp)@@
+
+-- Payloads are stored as JSONB (payload) or as LZ4/Zstd-compressed record bytes (payload_compressed),
+-- see persistence.event-log.payload-storage. Upgrade a partitioned event_log that still has a TEXT payload.
+DO $$
+BEGIN
+    IF EXISTS (SELECT 1 FROM information_schema.columns
+               WHERE table_name = 'event_log' AND column_name = 'payload' AND data_type = 'text') THEN
+        ALTER TABLE event_log ALTER COLUMN payload TYPE JSONB USING CAST(payload AS JSONB);
+    END IF;
+END;
+$$ LANGUAGE plpgsql@@
+ALTER TABLE event_log ADD COLUMN IF NOT EXISTS payload_compressed BYTEA@@
+ALTER TABLE event_log ADD COLUMN IF NOT EXISTS payload_encoding VARCHAR(10) NOT NULL DEFAULT 'jsonb'@@
+-- Already compressed: store out of line without another round of TOAST compression
+ALTER TABLE event_log ALTER COLUMN payload_compressed SET STORAGE EXTERNAL@@
+
+CREATE INDEX IF NOT EXISTS idx_event_log_event_id ON event_log(event_id)@@
+CREATE INDEX IF NOT EXISTS idx_event_log_correlation_id ON event_log(correlation_id)@@
+CREATE INDEX IF NOT EXISTS idx_event_log_event_type ON event_log(event_type)@@
 
-CREATE UNIQUE INDEX IF NOT EXISTS idx_event_id ON event_log(event_id);@@
-CREATE INDEX IF NOT EXISTS idx_correlation_id ON event_log(correlation_id);@@
-CREATE INDEX IF NOT EXISTS idx_event_type ON event_log(event_type);@@
-CREATE INDEX IF NOT EXISTS idx_timestamp ON event_log(timestamp);@@
+-- Catches rows for days whose partition does not exist yet, so an insert never fails
+CREATE TABLE IF NOT EXISTS event_log_default PARTITION OF event_log DEFAULT@@
+
+-- Creates the daily partitions event_log_pYYYYMMDD for p_from..p_to (inclusive) that do not exist yet.
+-- Rows already in the default partition for a new day are moved into it before it is attached.
+CREATE OR REPLACE FUNCTION create_event_log_partitions(p_from DATE, p_to DATE)
+RETURNS INTEGER AS $$
+DECLARE
+    partition_day DATE := p_from;
+    partition_name TEXT;
+    created INTEGER := 0;
+BEGIN
+    -- Serialize concurrent callers (several service instances, schema init)
+    PERFORM pg_advisory_xact_lock(hashtext('create_event_log_partitions'));
+    WHILE partition_day <= p_to LOOP
+        partition_name := 'event_log_p' || to_char(partition_day, 'YYYYMMDD');
+        IF to_regclass(partition_name) IS NULL THEN
+            EXECUTE format('CREATE TABLE %I (LIKE event_log INCLUDING DEFAULTS INCLUDING STORAGE)', partition_name);
+            EXECUTE format('WITH moved AS (DELETE FROM event_log_default WHERE timestamp >= %L AND timestamp < %L RETURNING *) '
+                           'INSERT INTO %I SELECT * FROM moved', partition_day, partition_day + 1, partition_name);
+            EXECUTE format('ALTER TABLE event_log ATTACH PARTITION %I FOR VALUES FROM (%L) TO (%L)',
+                           partition_name, partition_day, partition_day + 1);
+            created := created + 1;
+        END IF;
+        partition_day := partition_day + 1;
+    END LOOP;
+    RETURN created;
+END;
+$$ LANGUAGE plpgsql@@
+
+-- Copy rows from a pre-partitioning event_log into daily partitions, then drop the old table
+DO $$
+DECLARE
+    first_day DATE;
+BEGIN
+    IF to_regclass('event_log_unpartitioned') IS NOT NULL THEN
+        SELECT CAST(MIN(timestamp) AS DATE) INTO first_day FROM event_log_unpartitioned;
+        IF first_day IS NOT NULL THEN
+            PERFORM create_event_log_partitions(first_day, CURRENT_DATE);
+        END IF;
+        INSERT INTO event_log (id, event_id, correlation_id, event_type, event_version, source, payload,
+                               processed, timestamp, processed_at)
+        SELECT id, event_id, correlation_id, event_type, event_version, source, CAST(payload AS JSONB),
+               processed, timestamp, processed_at
+        FROM event_log_unpartitioned;
+        PERFORM setval(pg_get_serial_sequence('event_log', 'id'),
+                       GREATEST((SELECT COALESCE(MAX(id), 0) FROM event_log), 1));
+        DROP TABLE event_log_unpartitioned;
+    END IF;
+END;
+$$ LANGUAGE plpgsql@@
+
+-- Partitions for the coming week; EventRetentionJob keeps this window moving
+SELECT create_event_log_partitions(CURRENT_DATE, CAST(CURRENT_DATE + 7 AS DATE))@@
 
 -- Processed Events Table (Idempotency)
 CREATE TABLE IF NOT EXISTS processed_events (
@@ -74,6 +186,34 @@ CREATE TABLE IF NOT EXISTS processed_events (
 
 CREATE UNIQUE INDEX IF NOT EXISTS idx_event_id_unique ON processed_events(event_id);@@
 CREATE INDEX IF NOT EXISTS idx_correlation_id ON processed_events(correlation_id);@@
+CREATE INDEX IF NOT EXISTS idx_processed_events_processed_at ON processed_events(processed_at);@@
+
+-- Transactional Outbox Table
+-- Written in the same transaction as the state change; drained to Kafka by OutboxRelay
+CREATE TABLE IF NOT EXISTS outbox (
+    id BIGSERIAL PRIMARY KEY,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);@@
+
+-- Failed publish attempts of the row, so a record Kafka keeps rejecting can be set aside
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS attempts INTEGER NOT NULL DEFAULT 0@@
+ALTER TABLE outbox ADD COLUMN IF NOT EXISTS last_error TEXT@@
+
+-- Outbox events that failed with a non-retriable error max-attempts times; kept for inspection and replay
+CREATE TABLE IF NOT EXISTS outbox_dead_letter (
+    id BIGSERIAL PRIMARY KEY,
+    outbox_id BIGINT NOT NULL,
+    topic VARCHAR(255) NOT NULL,
+    message_key VARCHAR(255),
+    payload TEXT NOT NULL,
+    created_at TIMESTAMP NOT NULL,
+    attempts INTEGER NOT NULL,
+    last_error TEXT,
+    dead_lettered_at TIMESTAMP NOT NULL DEFAULT CURRENT_TIMESTAMP
+);@@
 
 -- Triggers for updated_at timestamps
 
@@ -0,0 +1,128 @@
+package com.edrs.persistence.listener;
+
+import com.edrs.common.events.ReservationRequestedEvent;
+import com.edrs.persistence.service.ReservationBatchService;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+import org.apache.kafka.clients.consumer.ConsumerRecord;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.listener.BatchListenerFailedException;
+import org.springframework.kafka.support.Acknowledgment;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class PersistenceBatchEventListenerTest {
+
+    @Mock
+    private ReservationBatchService reservationBatchService;
+
+    @Mock
+    private Acknowledgment acknowledgment;
+
+    private ObjectMapper objectMapper;
+
+    private PersistenceBatchEventListener listener;
+
+    @BeforeEach
+    void setUp() {
+        objectMapper = new ObjectMapper();
+        objectMapper.registerModule(new JavaTimeModule());
+        listener = new PersistenceBatchEventListener(reservationBatchService, objectMapper);
+    }
+
+    private ConsumerRecord<String, String> newRecord(long offset, UUID eventId) throws JsonProcessingException {
+        ReservationRequestedEvent event = new ReservationRequestedEvent(eventId,
+                UUID.randomUUID(), "user123", Map.of("item1", 1), LocalDateTime.now().plusDays(1), LocalDateTime.now());
+        return new ConsumerRecord<>("reservation-requested", 0, offset, "key", objectMapper.writeValueAsString(event));
+    }
+
+    @Test
+    void testHandleReservationRequestedBatch_AcknowledgesAfterSuccess() throws Exception {
+        // Given
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        List<ConsumerRecord<String, String>> records = List.of(newRecord(10, firstId), newRecord(11, secondId));
+        when(reservationBatchService.processReservationRequestBatch(anyMap(), anyMap())).thenReturn(List.of());
+
+        // When
+        listener.handleReservationRequestedBatch(records, acknowledgment);
+
+        // Then
+        verify(reservationBatchService).processReservationRequestBatch(
+                argThat(events -> events.keySet().equals(Set.of(firstId, secondId))), anyMap());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void testHandleReservationRequestedBatch_UnreadableRecordFailsAtItsIndex() throws Exception {
+        // Given
+        UUID firstId = UUID.randomUUID();
+        UUID lastId = UUID.randomUUID();
+        List<ConsumerRecord<String, String>> records = List.of(
+                newRecord(10, firstId),
+                new ConsumerRecord<>("reservation-requested", 0, 11, "key", "not json"),
+                newRecord(12, lastId));
+        when(reservationBatchService.processReservationRequestBatch(anyMap(), anyMap())).thenReturn(List.of());
+
+        // When
+        BatchListenerFailedException thrown = assertThrows(BatchListenerFailedException.class,
+                () -> listener.handleReservationRequestedBatch(records, acknowledgment));
+
+        // Then - the readable records are persisted and the unreadable one is handed to the error handler
+        assertEquals(1, thrown.getIndex());
+        assertInstanceOf(JsonProcessingException.class, thrown.getCause());
+        verify(reservationBatchService).processReservationRequestBatch(
+                argThat(events -> events.keySet().equals(Set.of(firstId, lastId))), anyMap());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void testHandleReservationRequestedBatch_FailedEventFailsAtEarliestIndex() throws Exception {
+        // Given
+        UUID firstId = UUID.randomUUID();
+        UUID secondId = UUID.randomUUID();
+        UUID thirdId = UUID.randomUUID();
+        List<ConsumerRecord<String, String>> records =
+                List.of(newRecord(10, firstId), newRecord(11, secondId), newRecord(12, thirdId));
+        when(reservationBatchService.processReservationRequestBatch(anyMap(), anyMap()))
+                .thenReturn(List.of(thirdId, secondId));
+
+        // When
+        BatchListenerFailedException thrown = assertThrows(BatchListenerFailedException.class,
+                () -> listener.handleReservationRequestedBatch(records, acknowledgment));
+
+        // Then
+        assertEquals(1, thrown.getIndex());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void testHandleReservationRequestedBatch_BatchFailurePropagates() throws Exception {
+        // Given
+        List<ConsumerRecord<String, String>> records = List.of(newRecord(10, UUID.randomUUID()));
+        RuntimeException dbDown = new RuntimeException("DB down");
+        when(reservationBatchService.processReservationRequestBatch(anyMap(), anyMap())).thenThrow(dbDown);
+
+        // When
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> listener.handleReservationRequestedBatch(records, acknowledgment));
+
+        // Then
+        assertSame(dbDown, thrown);
+        verify(acknowledgment, never()).acknowledge();
+    }
+}
@@ -11,10 +11,16 @@ import org.apache.kafka.clients.consumer.ConsumerRecord;
 import org.junit.jupiter.api.BeforeEach;
 import org.junit.jupiter.api.Test;
 import org.junit.jupiter.api.extension.ExtendWith;
-import org.mockito.InjectMocks;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongCounterBuilder;
+import io.opentelemetry.api.metrics.Meter;
 import org.mockito.Mock;
 import org.mockito.junit.jupiter.MockitoExtension;
 import org.springframework.kafka.support.Acknowledgment;
+import org.springframework.kafka.support.KafkaHeaders;
+
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -22,6 +28,7 @@ import java.util.HashMap;
 import java.util.Map;
 import java.util.UUID;
 
+import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
 import static org.mockito.Mockito.*;
 
@@ -40,7 +47,11 @@ class PersistenceEventListenerTest {
     @Mock
     private Acknowledgment acknowledgment;
 
-    @InjectMocks
+    @Mock
+    private Meter meter;
+
+    private RetryBudget retryBudget;
+
     private PersistenceEventListener listener;
 
     private UUID correlationId;
@@ -50,6 +61,13 @@ class PersistenceEventListenerTest {
     void setUp() {
         correlationId = UUID.randomUUID();
         record = new ConsumerRecord<>("test-topic", 0, 100L, "key", "value");
+
+        LongCounterBuilder counterBuilder = mock(LongCounterBuilder.class);
+        when(meter.counterBuilder(anyString())).thenReturn(counterBuilder);
+        when(counterBuilder.setDescription(anyString())).thenReturn(counterBuilder);
+        when(counterBuilder.build()).thenReturn(mock(LongCounter.class));
+        retryBudget = new RetryBudget(1, 0);
+        listener = new PersistenceEventListener(persistenceService, eventProcessingService, objectMapper, retryBudget, meter);
     }
 
     @Test
@@ -61,14 +79,14 @@ class PersistenceEventListenerTest {
                 correlationId, "user123", itemQuantities, LocalDateTime.now(), LocalDateTime.now());
         
         when(objectMapper.readValue(record.value(), ReservationRequestedEvent.class)).thenReturn(event);
-        doNothing().when(persistenceService).processReservationRequest(any(), any());
+        doNothing().when(persistenceService).processReservationRequest(any(), any(), any());
 
         // When
         listener.handleReservationRequested(record, "key", acknowledgment);
 
         // Then
         verify(objectMapper).readValue(record.value(), ReservationRequestedEvent.class);
-        verify(persistenceService).processReservationRequest(eq(event), any(UUID.class));
+        verify(persistenceService).processReservationRequest(eq(event), any(UUID.class), eq(record.value()));
         verify(acknowledgment).acknowledge();
     }
 
@@ -78,12 +96,11 @@ class PersistenceEventListenerTest {
         when(objectMapper.readValue(record.value(), ReservationRequestedEvent.class))
                 .thenThrow(new JsonProcessingException("JSON error") {});
 
-        // When
-        listener.handleReservationRequested(record, "key", acknowledgment);
-
-        // Then
+        // When/Then - rethrown so the error handler dead-letters it without retrying
+        assertThrows(JsonProcessingException.class,
+                () -> listener.handleReservationRequested(record, "key", acknowledgment));
         verify(objectMapper).readValue(record.value(), ReservationRequestedEvent.class);
-        verify(persistenceService, never()).processReservationRequest(any(), any());
+        verify(persistenceService, never()).processReservationRequest(any(), any(), any());
         verify(acknowledgment, never()).acknowledge();
     }
 
@@ -97,16 +114,34 @@ class PersistenceEventListenerTest {
         
         when(objectMapper.readValue(record.value(), ReservationRequestedEvent.class)).thenReturn(event);
         doThrow(new RuntimeException("Service error"))
-                .when(persistenceService).processReservationRequest(any(), any());
-
-        // When
-        listener.handleReservationRequested(record, "key", acknowledgment);
+                .when(persistenceService).processReservationRequest(any(), any(), any());
 
-        // Then
-        verify(persistenceService).processReservationRequest(any(), any());
+        // When/Then - rethrown so the error handler forwards it to the retry topic
+        RuntimeException thrown = assertThrows(RuntimeException.class,
+                () -> listener.handleReservationRequested(record, "key", acknowledgment));
+        assertEquals("Service error", thrown.getMessage());
+        verify(persistenceService).processReservationRequest(any(), any(), any());
         verify(acknowledgment, never()).acknowledge();
     }
 
+    @Test
+    void testHandleReservationRequested_RetryBudgetExhausted() throws Exception {
+        // Given: the budget allows a single retry
+        Map<String, Integer> itemQuantities = new HashMap<>();
+        itemQuantities.put("item1", 1);
+        ReservationRequestedEvent event = new ReservationRequestedEvent(
+                correlationId, "user123", itemQuantities, LocalDateTime.now(), LocalDateTime.now());
+        when(objectMapper.readValue(record.value(), ReservationRequestedEvent.class)).thenReturn(event);
+        doThrow(new RuntimeException("Service error"))
+                .when(persistenceService).processReservationRequest(any(), any(), any());
+
+        // When/Then - the second failure is routed straight to the DLT
+        assertThrows(RuntimeException.class,
+                () -> listener.handleReservationRequested(record, "key", acknowledgment));
+        assertThrows(RetryBudgetExhaustedException.class,
+                () -> listener.handleReservationRequested(record, "key", acknowledgment));
+    }
+
     @Test
     void testHandleReservationRequested_NullAcknowledgment() throws Exception {
         // Given
@@ -116,13 +151,13 @@ class PersistenceEventListenerTest {
                 correlationId, "user123", itemQuantities, LocalDateTime.now(), LocalDateTime.now());
         
         when(objectMapper.readValue(record.value(), ReservationRequestedEvent.class)).thenReturn(event);
-        doNothing().when(persistenceService).processReservationRequest(any(), any());
+        doNothing().when(persistenceService).processReservationRequest(any(), any(), any());
 
         // When
         listener.handleReservationRequested(record, "key", null);
 
         // Then
-        verify(persistenceService).processReservationRequest(any(), any());
+        verify(persistenceService).processReservationRequest(any(), any(), any());
         // Should not throw NPE
     }
 
@@ -133,14 +168,14 @@ class PersistenceEventListenerTest {
                 correlationId, "CONF-123", LocalDateTime.now());
         
         when(objectMapper.readValue(record.value(), CancellationRequestedEvent.class)).thenReturn(event);
-        doNothing().when(persistenceService).processCancellationRequest(any(), any());
+        doNothing().when(persistenceService).processCancellationRequest(any(), any(), any());
 
         // When
         listener.handleCancellationRequested(record, "key", acknowledgment);
 
         // Then
         verify(objectMapper).readValue(record.value(), CancellationRequestedEvent.class);
-        verify(persistenceService).processCancellationRequest(eq(event), any(UUID.class));
+        verify(persistenceService).processCancellationRequest(eq(event), any(UUID.class), eq(record.value()));
         verify(acknowledgment).acknowledge();
     }
 
@@ -150,11 +185,10 @@ class PersistenceEventListenerTest {
         when(objectMapper.readValue(record.value(), CancellationRequestedEvent.class))
                 .thenThrow(new RuntimeException("Error"));
 
-        // When
-        listener.handleCancellationRequested(record, "key", acknowledgment);
-
-        // Then
-        verify(persistenceService, never()).processCancellationRequest(any(), any());
+        // When/Then
+        assertThrows(RuntimeException.class,
+                () -> listener.handleCancellationRequested(record, "key", acknowledgment));
+        verify(persistenceService, never()).processCancellationRequest(any(), any(), any());
         verify(acknowledgment, never()).acknowledge();
     }
 
@@ -167,14 +201,14 @@ class PersistenceEventListenerTest {
                 correlationId, Arrays.asList(recordItem), LocalDateTime.now());
         
         when(objectMapper.readValue(record.value(), InventoryReceivedEvent.class)).thenReturn(event);
-        doNothing().when(persistenceService).processInventoryReceived(any(), any());
+        doNothing().when(persistenceService).processInventoryReceived(any(), any(), any());
 
         // When
         listener.handleInventoryReceived(record, "key", acknowledgment);
 
         // Then
         verify(objectMapper).readValue(record.value(), InventoryReceivedEvent.class);
-        verify(persistenceService).processInventoryReceived(eq(event), any(UUID.class));
+        verify(persistenceService).processInventoryReceived(eq(event), any(UUID.class), eq(record.value()));
         verify(acknowledgment).acknowledge();
     }
 
@@ -184,12 +218,70 @@ class PersistenceEventListenerTest {
         when(objectMapper.readValue(record.value(), InventoryReceivedEvent.class))
                 .thenThrow(new RuntimeException("Error"));
 
+        // When/Then
+        assertThrows(RuntimeException.class,
+                () -> listener.handleInventoryReceived(record, "key", acknowledgment));
+        verify(persistenceService, never()).processInventoryReceived(any(), any(), any());
+        verify(acknowledgment, never()).acknowledge();
+    }
+
+    @Test
+    void testHandleDeadLetter_Acknowledges() {
+        // Given
+        ConsumerRecord<String, String> deadLetter = new ConsumerRecord<>("reservation-requested-dlt", 0, 5L, "key", "value");
+
         // When
-        listener.handleInventoryReceived(record, "key", acknowledgment);
+        listener.handleDeadLetter(deadLetter, acknowledgment);
 
         // Then
-        verify(persistenceService, never()).processInventoryReceived(any(), any());
-        verify(acknowledgment, never()).acknowledge();
+        verify(acknowledgment).acknowledge();
+        verifyNoInteractions(persistenceService);
+    }
+
+    @Test
+    void testStageOf() {
+        assertEquals("main", PersistenceEventListener.stageOf("reservation-requested"));
+        assertEquals("retry-1", PersistenceEventListener.stageOf("reservation-requested-retry-1"));
+        assertEquals("dlt", PersistenceEventListener.stageOf("reservation-requested-dlt"));
+    }
+
+    @Test
+    void testGenerateEventIdFromRecord_RetryRecordKeepsOriginalId() {
+        // Given: the record forwarded to a retry topic carries the original coordinates
+        ConsumerRecord<String, String> original = new ConsumerRecord<>("reservation-requested", 2, 42L, "key", "value");
+        ConsumerRecord<String, String> retried = new ConsumerRecord<>("reservation-requested-retry-0", 0, 7L, "key", "value");
+        retried.headers().add(KafkaHeaders.ORIGINAL_TOPIC, "reservation-requested".getBytes(StandardCharsets.UTF_8));
+        retried.headers().add(KafkaHeaders.ORIGINAL_PARTITION, ByteBuffer.allocate(Integer.BYTES).putInt(2).array());
+        retried.headers().add(KafkaHeaders.ORIGINAL_OFFSET, ByteBuffer.allocate(Long.BYTES).putLong(42L).array());
+
+        // When/Then
+        assertEquals(PersistenceEventListener.generateEventIdFromRecord(original, correlationId),
+                PersistenceEventListener.generateEventIdFromRecord(retried, correlationId));
+    }
+
+    @Test
+    void testHandleReservationRequested_UsesPayloadEventId() throws Exception {
+        // Given
+        UUID eventId = UUID.randomUUID();
+        ReservationRequestedEvent event = new ReservationRequestedEvent(
+                eventId, correlationId, "user123", Map.of("item1", 1), LocalDateTime.now(), LocalDateTime.now());
+        when(objectMapper.readValue(record.value(), ReservationRequestedEvent.class)).thenReturn(event);
+
+        // When
+        listener.handleReservationRequested(record, "key", acknowledgment);
+
+        // Then
+        verify(persistenceService).processReservationRequest(event, eventId, record.value());
+        verify(acknowledgment).acknowledge();
+    }
+
+    @Test
+    void testResolveEventId_LegacyEventFallsBackToRecordCoordinates() {
+        // When
+        UUID eventId = PersistenceEventListener.resolveEventId(record, null, correlationId);
+
+        // Then
+        assertEquals(PersistenceEventListener.generateEventIdFromRecord(record, correlationId), eventId);
     }
 
     @Test
@@ -214,7 +306,7 @@ class PersistenceEventListenerTest {
             
             // Verify that eventId was generated (we can't directly test the private method,
             // but we can verify the service was called with a UUID)
-            verify(persistenceService).processReservationRequest(eq(event), any(UUID.class));
+            verify(persistenceService).processReservationRequest(eq(event), any(UUID.class), eq(record1.value()));
         } catch (Exception e) {
             // Test passes if we can verify the call
         }
@@ -0,0 +1,40 @@
+package com.edrs.persistence.mapper.typehandler;
+
+import org.junit.jupiter.api.Test;
+
+import java.nio.charset.StandardCharsets;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class CompressedPayloadTypeHandlerTest {
+
+    private static final String PAYLOAD = "{\"correlationId\":\"6f1c2b4e-0000-7000-8000-000000000001\","
+            + "\"userId\":\"user123\",\"inventoryItemQuantities\":{\"item1\":2,\"item2\":1,\"item3\":1},"
+            + "\"reservationDate\":\"2026-10-16T10:00:00\",\"timestamp\":\"2026-10-16T09:59:59.123\"}";
+
+    private void assertRoundTrip(CompressedPayloadTypeHandler handler) {
+        byte[] original = PAYLOAD.getBytes(StandardCharsets.UTF_8);
+
+        byte[] compressed = handler.compress(original);
+
+        assertArrayEquals(original, handler.decompress(compressed));
+    }
+
+    @Test
+    void testLz4RoundTrip() {
+        assertRoundTrip(new Lz4PayloadTypeHandler());
+    }
+
+    @Test
+    void testZstdRoundTrip() {
+        assertRoundTrip(new ZstdPayloadTypeHandler());
+    }
+
+    @Test
+    void testRepetitivePayloadShrinks() {
+        byte[] original = PAYLOAD.repeat(20).getBytes(StandardCharsets.UTF_8);
+
+        assertTrue(new Lz4PayloadTypeHandler().compress(original).length < original.length);
+        assertTrue(new ZstdPayloadTypeHandler().compress(original).length < original.length);
+    }
+}
@@ -0,0 +1,128 @@
+package com.edrs.persistence.service;
+
+import com.edrs.persistence.entity.EventLog;
+import com.edrs.persistence.mapper.EventLogMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventLogWriterTest {
+
+    @Mock
+    private EventLogMapper eventLogMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+    }
+
+    private EventLogWriter writer(int capacity, int batchSize) {
+        return new EventLogWriter(eventLogMapper, transactionManager, OpenTelemetry.noop().getMeter("test"),
+                true, capacity, batchSize, 10, 0, 5000);
+    }
+
+    private static EventLog eventLog() {
+        EventLog eventLog = new EventLog();
+        eventLog.setEventId(UUID.randomUUID());
+        eventLog.setCorrelationId(UUID.randomUUID());
+        eventLog.setEventType("ReservationRequestedEvent");
+        eventLog.setPayload("{}");
+        return eventLog;
+    }
+
+    @Test
+    void testStop_DrainsBufferInBatches() {
+        // Given
+        List<List<EventLog>> flushed = new ArrayList<>();
+        doAnswer(invocation -> flushed.add(new ArrayList<>(invocation.getArgument(0))))
+                .when(eventLogMapper).insertBatch(anyList());
+        EventLogWriter writer = writer(100, 3);
+        writer.start();
+        List<EventLog> appended = new ArrayList<>();
+        for (int i = 0; i < 7; i++) {
+            EventLog eventLog = eventLog();
+            appended.add(eventLog);
+            assertTrue(writer.append(eventLog));
+        }
+
+        // When
+        writer.stop();
+
+        // Then - every row written once, in order, no batch above the batch size
+        assertEquals(appended, flushed.stream().flatMap(List::stream).toList());
+        assertTrue(flushed.stream().allMatch(batch -> batch.size() <= 3));
+        assertEquals(0, writer.getBufferedCount());
+        verify(eventLogMapper, never()).insert(any());
+    }
+
+    @Test
+    void testAppend_DropsRowWhenBufferStaysFull() {
+        // Given: running but with a flusher stuck on the first batch
+        doAnswer(invocation -> {
+            Thread.sleep(500);
+            return null;
+        }).when(eventLogMapper).insertBatch(anyList());
+        EventLogWriter writer = writer(1, 1);
+        writer.start();
+        writer.append(eventLog());
+
+        // When - wait until the flusher has taken the first row, then fill the buffer
+        long deadline = System.currentTimeMillis() + 2000;
+        while (writer.getBufferedCount() > 0 && System.currentTimeMillis() < deadline) {
+            Thread.onSpinWait();
+        }
+        boolean queued = writer.append(eventLog());
+        boolean dropped = !writer.append(eventLog());
+
+        // Then
+        assertTrue(queued);
+        assertTrue(dropped);
+        writer.stop();
+    }
+
+    @Test
+    void testAppend_WritesDirectlyAfterStop() {
+        // Given
+        EventLogWriter writer = writer(10, 10);
+        writer.start();
+        writer.stop();
+        EventLog eventLog = eventLog();
+
+        // When
+        boolean written = writer.append(eventLog);
+
+        // Then
+        assertTrue(written);
+        verify(eventLogMapper).insertBatch(List.of(eventLog));
+    }
+
+    @Test
+    void testFlush_FailureIsSwallowed() {
+        // Given
+        doThrow(new RuntimeException("DB error")).when(eventLogMapper).insertBatch(anyList());
+        EventLogWriter writer = writer(10, 10);
+
+        // When / Then
+        assertDoesNotThrow(() -> writer.flush(List.of(eventLog())));
+    }
+}
@@ -10,10 +10,14 @@ import org.junit.jupiter.api.extension.ExtendWith;
 import org.mockito.ArgumentCaptor;
 import org.mockito.InjectMocks;
 import org.mockito.Mock;
+import org.mockito.Spy;
 import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
 
 import java.time.LocalDateTime;
-import java.util.Optional;
+import java.util.List;
+import java.util.Set;
 import java.util.UUID;
 
 import static org.junit.jupiter.api.Assertions.*;
@@ -32,6 +36,12 @@ class EventProcessingServiceTest {
     @Mock
     private com.fasterxml.jackson.databind.ObjectMapper objectMapper;
 
+    @Mock
+    private EventLogWriter eventLogWriter;
+
+    @Spy
+    private ProcessedEventCache processedEventCache = new ProcessedEventCache(100);
+
     @InjectMocks
     private EventProcessingService eventProcessingService;
 
@@ -71,18 +81,85 @@ class EventProcessingServiceTest {
     }
 
     @Test
-    void testMarkEventAsProcessed_NewEvent() {
+    void testIsEventProcessed_CachedAfterFirstHit() {
+        // Given
+        when(processedEventMapper.existsByEventId(eventId)).thenReturn(true);
+
+        // When
+        eventProcessingService.isEventProcessed(eventId);
+        boolean result = eventProcessingService.isEventProcessed(eventId);
+
+        // Then - the second check is answered from the cache
+        assertTrue(result);
+        verify(processedEventMapper, times(1)).existsByEventId(eventId);
+    }
+
+    @Test
+    void testIsEventProcessed_NegativeResultNotCached() {
         // Given
-        String eventType = "ReservationRequestedEvent";
         when(processedEventMapper.existsByEventId(eventId)).thenReturn(false);
-        doNothing().when(processedEventMapper).insert(any(ProcessedEvent.class));
 
         // When
-        eventProcessingService.markEventAsProcessed(eventId, correlationId, eventType);
+        eventProcessingService.isEventProcessed(eventId);
+        eventProcessingService.isEventProcessed(eventId);
 
         // Then
+        verify(processedEventMapper, times(2)).existsByEventId(eventId);
+    }
+
+    @Test
+    void testFindProcessedEventIds_QueriesOnlyUncachedIds() {
+        // Given
+        UUID otherEventId = UUID.randomUUID();
+        processedEventCache.add(eventId);
+        when(processedEventMapper.findProcessedEventIds(Set.of(otherEventId))).thenReturn(List.of());
+
+        // When
+        Set<UUID> result = eventProcessingService.findProcessedEventIds(List.of(eventId, otherEventId));
+
+        // Then
+        assertEquals(Set.of(eventId), result);
+        verify(processedEventMapper).findProcessedEventIds(Set.of(otherEventId));
+    }
+
+    @Test
+    void testFindProcessedEventIds() {
+        // Given
+        UUID otherEventId = UUID.randomUUID();
+        List<UUID> eventIds = List.of(eventId, otherEventId);
+        when(processedEventMapper.findProcessedEventIds(Set.copyOf(eventIds))).thenReturn(List.of(eventId));
+
+        // When
+        Set<UUID> result = eventProcessingService.findProcessedEventIds(eventIds);
+
+        // Then
+        assertEquals(Set.of(eventId), result);
+    }
+
+    @Test
+    void testFindProcessedEventIds_EmptyInput() {
+        // When
+        Set<UUID> result = eventProcessingService.findProcessedEventIds(List.of());
+
+        // Then
+        assertTrue(result.isEmpty());
+        verify(processedEventMapper, never()).findProcessedEventIds(any());
+    }
+
+    @Test
+    void testClaimEvent_NewEvent() {
+        // Given
+        String eventType = "ReservationRequestedEvent";
+        when(processedEventMapper.claim(any(ProcessedEvent.class))).thenReturn(1);
+
+        // When
+        boolean claimed = eventProcessingService.claimEvent(eventId, correlationId, eventType);
+
+        // Then
+        assertTrue(claimed);
         ArgumentCaptor<ProcessedEvent> captor = ArgumentCaptor.forClass(ProcessedEvent.class);
-        verify(processedEventMapper).insert(captor.capture());
+        verify(processedEventMapper).claim(captor.capture());
+        verify(processedEventMapper, never()).existsByEventId(any());
         
         ProcessedEvent saved = captor.getValue();
         assertEquals(eventId, saved.getEventId());
@@ -93,17 +170,49 @@ class EventProcessingServiceTest {
     }
 
     @Test
-    void testMarkEventAsProcessed_AlreadyProcessed() {
+    void testClaimEvent_CachedOnlyAfterCommit() {
         // Given
-        String eventType = "ReservationRequestedEvent";
-        when(processedEventMapper.existsByEventId(eventId)).thenReturn(true);
+        when(processedEventMapper.claim(any(ProcessedEvent.class))).thenReturn(1);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            eventProcessingService.claimEvent(eventId, correlationId, "ReservationRequestedEvent");
+
+            // Then - not visible until the transaction commits
+            assertFalse(processedEventCache.contains(eventId));
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            assertTrue(processedEventCache.contains(eventId));
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+
+    @Test
+    void testClaimEvent_AlreadyClaimed() {
+        // Given
+        when(processedEventMapper.claim(any(ProcessedEvent.class))).thenReturn(0);
 
         // When
-        eventProcessingService.markEventAsProcessed(eventId, correlationId, eventType);
+        boolean claimed = eventProcessingService.claimEvent(eventId, correlationId, "ReservationRequestedEvent");
 
         // Then
-        verify(processedEventMapper).existsByEventId(eventId);
-        verify(processedEventMapper, never()).insert(any(ProcessedEvent.class));
+        assertFalse(claimed);
+        assertTrue(processedEventCache.contains(eventId));
+    }
+
+    @Test
+    void testClaimEvent_CachedEventSkipsDatabase() {
+        // Given
+        processedEventCache.add(eventId);
+
+        // When
+        boolean claimed = eventProcessingService.claimEvent(eventId, correlationId, "ReservationRequestedEvent");
+
+        // Then
+        assertFalse(claimed);
+        verify(processedEventMapper, never()).claim(any());
     }
 
     @Test
@@ -130,6 +239,7 @@ class EventProcessingServiceTest {
         assertEquals(eventVersion, saved.getEventVersion());
         assertEquals(source, saved.getSource());
         assertEquals(payload, saved.getPayload());
+        assertEquals("jsonb", saved.getPayloadEncoding());
         assertFalse(saved.getProcessed());
         assertNotNull(saved.getTimestamp());
     }
@@ -153,34 +263,65 @@ class EventProcessingServiceTest {
     }
 
     @Test
-    void testMarkEventLogAsProcessed_EventLogExists() {
+    void testLogEvent_AsyncWriterReceivesRowOnlyAfterCommit() {
         // Given
-        EventLog eventLog = new EventLog();
-        eventLog.setEventId(eventId);
-        eventLog.setProcessed(false);
-        
-        when(eventLogMapper.findByEventId(eventId)).thenReturn(Optional.of(eventLog));
-        doNothing().when(eventLogMapper).updateProcessed(eq(eventId), any(LocalDateTime.class));
-
-        // When
-        eventProcessingService.markEventLogAsProcessed(eventId);
+        when(eventLogWriter.isEnabled()).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            eventProcessingService.logEvent(eventId, correlationId, "ReservationRequestedEvent", "1.0",
+                    "reservation-service", "{\"test\":\"data\"}");
+            eventProcessingService.markEventLogAsProcessed(eventId);
+
+            // Then - nothing is written inside the transaction
+            verify(eventLogMapper, never()).insert(any());
+            verify(eventLogMapper, never()).updateProcessed(any(), any());
+            verify(eventLogWriter, never()).append(any());
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+            ArgumentCaptor<EventLog> captor = ArgumentCaptor.forClass(EventLog.class);
+            verify(eventLogWriter).append(captor.capture());
+            assertEquals(eventId, captor.getValue().getEventId());
+            assertTrue(captor.getValue().getProcessed());
+            assertNotNull(captor.getValue().getProcessedAt());
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
 
-        // Then
-        verify(eventLogMapper).findByEventId(eventId);
-        verify(eventLogMapper).updateProcessed(eq(eventId), any(LocalDateTime.class));
+    @Test
+    void testLogEvent_AsyncWriterSkipsRolledBackEvent() {
+        // Given
+        when(eventLogWriter.isEnabled()).thenReturn(true);
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            eventProcessingService.logEvent(eventId, correlationId, "ReservationRequestedEvent", "1.0",
+                    "reservation-service", "{\"test\":\"data\"}");
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_ROLLED_BACK));
+
+            // Then - the pending row is discarded, later updates go to the table
+            verify(eventLogWriter, never()).append(any());
+            eventProcessingService.markEventLogAsProcessed(eventId);
+            verify(eventLogMapper).updateProcessed(eq(eventId), any(LocalDateTime.class));
+        } finally {
+            TransactionSynchronizationManager.clearSynchronization();
+        }
     }
 
     @Test
-    void testMarkEventLogAsProcessed_EventLogNotFound() {
+    void testMarkEventLogAsProcessed_BlindUpdate() {
         // Given
-        when(eventLogMapper.findByEventId(eventId)).thenReturn(Optional.empty());
+        doNothing().when(eventLogMapper).updateProcessed(eq(eventId), any(LocalDateTime.class));
 
         // When
         eventProcessingService.markEventLogAsProcessed(eventId);
 
-        // Then
-        verify(eventLogMapper).findByEventId(eventId);
-        verify(eventLogMapper, never()).updateProcessed(any(), any());
+        // Then - the event log row (and its payload) is never loaded
+        verify(eventLogMapper, never()).findByEventId(any());
+        verify(eventLogMapper).updateProcessed(eq(eventId), any(LocalDateTime.class));
     }
 
     @Test
@@ -193,5 +334,7 @@ class EventProcessingServiceTest {
         assertNotNull(generatedId1);
         assertNotNull(generatedId2);
         assertNotEquals(generatedId1, generatedId2); // Should be unique
+        assertEquals(7, generatedId1.version()); // Time-ordered
+        assertTrue(generatedId1.getMostSignificantBits() >>> 16 <= generatedId2.getMostSignificantBits() >>> 16);
     }
 }
@@ -0,0 +1,280 @@
+package com.edrs.persistence.service;
+
+import com.edrs.persistence.entity.EventLog;
+import com.edrs.persistence.entity.ProcessedEvent;
+import com.edrs.persistence.mapper.EventLogMapper;
+import com.edrs.persistence.mapper.ProcessedEventMapper;
+import com.fasterxml.jackson.core.JsonGenerationException;
+import com.fasterxml.jackson.core.JsonGenerator;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.apache.ibatis.executor.result.DefaultResultContext;
+import org.apache.ibatis.session.ResultHandler;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.junit.jupiter.api.io.TempDir;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.time.format.DateTimeFormatter;
+import java.util.List;
+import java.util.UUID;
+import java.util.stream.Collectors;
+import java.util.zip.GZIPInputStream;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class EventRetentionJobTest {
+
+    @Mock
+    private EventLogMapper eventLogMapper;
+
+    @Mock
+    private ProcessedEventMapper processedEventMapper;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    @TempDir
+    Path archiveDirectory;
+
+    private EventRetentionJob eventRetentionJob;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        eventRetentionJob = new EventRetentionJob(eventLogMapper, processedEventMapper, new ObjectMapper(),
+                transactionManager, 30, 7, 604800000L, 2, true, archiveDirectory.toString());
+    }
+
+    private static String partitionName(LocalDate day) {
+        return "event_log_p" + day.format(DateTimeFormatter.BASIC_ISO_DATE);
+    }
+
+    private static List<String> readArchive(Path archive) throws IOException {
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(
+                new GZIPInputStream(Files.newInputStream(archive)), StandardCharsets.UTF_8))) {
+            return reader.lines().collect(Collectors.toList());
+        }
+    }
+
+    @Test
+    void testCreateUpcomingPartitions() {
+        // Given
+        LocalDate today = LocalDate.now();
+        when(eventLogMapper.createPartitions(today, today.plusDays(7))).thenReturn(1);
+
+        // When
+        int created = eventRetentionJob.createUpcomingPartitions();
+
+        // Then
+        assertEquals(1, created);
+        verify(transactionManager).commit(transactionStatus);
+    }
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void testDropExpiredPartitions_ArchivesThenDropsOnlyExpired() throws IOException {
+        // Given: one partition outside the 30 day window and one inside it
+        String expired = partitionName(LocalDate.now().minusDays(31));
+        String retained = partitionName(LocalDate.now().minusDays(30));
+        when(eventLogMapper.findPartitionNames()).thenReturn(List.of(expired, retained));
+        when(eventLogMapper.tryLockRetention()).thenReturn(true);
+        EventLog eventLog = new EventLog();
+        eventLog.setId(1L);
+        eventLog.setEventId(UUID.randomUUID());
+        eventLog.setCorrelationId(UUID.randomUUID());
+        eventLog.setEventType("ReservationRequestedEvent");
+        eventLog.setPayload("{\"userId\":\"user123\"}");
+        eventLog.setTimestamp(LocalDateTime.now().minusDays(31));
+        doAnswer(invocation -> {
+            DefaultResultContext<EventLog> context = new DefaultResultContext<>();
+            context.nextResultObject(eventLog);
+            ((ResultHandler<EventLog>) invocation.getArgument(1)).handleResult(context);
+            return null;
+        }).when(eventLogMapper).streamPartition(eq(expired), any());
+
+        // When
+        int dropped = eventRetentionJob.dropExpiredPartitions();
+
+        // Then
+        assertEquals(1, dropped);
+        verify(eventLogMapper).dropPartition(expired);
+        verify(eventLogMapper, never()).dropPartition(retained);
+        List<String> lines = readArchive(archiveDirectory.resolve("event_log").resolve(expired + ".jsonl.gz"));
+        assertEquals(1, lines.size());
+        JsonNode row = new ObjectMapper().readTree(lines.get(0));
+        assertEquals(eventLog.getEventId().toString(), row.get("event_id").asText());
+        assertEquals("{\"userId\":\"user123\"}", row.get("payload").asText());
+    }
+
+    @Test
+    void testDropExpiredPartitions_SkipsWhenAnotherInstanceHoldsLock() {
+        // Given
+        String expired = partitionName(LocalDate.now().minusDays(40));
+        when(eventLogMapper.findPartitionNames()).thenReturn(List.of(expired));
+        when(eventLogMapper.tryLockRetention()).thenReturn(false);
+
+        // When
+        int dropped = eventRetentionJob.dropExpiredPartitions();
+
+        // Then
+        assertEquals(0, dropped);
+        verify(eventLogMapper, never()).streamPartition(anyString(), any());
+        verify(eventLogMapper, never()).dropPartition(anyString());
+    }
+
+    @Test
+    void testPurgeDefaultPartition_DeletesExpiredRowsInChunksAndArchives() throws IOException {
+        // Given: a full chunk followed by a partial one
+        LocalDateTime cutoff = LocalDate.now().minusDays(30).atStartOfDay();
+        when(eventLogMapper.tryLockRetention()).thenReturn(true);
+        when(eventLogMapper.deleteDefaultPartitionBefore(cutoff, 2))
+                .thenReturn(List.of(eventLog(1L), eventLog(2L)))
+                .thenReturn(List.of(eventLog(3L)));
+
+        // When
+        int deleted = eventRetentionJob.purgeDefaultPartition();
+
+        // Then - one archive file per chunk
+        assertEquals(3, deleted);
+        verify(transactionManager, times(2)).commit(transactionStatus);
+        List<Path> archives;
+        try (var files = Files.list(archiveDirectory.resolve("event_log"))) {
+            archives = files.sorted().collect(Collectors.toList());
+        }
+        assertEquals(2, archives.size());
+        assertTrue(archives.get(0).getFileName().toString().startsWith("event_log_default_"));
+        assertEquals(2, readArchive(archives.get(0)).size());
+        assertEquals(1, readArchive(archives.get(1)).size());
+    }
+
+    @Test
+    void testPurgeDefaultPartition_SkipsWhenAnotherInstanceHoldsLock() {
+        // Given
+        when(eventLogMapper.tryLockRetention()).thenReturn(false);
+
+        // When
+        int deleted = eventRetentionJob.purgeDefaultPartition();
+
+        // Then
+        assertEquals(0, deleted);
+        verify(eventLogMapper, never()).deleteDefaultPartitionBefore(any(), anyInt());
+    }
+
+    @Test
+    void testPurgeProcessedEvents_DeletesInChunksAndArchives() throws IOException {
+        // Given: a full chunk followed by a partial one
+        when(processedEventMapper.deleteProcessedBefore(any(), eq(2)))
+                .thenReturn(List.of(processedEvent(1L), processedEvent(2L)))
+                .thenReturn(List.of(processedEvent(3L)));
+
+        // When
+        int deleted = eventRetentionJob.purgeProcessedEvents();
+
+        // Then - one archive file per chunk
+        assertEquals(3, deleted);
+        verify(transactionManager, times(2)).commit(transactionStatus);
+        List<Path> archives;
+        try (var files = Files.list(archiveDirectory.resolve("processed_events"))) {
+            archives = files.sorted().collect(Collectors.toList());
+        }
+        assertEquals(2, archives.size());
+        assertTrue(archives.get(0).getFileName().toString().endsWith("_0001.jsonl.gz"));
+        assertEquals(2, readArchive(archives.get(0)).size());
+        assertTrue(archives.get(1).getFileName().toString().endsWith("_0002.jsonl.gz"));
+        assertEquals(1, readArchive(archives.get(1)).size());
+    }
+
+    @Test
+    void testPurgeProcessedEvents_FailedArchiveRollsBackDelete() throws IOException {
+        // Given: the second row of the chunk cannot be written
+        ObjectMapper failingObjectMapper = new ObjectMapper() {
+            private int rows;
+
+            @Override
+            public String writeValueAsString(Object value) throws JsonProcessingException {
+                if (++rows == 2) {
+                    throw new JsonGenerationException("Disk full", (JsonGenerator) null);
+                }
+                return super.writeValueAsString(value);
+            }
+        };
+        eventRetentionJob = new EventRetentionJob(eventLogMapper, processedEventMapper, failingObjectMapper,
+                transactionManager, 30, 7, 604800000L, 2, true, archiveDirectory.toString());
+        when(processedEventMapper.deleteProcessedBefore(any(), eq(2)))
+                .thenReturn(List.of(processedEvent(1L), processedEvent(2L)));
+
+        // When
+        assertThrows(UncheckedIOException.class, () -> eventRetentionJob.purgeProcessedEvents());
+
+        // Then - the delete is rolled back, so the rows survive, and no partial archive is left
+        verify(transactionManager).rollback(transactionStatus);
+        verify(transactionManager, never()).commit(transactionStatus);
+        verify(processedEventMapper, times(1)).deleteProcessedBefore(any(), eq(2));
+        try (var files = Files.list(archiveDirectory.resolve("processed_events"))) {
+            assertEquals(0, files.count());
+        }
+    }
+
+    @Test
+    void testPurgeProcessedEvents_NothingExpired() {
+        // Given
+        when(processedEventMapper.deleteProcessedBefore(any(), eq(2))).thenReturn(List.of());
+
+        // When
+        int deleted = eventRetentionJob.purgeProcessedEvents();
+
+        // Then
+        assertEquals(0, deleted);
+        assertFalse(Files.exists(archiveDirectory.resolve("processed_events")));
+    }
+
+    @Test
+    void testPartitionDay() {
+        assertEquals(LocalDate.of(2026, 10, 1), EventRetentionJob.partitionDay("event_log_p20261001"));
+        assertNull(EventRetentionJob.partitionDay("event_log_default"));
+        assertNull(EventRetentionJob.partitionDay("event_log_p2026"));
+    }
+
+    private EventLog eventLog(long id) {
+        EventLog eventLog = new EventLog();
+        eventLog.setId(id);
+        eventLog.setEventId(UUID.randomUUID());
+        eventLog.setCorrelationId(UUID.randomUUID());
+        eventLog.setEventType("ReservationRequestedEvent");
+        eventLog.setPayload("{\"userId\":\"user123\"}");
+        eventLog.setTimestamp(LocalDateTime.now().minusDays(400));
+        return eventLog;
+    }
+
+    private ProcessedEvent processedEvent(long id) {
+        ProcessedEvent processedEvent = new ProcessedEvent();
+        processedEvent.setId(id);
+        processedEvent.setEventId(UUID.randomUUID());
+        processedEvent.setCorrelationId(UUID.randomUUID());
+        processedEvent.setEventType("ReservationRequestedEvent");
+        processedEvent.setProcessedAt(LocalDateTime.now().minusDays(8));
+        processedEvent.setHandlerService("persistence-service");
+        return processedEvent;
+    }
+}
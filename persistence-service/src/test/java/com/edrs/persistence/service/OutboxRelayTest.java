@@ -0,0 +1,259 @@
+package com.edrs.persistence.service;
+
+import com.edrs.persistence.entity.OutboxEvent;
+import com.edrs.persistence.mapper.OutboxMapper;
+import io.opentelemetry.api.OpenTelemetry;
+import org.apache.kafka.common.errors.NetworkException;
+import org.apache.kafka.common.errors.RecordTooLargeException;
+import org.apache.kafka.common.errors.SerializationException;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.kafka.core.KafkaTemplate;
+import org.springframework.kafka.support.SendResult;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxRelayTest {
+
+    @Mock
+    private OutboxMapper outboxMapper;
+
+    @Mock
+    private KafkaTemplate<String, String> kafkaTemplate;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private OutboxRelay outboxRelay;
+
+    @BeforeEach
+    void setUp() {
+        lenient().when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        outboxRelay = outboxRelay(2, 1000);
+    }
+
+    private OutboxRelay outboxRelay(int batchSize, long sendTimeoutMs) {
+        return new OutboxRelay(outboxMapper, kafkaTemplate, transactionManager, OpenTelemetry.noop().getMeter("test"),
+                batchSize, sendTimeoutMs, 3);
+    }
+
+    private OutboxEvent outboxEvent(long id, String topic) {
+        OutboxEvent event = new OutboxEvent(topic, "key-" + id, "{}");
+        event.setId(id);
+        return event;
+    }
+
+    @Test
+    void testRelay_PublishesAndDeletesUntilDrained() {
+        // Given: one full batch followed by a partial one
+        when(outboxMapper.lockNextBatch(2))
+                .thenReturn(List.of(outboxEvent(1L, "reservation-created"), outboxEvent(2L, "reservation-failed")))
+                .thenReturn(List.of(outboxEvent(3L, "cancellation-successful")));
+        @SuppressWarnings("unchecked")
+        SendResult<String, String> sendResult = mock(SendResult.class);
+        when(kafkaTemplate.send(anyString(), anyString(), anyString()))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        // When
+        outboxRelay.relay();
+
+        // Then
+        verify(kafkaTemplate).send("reservation-created", "key-1", "{}");
+        verify(kafkaTemplate).send("reservation-failed", "key-2", "{}");
+        verify(kafkaTemplate).send("cancellation-successful", "key-3", "{}");
+        verify(outboxMapper).deleteByIds(List.of(1L, 2L));
+        verify(outboxMapper).deleteByIds(List.of(3L));
+        verify(transactionManager, times(2)).commit(transactionStatus);
+    }
+
+    @Test
+    void testRelayBatch_FailedSendKeepsLaterEventsInOutbox() {
+        // Given
+        when(outboxMapper.lockNextBatch(2))
+                .thenReturn(List.of(outboxEvent(1L, "reservation-created"), outboxEvent(2L, "reservation-created")));
+        @SuppressWarnings("unchecked")
+        SendResult<String, String> sendResult = mock(SendResult.class);
+        when(kafkaTemplate.send("reservation-created", "key-1", "{}"))
+                .thenReturn(CompletableFuture.failedFuture(new NetworkException("Broker unavailable")));
+        when(kafkaTemplate.send("reservation-created", "key-2", "{}"))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        // When
+        int published = outboxRelay.relayBatch();
+
+        // Then - the acknowledged event 2 is not deleted ahead of the failed event 1
+        assertEquals(0, published);
+        verify(outboxMapper, never()).deleteByIds(any());
+        verify(outboxMapper, never()).recordFailure(anyLong(), anyString());
+    }
+
+    @Test
+    void testRelayBatch_NonRetriableFailureIsCountedAndBlocksLaterEvents() {
+        // Given: the first of three attempts is rejected
+        when(outboxMapper.lockNextBatch(2))
+                .thenReturn(List.of(outboxEvent(1L, "reservation-created"), outboxEvent(2L, "reservation-created")));
+        @SuppressWarnings("unchecked")
+        SendResult<String, String> sendResult = mock(SendResult.class);
+        when(kafkaTemplate.send("reservation-created", "key-1", "{}"))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("Record too large")));
+        when(kafkaTemplate.send("reservation-created", "key-2", "{}"))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        // When
+        int published = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(0, published);
+        verify(outboxMapper).recordFailure(eq(1L), contains("Record too large"));
+        verify(outboxMapper, never()).moveToDeadLetter(anyLong(), anyString());
+        verify(outboxMapper, never()).deleteByIds(any());
+    }
+
+    @Test
+    void testRelayBatch_PoisonEventIsDeadLetteredAndLaterEventsPublished() {
+        // Given: the head event already failed twice and is rejected a third time
+        OutboxEvent poison = outboxEvent(1L, "reservation-created");
+        poison.setAttempts(2);
+        when(outboxMapper.lockNextBatch(2)).thenReturn(List.of(poison, outboxEvent(2L, "reservation-created")));
+        @SuppressWarnings("unchecked")
+        SendResult<String, String> sendResult = mock(SendResult.class);
+        when(kafkaTemplate.send("reservation-created", "key-1", "{}"))
+                .thenReturn(CompletableFuture.failedFuture(new RecordTooLargeException("Record too large")));
+        when(kafkaTemplate.send("reservation-created", "key-2", "{}"))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        // When
+        int removed = outboxRelay.relayBatch();
+
+        // Then - the poison event no longer blocks event 2
+        assertEquals(2, removed);
+        verify(outboxMapper).moveToDeadLetter(eq(1L), contains("Record too large"));
+        verify(outboxMapper).deleteByIds(List.of(2L));
+        verify(outboxMapper, never()).recordFailure(anyLong(), anyString());
+        verify(transactionManager).commit(transactionStatus);
+    }
+
+    @Test
+    void testRelayBatch_SynchronousSendExceptionIsTreatedAsFailedSend() {
+        // Given
+        OutboxEvent poison = outboxEvent(1L, "reservation-created");
+        poison.setAttempts(2);
+        when(outboxMapper.lockNextBatch(2)).thenReturn(List.of(poison));
+        when(kafkaTemplate.send("reservation-created", "key-1", "{}"))
+                .thenThrow(new SerializationException("Cannot serialize"));
+
+        // When
+        int removed = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(1, removed);
+        verify(outboxMapper).moveToDeadLetter(eq(1L), contains("Cannot serialize"));
+        verify(outboxMapper, never()).deleteByIds(any());
+    }
+
+    @Test
+    void testRelayBatch_RetriableFailureNeverDeadLetters() {
+        // Given: a broker outage at the head of an event past its attempts
+        OutboxEvent event = outboxEvent(1L, "reservation-created");
+        event.setAttempts(5);
+        when(outboxMapper.lockNextBatch(2)).thenReturn(List.of(event));
+        when(kafkaTemplate.send("reservation-created", "key-1", "{}"))
+                .thenReturn(CompletableFuture.failedFuture(new NetworkException("Broker unavailable")));
+
+        // When
+        int removed = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(0, removed);
+        verify(outboxMapper, never()).moveToDeadLetter(anyLong(), anyString());
+        verify(outboxMapper, never()).recordFailure(anyLong(), anyString());
+    }
+
+    @Test
+    void testOldestAgeSeconds() {
+        // Given
+        when(outboxMapper.findOldestCreatedAt())
+                .thenReturn(LocalDateTime.now().minusSeconds(90))
+                .thenReturn(null);
+
+        // When / Then
+        assertTrue(outboxRelay.oldestAgeSeconds() >= 90);
+        assertEquals(0, outboxRelay.oldestAgeSeconds());
+    }
+
+    @Test
+    void testRelayBatch_MidBatchFailureDeletesAcknowledgedPrefix() {
+        // Given
+        outboxRelay = outboxRelay(3, 1000);
+        when(outboxMapper.lockNextBatch(3)).thenReturn(List.of(
+                outboxEvent(1L, "reservation-created"),
+                outboxEvent(2L, "reservation-created"),
+                outboxEvent(3L, "reservation-created")));
+        @SuppressWarnings("unchecked")
+        SendResult<String, String> sendResult = mock(SendResult.class);
+        when(kafkaTemplate.send("reservation-created", "key-1", "{}"))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+        when(kafkaTemplate.send("reservation-created", "key-2", "{}"))
+                .thenReturn(CompletableFuture.failedFuture(new NetworkException("Broker unavailable")));
+        when(kafkaTemplate.send("reservation-created", "key-3", "{}"))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+
+        // When
+        int published = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(1, published);
+        verify(outboxMapper).deleteByIds(List.of(1L));
+        verify(transactionManager).commit(transactionStatus);
+    }
+
+    @Test
+    void testRelayBatch_TimedOutSendStopsBatch() {
+        // Given: event 2 is never acknowledged
+        outboxRelay = outboxRelay(2, 50);
+        when(outboxMapper.lockNextBatch(2))
+                .thenReturn(List.of(outboxEvent(1L, "reservation-created"), outboxEvent(2L, "reservation-created")));
+        @SuppressWarnings("unchecked")
+        SendResult<String, String> sendResult = mock(SendResult.class);
+        when(kafkaTemplate.send("reservation-created", "key-1", "{}"))
+                .thenReturn(CompletableFuture.completedFuture(sendResult));
+        when(kafkaTemplate.send("reservation-created", "key-2", "{}"))
+                .thenReturn(new CompletableFuture<>());
+
+        // When
+        int published = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(1, published);
+        verify(outboxMapper).deleteByIds(List.of(1L));
+    }
+
+    @Test
+    void testRelayBatch_EmptyOutbox() {
+        // Given
+        when(outboxMapper.lockNextBatch(2)).thenReturn(List.of());
+
+        // When
+        int published = outboxRelay.relayBatch();
+
+        // Then
+        assertEquals(0, published);
+        verifyNoInteractions(kafkaTemplate);
+        verify(outboxMapper, never()).deleteByIds(any());
+    }
+}
@@ -0,0 +1,36 @@
+package com.edrs.persistence.service;
+
+import com.edrs.persistence.entity.OutboxEvent;
+import com.edrs.persistence.mapper.OutboxMapper;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class OutboxServiceTest {
+
+    @Mock
+    private OutboxMapper outboxMapper;
+
+    @Test
+    void testEnqueue_WritesToOutbox() {
+        // Given
+        OutboxService outboxService = new OutboxService(outboxMapper);
+
+        // When
+        outboxService.enqueue("reservation-created", "key", "{}");
+
+        // Then
+        ArgumentCaptor<OutboxEvent> captor = ArgumentCaptor.forClass(OutboxEvent.class);
+        verify(outboxMapper).insert(captor.capture());
+        assertEquals("reservation-created", captor.getValue().getTopic());
+        assertEquals("key", captor.getValue().getMessageKey());
+        assertEquals("{}", captor.getValue().getPayload());
+    }
+}
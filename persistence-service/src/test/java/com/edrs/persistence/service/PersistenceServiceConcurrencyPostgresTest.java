@@ -0,0 +1,197 @@
+package com.edrs.persistence.service;
+
+import com.edrs.common.events.CancellationRequestedEvent;
+import com.edrs.common.events.ReservationRequestedEvent;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+import org.testcontainers.containers.PostgreSQLContainer;
+import org.testcontainers.junit.jupiter.Container;
+import org.testcontainers.junit.jupiter.Testcontainers;
+
+import java.time.LocalDate;
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+/**
+ * Runs concurrent reservation and cancellation requests against PostgreSQL, so the real
+ * ensureReservedQuantityRows, lockItemAvailabilityOnDate and decrementReservedQuantities SQL
+ * decides the outcome. A deadlock or lock timeout surfaces as a failed request.
+ * Needs Docker; run with the postgres-tests profile.
+ */
+@Testcontainers
+@SpringBootTest(properties = {
+        "spring.kafka.listener.auto-startup=false",
+        "spring.kafka.admin.auto-create=false",
+        "persistence.listener.batch.enabled=true",
+        "persistence.event-log.async.enabled=false",
+        "persistence.outbox.relay.interval-ms=3600000"
+})
+class PersistenceServiceConcurrencyPostgresTest {
+
+    private static final int THREADS = 16;
+
+    @Container
+    static final PostgreSQLContainer<?> POSTGRES = new PostgreSQLContainer<>("postgres:16-alpine");
+
+    @DynamicPropertySource
+    static void datasourceProperties(DynamicPropertyRegistry registry) {
+        registry.add("spring.datasource.url", POSTGRES::getJdbcUrl);
+        registry.add("spring.datasource.username", POSTGRES::getUsername);
+        registry.add("spring.datasource.password", POSTGRES::getPassword);
+    }
+
+    @Autowired
+    private PersistenceService persistenceService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    private String insertItem(int availableQuantity) {
+        String itemId = "pg-" + UUID.randomUUID();
+        jdbcTemplate.update("INSERT INTO inventory_items (id, name, available_quantity) VALUES (?, ?, ?)",
+                itemId, itemId, availableQuantity);
+        return itemId;
+    }
+
+    private ReservationRequestedEvent reservationRequest(Map<String, Integer> itemQuantities, LocalDateTime reservationDate) {
+        return new ReservationRequestedEvent(
+                UUID.randomUUID(), "user-" + UUID.randomUUID(), itemQuantities, reservationDate, LocalDateTime.now());
+    }
+
+    private long reservedQuantity(String itemId, LocalDate day) {
+        Long reserved = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(reserved_quantity), 0) FROM reserved_quantity_by_item_day "
+                        + "WHERE inventory_item_id = ? AND reservation_day = ?",
+                Long.class, itemId, day);
+        return reserved != null ? reserved : 0;
+    }
+
+    private long confirmedQuantity(String itemId) {
+        Long confirmed = jdbcTemplate.queryForObject(
+                "SELECT COALESCE(SUM(ri.quantity), 0) FROM reservations r "
+                        + "INNER JOIN reservation_items ri ON r.confirmation_number = ri.confirmation_number "
+                        + "WHERE ri.inventory_item_id = ? AND r.status = 'CONFIRMED'",
+                Long.class, itemId);
+        return confirmed != null ? confirmed : 0;
+    }
+
+    /**
+     * Starts all tasks at once, each in its own transaction, and returns the errors they threw.
+     */
+    private List<Throwable> runConcurrently(List<Runnable> tasks) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(tasks.size());
+        ConcurrentLinkedQueue<Throwable> errors = new ConcurrentLinkedQueue<>();
+        for (Runnable task : tasks) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    task.run();
+                } catch (Throwable e) {
+                    errors.add(e);
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(60, TimeUnit.SECONDS));
+        executor.shutdown();
+        return new ArrayList<>(errors);
+    }
+
+    @Test
+    void testConcurrentReservations_LastUnit_ExactlyOneSucceeds() throws InterruptedException {
+        // Given: one unit and every request wants it on the same day, so all of them race on the
+        // missing ledger row first (ensureReservedQuantityRows) and then on its lock
+        String itemId = insertItem(1);
+        LocalDateTime reservationDate = LocalDateTime.now().plusDays(1);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS * 2; i++) {
+            ReservationRequestedEvent event = reservationRequest(Map.of(itemId, 1), reservationDate);
+            tasks.add(() -> persistenceService.processReservationRequest(event, UUID.randomUUID()));
+        }
+
+        // When
+        List<Throwable> errors = runConcurrently(tasks);
+
+        // Then: no request deadlocked or failed, and exactly one reservation holds the unit
+        assertEquals(List.of(), errors);
+        assertEquals(1L, confirmedQuantity(itemId));
+        assertEquals(1L, reservedQuantity(itemId, reservationDate.toLocalDate()));
+    }
+
+    @Test
+    void testConcurrentReservations_MultiItemOppositeOrder_NoOversellOrDeadlock() throws InterruptedException {
+        // Given: requests name the same two items in opposite orders
+        String firstItemId = insertItem(5);
+        String secondItemId = insertItem(5);
+        LocalDateTime reservationDate = LocalDateTime.now().plusDays(2);
+        List<Runnable> tasks = new ArrayList<>();
+        for (int i = 0; i < THREADS * 2; i++) {
+            Map<String, Integer> itemQuantities = new LinkedHashMap<>();
+            if (i % 2 == 0) {
+                itemQuantities.put(firstItemId, 1);
+                itemQuantities.put(secondItemId, 1);
+            } else {
+                itemQuantities.put(secondItemId, 1);
+                itemQuantities.put(firstItemId, 1);
+            }
+            ReservationRequestedEvent event = reservationRequest(itemQuantities, reservationDate);
+            tasks.add(() -> persistenceService.processReservationRequest(event, UUID.randomUUID()));
+        }
+
+        // When
+        List<Throwable> errors = runConcurrently(tasks);
+
+        // Then: capacity is filled exactly and never exceeded
+        assertEquals(List.of(), errors);
+        assertEquals(5L, confirmedQuantity(firstItemId));
+        assertEquals(5L, confirmedQuantity(secondItemId));
+        assertEquals(5L, reservedQuantity(firstItemId, reservationDate.toLocalDate()));
+        assertEquals(5L, reservedQuantity(secondItemId, reservationDate.toLocalDate()));
+    }
+
+    @Test
+    void testCancellationRacingReservations_LedgerMatchesConfirmedReservations() throws InterruptedException {
+        // Given: the last unit is reserved, then cancelled while other requests compete for it
+        String itemId = insertItem(1);
+        LocalDateTime reservationDate = LocalDateTime.now().plusDays(3);
+        persistenceService.processReservationRequest(reservationRequest(Map.of(itemId, 1), reservationDate), UUID.randomUUID());
+        String confirmationNumber = jdbcTemplate.queryForObject(
+                "SELECT confirmation_number FROM reservation_items WHERE inventory_item_id = ?", String.class, itemId);
+        List<Runnable> tasks = new ArrayList<>();
+        CancellationRequestedEvent cancellation =
+                new CancellationRequestedEvent(UUID.randomUUID(), confirmationNumber, LocalDateTime.now());
+        tasks.add(() -> persistenceService.processCancellationRequest(cancellation, UUID.randomUUID()));
+        for (int i = 0; i < THREADS * 2; i++) {
+            ReservationRequestedEvent event = reservationRequest(Map.of(itemId, 1), reservationDate);
+            tasks.add(() -> persistenceService.processReservationRequest(event, UUID.randomUUID()));
+        }
+
+        // When
+        List<Throwable> errors = runConcurrently(tasks);
+
+        // Then: the release is applied once, and the ledger agrees with the reservations
+        assertEquals(List.of(), errors);
+        long reserved = reservedQuantity(itemId, reservationDate.toLocalDate());
+        assertTrue(reserved <= 1, "oversold: " + reserved);
+        assertEquals(confirmedQuantity(itemId), reserved);
+    }
+}
@@ -0,0 +1,117 @@
+package com.edrs.persistence.service;
+
+import com.edrs.persistence.entity.ReservedQuantity;
+import com.edrs.persistence.mapper.InventoryItemMapper;
+import com.edrs.persistence.mapper.ReservationMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongCounterBuilder;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.Tracer;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.AdditionalMatchers.aryEq;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Tests of the reserved quantity ledger reads and maintenance, which run without a trace span.
+ */
+@ExtendWith(MockitoExtension.class)
+class PersistenceServiceLedgerTest {
+
+    @Mock
+    private ReservationMapper reservationMapper;
+
+    @Mock
+    private InventoryItemMapper inventoryItemMapper;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private EventProcessingService eventProcessingService;
+
+    @Mock
+    private Tracer tracer;
+
+    @Mock
+    private Meter meter;
+
+    private PersistenceService persistenceService;
+
+    @BeforeEach
+    void setUp() {
+        LongCounterBuilder counterBuilder = mock(LongCounterBuilder.class);
+        when(meter.counterBuilder(anyString())).thenReturn(counterBuilder);
+        when(counterBuilder.setDescription(anyString())).thenReturn(counterBuilder);
+        when(counterBuilder.build()).thenReturn(mock(LongCounter.class));
+        persistenceService = new PersistenceService(
+                reservationMapper,
+                inventoryItemMapper,
+                outboxService,
+                objectMapper,
+                eventProcessingService,
+                tracer,
+                meter
+        );
+    }
+
+    @Test
+    void testRebuildReservedQuantityLedger() {
+        // Given
+        when(reservationMapper.rebuildReservedQuantityLedger()).thenReturn(3);
+
+        // When
+        int rows = persistenceService.rebuildReservedQuantityLedger();
+
+        // Then
+        assertEquals(3, rows);
+        var inOrder = inOrder(reservationMapper);
+        inOrder.verify(reservationMapper).lockReservedQuantityLedger();
+        inOrder.verify(reservationMapper).deleteReservedQuantityLedger();
+        inOrder.verify(reservationMapper).rebuildReservedQuantityLedger();
+    }
+
+    @Test
+    void testSumReservedQuantitiesByItemAndDay() {
+        // Given
+        LocalDate start = LocalDate.of(2025, 10, 1);
+        LocalDate bucket = LocalDate.of(2026, 10, 1);
+        LocalDate end = LocalDate.of(2026, 10, 7);
+        List<ReservedQuantity> rows = List.of(
+                new ReservedQuantity("item1", bucket, 3L),
+                new ReservedQuantity("item1", end, 1L));
+        when(reservationMapper.sumReservedQuantitiesByItemAndDay(
+                aryEq(new String[]{"item1", "item2"}), eq(start), eq(bucket), eq(end))).thenReturn(rows);
+
+        // When
+        List<ReservedQuantity> result = persistenceService.sumReservedQuantitiesByItemAndDay(
+                List.of("item1", "item2"), start, bucket, end);
+
+        // Then
+        assertSame(rows, result);
+    }
+
+    @Test
+    void testSumReservedQuantitiesByItemAndDay_NoItems() {
+        // When
+        List<ReservedQuantity> result = persistenceService.sumReservedQuantitiesByItemAndDay(
+                List.of(), LocalDate.now(), LocalDate.now(), LocalDate.now());
+
+        // Then
+        assertTrue(result.isEmpty());
+        verifyNoInteractions(reservationMapper);
+    }
+}
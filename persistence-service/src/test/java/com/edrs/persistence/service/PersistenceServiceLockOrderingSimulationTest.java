@@ -0,0 +1,223 @@
+package com.edrs.persistence.service;
+
+import com.edrs.common.events.ReservationRequestedEvent;
+import com.edrs.persistence.entity.ItemAvailability;
+import com.edrs.persistence.mapper.InventoryItemMapper;
+import com.edrs.persistence.mapper.ReservationMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import io.opentelemetry.api.metrics.LongCounter;
+import io.opentelemetry.api.metrics.LongCounterBuilder;
+import io.opentelemetry.api.metrics.Meter;
+import io.opentelemetry.api.trace.Span;
+import io.opentelemetry.api.trace.SpanBuilder;
+import io.opentelemetry.api.trace.Tracer;
+import io.opentelemetry.context.Scope;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.TreeSet;
+import java.util.UUID;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.locks.ReentrantLock;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+/**
+ * Unit test of the service's call order under concurrency: requests run against an in-memory ledger
+ * fake that follows the row-locking contract of lockItemAvailabilityOnDate (rows locked in item id
+ * order until the transaction ends), and the ledger increment must happen while those locks are held.
+ * It cannot catch wrong SQL; {@link PersistenceServiceConcurrencyPostgresTest} runs the same races
+ * against PostgreSQL.
+ */
+@ExtendWith(MockitoExtension.class)
+class PersistenceServiceLockOrderingSimulationTest {
+
+    private static final int THREADS = 16;
+
+    @Mock
+    private ReservationMapper reservationMapper;
+
+    @Mock
+    private InventoryItemMapper inventoryItemMapper;
+
+    @Mock
+    private OutboxService outboxService;
+
+    @Mock
+    private ObjectMapper objectMapper;
+
+    @Mock
+    private EventProcessingService eventProcessingService;
+
+    @Mock
+    private Tracer tracer;
+
+    @Mock
+    private Meter meter;
+
+    private PersistenceService persistenceService;
+
+    private final Map<String, Integer> availableQuantities = new ConcurrentHashMap<>();
+    private final Map<String, Long> reservedQuantities = new ConcurrentHashMap<>();
+    private final Map<String, ReentrantLock> rowLocks = new ConcurrentHashMap<>();
+    private final ThreadLocal<List<ReentrantLock>> heldLocks = ThreadLocal.withInitial(ArrayList::new);
+
+    @BeforeEach
+    void setUp() throws Exception {
+        SpanBuilder spanBuilder = mock(SpanBuilder.class);
+        Span span = mock(Span.class);
+        when(tracer.spanBuilder(anyString())).thenReturn(spanBuilder);
+        lenient().when(spanBuilder.setAttribute(anyString(), anyString())).thenReturn(spanBuilder);
+        lenient().when(spanBuilder.setAttribute(anyString(), anyLong())).thenReturn(spanBuilder);
+        lenient().when(spanBuilder.setParent(any())).thenReturn(spanBuilder);
+        when(spanBuilder.startSpan()).thenReturn(span);
+        when(span.makeCurrent()).thenReturn(mock(Scope.class));
+
+        LongCounterBuilder counterBuilder = mock(LongCounterBuilder.class);
+        when(meter.counterBuilder(anyString())).thenReturn(counterBuilder);
+        when(counterBuilder.setDescription(anyString())).thenReturn(counterBuilder);
+        when(counterBuilder.build()).thenReturn(mock(LongCounter.class));
+
+        when(eventProcessingService.claimEvent(any(), any(), anyString())).thenReturn(true);
+        when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+        when(reservationMapper.lockItemAvailabilityOnDate(anyCollection(), any())).thenAnswer(invocation ->
+                lockRows(invocation.getArgument(0)));
+        lenient().doAnswer(invocation -> {
+            Map<String, Integer> itemQuantities = invocation.getArgument(0);
+            itemQuantities.forEach((itemId, quantity) -> {
+                assertTrue(rowLocks.get(itemId).isHeldByCurrentThread(), "ledger row not locked: " + itemId);
+                reservedQuantities.merge(itemId, (long) quantity, Long::sum);
+            });
+            return null;
+        }).when(reservationMapper).incrementReservedQuantities(anyMap(), any());
+
+        persistenceService = new PersistenceService(
+                reservationMapper,
+                inventoryItemMapper,
+                outboxService,
+                objectMapper,
+                eventProcessingService,
+                tracer,
+                meter
+        );
+    }
+
+    private List<ItemAvailability> lockRows(Collection<String> itemIds) throws InterruptedException {
+        List<ItemAvailability> rows = new ArrayList<>();
+        for (String itemId : new TreeSet<>(itemIds)) {
+            if (!availableQuantities.containsKey(itemId)) {
+                continue;
+            }
+            ReentrantLock lock = rowLocks.computeIfAbsent(itemId, id -> new ReentrantLock());
+            if (!lock.tryLock(5, TimeUnit.SECONDS)) {
+                throw new IllegalStateException("Timed out waiting for ledger row lock: " + itemId);
+            }
+            heldLocks.get().add(lock);
+            rows.add(new ItemAvailability(itemId, availableQuantities.get(itemId),
+                    reservedQuantities.getOrDefault(itemId, 0L)));
+        }
+        return rows;
+    }
+
+    /**
+     * Processes a request and then releases its row locks, as the transaction commit would.
+     */
+    private void processInTransaction(ReservationRequestedEvent event) {
+        try {
+            persistenceService.processReservationRequest(event, UUID.randomUUID());
+        } finally {
+            heldLocks.get().forEach(ReentrantLock::unlock);
+            heldLocks.remove();
+        }
+    }
+
+    private int runConcurrently(List<ReservationRequestedEvent> events) throws InterruptedException {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        CountDownLatch done = new CountDownLatch(events.size());
+        AtomicInteger errors = new AtomicInteger();
+        for (ReservationRequestedEvent event : events) {
+            executor.submit(() -> {
+                try {
+                    start.await();
+                    processInTransaction(event);
+                } catch (Exception e) {
+                    errors.incrementAndGet();
+                } finally {
+                    done.countDown();
+                }
+            });
+        }
+        start.countDown();
+        assertTrue(done.await(30, TimeUnit.SECONDS));
+        executor.shutdown();
+        return errors.get();
+    }
+
+    @Test
+    void testConcurrentReservations_SingleUnitItem_NoOversell() throws InterruptedException {
+        // Given: item3 has a single unit and every request wants it on the same day
+        availableQuantities.put("item3", 1);
+        LocalDateTime reservationDate = LocalDateTime.now().plusDays(1);
+        List<ReservationRequestedEvent> events = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            events.add(new ReservationRequestedEvent(
+                    UUID.randomUUID(), "user" + i, Map.of("item3", 1), reservationDate, LocalDateTime.now()));
+        }
+
+        // When
+        int errors = runConcurrently(events);
+
+        // Then: exactly one reservation wins and the rest are rejected
+        assertEquals(0, errors);
+        assertEquals(1L, reservedQuantities.get("item3"));
+        verify(outboxService, times(1)).enqueue(eq("reservation-created"), anyString(), anyString());
+        verify(outboxService, times(events.size() - 1)).enqueue(eq("reservation-failed"), anyString(), anyString());
+    }
+
+    @Test
+    void testConcurrentReservations_MultiItemOppositeOrder_NoOversellOrDeadlock() throws InterruptedException {
+        // Given: requests name the same two items in opposite orders
+        availableQuantities.put("item1", 5);
+        availableQuantities.put("item2", 5);
+        LocalDateTime reservationDate = LocalDateTime.now().plusDays(1);
+        List<ReservationRequestedEvent> events = new ArrayList<>();
+        for (int i = 0; i < THREADS * 4; i++) {
+            Map<String, Integer> itemQuantities = new LinkedHashMap<>();
+            if (i % 2 == 0) {
+                itemQuantities.put("item1", 1);
+                itemQuantities.put("item2", 1);
+            } else {
+                itemQuantities.put("item2", 1);
+                itemQuantities.put("item1", 1);
+            }
+            events.add(new ReservationRequestedEvent(
+                    UUID.randomUUID(), "user" + i, itemQuantities, reservationDate, LocalDateTime.now()));
+        }
+
+        // When
+        int errors = runConcurrently(events);
+
+        // Then: capacity is filled exactly, never exceeded, and no request timed out on a lock
+        assertEquals(0, errors);
+        assertEquals(5L, reservedQuantities.get("item1"));
+        assertEquals(5L, reservedQuantities.get("item2"));
+        verify(outboxService, times(5)).enqueue(eq("reservation-created"), anyString(), anyString());
+    }
+}
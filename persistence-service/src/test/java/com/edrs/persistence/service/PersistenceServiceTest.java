@@ -2,12 +2,14 @@ package com.edrs.persistence.service;
 
 import com.edrs.common.events.CancellationRequestedEvent;
 import com.edrs.common.events.CancellationSuccessfulEvent;
+import com.edrs.common.events.InventoryPersistedEvent;
 import com.edrs.common.events.InventoryReceivedEvent;
 import com.edrs.common.events.ReservationCreatedEvent;
 import com.edrs.common.events.ReservationFailedEvent;
 import com.edrs.common.events.ReservationRequestedEvent;
-import com.edrs.persistence.entity.InventoryItem;
+import com.edrs.persistence.entity.ItemAvailability;
 import com.edrs.persistence.entity.Reservation;
+import com.edrs.persistence.entity.ReservationItem;
 import com.edrs.persistence.mapper.InventoryItemMapper;
 import com.edrs.persistence.mapper.ReservationMapper;
 import io.opentelemetry.api.metrics.LongCounter;
@@ -27,8 +29,6 @@ import org.mockito.ArgumentCaptor;
 import org.mockito.Mock;
 import org.mockito.MockedStatic;
 import org.mockito.junit.jupiter.MockitoExtension;
-import org.springframework.kafka.core.KafkaTemplate;
-import org.springframework.kafka.support.SendResult;
 
 import java.time.LocalDateTime;
 import java.util.Arrays;
@@ -36,7 +36,6 @@ import java.util.HashMap;
 import java.util.List;
 import java.util.Map;
 import java.util.UUID;
-import java.util.concurrent.CompletableFuture;
 
 import static org.junit.jupiter.api.Assertions.*;
 import static org.mockito.ArgumentMatchers.*;
@@ -52,7 +51,7 @@ class PersistenceServiceTest {
     private InventoryItemMapper inventoryItemMapper;
 
     @Mock
-    private KafkaTemplate<String, String> kafkaTemplate;
+    private OutboxService outboxService;
 
     @Mock
     private ObjectMapper objectMapper;
@@ -138,7 +137,7 @@ class PersistenceServiceTest {
         persistenceService = new PersistenceService(
                 reservationMapper,
                 inventoryItemMapper,
-                kafkaTemplate,
+                outboxService,
                 objectMapper,
                 eventProcessingService,
                 tracer,
@@ -161,34 +160,22 @@ class PersistenceServiceTest {
         ReservationRequestedEvent event = new ReservationRequestedEvent(
                 correlationId, userId, inventoryItemQuantities, reservationDate, LocalDateTime.now());
 
-        // Mock inventory items with available quantity
-        InventoryItem item1 = new InventoryItem();
-        item1.setId("item1");
-        item1.setAvailableQuantity(10);
-        InventoryItem item2 = new InventoryItem();
-        item2.setId("item2");
-        item2.setAvailableQuantity(5);
+        // Mock inventory availability (base quantity, nothing reserved yet)
+        List<ItemAvailability> availability = Arrays.asList(
+                new ItemAvailability("item1", 10, 0L),
+                new ItemAvailability("item2", 5, 0L));
 
         String eventPayload = "{\"correlationId\":\"" + correlationId + "\"}";
-        when(eventProcessingService.isEventProcessed(eventId)).thenReturn(false);
+        when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
         when(objectMapper.writeValueAsString(event)).thenReturn(eventPayload);
-        when(inventoryItemMapper.findById("item1")).thenReturn(item1);
-        when(inventoryItemMapper.findById("item2")).thenReturn(item2);
-        when(reservationMapper.sumConfirmedReservationQuantitiesForItemOnDate("item1", reservationDate)).thenReturn(0L);
-        when(reservationMapper.sumConfirmedReservationQuantitiesForItemOnDate("item2", reservationDate)).thenReturn(0L);
+        when(reservationMapper.lockItemAvailabilityOnDate(inventoryItemQuantities.keySet(), reservationDate)).thenReturn(availability);
         doNothing().when(reservationMapper).insert(any(Reservation.class));
-        doNothing().when(reservationMapper).insertReservationItem(anyString(), anyString(), anyInt());
-
-        @SuppressWarnings("unchecked")
-        SendResult<String, String> mockSendResult = mock(SendResult.class);
-        CompletableFuture<SendResult<String, String>> future = CompletableFuture.completedFuture(mockSendResult);
-        lenient().when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(future);
+        doNothing().when(reservationMapper).insertReservationItems(anyString(), anyMap());
 
         // When
         persistenceService.processReservationRequest(event, eventId);
 
         // Then
-        verify(eventProcessingService).isEventProcessed(eventId);
         verify(eventProcessingService).logEvent(
                 eq(eventId),
                 eq(correlationId),
@@ -202,19 +189,52 @@ class PersistenceServiceTest {
         Reservation savedReservation = reservationCaptor.getValue();
         assertEquals(userId, savedReservation.getUserId());
         assertEquals("CONFIRMED", savedReservation.getStatus());
-        verify(reservationMapper, times(inventoryItemQuantities.size())).insertReservationItem(eq(savedReservation.getConfirmationNumber()), anyString(), anyInt());
-        verify(eventProcessingService).markEventAsProcessed(eventId, correlationId, "ReservationRequestedEvent");
+        verify(reservationMapper).insertReservationItems(savedReservation.getConfirmationNumber(), inventoryItemQuantities);
+        verify(reservationMapper).incrementReservedQuantities(inventoryItemQuantities, reservationDate);
+        verify(eventProcessingService).claimEvent(eventId, correlationId, "ReservationRequestedEvent");
         verify(eventProcessingService).markEventLogAsProcessed(eventId);
         
         ArgumentCaptor<String> topicCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> valueCaptor = ArgumentCaptor.forClass(String.class);
-        verify(kafkaTemplate).send(topicCaptor.capture(), keyCaptor.capture(), valueCaptor.capture());
+        verify(outboxService).enqueue(topicCaptor.capture(), keyCaptor.capture(), valueCaptor.capture());
         assertEquals("reservation-created", topicCaptor.getValue());
         assertEquals(correlationId.toString(), keyCaptor.getValue());
         }
     }
 
+    @Test
+    void testProcessReservationRequest_ItemNotFound() throws JsonProcessingException {
+        // Mock static Context.current() for this test
+        try (MockedStatic<Context> contextMock = mockStatic(Context.class)) {
+            contextMock.when(() -> Context.current()).thenReturn(mockContext);
+            lenient().when(mockContext.with(any(Span.class))).thenReturn(mockContext);
+
+            // Given: item2 is absent from the availability result
+            Map<String, Integer> itemQuantities = new HashMap<>();
+            itemQuantities.put("item1", 1);
+            itemQuantities.put("item2", 1);
+            ReservationRequestedEvent event = new ReservationRequestedEvent(
+                    correlationId, "user123", itemQuantities, reservationDate, LocalDateTime.now());
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
+            when(objectMapper.writeValueAsString(event)).thenReturn("{}");
+            when(reservationMapper.lockItemAvailabilityOnDate(itemQuantities.keySet(), reservationDate))
+                    .thenReturn(List.of(new ItemAvailability("item1", 10, 0L)));
+            when(objectMapper.writeValueAsString(any(ReservationFailedEvent.class))).thenReturn("{}");
+
+            // When
+            persistenceService.processReservationRequest(event, eventId);
+
+            // Then
+            ArgumentCaptor<Object> eventCaptor = ArgumentCaptor.forClass(Object.class);
+            verify(objectMapper, times(2)).writeValueAsString(eventCaptor.capture());
+            ReservationFailedEvent failedEvent = (ReservationFailedEvent) eventCaptor.getAllValues().get(1);
+            assertEquals("Inventory item not found: item2", failedEvent.getReason());
+            verify(reservationMapper, never()).insert(any(Reservation.class));
+            verify(outboxService).enqueue(eq("reservation-failed"), eq(correlationId.toString()), anyString());
+        }
+    }
+
     @Test
     void testProcessReservationRequest_Idempotency() {
         // Mock static Context.current() for this test
@@ -227,16 +247,16 @@ class PersistenceServiceTest {
             itemQuantities.put("item1", 1);
             ReservationRequestedEvent event = new ReservationRequestedEvent(
                     correlationId, "user123", itemQuantities, reservationDate, LocalDateTime.now());
-            when(eventProcessingService.isEventProcessed(eventId)).thenReturn(true);
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(false);
 
             // When
             persistenceService.processReservationRequest(event, eventId);
 
             // Then
-            verify(eventProcessingService).isEventProcessed(eventId);
+            verify(eventProcessingService).claimEvent(eq(eventId), any(), anyString());
             verify(eventProcessingService, never()).logEvent(any(), any(), any(), any(), any(), any());
             verify(reservationMapper, never()).insert(any(Reservation.class));
-            verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+            verify(outboxService, never()).enqueue(anyString(), anyString(), anyString());
         }
     }
 
@@ -252,14 +272,14 @@ class PersistenceServiceTest {
             itemQuantities.put("item1", 1);
             ReservationRequestedEvent event = new ReservationRequestedEvent(
                     correlationId, "user123", itemQuantities, reservationDate, LocalDateTime.now());
-            when(eventProcessingService.isEventProcessed(eventId)).thenReturn(false);
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
             when(objectMapper.writeValueAsString(event)).thenThrow(new JsonProcessingException("JSON error") {});
 
             // When/Then
             assertThrows(RuntimeException.class, () -> 
                     persistenceService.processReservationRequest(event, eventId));
             
-            verify(eventProcessingService).isEventProcessed(eventId);
+            verify(eventProcessingService).claimEvent(eq(eventId), any(), anyString());
             verify(reservationMapper, never()).insert(any(Reservation.class));
         }
     }
@@ -282,22 +302,21 @@ class PersistenceServiceTest {
 
         String eventPayload = "{\"confirmationNumber\":\"" + confirmationNumber + "\"}";
         String cancellationEventJson = "{\"confirmationNumber\":\"" + confirmationNumber + "\"}";
-        when(eventProcessingService.isEventProcessed(eventId)).thenReturn(false);
+        when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
         when(objectMapper.writeValueAsString(event)).thenReturn(eventPayload);
         when(objectMapper.writeValueAsString(any(CancellationSuccessfulEvent.class))).thenReturn(cancellationEventJson);
         when(reservationMapper.findByConfirmationNumber(confirmationNumber)).thenReturn(reservation);
         doNothing().when(reservationMapper).update(any(Reservation.class));
-
-        @SuppressWarnings("unchecked")
-        SendResult<String, String> mockSendResult = mock(SendResult.class);
-        CompletableFuture<SendResult<String, String>> future = CompletableFuture.completedFuture(mockSendResult);
-        lenient().when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(future);
+        ReservationItem reservationItem = new ReservationItem();
+        reservationItem.setConfirmationNumber(confirmationNumber);
+        reservationItem.setInventoryItemId("item1");
+        reservationItem.setQuantity(2);
+        when(reservationMapper.findReservationItems(confirmationNumber)).thenReturn(List.of(reservationItem));
 
         // When
         persistenceService.processCancellationRequest(event, eventId);
 
         // Then
-        verify(eventProcessingService).isEventProcessed(eventId);
         verify(eventProcessingService).logEvent(
                 eq(eventId),
                 eq(correlationId),
@@ -310,9 +329,81 @@ class PersistenceServiceTest {
         ArgumentCaptor<Reservation> updateCaptor = ArgumentCaptor.forClass(Reservation.class);
         verify(reservationMapper).update(updateCaptor.capture());
         assertEquals("CANCELLED", updateCaptor.getValue().getStatus());
-        verify(eventProcessingService).markEventAsProcessed(eventId, correlationId, "CancellationRequestedEvent");
+        verify(reservationMapper).decrementReservedQuantities(eq(confirmationNumber), any());
+        verify(eventProcessingService).claimEvent(eventId, correlationId, "CancellationRequestedEvent");
         verify(eventProcessingService).markEventLogAsProcessed(eventId);
-        verify(kafkaTemplate).send(eq("cancellation-successful"), eq(correlationId.toString()), anyString());
+        ArgumentCaptor<Object> serializedCaptor = ArgumentCaptor.forClass(Object.class);
+        verify(objectMapper, atLeastOnce()).writeValueAsString(serializedCaptor.capture());
+        CancellationSuccessfulEvent successfulEvent = serializedCaptor.getAllValues().stream()
+                .filter(CancellationSuccessfulEvent.class::isInstance)
+                .map(CancellationSuccessfulEvent.class::cast)
+                .findFirst()
+                .orElseThrow();
+        assertEquals(List.of("item1"), successfulEvent.getInventoryItemIds());
+        verify(outboxService).enqueue(eq("cancellation-successful"), eq(correlationId.toString()), anyString());
+        }
+    }
+
+    @Test
+    void testProcessCancellationRequest_LogsRawPayloadWithoutReserializing() throws JsonProcessingException {
+        try (MockedStatic<Context> contextMock = mockStatic(Context.class)) {
+            contextMock.when(() -> Context.current()).thenReturn(mockContext);
+            lenient().when(mockContext.with(any(Span.class))).thenReturn(mockContext);
+
+            // Given
+            String confirmationNumber = "CONF-123";
+            CancellationRequestedEvent event = new CancellationRequestedEvent(
+                    correlationId, confirmationNumber, LocalDateTime.now());
+            Reservation reservation = new Reservation();
+            reservation.setConfirmationNumber(confirmationNumber);
+            reservation.setUserId("user123");
+            reservation.setStatus("CONFIRMED");
+            String rawPayload = "{\"confirmationNumber\": \"" + confirmationNumber + "\"}";
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
+            when(objectMapper.writeValueAsString(any(CancellationSuccessfulEvent.class))).thenReturn("{}");
+            when(reservationMapper.findByConfirmationNumber(confirmationNumber)).thenReturn(reservation);
+
+            // When
+            persistenceService.processCancellationRequest(event, eventId, rawPayload);
+
+            // Then
+            verify(eventProcessingService).logEvent(
+                    eq(eventId),
+                    eq(correlationId),
+                    eq("CancellationRequestedEvent"),
+                    eq("1.0"),
+                    eq("reservation-service"),
+                    eq(rawPayload)
+            );
+            verify(objectMapper, never()).writeValueAsString(event);
+        }
+    }
+
+    @Test
+    void testProcessCancellationRequest_AlreadyCancelled() throws JsonProcessingException {
+        // Mock static Context.current() for this test
+        try (MockedStatic<Context> contextMock = mockStatic(Context.class)) {
+            contextMock.when(() -> Context.current()).thenReturn(mockContext);
+            lenient().when(mockContext.with(any(Span.class))).thenReturn(mockContext);
+
+            // Given
+            String confirmationNumber = "CONF-123";
+            CancellationRequestedEvent event = new CancellationRequestedEvent(
+                    correlationId, confirmationNumber, LocalDateTime.now());
+            Reservation reservation = new Reservation();
+            reservation.setConfirmationNumber(confirmationNumber);
+            reservation.setUserId("user123");
+            reservation.setStatus("CANCELLED");
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
+            when(objectMapper.writeValueAsString(any())).thenReturn("{}");
+            when(reservationMapper.findByConfirmationNumber(confirmationNumber)).thenReturn(reservation);
+
+            // When
+            persistenceService.processCancellationRequest(event, eventId);
+
+            // Then - the ledger is not decremented a second time
+            verify(reservationMapper).update(any(Reservation.class));
+            verify(reservationMapper, never()).decrementReservedQuantities(anyString(), any());
         }
     }
 
@@ -329,7 +420,7 @@ class PersistenceServiceTest {
                     correlationId, confirmationNumber, LocalDateTime.now());
 
             String eventPayload = "{\"confirmationNumber\":\"" + confirmationNumber + "\"}";
-            when(eventProcessingService.isEventProcessed(eventId)).thenReturn(false);
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
             when(objectMapper.writeValueAsString(event)).thenReturn(eventPayload);
             when(reservationMapper.findByConfirmationNumber(confirmationNumber)).thenReturn(null);
 
@@ -337,10 +428,10 @@ class PersistenceServiceTest {
             assertThrows(RuntimeException.class, () -> 
                     persistenceService.processCancellationRequest(event, eventId));
             
-            verify(eventProcessingService).isEventProcessed(eventId);
+            verify(eventProcessingService).claimEvent(eq(eventId), any(), anyString());
             verify(reservationMapper).findByConfirmationNumber(confirmationNumber);
             verify(reservationMapper, never()).update(any(Reservation.class));
-            verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+            verify(outboxService, never()).enqueue(anyString(), anyString(), anyString());
         }
     }
 
@@ -354,15 +445,15 @@ class PersistenceServiceTest {
             // Given
             CancellationRequestedEvent event = new CancellationRequestedEvent(
                     correlationId, "CONF-123", LocalDateTime.now());
-            when(eventProcessingService.isEventProcessed(eventId)).thenReturn(true);
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(false);
 
             // When
             persistenceService.processCancellationRequest(event, eventId);
 
             // Then
-            verify(eventProcessingService).isEventProcessed(eventId);
+            verify(eventProcessingService).claimEvent(eq(eventId), any(), anyString());
             verify(reservationMapper, never()).findByConfirmationNumber(anyString());
-            verify(kafkaTemplate, never()).send(anyString(), anyString(), anyString());
+            verify(outboxService, never()).enqueue(anyString(), anyString(), anyString());
         }
     }
 
@@ -382,17 +473,13 @@ class PersistenceServiceTest {
                     correlationId, Arrays.asList(record), LocalDateTime.now());
 
             String eventPayload = "{\"inventoryItemId\":\"" + itemId + "\"}";
-            when(eventProcessingService.isEventProcessed(eventId)).thenReturn(false);
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
             when(objectMapper.writeValueAsString(event)).thenReturn(eventPayload);
-            when(inventoryItemMapper.findById(itemId)).thenReturn(null);
-            when(inventoryItemMapper.existsById(itemId)).thenReturn(false);
-            doNothing().when(inventoryItemMapper).insert(any(InventoryItem.class));
 
             // When
             persistenceService.processInventoryReceived(event, eventId);
 
             // Then
-            verify(eventProcessingService).isEventProcessed(eventId);
             verify(eventProcessingService).logEvent(
                     eq(eventId),
                     eq(correlationId),
@@ -401,55 +488,45 @@ class PersistenceServiceTest {
                     eq("inventory-service"),
                     eq(eventPayload)
             );
-            verify(inventoryItemMapper).findById(itemId);
-            ArgumentCaptor<InventoryItem> itemCaptor = ArgumentCaptor.forClass(InventoryItem.class);
-            verify(inventoryItemMapper).insert(itemCaptor.capture());
-            InventoryItem savedItem = itemCaptor.getValue();
-            assertEquals(itemId, savedItem.getId());
-            assertEquals(quantity, savedItem.getAvailableQuantity());
-            assertEquals("Test Item", savedItem.getName());
-            verify(eventProcessingService).markEventAsProcessed(eventId, correlationId, "InventoryReceivedEvent");
+            verify(inventoryItemMapper).upsertReceived(
+                    new String[] {itemId},
+                    new Integer[] {quantity},
+                    new String[] {"Test Item"},
+                    new String[] {"Test Description"},
+                    new String[] {"Test Category"});
+            verify(inventoryItemMapper, never()).findById(anyString());
+            verify(eventProcessingService).claimEvent(eventId, correlationId, "InventoryReceivedEvent");
             verify(eventProcessingService).markEventLogAsProcessed(eventId);
         }
     }
 
     @Test
-    void testProcessInventoryReceived_Success_ExistingItem() throws JsonProcessingException {
+    void testProcessInventoryReceived_RecordWithoutMetadata_KeepsExistingMetadata() throws JsonProcessingException {
         // Mock static Context.current() for this test
         try (MockedStatic<Context> contextMock = mockStatic(Context.class)) {
             contextMock.when(() -> Context.current()).thenReturn(mockContext);
             lenient().when(mockContext.with(any(Span.class))).thenReturn(mockContext);
             
-            // Given
+            // Given: a record with a quantity only
             String itemId = "item1";
-            int existingQuantity = 5;
-        int additionalQuantity = 10;
-        
-        InventoryItem existingItem = new InventoryItem();
-        existingItem.setId(itemId);
-        existingItem.setName("Laptop");
-        existingItem.setAvailableQuantity(existingQuantity);
-
-        InventoryReceivedEvent.InventoryReceiveRecord record = 
-                new InventoryReceivedEvent.InventoryReceiveRecord(itemId, additionalQuantity, "Test Item", "Test Description", "Test Category");
-        InventoryReceivedEvent event = new InventoryReceivedEvent(
-                correlationId, Arrays.asList(record), LocalDateTime.now());
+            InventoryReceivedEvent.InventoryReceiveRecord record = 
+                    new InventoryReceivedEvent.InventoryReceiveRecord(itemId, 10, null, null, null);
+            InventoryReceivedEvent event = new InventoryReceivedEvent(
+                    correlationId, Arrays.asList(record), LocalDateTime.now());
 
-        String eventPayload = "{\"inventoryItemId\":\"" + itemId + "\"}";
-        when(eventProcessingService.isEventProcessed(eventId)).thenReturn(false);
-        when(objectMapper.writeValueAsString(event)).thenReturn(eventPayload);
-        when(inventoryItemMapper.findById(itemId)).thenReturn(existingItem);
-        when(inventoryItemMapper.existsById(itemId)).thenReturn(true);
-        doNothing().when(inventoryItemMapper).update(any(InventoryItem.class));
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
+            when(objectMapper.writeValueAsString(event)).thenReturn("{}");
 
-        // When
-        persistenceService.processInventoryReceived(event, eventId);
+            // When
+            persistenceService.processInventoryReceived(event, eventId);
 
-        // Then
-        verify(inventoryItemMapper).findById(itemId);
-        ArgumentCaptor<InventoryItem> updateCaptor = ArgumentCaptor.forClass(InventoryItem.class);
-        verify(inventoryItemMapper).update(updateCaptor.capture());
-        assertEquals(existingQuantity + additionalQuantity, updateCaptor.getValue().getAvailableQuantity());
+            // Then: null metadata is passed through so the upsert keeps existing values (or applies defaults)
+            verify(inventoryItemMapper).upsertReceived(
+                    new String[] {itemId},
+                    new Integer[] {10},
+                    new String[] {null},
+                    new String[] {null},
+                    new String[] {null});
         }
     }
 
@@ -459,26 +536,84 @@ class PersistenceServiceTest {
         try (MockedStatic<Context> contextMock = mockStatic(Context.class)) {
             contextMock.when(() -> Context.current()).thenReturn(mockContext);
             lenient().when(mockContext.with(any(Span.class))).thenReturn(mockContext);
-        // Given
+        // Given: item2 is received twice, the second record without a name
         InventoryReceivedEvent.InventoryReceiveRecord record1 = 
-                new InventoryReceivedEvent.InventoryReceiveRecord("item1", 10, "Item 1", "Description 1", "Category 1");
-        InventoryReceivedEvent.InventoryReceiveRecord record2 = 
                 new InventoryReceivedEvent.InventoryReceiveRecord("item2", 5, "Item 2", "Description 2", "Category 2");
+        InventoryReceivedEvent.InventoryReceiveRecord record2 = 
+                new InventoryReceivedEvent.InventoryReceiveRecord("item1", 10, "Item 1", "Description 1", "Category 1");
+        InventoryReceivedEvent.InventoryReceiveRecord record3 = 
+                new InventoryReceivedEvent.InventoryReceiveRecord("item2", 3, null, "Description 2b", null);
         InventoryReceivedEvent event = new InventoryReceivedEvent(
-                correlationId, Arrays.asList(record1, record2), LocalDateTime.now());
+                correlationId, Arrays.asList(record1, record2, record3), LocalDateTime.now());
 
         String eventPayload = "{}";
-        when(eventProcessingService.isEventProcessed(eventId)).thenReturn(false);
+        when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
         when(objectMapper.writeValueAsString(event)).thenReturn(eventPayload);
-        when(inventoryItemMapper.findById(anyString())).thenReturn(null);
-        doNothing().when(inventoryItemMapper).insert(any(InventoryItem.class));
 
         // When
         persistenceService.processInventoryReceived(event, eventId);
 
-        // Then
-        verify(inventoryItemMapper, times(2)).findById(anyString());
-        verify(inventoryItemMapper, times(2)).insert(any(InventoryItem.class));
+        // Then: one statement, one row per item, sorted by id
+        verify(inventoryItemMapper).upsertReceived(
+                new String[] {"item1", "item2"},
+                new Integer[] {10, 8},
+                new String[] {"Item 1", "Item 2"},
+                new String[] {"Description 1", "Description 2b"},
+                new String[] {"Category 1", "Category 2"});
+        }
+    }
+
+    @Test
+    void testProcessInventoryReceived_BulkImportChunk_PublishesInventoryPersisted() throws JsonProcessingException {
+        // Mock static Context.current() for this test
+        try (MockedStatic<Context> contextMock = mockStatic(Context.class)) {
+            contextMock.when(() -> Context.current()).thenReturn(mockContext);
+            lenient().when(mockContext.with(any(Span.class))).thenReturn(mockContext);
+            
+            // Given: chunk 2 of a bulk import
+            UUID bulkImportId = UUID.randomUUID();
+            InventoryReceivedEvent.InventoryReceiveRecord record = 
+                    new InventoryReceivedEvent.InventoryReceiveRecord("item1", 10, null, null, null);
+            InventoryReceivedEvent event = new InventoryReceivedEvent(
+                    bulkImportId, Arrays.asList(record), LocalDateTime.now(), bulkImportId, 2, true);
+
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
+            when(objectMapper.writeValueAsString(event)).thenReturn("{}");
+            when(objectMapper.writeValueAsString(any(InventoryPersistedEvent.class))).thenReturn("{\"chunkIndex\":2}");
+
+            // When
+            persistenceService.processInventoryReceived(event, eventId);
+
+            // Then
+            verify(outboxService).enqueue("inventory-persisted", bulkImportId.toString(), "{\"chunkIndex\":2}");
+            verify(objectMapper).writeValueAsString(argThat((Object value) ->
+                    value instanceof InventoryPersistedEvent persisted
+                            && bulkImportId.equals(persisted.getBulkImportId())
+                            && Integer.valueOf(2).equals(persisted.getChunkIndex())
+                            && persisted.getRecordsPersisted() == 1));
+        }
+    }
+
+    @Test
+    void testProcessInventoryReceived_WithoutBulkImport_PublishesNothing() throws JsonProcessingException {
+        // Mock static Context.current() for this test
+        try (MockedStatic<Context> contextMock = mockStatic(Context.class)) {
+            contextMock.when(() -> Context.current()).thenReturn(mockContext);
+            lenient().when(mockContext.with(any(Span.class))).thenReturn(mockContext);
+            
+            // Given
+            InventoryReceivedEvent.InventoryReceiveRecord record = 
+                    new InventoryReceivedEvent.InventoryReceiveRecord("item1", 10, null, null, null);
+            InventoryReceivedEvent event = new InventoryReceivedEvent(
+                    correlationId, Arrays.asList(record), LocalDateTime.now());
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
+            when(objectMapper.writeValueAsString(event)).thenReturn("{}");
+
+            // When
+            persistenceService.processInventoryReceived(event, eventId);
+
+            // Then
+            verify(outboxService, never()).enqueue(anyString(), anyString(), anyString());
         }
     }
 
@@ -494,16 +629,14 @@ class PersistenceServiceTest {
                     new InventoryReceivedEvent.InventoryReceiveRecord("item1", 10, "Test Item", "Test Description", "Test Category");
             InventoryReceivedEvent event = new InventoryReceivedEvent(
                     correlationId, Arrays.asList(record), LocalDateTime.now());
-            when(eventProcessingService.isEventProcessed(eventId)).thenReturn(true);
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(false);
 
             // When
             persistenceService.processInventoryReceived(event, eventId);
 
             // Then
-            verify(eventProcessingService).isEventProcessed(eventId);
-            verify(inventoryItemMapper, never()).findById(anyString());
-            verify(inventoryItemMapper, never()).insert(any(InventoryItem.class));
-            verify(inventoryItemMapper, never()).update(any(InventoryItem.class));
+            verify(eventProcessingService).claimEvent(eq(eventId), any(), anyString());
+            verify(inventoryItemMapper, never()).upsertReceived(any(), any(), any(), any(), any());
         }
     }
 
@@ -520,9 +653,10 @@ class PersistenceServiceTest {
             InventoryReceivedEvent event = new InventoryReceivedEvent(
                     correlationId, Arrays.asList(record), LocalDateTime.now());
 
-            when(eventProcessingService.isEventProcessed(eventId)).thenReturn(false);
+            when(eventProcessingService.claimEvent(eq(eventId), any(), anyString())).thenReturn(true);
             when(objectMapper.writeValueAsString(event)).thenReturn("{}");
-            when(inventoryItemMapper.findById(anyString())).thenThrow(new RuntimeException("DB error"));
+            doThrow(new RuntimeException("DB error")).when(inventoryItemMapper)
+                    .upsertReceived(any(), any(), any(), any(), any());
 
             // When/Then
             assertThrows(RuntimeException.class, () -> 
@@ -540,11 +674,6 @@ class PersistenceServiceTest {
         String itemId = "limited-item";
         LocalDateTime futureDate = LocalDateTime.now().plusDays(7);
         
-        InventoryItem item = new InventoryItem();
-        item.setId(itemId);
-        item.setName("Limited Item");
-        item.setAvailableQuantity(1); // Only 1 available
-        
         // First reservation request - should succeed
         UUID firstCorrelationId = UUID.randomUUID();
         UUID firstEventId = UUID.randomUUID();
@@ -554,28 +683,22 @@ class PersistenceServiceTest {
                 firstCorrelationId, "user1", firstItemQuantities, futureDate, LocalDateTime.now());
         
         String firstEventPayload = "{\"correlationId\":\"" + firstCorrelationId + "\"}";
-        when(eventProcessingService.isEventProcessed(firstEventId)).thenReturn(false);
+        when(eventProcessingService.claimEvent(eq(firstEventId), any(), anyString())).thenReturn(true);
         when(objectMapper.writeValueAsString(firstEvent)).thenReturn(firstEventPayload);
-        when(inventoryItemMapper.findById(itemId)).thenReturn(item);
-        when(reservationMapper.sumConfirmedReservationQuantitiesForItemOnDate(itemId, futureDate))
-                .thenReturn(0L) // No existing reservations initially
-                .thenReturn(1L); // After first reservation, 1 is reserved
+        when(reservationMapper.lockItemAvailabilityOnDate(anyCollection(), eq(futureDate)))
+                .thenReturn(List.of(new ItemAvailability(itemId, 1, 0L))) // Only 1 available, no existing reservations initially
+                .thenReturn(List.of(new ItemAvailability(itemId, 1, 1L))); // After first reservation, 1 is reserved
         doNothing().when(reservationMapper).insert(any(Reservation.class));
-        doNothing().when(reservationMapper).insertReservationItem(anyString(), anyString(), anyInt());
+        doNothing().when(reservationMapper).insertReservationItems(anyString(), anyMap());
         when(objectMapper.writeValueAsString(any(ReservationCreatedEvent.class)))
                 .thenReturn("{\"confirmationNumber\":\"CONF-001\"}");
 
-        @SuppressWarnings("unchecked")
-        SendResult<String, String> mockSendResult = mock(SendResult.class);
-        CompletableFuture<SendResult<String, String>> future = CompletableFuture.completedFuture(mockSendResult);
-        lenient().when(kafkaTemplate.send(anyString(), anyString(), anyString())).thenReturn(future);
-
         // When: Process first reservation (should succeed)
         persistenceService.processReservationRequest(firstEvent, firstEventId);
 
         // Then: First reservation should succeed
         verify(reservationMapper).insert(any(Reservation.class));
-        verify(kafkaTemplate).send(eq("reservation-created"), eq(firstCorrelationId.toString()), anyString());
+        verify(outboxService).enqueue(eq("reservation-created"), eq(firstCorrelationId.toString()), anyString());
         
         // Now: Second reservation request for same item on same date - should fail
         UUID secondCorrelationId = UUID.randomUUID();
@@ -586,7 +709,7 @@ class PersistenceServiceTest {
                 secondCorrelationId, "user2", secondItemQuantities, futureDate, LocalDateTime.now());
         
         String secondEventPayload = "{\"correlationId\":\"" + secondCorrelationId + "\"}";
-        when(eventProcessingService.isEventProcessed(secondEventId)).thenReturn(false);
+        when(eventProcessingService.claimEvent(eq(secondEventId), any(), anyString())).thenReturn(true);
         when(objectMapper.writeValueAsString(secondEvent)).thenReturn(secondEventPayload);
         when(objectMapper.writeValueAsString(any(ReservationFailedEvent.class)))
                 .thenReturn("{\"reason\":\"Insufficient availability\"}");
@@ -596,14 +719,14 @@ class PersistenceServiceTest {
 
         // Then: Second reservation should fail
         verify(reservationMapper, times(1)).insert(any(Reservation.class)); // Only first one saved
-        verify(kafkaTemplate).send(eq("reservation-failed"), eq(secondCorrelationId.toString()), anyString());
+        verify(outboxService).enqueue(eq("reservation-failed"), eq(secondCorrelationId.toString()), anyString());
         
         ArgumentCaptor<String> topicCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> keyCaptor = ArgumentCaptor.forClass(String.class);
         ArgumentCaptor<String> valueCaptor = ArgumentCaptor.forClass(String.class);
         
         // Verify the failed event was published with correct reason
-        verify(kafkaTemplate, atLeastOnce()).send(topicCaptor.capture(), keyCaptor.capture(), valueCaptor.capture());
+        verify(outboxService, atLeastOnce()).enqueue(topicCaptor.capture(), keyCaptor.capture(), valueCaptor.capture());
         
         // Find the reservation-failed event
         List<String> topics = topicCaptor.getAllValues();
@@ -0,0 +1,44 @@
+package com.edrs.persistence.service;
+
+import org.junit.jupiter.api.Test;
+
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+
+class ProcessedEventCacheTest {
+
+    @Test
+    void testAdd_EvictsOldestWhenFull() {
+        // Given
+        ProcessedEventCache cache = new ProcessedEventCache(2);
+        UUID first = UUID.randomUUID();
+        UUID second = UUID.randomUUID();
+        UUID third = UUID.randomUUID();
+
+        // When
+        cache.add(first);
+        cache.add(second);
+        cache.add(second);
+        cache.add(third);
+
+        // Then
+        assertEquals(2, cache.size());
+        assertFalse(cache.contains(first));
+        assertTrue(cache.contains(second));
+        assertTrue(cache.contains(third));
+    }
+
+    @Test
+    void testAdd_DisabledWhenMaxSizeZero() {
+        // Given
+        ProcessedEventCache cache = new ProcessedEventCache(0);
+        UUID eventId = UUID.randomUUID();
+
+        // When
+        cache.add(eventId);
+
+        // Then
+        assertFalse(cache.contains(eventId));
+    }
+}
@@ -0,0 +1,149 @@
+package com.edrs.persistence.service;
+
+import com.edrs.common.events.ReservationRequestedEvent;
+import com.edrs.persistence.entity.EventLog;
+import com.edrs.persistence.mapper.EventLogMapper;
+import com.edrs.persistence.mapper.ProcessedEventMapper;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.extension.ExtendWith;
+import org.mockito.ArgumentCaptor;
+import org.mockito.Mock;
+import org.mockito.junit.jupiter.MockitoExtension;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.TransactionStatus;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.LocalDateTime;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.UUID;
+
+import static org.junit.jupiter.api.Assertions.*;
+import static org.mockito.ArgumentMatchers.*;
+import static org.mockito.Mockito.*;
+
+@ExtendWith(MockitoExtension.class)
+class ReservationBatchServiceTest {
+
+    @Mock
+    private PersistenceService persistenceService;
+
+    @Mock
+    private EventProcessingService eventProcessingService;
+
+    @Mock
+    private PlatformTransactionManager transactionManager;
+
+    @Mock
+    private TransactionStatus transactionStatus;
+
+    private ReservationBatchService reservationBatchService;
+
+    @BeforeEach
+    void setUp() {
+        when(transactionManager.getTransaction(any())).thenReturn(transactionStatus);
+        reservationBatchService = new ReservationBatchService(persistenceService, eventProcessingService, transactionManager);
+    }
+
+    private ReservationRequestedEvent newEvent() {
+        return new ReservationRequestedEvent(
+                UUID.randomUUID(), "user123", Map.of("item1", 1), LocalDateTime.now().plusDays(1), LocalDateTime.now());
+    }
+
+    @Test
+    void testProcessReservationRequestBatch_SkipsAlreadyProcessed() {
+        // Given
+        UUID processedId = UUID.randomUUID();
+        UUID newId = UUID.randomUUID();
+        Map<UUID, ReservationRequestedEvent> events = new LinkedHashMap<>();
+        events.put(processedId, newEvent());
+        events.put(newId, newEvent());
+        when(eventProcessingService.findProcessedEventIds(events.keySet())).thenReturn(Set.of(processedId));
+
+        // When
+        List<UUID> failed = reservationBatchService.processReservationRequestBatch(events);
+
+        // Then
+        assertTrue(failed.isEmpty());
+        verify(persistenceService, never()).processReservationRequest(any(), eq(processedId), any());
+        verify(persistenceService).processReservationRequest(events.get(newId), newId, null);
+    }
+
+    @Test
+    void testProcessReservationRequestBatch_FailureIsolated() {
+        // Given
+        UUID badId = UUID.randomUUID();
+        UUID goodId = UUID.randomUUID();
+        Map<UUID, ReservationRequestedEvent> events = new LinkedHashMap<>();
+        events.put(badId, newEvent());
+        events.put(goodId, newEvent());
+        when(eventProcessingService.findProcessedEventIds(events.keySet())).thenReturn(Set.of());
+        doThrow(new RuntimeException("DB error"))
+                .when(persistenceService).processReservationRequest(events.get(badId), badId, null);
+
+        // When
+        List<UUID> failed = reservationBatchService.processReservationRequestBatch(events);
+
+        // Then - the bad record is rolled back to its savepoint and the good one still runs
+        assertEquals(List.of(badId), failed);
+        verify(transactionManager).rollback(transactionStatus);
+        verify(persistenceService).processReservationRequest(events.get(goodId), goodId, null);
+        verify(transactionManager).commit(transactionStatus);
+    }
+
+    @Test
+    void testProcessReservationRequestBatch_FailedRecordLeavesNothingPendingAfterCommit() {
+        // Given: a real EventProcessingService with the asynchronous event log writer, and a
+        // record that fails after claiming and logging its event
+        ProcessedEventMapper processedEventMapper = mock(ProcessedEventMapper.class);
+        EventLogWriter eventLogWriter = mock(EventLogWriter.class);
+        ProcessedEventCache processedEventCache = new ProcessedEventCache(100);
+        EventProcessingService realEventProcessingService = new EventProcessingService(processedEventMapper,
+                mock(EventLogMapper.class), new ObjectMapper(), processedEventCache, eventLogWriter, "jsonb");
+        reservationBatchService = new ReservationBatchService(persistenceService, realEventProcessingService, transactionManager);
+        when(eventLogWriter.isEnabled()).thenReturn(true);
+        when(processedEventMapper.claim(any())).thenReturn(1);
+
+        UUID badId = UUID.randomUUID();
+        UUID goodId = UUID.randomUUID();
+        Map<UUID, ReservationRequestedEvent> events = new LinkedHashMap<>();
+        events.put(badId, newEvent());
+        events.put(goodId, newEvent());
+        when(processedEventMapper.findProcessedEventIds(events.keySet())).thenReturn(List.of());
+        doAnswer(invocation -> {
+            UUID eventId = invocation.getArgument(1);
+            realEventProcessingService.claimEvent(eventId, UUID.randomUUID(), "ReservationRequestedEvent");
+            realEventProcessingService.logEvent(eventId, UUID.randomUUID(), "ReservationRequestedEvent", "1.0",
+                    "reservation-service", "{}");
+            if (eventId.equals(badId)) {
+                throw new RuntimeException("DB error");
+            }
+            realEventProcessingService.markEventLogAsProcessed(eventId);
+            return null;
+        }).when(persistenceService).processReservationRequest(any(), any(), any());
+
+        TransactionSynchronizationManager.initSynchronization();
+        try {
+            // When
+            List<UUID> failed = reservationBatchService.processReservationRequestBatch(events);
+            TransactionSynchronizationManager.getSynchronizations().forEach(TransactionSynchronization::afterCommit);
+
+            // Then - only the committed record is logged and cached as processed
+            assertEquals(List.of(badId), failed);
+            ArgumentCaptor<EventLog> captor = ArgumentCaptor.forClass(EventLog.class);
+            verify(eventLogWriter).append(captor.capture());
+            assertEquals(goodId, captor.getValue().getEventId());
+            assertTrue(processedEventCache.contains(goodId));
+            assertFalse(processedEventCache.contains(badId));
+        } finally {
+            TransactionSynchronizationManager.getSynchronizations()
+                    .forEach(sync -> sync.afterCompletion(TransactionSynchronization.STATUS_COMMITTED));
+            TransactionSynchronizationManager.clearSynchronization();
+        }
+    }
+}
@@ -57,5 +57,24 @@ docker exec $KAFKA_CONTAINER kafka-topics --create \
   --replication-factor 1 \
   --if-not-exists
 
+docker exec $KAFKA_CONTAINER kafka-topics --create \
+  --bootstrap-server localhost:9092 \
+  --topic inventory-persisted \
+  --partitions 3 \
+  --replication-factor 1 \
+  --if-not-exists
+
+# Non-blocking retry and dead-letter topics for the persistence service listeners
+for topic in reservation-requested cancellation-requested inventory-received; do
+  for suffix in retry-0 retry-1 retry-2 dlt; do
+    docker exec $KAFKA_CONTAINER kafka-topics --create \
+      --bootstrap-server localhost:9092 \
+      --topic $topic-$suffix \
+      --partitions 3 \
+      --replication-factor 1 \
+      --if-not-exists
+  done
+done
+
 echo "Topics created. Listing all topics:"
 docker exec $KAFKA_CONTAINER kafka-topics --list --bootstrap-server localhost:9092